@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JenaLDPContainer#post(InputStream, String, String, String, boolean)}
+ * of a bug report to the root container: parsing, minting the URI, writing
+ * the graphs and committing. Each POST has its own slug, so the container
+ * grows but minting the URI doesn't get slower (see {@link MintURIBenchmark}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerPostBenchmark extends StoreBenchmark {
+	private JenaLDPContainer fContainer;
+	private byte[] fBug;
+	private long fCount;
+
+	@Override
+	protected void populate() {
+		fContainer = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, fStore);
+		fBug = createBug(1).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public String post() {
+		return fContainer.post(new ByteArrayInputStream(fBug), LDPConstants.CT_TEXT_TURTLE, null, "bug" + fCount++, false);
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures computing the ETag of a stored bug report, which every GET,
+ * conditional PUT and PATCH does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ETagBenchmark extends StoreBenchmark {
+	private static final String URI = "http://example.com/resources/bug1";
+
+	@Override
+	protected void populate() {
+		fStore.writeLock();
+		try {
+			fStore.putGraph(URI, createBugModel(URI, 1));
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+	}
+
+	@Benchmark
+	public String getETag() {
+		fStore.readLock();
+		try {
+			return JenaLDPRDFSource.createETag(fStore.getGraph(URI));
+		} finally {
+			fStore.end();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+/**
+ * Measures {@link TDBGraphStore#mintURI(String, String, String)} in a
+ * container that already has <code>members</code> resources named with its
+ * prefix, both for a POST without a slug, which counts up past them, and for
+ * one with an unused slug.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MintURIBenchmark extends StoreBenchmark {
+	private static final String CONTAINER = "http://example.com/resources/bugs";
+	private static final String PREFIX = TDBGraphStore.appendURISegment(CONTAINER, JenaLDPContainer.DEFAULT_RESOURCE_PREFIX);
+
+	@Param({ "10", "1000", "10000" })
+	public int members;
+
+	@Override
+	protected void populate() {
+		fStore.writeLock();
+		try {
+			for (int i = 1; i <= members; i++) {
+				final Model model = ModelFactory.createDefaultModel();
+				model.add(model.getResource(PREFIX + i), DCTerms.title, "Bug " + i);
+				fStore.putGraph(PREFIX + i, model);
+			}
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+	}
+
+	@Benchmark
+	public String mint() {
+		fStore.readLock();
+		try {
+			return fStore.mintURI(CONTAINER, PREFIX, null);
+		} finally {
+			fStore.end();
+		}
+	}
+
+	@Benchmark
+	public String mintSlug() {
+		fStore.readLock();
+		try {
+			return fStore.mintURI(CONTAINER, PREFIX, "crash-on-shutdown");
+		} finally {
+			fStore.end();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.QueryCache;
+import org.eclipse.lyo.ldp.server.jena.store.QueryResultCache;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Compares parsing a SPARQL query on every request with reusing a parse from
+ * the {@link QueryCache}, both on its own and as part of executing a typical
+ * dashboard query. The result cache is disabled so every execution runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + QueryResultCache.LDP_QUERY_CACHE_SIZE + "=0")
+@State(Scope.Benchmark)
+public class QueryParseBenchmark {
+	private static final String BASE = "http://example.com/resources/";
+
+	static final String QUERY =
+			"PREFIX dcterms: <http://purl.org/dc/terms/>\n" +
+			"PREFIX bt: <http://example.org/vocab/bugtracker#>\n" +
+			"SELECT ?bug ?title ?created WHERE {\n" +
+			"  ?bug a bt:Bug ;\n" +
+			"       dcterms:title ?title ;\n" +
+			"       dcterms:created ?created ;\n" +
+			"       bt:product $product .\n" +
+			"  OPTIONAL { ?bug bt:relatedBug ?related }\n" +
+			"  FILTER (regex(?title, \"crash\", \"i\"))\n" +
+			"}\n" +
+			"ORDER BY DESC(?created)\n" +
+			"LIMIT 20";
+
+	private TDBGraphStore fStore;
+	private QueryCache fCache;
+	private Map<String, Node> fBindings;
+
+	@Setup
+	public void setup() {
+		fStore = new TDBGraphStore();
+		fCache = new QueryCache();
+		fBindings = Collections.singletonMap("product", NodeFactory.createURI(BASE + "product1"));
+
+		fStore.writeLock();
+		try {
+			for (int i = 0; i < 200; i++) {
+				Model model = ModelFactory.createDefaultModel();
+				Resource bug = model.createResource(BASE + "bug" + i);
+				bug.addProperty(RDF.type, model.createResource("http://example.org/vocab/bugtracker#Bug"));
+				bug.addProperty(DCTerms.title, (i % 10 == 0 ? "Crash in " : "Problem with ") + "component " + i);
+				bug.addLiteral(DCTerms.created, model.createTypedLiteral(i));
+				bug.addProperty(model.createProperty("http://example.org/vocab/bugtracker#product"),
+						model.createResource(BASE + "product" + (i % 4)));
+				fStore.putGraph(bug.getURI(), model);
+			}
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+	}
+
+	@Benchmark
+	public Query parse() {
+		return QueryFactory.create(QUERY);
+	}
+
+	@Benchmark
+	public Query parseCached() {
+		return fCache.parse(QUERY);
+	}
+
+	@Benchmark
+	public Query bindCached() {
+		return QueryCache.bind(fCache.parse(QUERY), fBindings);
+	}
+
+	@Benchmark
+	public void execute() {
+		Query query = QueryCache.bind(QueryFactory.create(QUERY), fBindings);
+		fStore.query(NullOutputStream.NULL_OUTPUT_STREAM, query, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON);
+	}
+
+	@Benchmark
+	public void executeCached() {
+		Query query = QueryCache.bind(fStore.parseQuery(QUERY), fBindings);
+		fStore.query(NullOutputStream.NULL_OUTPUT_STREAM, query, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON);
+	}
+}
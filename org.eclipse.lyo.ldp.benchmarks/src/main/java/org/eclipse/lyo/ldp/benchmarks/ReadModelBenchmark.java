@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFLanguages;
+
+/**
+ * Measures parsing a request body into a model, as a POST, PUT or PATCH does,
+ * for each RDF syntax the server accepts, except JSON-LD, which is left out
+ * by default. Parsing doesn't use the store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadModelBenchmark {
+	private static final String URI = "http://example.com/resources/bug1";
+
+	@Param({ LDPConstants.CT_TEXT_TURTLE, LDPConstants.CT_APPLICATION_RDFXML, LDPConstants.CT_APPLICATION_NTRIPLES })
+	public String contentType;
+
+	private Resource fResource;
+	private byte[] fBody;
+
+	/**
+	 * Makes {@link JenaLDPRDFSource#readModel(String, java.io.InputStream, String)} callable.
+	 */
+	static class Resource extends JenaLDPRDFSource {
+		Resource() {
+			super(URI, new TDBGraphStore());
+		}
+
+		Model read(byte[] body, String contentType) {
+			return readModel(URI, new ByteArrayInputStream(body), contentType);
+		}
+	}
+
+	@Setup
+	public void setup() {
+		fResource = new Resource();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StoreBenchmark.createBugModel(URI, 1).write(out, RDFLanguages.contentTypeToLang(contentType).getName(), URI);
+		fBody = out.toByteArray();
+	}
+
+	@Benchmark
+	public Model readModel() {
+		return fResource.read(fBody, contentType);
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JenaLDPRDFSource#get(String, MultivaluedMap)} for a bug
+ * report, including writing the response entity, for each RDF syntax the
+ * server serves. JSON-LD is left out, as it is from the server by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceGetBenchmark extends StoreBenchmark {
+	@Param({ LDPConstants.CT_TEXT_TURTLE, LDPConstants.CT_APPLICATION_RDFXML, LDPConstants.CT_APPLICATION_NTRIPLES })
+	public String contentType;
+
+	private JenaLDPRDFSource fResource;
+	private final MultivaluedMap<String, String> fPreferences = new MultivaluedHashMap<String, String>();
+
+	@Override
+	protected void populate() {
+		final JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, fStore);
+		final String uri = root.post(new ByteArrayInputStream(createBug(1).getBytes(StandardCharsets.UTF_8)),
+				LDPConstants.CT_TEXT_TURTLE, null, "bug", false);
+		fResource = (JenaLDPRDFSource) new JenaLDPResourceManager(fStore).get(uri);
+	}
+
+	@Benchmark
+	public void get() throws IOException {
+		final Response response = fResource.get(contentType, fPreferences);
+		((StreamingOutput) response.getEntity()).write(NullOutputStream.NULL_OUTPUT_STREAM);
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+
+/**
+ * Runs a benchmark on an in-memory dataset, as the tests use, and on a TDB
+ * dataset on disk, as the server does, in a temporary directory that is
+ * deleted afterwards.
+ */
+@State(Scope.Benchmark)
+public abstract class StoreBenchmark {
+	static final String MEMORY = "memory";
+	static final String DISK = "disk";
+
+	@Param({ MEMORY, DISK })
+	public String storage;
+
+	protected TDBGraphStore fStore;
+	private File fDir;
+
+	@Setup(Level.Trial)
+	public void setupStore() throws IOException {
+		if (DISK.equals(storage)) {
+			fDir = Files.createTempDirectory("ldp-benchmark").toFile();
+			fStore = new TDBGraphStore(fDir.getPath());
+		} else {
+			fStore = new TDBGraphStore();
+		}
+		populate();
+	}
+
+	/**
+	 * Adds the resources the benchmark needs to the store.
+	 */
+	protected void populate() {
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownStore() {
+		if (fDir != null) {
+			FileUtils.deleteQuietly(fDir);
+		}
+	}
+
+	/**
+	 * A bug report of about 50 triples, like those of the sample loaders.
+	 *
+	 * @param i distinguishes the bug from the others
+	 * @return the bug in Turtle, relative to its own URI
+	 */
+	static String createBug(int i) {
+		final StringBuilder turtle = new StringBuilder();
+		turtle.append("@prefix dcterms: <http://purl.org/dc/terms/> .\n");
+		turtle.append("@prefix bt: <http://example.org/vocab/bugtracker#> .\n");
+		turtle.append("<> a bt:Bug ;\n");
+		turtle.append("  dcterms:identifier \"").append(i).append("\" ;\n");
+		turtle.append("  dcterms:title \"Product A crashes when shutting down (").append(i).append(")\" ;\n");
+		turtle.append("  dcterms:description \"Steps to reproduce: open a project, edit it, then close the window.\" ;\n");
+		turtle.append("  dcterms:creator <http://example.org/people/johndoe> ;\n");
+		turtle.append("  dcterms:contributor <http://example.org/people/johndoe>, <http://example.org/people/janedoe> ;\n");
+		turtle.append("  dcterms:subject \"shutdown\" ;\n");
+		turtle.append("  bt:product <http://example.org/products/product").append(i % 4).append("> ;\n");
+		turtle.append("  bt:isInState \"New\"");
+		for (int j = 1; j <= 40; j++) {
+			turtle.append(" ;\n  bt:relatedBug <http://example.com/resources/bug").append(i + j).append('>');
+		}
+		turtle.append(" .\n");
+		return turtle.toString();
+	}
+
+	static Model createBugModel(String uri, int i) {
+		final Model model = ModelFactory.createDefaultModel();
+		model.read(new ByteArrayInputStream(createBug(i).getBytes(StandardCharsets.UTF_8)), uri, "TURTLE");
+		return model;
+	}
+}
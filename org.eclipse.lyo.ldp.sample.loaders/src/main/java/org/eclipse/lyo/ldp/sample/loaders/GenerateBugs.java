@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.sample.loaders;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPNonRdfSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * Generates a large bug tracker dataset, for benchmarks and soak tests that
+ * need a store of realistic size. The resources are laid out as the
+ * {@link CreateBugs} sample would be if it were much bigger:
+ * <pre>
+ * /resources/                        ldp:DirectContainer, ldp:member
+ *   trackerN                         ldp:DirectContainer, bt:product
+ *     productN                       ldp:DirectContainer, bt:bug
+ *       bugN                         bt:Bug, bt:relatedBug links to other bugs
+ *       bugN                         bt:Bug and ldp:BasicContainer
+ *         attachmentN                LDP-NR
+ * </pre>
+ * Bugs are spread over products by a Zipf distribution, so a few products
+ * have most of them, as do a few people and a few often-related bugs.
+ * <p>
+ * Resources are written straight to the store, many to a write transaction,
+ * with the same graphs a POST creates: the resource, its config graph in
+ * the metadata dataset, and for an LDP-NR, its associated RDF source and
+ * file. The URI filter and text index are updated as usual. The changes
+ * aren't journaled, so change feeds start after the generated data, as
+ * after a restore. Run it with the server's <code>ldp.dataset.dir</code>,
+ * <code>ldp.nr.dir</code>, <code>ldp.rooturi</code> and
+ * <code>ldp.shards</code>, while the server is stopped, for example:
+ * <p>
+ * <code>java -Dldp.dataset.dir=/data/ldp -Dldp.nr.dir=/data/ldpnr -Dldp.generate.bugs=1000000
+ * org.eclipse.lyo.ldp.sample.loaders.GenerateBugs</code>
+ */
+public class GenerateBugs {
+	/**
+	 * System property for the number of bugs. Default is 100000.
+	 */
+	public static final String LDP_GENERATE_BUGS = "ldp.generate.bugs";
+
+	/**
+	 * System property for the number of bug trackers. Default is 1.
+	 */
+	public static final String LDP_GENERATE_TRACKERS = "ldp.generate.trackers";
+
+	/**
+	 * System property for the number of products, over all trackers.
+	 * Default is one for every 1000 bugs.
+	 */
+	public static final String LDP_GENERATE_PRODUCTS = "ldp.generate.products";
+
+	/**
+	 * System property for the Zipf exponent of the bugs per product, bugs
+	 * per person and links per bug. 0 spreads them evenly. Default is 1.
+	 */
+	public static final String LDP_GENERATE_SKEW = "ldp.generate.skew";
+
+	/**
+	 * System property for the fraction of bugs with attachments. Default is 0.1.
+	 */
+	public static final String LDP_GENERATE_ATTACHMENTS = "ldp.generate.attachments";
+
+	/**
+	 * System property for the average bytes of an attachment. Default is 4096.
+	 */
+	public static final String LDP_GENERATE_ATTACHMENT_SIZE = "ldp.generate.attachmentSize";
+
+	/**
+	 * System property for the average <code>bt:relatedBug</code> links of a
+	 * bug. Default is 2.
+	 */
+	public static final String LDP_GENERATE_RELATED = "ldp.generate.related";
+
+	/**
+	 * System property for the most resources written in one transaction.
+	 * Default is 5000.
+	 */
+	public static final String LDP_GENERATE_BATCH_SIZE = "ldp.generate.batchSize";
+
+	/**
+	 * System property for the random seed, so a dataset can be generated
+	 * again. Default is 1.
+	 */
+	public static final String LDP_GENERATE_SEED = "ldp.generate.seed";
+
+	private static final String BT_NS = "http://example.org/vocab/bugtracker#";
+	private static final String PEOPLE = "http://example.org/people/person";
+	private static final Resource BUG = ModelFactory.createDefaultModel().createResource(BT_NS + "Bug");
+	private static final Resource PRODUCT = ModelFactory.createDefaultModel().createResource(BT_NS + "Product");
+	private static final Resource BUG_TRACKER = ModelFactory.createDefaultModel().createResource(BT_NS + "BugTracker");
+	private static final Property PRODUCT_RELATION = ModelFactory.createDefaultModel().createProperty(BT_NS, "product");
+	private static final Property BUG_RELATION = ModelFactory.createDefaultModel().createProperty(BT_NS, "bug");
+	private static final Property RELATED_BUG = ModelFactory.createDefaultModel().createProperty(BT_NS, "relatedBug");
+	private static final Property IS_IN_STATE = ModelFactory.createDefaultModel().createProperty(BT_NS, "isInState");
+	private static final Property PRIORITY = ModelFactory.createDefaultModel().createProperty(BT_NS, "priority");
+
+	private static final String[] STATES = { "New", "Open", "In Progress", "Resolved", "Closed" };
+	private static final String[] WORDS = {
+		"crash", "shutdown", "startup", "error", "window", "dialog", "save", "file", "project", "editor",
+		"slow", "memory", "leak", "button", "menu", "export", "import", "login", "server", "timeout",
+		"null", "pointer", "exception", "network", "proxy", "cache", "index", "search", "query", "report",
+		"layout", "font", "color", "icon", "preference", "setting", "update", "install", "plugin", "license",
+		"freeze", "hang", "scroll", "resize", "drag", "drop", "copy", "paste", "undo", "redo",
+		"printer", "encoding", "unicode", "locale", "date", "time", "zone", "upgrade", "database", "sync" };
+	private static final String[] MEDIA_TYPES = { "text/plain", "image/png", "application/octet-stream", "application/zip" };
+
+	private final TDBGraphStore fRoot;
+	private final ShardRouter fShards;
+	private final String fRootURI = LDPService.ROOT_CONTAINER_URL;
+	private final Random fRandom = new Random(Long.getLong(LDP_GENERATE_SEED, 1));
+
+	private final int fBugCount = Math.max(Integer.getInteger(LDP_GENERATE_BUGS, 100000), 0);
+	private final int fTrackerCount = Math.max(Integer.getInteger(LDP_GENERATE_TRACKERS, 1), 1);
+	private final int fProductCount = Math.max(Integer.getInteger(LDP_GENERATE_PRODUCTS, fBugCount / 1000), 1);
+	private final double fSkew = Math.max(Double.parseDouble(System.getProperty(LDP_GENERATE_SKEW, "1")), 0);
+	private final double fAttachments = Double.parseDouble(System.getProperty(LDP_GENERATE_ATTACHMENTS, "0.1"));
+	private final int fAttachmentSize = Math.max(Integer.getInteger(LDP_GENERATE_ATTACHMENT_SIZE, 4096), 1);
+	private final double fRelated = Double.parseDouble(System.getProperty(LDP_GENERATE_RELATED, "2"));
+	private final int fBatchSize = Math.max(Integer.getInteger(LDP_GENERATE_BATCH_SIZE, 5000), 1);
+
+	private final Zipf fProductPicker = new Zipf(fProductCount, fSkew);
+	private final Zipf fPersonPicker = new Zipf(Math.max(fBugCount / 100, 10), fSkew);
+	private final Zipf fWordPicker = new Zipf(WORDS.length, 1);
+	private final String[] fProducts = new String[fProductCount];
+	private final int[] fBugsCreated = new int[fProductCount]; // Per product, to link to existing bugs
+
+	private TDBGraphStore fStore; // The store in a write transaction
+	private int fInBatch; // Resources written in the current transaction
+	private long fResources;
+	private long fTriples;
+	private long fBytes;
+	private long fTime; // dcterms:created of the next resource, in millis
+	private final long fStart = System.nanoTime();
+
+	public static void main(String[] args) {
+		if (System.getProperty(TDBGraphStore.LDP_DATASET_DIR) == null) {
+			System.err.println("Usage: java -D" + TDBGraphStore.LDP_DATASET_DIR + "=<dataset_dir> -D" + JenaLDPNonRdfSource.LDP_NR_DIR
+					+ "=<ldpnr_dir> [-D" + LDP_GENERATE_BUGS + "=<count>] org.eclipse.lyo.ldp.sample.loaders.GenerateBugs");
+			System.exit(1);
+		}
+		final TDBGraphStore store = new TDBGraphStore(false);
+		// Sharded the same way as the server.
+		final ShardRouter shards = ShardRouter.create(store, LDPService.ROOT_CONTAINER_URL);
+		JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+
+		new GenerateBugs(store, shards).generate();
+		System.out.println("Done!");
+		System.exit(0); // Don't wait for the statistics thread; the URI filter is saved on exit.
+	}
+
+	/**
+	 * @param store the store with the root container, which must exist
+	 * @param shards the shards of the store, or null
+	 */
+	public GenerateBugs(TDBGraphStore store, ShardRouter shards) {
+		fRoot = store;
+		fShards = shards;
+	}
+
+	public void generate() {
+		System.out.println("Generating " + fBugCount + " bugs in " + fProductCount + " products of " + fTrackerCount
+				+ " trackers below " + fRootURI);
+		// Spread the resources over the last year, oldest first.
+		fTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(365);
+
+		final String[] trackers = new String[fTrackerCount];
+		for (int i = 0; i < fTrackerCount; i++) {
+			trackers[i] = createTracker(i + 1);
+		}
+
+		// Products go round robin to the trackers, and their bugs by popularity.
+		final int[] bugs = new int[fProductCount];
+		for (int i = 0; i < fBugCount; i++) {
+			bugs[fProductPicker.next(fRandom)]++;
+		}
+		for (int i = 0; i < fTrackerCount; i++) {
+			begin(getStore(trackers[i]));
+			try {
+				for (int p = i; p < fProductCount; p += fTrackerCount) {
+					fProducts[p] = createProduct(trackers[i], p + 1);
+					for (int b = 0; b < bugs[p]; b++) {
+						createBug(p);
+					}
+				}
+				fStore.commit();
+			} finally {
+				fStore.end();
+			}
+		}
+		report();
+	}
+
+	private TDBGraphStore getStore(String uri) {
+		return (fShards == null) ? fRoot : fShards.getStore(uri);
+	}
+
+	/**
+	 * Creates a tracker below the root container, in its own shard if the
+	 * store is sharded.
+	 */
+	private String createTracker(int n) {
+		final String uri = append(fRootURI, "tracker" + n);
+		fRoot.writeLock();
+		try {
+			final TDBGraphStore store = (fShards == null) ? fRoot : fShards.assign(uri);
+			if (store != fRoot) {
+				store.writeLock();
+			}
+			try {
+				final Model model = createContainer(uri, LDP.DirectContainer, PRODUCT_RELATION);
+				model.getResource(uri).addProperty(RDF.type, BUG_TRACKER).addProperty(DCTerms.title, "Bug Tracker " + n);
+				write(store, uri, model);
+				addMember(fRoot, fRootURI, uri, LDP.member);
+				if (store != fRoot) {
+					store.commit();
+				}
+			} finally {
+				if (store != fRoot) {
+					store.end();
+				}
+			}
+			fRoot.commit();
+		} finally {
+			fRoot.end();
+		}
+
+		return uri;
+	}
+
+	private String createProduct(String tracker, int n) {
+		final String uri = append(tracker, "product" + n);
+		final Model model = createContainer(uri, LDP.DirectContainer, BUG_RELATION);
+		model.getResource(uri).addProperty(RDF.type, PRODUCT).addProperty(DCTerms.title, "Product " + n);
+		write(fStore, uri, model);
+		addMember(fStore, tracker, uri, PRODUCT_RELATION);
+		created();
+
+		return uri;
+	}
+
+	private void createBug(int product) {
+		final String productURI = fProducts[product];
+		final int n = ++fBugsCreated[product];
+		final String uri = append(productURI, "bug" + n);
+		final Model model = ModelFactory.createDefaultModel();
+		final Resource bug = model.createResource(uri);
+		bug.addProperty(RDF.type, BUG);
+		bug.addProperty(DCTerms.identifier, Integer.toString(n));
+		bug.addProperty(DCTerms.title, words(3 + fRandom.nextInt(6)));
+		bug.addProperty(DCTerms.description, words(10 + fRandom.nextInt(40)));
+		final Resource creator = model.createResource(PEOPLE + (fPersonPicker.next(fRandom) + 1));
+		bug.addProperty(DCTerms.creator, creator);
+		bug.addProperty(DCTerms.contributor, creator);
+		for (int i = fRandom.nextInt(3); i > 0; i--) {
+			bug.addProperty(DCTerms.contributor, model.createResource(PEOPLE + (fPersonPicker.next(fRandom) + 1)));
+		}
+		bug.addProperty(IS_IN_STATE, STATES[fRandom.nextInt(STATES.length)]);
+		bug.addLiteral(PRIORITY, model.createTypedLiteral(1 + fRandom.nextInt(5)));
+
+		// Related bugs, mostly in the popular products
+		for (int i = poisson(fRelated); i > 0; i--) {
+			final int other = fProductPicker.next(fRandom);
+			if (fBugsCreated[other] > 0 && fProducts[other] != null) {
+				final String related = append(fProducts[other], "bug" + (1 + fRandom.nextInt(fBugsCreated[other])));
+				if (!related.equals(uri)) {
+					bug.addProperty(RELATED_BUG, model.createResource(related));
+				}
+			}
+		}
+
+		final boolean attachments = fRandom.nextDouble() < fAttachments;
+		if (attachments) {
+			bug.addProperty(RDF.type, LDP.BasicContainer);
+		}
+		write(fStore, uri, model);
+		addMember(fStore, productURI, uri, BUG_RELATION);
+		created();
+
+		if (attachments) {
+			for (int i = 1 + fRandom.nextInt(3); i > 0; i--) {
+				createAttachment(uri, i);
+			}
+		}
+	}
+
+	/**
+	 * Creates an LDP-NR as <code>postNonRDFSource</code> would.
+	 */
+	private void createAttachment(String bug, int n) {
+		final String uri = append(bug, "attachment" + n);
+		final byte[] content = new byte[1 + fRandom.nextInt(2 * fAttachmentSize)];
+		fRandom.nextBytes(content);
+		JenaLDPNonRdfSource.save(new ByteArrayInputStream(content), uri);
+		fBytes += content.length;
+
+		final String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+		final Model configModel = fStore.createCompanionGraph(uri, configURI);
+		configModel.add(configModel.getResource(configURI), Lyo.memberOf, configModel.getResource(bug));
+		final String associatedURI = JenaLDPResourceManager.mintAssociatedRDFSourceURI(uri);
+		final Model associatedModel = fStore.createCompanionGraph(uri, associatedURI);
+		final Resource associated = associatedModel.getResource(associatedURI);
+		final Resource mediaType = associatedModel.createResource(null, associatedModel.createResource(DCTerms.NS + "IMT"));
+		mediaType.addProperty(RDF.value, MEDIA_TYPES[fRandom.nextInt(MEDIA_TYPES.length)]);
+		associated.addProperty(DCTerms.format, mediaType);
+		associated.addProperty(Lyo.slug, "attachment" + n);
+		fTriples += configModel.size() + associatedModel.size();
+
+		addMember(fStore, bug, uri, null);
+		created();
+	}
+
+	private Model createContainer(String uri, Resource type, Property memberRelation) {
+		final Model model = ModelFactory.createDefaultModel();
+		final Resource container = model.createResource(uri);
+		container.addProperty(RDF.type, type);
+		container.addProperty(LDP.membershipResource, container);
+		container.addProperty(LDP.hasMemberRelation, memberRelation);
+		return model;
+	}
+
+	/**
+	 * Writes a new RDF source with its config graph.
+	 */
+	private void write(TDBGraphStore store, String uri, Model model) {
+		final Calendar time = Calendar.getInstance();
+		time.setTimeInMillis(fTime);
+		fTime += 1000;
+		final Resource resource = model.getResource(uri);
+		resource.addLiteral(DCTerms.created, model.createTypedLiteral(time));
+		resource.addLiteral(DCTerms.modified, model.createTypedLiteral(time));
+		store.putGraph(uri, model);
+		final Model configModel = store.createCompanionGraph(uri, JenaLDPResourceManager.mintConfigURI(uri));
+		fTriples += model.size() + configModel.size();
+	}
+
+	/**
+	 * Adds the containment triple, and the membership triple if the
+	 * container is a direct container of itself.
+	 */
+	private void addMember(TDBGraphStore store, String containerURI, String uri, Property memberRelation) {
+		final Model containerModel = store.getGraph(containerURI);
+		final Resource container = containerModel.getResource(containerURI);
+		final Resource member = containerModel.createResource(uri);
+		container.addProperty(LDP.contains, member);
+		fTriples++;
+		if (memberRelation != null) {
+			container.addProperty(memberRelation, member);
+			fTriples++;
+		}
+	}
+
+	private void begin(TDBGraphStore store) {
+		fStore = store;
+		fStore.writeLock();
+		fInBatch = 0;
+	}
+
+	/**
+	 * Counts a resource, and commits once the transaction has enough.
+	 */
+	private void created() {
+		fResources++;
+		if (++fInBatch >= fBatchSize) {
+			fStore.commit();
+			fStore.end();
+			report();
+			begin(fStore);
+		}
+	}
+
+	private void report() {
+		final double seconds = (System.nanoTime() - fStart) / (double) TimeUnit.SECONDS.toNanos(1);
+		System.out.printf("%d resources, %d triples, %d attachment bytes in %.0fs (%.0f resources/s)%n",
+				fResources, fTriples, fBytes, seconds, fResources / Math.max(seconds, 0.001));
+	}
+
+	private String words(int count) {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(WORDS[fWordPicker.next(fRandom)]);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * @return a random count with a Poisson distribution and the given mean
+	 */
+	private int poisson(double mean) {
+		final double limit = Math.exp(-mean);
+		int count = 0;
+		double product = fRandom.nextDouble();
+		while (product > limit) {
+			count++;
+			product *= fRandom.nextDouble();
+		}
+		return count;
+	}
+
+	private static String append(String container, String segment) {
+		return container.endsWith("/") ? container + segment : container + "/" + segment;
+	}
+
+	/**
+	 * Picks ranks 0 to n - 1, rank k with a probability proportional to
+	 * 1 / (k + 1)^s.
+	 */
+	static class Zipf {
+		private final double[] fCumulative;
+
+		Zipf(int n, double s) {
+			fCumulative = new double[n];
+			double sum = 0;
+			for (int k = 0; k < n; k++) {
+				sum += 1 / Math.pow(k + 1, s);
+				fCumulative[k] = sum;
+			}
+			for (int k = 0; k < n; k++) {
+				fCumulative[k] /= sum;
+			}
+		}
+
+		int next(Random random) {
+			final int i = Arrays.binarySearch(fCumulative, random.nextDouble());
+			return Math.min((i >= 0) ? i : -i - 1, fCumulative.length - 1);
+		}
+	}
+}
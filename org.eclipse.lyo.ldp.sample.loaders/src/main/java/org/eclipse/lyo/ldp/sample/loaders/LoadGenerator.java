@@ -0,0 +1,538 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.sample.loaders;
+
+import static org.eclipse.lyo.ldp.sample.loaders.Loader.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+
+/**
+ * Puts a server under load to find its capacity. Creates a container below
+ * the root container, seeds it with bugs, then sends a mix of requests to it
+ * from many workers over pooled keep-alive connections:
+ * <ul>
+ * <li><code>get</code>: GET a bug as Turtle,</li>
+ * <li><code>post</code>: POST a new bug,</li>
+ * <li><code>put</code>: GET a bug for its ETag and PUT it back with a new
+ * title, timed together, as a client editing it would,</li>
+ * <li><code>delete</code>: DELETE a bug,</li>
+ * <li><code>sparql</code>: query the container with <code>?sparql</code>.</li>
+ * </ul>
+ * With {@link #LDP_LOAD_RATE} set, requests are sent on a schedule whatever
+ * the server's response times (open loop), and latency counts from when a
+ * request should have been sent, so a stalled server isn't hidden by the
+ * workers waiting for it. Otherwise each worker sends its next request as
+ * soon as it has a response (closed loop). Latency percentiles and
+ * throughput are printed every {@link #LDP_LOAD_INTERVAL} seconds and per
+ * request type at the end. Failed requests are counted, not retried; a PUT
+ * that loses a race with another worker's edit gets a 412 and counts as one.
+ * <p>
+ * Usage: <code>java -Dldp.load.rate=500 org.eclipse.lyo.ldp.sample.loaders.LoadGenerator
+ * &lt;root_container_url&gt; &lt;username:password&gt;</code>
+ */
+public class LoadGenerator {
+	/**
+	 * System property for the number of concurrent workers, which is also
+	 * the most connections open. Default is 32.
+	 */
+	public static final String LDP_LOAD_THREADS = "ldp.load.threads";
+
+	/**
+	 * System property for the requests a second to send, for an open-loop
+	 * test. Default is 0, for a closed-loop test.
+	 */
+	public static final String LDP_LOAD_RATE = "ldp.load.rate";
+
+	/**
+	 * System property for how requests are spread out in an open-loop test:
+	 * <code>fixed</code>, at even intervals, or <code>poisson</code>, at
+	 * random intervals, as from many independent clients. Default is fixed.
+	 */
+	public static final String LDP_LOAD_ARRIVAL = "ldp.load.arrival";
+
+	/**
+	 * System property for the request mix, as weights by request type.
+	 * Default is <code>get=60,post=15,put=10,delete=5,sparql=10</code>.
+	 */
+	public static final String LDP_LOAD_MIX = "ldp.load.mix";
+
+	/**
+	 * System property for the seconds to measure. Default is 60.
+	 */
+	public static final String LDP_LOAD_DURATION = "ldp.load.duration";
+
+	/**
+	 * System property for the seconds of load before measuring, so the
+	 * server's caches and JIT are warm. Default is 10.
+	 */
+	public static final String LDP_LOAD_WARMUP = "ldp.load.warmup";
+
+	/**
+	 * System property for the seconds between progress reports. Default is 5.
+	 */
+	public static final String LDP_LOAD_INTERVAL = "ldp.load.interval";
+
+	/**
+	 * System property for the number of bugs created before the test.
+	 * Default is 100.
+	 */
+	public static final String LDP_LOAD_SEED = "ldp.load.seed";
+
+	/**
+	 * System property for the SPARQL query of <code>sparql</code> requests.
+	 */
+	public static final String LDP_LOAD_QUERY = "ldp.load.query";
+
+	/**
+	 * System property to keep the container and its bugs after the test.
+	 * Default is false, to delete them.
+	 */
+	public static final String LDP_LOAD_KEEP = "ldp.load.keep";
+
+	private static final String DEFAULT_MIX = "get=60,post=15,put=10,delete=5,sparql=10";
+	private static final String DEFAULT_QUERY =
+			"PREFIX dcterms: <http://purl.org/dc/terms/>\n" +
+			"PREFIX bt: <http://example.org/vocab/bugtracker#>\n" +
+			"SELECT ?bug ?title WHERE { ?bug a bt:Bug ; dcterms:title ?title } LIMIT 20";
+
+	private static final String RESOURCE_TYPE = "bugs/";
+
+	enum Op { GET, POST, PUT, DELETE, SPARQL }
+
+	private final CloseableHttpClient fClient;
+	private final String fAuthorization;
+	private final String fBug = resource(RESOURCE_TYPE, "bug1.ttl");
+	private final String fQuery = System.getProperty(LDP_LOAD_QUERY, DEFAULT_QUERY);
+	private final int fThreads = Math.max(Integer.getInteger(LDP_LOAD_THREADS, 32), 1);
+	private final double fRate = Double.parseDouble(System.getProperty(LDP_LOAD_RATE, "0"));
+	private final boolean fPoisson = "poisson".equals(System.getProperty(LDP_LOAD_ARRIVAL));
+	private final Map<Op, Integer> fMix = parseMix(System.getProperty(LDP_LOAD_MIX, DEFAULT_MIX));
+	private final int fMixTotal;
+	private String fContainer;
+
+	// The bugs that exist, to pick from for GET, PUT and DELETE. Guarded by itself.
+	private final List<String> fBugs = new ArrayList<String>();
+	private final AtomicLong fCount = new AtomicLong();
+
+	private final Map<Op, Recorder> fRecorders = new EnumMap<Op, Recorder>(Op.class);
+	private final Map<Op, Histogram> fTotals = new EnumMap<Op, Histogram>(Op.class);
+	private final Map<Op, AtomicLong> fErrors = new EnumMap<Op, AtomicLong>(Op.class);
+
+	private long fNextSend; // Nanos, for an open-loop test. Guarded by this.
+	private volatile long fEnd;
+
+	public static void main(String[] args) throws Exception {
+		final String[] credentials = getUserAndPassword(args);
+		if (credentials == null) {
+			System.exit(1);
+		}
+		final LoadGenerator generator = new LoadGenerator(credentials[0], credentials[1]);
+		try {
+			generator.run(getRootContainerURI(args));
+		} finally {
+			generator.fClient.close();
+		}
+	}
+
+	LoadGenerator(String user, String password) {
+		final PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+		connections.setMaxTotal(fThreads);
+		connections.setDefaultMaxPerRoute(fThreads);
+		final RequestConfig config = RequestConfig.custom().setConnectTimeout(10000).setSocketTimeout(60000).build();
+		fClient = HttpClients.custom().setConnectionManager(connections).setDefaultRequestConfig(config).build();
+
+		// Send the credentials up front rather than after a challenge.
+		fAuthorization = "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+
+		int total = 0;
+		for (Op op : Op.values()) {
+			fRecorders.put(op, new Recorder(3));
+			fTotals.put(op, new Histogram(3));
+			fErrors.put(op, new AtomicLong());
+			total += fMix.containsKey(op) ? fMix.get(op) : 0;
+		}
+		fMixTotal = total;
+		if (fMixTotal <= 0) {
+			throw new IllegalArgumentException("No requests in " + LDP_LOAD_MIX);
+		}
+	}
+
+	private static Map<Op, Integer> parseMix(String mix) {
+		final Map<Op, Integer> weights = new EnumMap<Op, Integer>(Op.class);
+		for (String entry : mix.split(",")) {
+			final String[] nameAndWeight = entry.trim().split("=");
+			if (nameAndWeight.length != 2) {
+				throw new IllegalArgumentException("Invalid " + LDP_LOAD_MIX + " entry: " + entry);
+			}
+			weights.put(Op.valueOf(nameAndWeight[0].trim().toUpperCase()), Integer.parseInt(nameAndWeight[1].trim()));
+		}
+		return weights;
+	}
+
+	void run(String rootContainer) throws Exception {
+		final int seed = Integer.getInteger(LDP_LOAD_SEED, 100);
+		final long warmup = TimeUnit.SECONDS.toNanos(Long.getLong(LDP_LOAD_WARMUP, 10));
+		final long duration = TimeUnit.SECONDS.toNanos(Math.max(Long.getLong(LDP_LOAD_DURATION, 60), 1));
+		final long interval = TimeUnit.SECONDS.toNanos(Math.max(Long.getLong(LDP_LOAD_INTERVAL, 5), 1));
+
+		fContainer = createContainer(rootContainer);
+		System.out.println("Created load test container at " + fContainer);
+
+		final ExecutorService workers = Executors.newFixedThreadPool(fThreads);
+		seed(workers, seed);
+		System.out.println("Created " + fBugs.size() + " bugs");
+		System.out.println("Running " + fThreads + " workers, "
+				+ (fRate > 0 ? (fPoisson ? "poisson" : "fixed") + " rate " + fRate + "/s" : "closed loop")
+				+ ", mix " + fMix);
+
+		final long start = System.nanoTime();
+		fNextSend = start;
+		fEnd = start + warmup + duration;
+		for (int i = 0; i < fThreads; i++) {
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					while (System.nanoTime() < fEnd) {
+						send();
+					}
+				}
+			});
+		}
+		workers.shutdown();
+
+		if (warmup > 0) {
+			TimeUnit.NANOSECONDS.sleep(warmup);
+			for (Recorder recorder : fRecorders.values()) {
+				recorder.reset();
+			}
+			for (AtomicLong errors : fErrors.values()) {
+				errors.set(0);
+			}
+			System.out.println("Warmed up, measuring for " + TimeUnit.NANOSECONDS.toSeconds(duration) + "s");
+		}
+
+		final long measureStart = System.nanoTime();
+		long last = measureStart;
+		while (!workers.awaitTermination(Math.max(last + interval - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+			final long now = System.nanoTime();
+			report(now - measureStart, now - last);
+			last = now;
+		}
+		report(System.nanoTime() - measureStart, System.nanoTime() - last);
+		summarize(Math.min(System.nanoTime() - measureStart, duration));
+
+		if (!Boolean.getBoolean(LDP_LOAD_KEEP)) {
+			// A container DELETE removes its members in the background.
+			final int status = execute(new HttpDelete(fContainer), null);
+			System.out.println("Deleted load test container: " + status);
+		}
+	}
+
+	private String createContainer(String rootContainer) throws IOException {
+		final HttpPost post = new HttpPost(rootContainer);
+		post.setHeader("Slug", "load");
+		post.setHeader("Link", "<" + LDPConstants.CLASS_BASIC_CONTAINER + ">; rel=\"type\"");
+		post.setEntity(new StringEntity("<> a <" + LDPConstants.CLASS_BASIC_CONTAINER + "> .", ContentType.create(LDPConstants.CT_TEXT_TURTLE, StandardCharsets.UTF_8)));
+		final String[] location = new String[1];
+		final int status = execute(post, location);
+		if (status != HttpStatus.SC_CREATED || location[0] == null) {
+			System.err.println("ERROR: Failed to create the load test container. Status: " + status);
+			System.exit(1);
+		}
+		return location[0];
+	}
+
+	private void seed(ExecutorService workers, int count) throws InterruptedException {
+		final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		for (int i = 0; i < count; i++) {
+			tasks.add(Executors.callable(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						postBug();
+					} catch (IOException e) {
+						System.err.println("Could not create bug: " + e);
+					}
+				}
+			}));
+		}
+		workers.invokeAll(tasks);
+	}
+
+	/**
+	 * Sends one request of the mix, when it is due for an open-loop test,
+	 * and records its latency.
+	 */
+	private void send() {
+		long intended = System.nanoTime();
+		if (fRate > 0) {
+			intended = nextSendTime();
+			final long wait = intended - System.nanoTime();
+			if (wait > 0) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(wait);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			if (intended >= fEnd) {
+				return;
+			}
+		}
+
+		Op op = pick();
+		String bug = null;
+		if (op == Op.GET || op == Op.PUT || op == Op.DELETE) {
+			bug = randomBug(op == Op.DELETE);
+			if (bug == null) {
+				op = Op.POST;
+			}
+		}
+
+		boolean ok;
+		try {
+			switch (op) {
+			case GET:
+				final HttpGet get = new HttpGet(bug);
+				get.setHeader(HttpHeaders.ACCEPT, LDPConstants.CT_TEXT_TURTLE);
+				ok = execute(get, null) == HttpStatus.SC_OK;
+				break;
+			case POST:
+				ok = postBug() != null;
+				break;
+			case PUT:
+				ok = putBug(bug);
+				break;
+			case DELETE:
+				ok = isSuccessful(execute(new HttpDelete(bug), null));
+				break;
+			default:
+				final HttpGet query = new HttpGet(fContainer + "?sparql&query=" + URLEncoder.encode(fQuery, "UTF-8"));
+				query.setHeader(HttpHeaders.ACCEPT, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON);
+				ok = execute(query, null) == HttpStatus.SC_OK;
+				break;
+			}
+		} catch (IOException e) {
+			ok = false;
+		}
+
+		fRecorders.get(op).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+		if (!ok) {
+			fErrors.get(op).incrementAndGet();
+		}
+	}
+
+	private synchronized long nextSendTime() {
+		final long next = fNextSend;
+		final double seconds = fPoisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) / fRate : 1 / fRate;
+		fNextSend += (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+		return next;
+	}
+
+	private Op pick() {
+		int n = ThreadLocalRandom.current().nextInt(fMixTotal);
+		for (Map.Entry<Op, Integer> entry : fMix.entrySet()) {
+			n -= entry.getValue();
+			if (n < 0) {
+				return entry.getKey();
+			}
+		}
+		return Op.GET;
+	}
+
+	/**
+	 * @param remove true to stop picking the bug, since it will be deleted
+	 * @return a random bug, or null if there are none
+	 */
+	private String randomBug(boolean remove) {
+		synchronized (fBugs) {
+			if (fBugs.isEmpty()) {
+				return null;
+			}
+			final int i = ThreadLocalRandom.current().nextInt(fBugs.size());
+			final String bug = fBugs.get(i);
+			if (remove) {
+				fBugs.set(i, fBugs.get(fBugs.size() - 1));
+				fBugs.remove(fBugs.size() - 1);
+			}
+			return bug;
+		}
+	}
+
+	private String postBug() throws IOException {
+		final HttpPost post = new HttpPost(fContainer);
+		post.setHeader("Slug", "bug" + fCount.incrementAndGet());
+		post.setEntity(new StringEntity(fBug, ContentType.create(LDPConstants.CT_TEXT_TURTLE, StandardCharsets.UTF_8)));
+		final String[] location = new String[1];
+		if (execute(post, location) != HttpStatus.SC_CREATED || location[0] == null) {
+			return null;
+		}
+		synchronized (fBugs) {
+			fBugs.add(location[0]);
+		}
+		return location[0];
+	}
+
+	private boolean putBug(String bug) throws IOException {
+		final HttpGet get = new HttpGet(bug);
+		get.setHeader(HttpHeaders.ACCEPT, LDPConstants.CT_TEXT_TURTLE);
+		get.setHeader(HttpHeaders.AUTHORIZATION, fAuthorization);
+		final String eTag;
+		final Model model = ModelFactory.createDefaultModel();
+		final CloseableHttpResponse response = fClient.execute(get);
+		try {
+			if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+				EntityUtils.consume(response.getEntity());
+				return false;
+			}
+			final Header header = response.getFirstHeader(HttpHeaders.ETAG);
+			eTag = (header == null) ? null : header.getValue();
+			model.read(new ByteArrayInputStream(EntityUtils.toByteArray(response.getEntity())), bug, "TURTLE");
+		} finally {
+			response.close();
+		}
+
+		final Resource r = model.getResource(bug);
+		r.removeAll(DCTerms.title);
+		r.addProperty(DCTerms.title, "Updated by the load generator " + fCount.incrementAndGet());
+		final StringWriter turtle = new StringWriter();
+		model.write(turtle, "TURTLE", "");
+
+		final HttpPut put = new HttpPut(bug);
+		if (eTag != null) {
+			put.setHeader(HttpHeaders.IF_MATCH, eTag);
+		}
+		put.setEntity(new StringEntity(turtle.toString(), ContentType.create(LDPConstants.CT_TEXT_TURTLE, StandardCharsets.UTF_8)));
+		return isSuccessful(execute(put, null));
+	}
+
+	/**
+	 * Sends a request, reading the whole response so the connection can be
+	 * reused.
+	 *
+	 * @param location if not null, set to the absolute Location of the response
+	 * @return the response status
+	 */
+	private int execute(HttpUriRequest request, String[] location) throws IOException {
+		request.setHeader(HttpHeaders.AUTHORIZATION, fAuthorization);
+		final CloseableHttpResponse response = fClient.execute(request);
+		try {
+			if (location != null) {
+				final Header header = response.getFirstHeader(HttpHeaders.LOCATION);
+				location[0] = (header == null) ? null : request.getURI().resolve(URI.create(header.getValue())).toString();
+			}
+			EntityUtils.consume(response.getEntity());
+			return response.getStatusLine().getStatusCode();
+		} finally {
+			response.close();
+		}
+	}
+
+	private static boolean isSuccessful(int status) {
+		return status >= 200 && status < 300;
+	}
+
+	/**
+	 * Prints the throughput and latency since the last report.
+	 */
+	private void report(long elapsed, long interval) {
+		final Histogram all = new Histogram(3);
+		long errors = 0;
+		for (Op op : Op.values()) {
+			final Histogram histogram = fRecorders.get(op).getIntervalHistogram();
+			fTotals.get(op).add(histogram);
+			all.add(histogram);
+			errors += fErrors.get(op).get();
+		}
+		System.out.printf("%6ds %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %d%n",
+				TimeUnit.NANOSECONDS.toSeconds(elapsed),
+				all.getTotalCount() * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(interval, 1),
+				millis(all.getValueAtPercentile(50)), millis(all.getValueAtPercentile(99)), millis(all.getMaxValue()),
+				errors);
+	}
+
+	/**
+	 * Prints the throughput and latency percentiles of each request type
+	 * over the whole test.
+	 */
+	private void summarize(long duration) {
+		final double seconds = duration / (double) TimeUnit.SECONDS.toNanos(1);
+		final Histogram all = new Histogram(3);
+		long errors = 0;
+		System.out.println();
+		System.out.printf("%-8s %10s %10s %9s %9s %9s %9s %9s %8s%n",
+				"request", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+		for (Op op : Op.values()) {
+			final Histogram histogram = fTotals.get(op);
+			if (histogram.getTotalCount() > 0) {
+				summarize(op.name().toLowerCase(), histogram, seconds, fErrors.get(op).get());
+				all.add(histogram);
+				errors += fErrors.get(op).get();
+			}
+		}
+		summarize("all", all, seconds, errors);
+	}
+
+	private static void summarize(String name, Histogram histogram, double seconds, long errors) {
+		System.out.printf("%-8s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d%n",
+				name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+				millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+				millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+				millis(histogram.getMaxValue()), errors);
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
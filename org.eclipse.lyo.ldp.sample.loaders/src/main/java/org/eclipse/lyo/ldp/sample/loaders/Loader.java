@@ -32,21 +32,28 @@ import org.apache.wink.client.handlers.BasicAuthSecurityHandler;
 public class Loader {
 	static BasicAuthSecurityHandler getCredentials(String[] args){
 		BasicAuthSecurityHandler basicAuthSecHandler = new BasicAuthSecurityHandler();
+		String[] split = getUserAndPassword(args);
+		if (split != null) {
+			basicAuthSecHandler.setUserName(split[0]); 
+			basicAuthSecHandler.setPassword(split[1]); 
+		}
+		return basicAuthSecHandler;
+	}
+
+	/**
+	 * @return the user name and password, or null if they are invalid
+	 */
+	static String[] getUserAndPassword(String[] args) {
 		argsCheck(args);
 		String auth = args[1];
 		if (auth.contains(":")) {
 			String[] split = auth.split(":");
 			if (split.length == 2) {
-				basicAuthSecHandler.setUserName(split[0]); 
-				basicAuthSecHandler.setPassword(split[1]); 
-				
-			} else {
-				System.err.println("ERROR: Usage: invalid basic authentication credentials");
+				return split;
 			}
-		} else {
-			System.err.println("ERROR: Usage: invalid basic authentication credentials");
 		}
-		return basicAuthSecHandler;
+		System.err.println("ERROR: Usage: invalid basic authentication credentials");
+		return null;
 	}
 	
 	private static void argsCheck(String[] args){
@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJobs;
+import org.eclipse.lyo.ldp.server.jena.store.QueryResultsFormat;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationFollower;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationLog;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.TDBStatistics;
+import org.eclipse.lyo.ldp.server.jena.store.TransactionMonitor;
+
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonNumber;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryException;
+import org.apache.jena.tdb.solver.stats.StatsResults;
+
+/**
+ * Administrative operations on the store used by {@link JenaLDPService}.
+ * Responses are JSON.
+ */
+@Path("_admin")
+@Produces(MediaType.APPLICATION_JSON)
+public class JenaLDPAdminService {
+	/**
+	 * The path of the background jobs, relative to the base URI.
+	 */
+	static final String JOBS_PATH = "_admin/jobs";
+
+	/**
+	 * The media type of the Prometheus text exposition format.
+	 */
+	private static final String CT_PROMETHEUS = "text/plain; version=0.0.4";
+
+	/**
+	 * The most seconds a follower waits for new replication log records.
+	 */
+	private static final int MAX_REPLICATION_WAIT = 60;
+
+	/**
+	 * The most bytes of replication log records in a response.
+	 */
+	private static final long REPLICATION_BATCH_BYTES = 4 * 1024 * 1024;
+
+	protected TDBGraphStore getStore() {
+		return JenaLDPService.getStore();
+	}
+
+	/**
+	 * The state of the TDB optimizer statistics, and the mean query time
+	 * before and after the current statistics were installed.
+	 */
+	@GET
+	@Path("stats")
+	public String getStatistics() {
+		return toJSON(getStore().getStatistics()).toString();
+	}
+
+	/**
+	 * Regenerate the TDB optimizer statistics now. If a SPARQL query is
+	 * given, it is timed with the old and the new statistics.
+	 *
+	 * @param queryString an optional query to time
+	 */
+	@POST
+	@Path("stats")
+	public String generateStatistics(@FormParam("query") String queryString) {
+		final TDBGraphStore store = getStore();
+		Query query = null;
+		if (queryString != null && !queryString.trim().isEmpty()) {
+			try {
+				query = store.parseQuery(queryString);
+			} catch (QueryException e) {
+				throw new WebApplicationException(Response.status(Status.BAD_REQUEST).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build());
+			}
+		}
+
+		final long before = (query == null) ? 0 : time(store, query);
+		store.getStatistics().generate();
+		final long after = (query == null) ? 0 : time(store, query);
+		final JsonObject json = toJSON(store.getStatistics());
+		if (query != null) {
+			JsonObject timing = new JsonObject();
+			timing.put("query", query.toString());
+			timing.put("beforeMillis", before);
+			timing.put("afterMillis", after);
+			json.put("queryTiming", timing);
+		}
+
+		return json.toString();
+	}
+
+	/**
+	 * Recreate the full-text index from the resources in the store, for
+	 * instance if it was lost or fell behind after a crash. On a sharded
+	 * server, every shard's index is rebuilt.
+	 */
+	@POST
+	@Path("text")
+	public String rebuildTextIndex() {
+		final long start = System.currentTimeMillis();
+		final ShardRouter shards = getStore().getShards();
+		int indexed = 0;
+		for (TDBGraphStore store : (shards == null) ? Collections.singletonList(getStore()) : shards.getStores()) {
+			indexed += store.rebuildTextIndex();
+		}
+		JsonObject json = new JsonObject();
+		json.put("indexed", indexed);
+		json.put("durationMillis", System.currentTimeMillis() - start);
+
+		return json.toString();
+	}
+
+	/**
+	 * The replication role and position of this server.
+	 */
+	@GET
+	@Path("replication")
+	public String getReplication() {
+		final TDBGraphStore store = getStore();
+		final ReplicationLog log = store.getReplicationLog();
+		final ReplicationFollower follower = JenaLDPService.getFollower();
+		JsonObject json = new JsonObject();
+		if (log != null) {
+			json.put("role", "leader");
+			json.put("position", log.getLast());
+			json.put("first", log.getFirst());
+		} else if (follower != null) {
+			json.put("role", "follower");
+			json.put("leader", follower.getLeader());
+			json.put("position", follower.getPosition());
+			if (follower.getStaleness() != Long.MAX_VALUE) {
+				json.put("stalenessMillis", follower.getStaleness());
+			}
+			json.put("maxStalenessMillis", follower.getMaxStaleness());
+			if (follower.getLastError() != null) {
+				json.put("lastError", follower.getLastError());
+			}
+		} else {
+			json.put("role", "standalone");
+		}
+
+		return json.toString();
+	}
+
+	/**
+	 * The leader's replication log records after a position, for followers.
+	 * Waits up to <code>wait</code> seconds for a record if there are none.
+	 * Returns 410 Gone if the records after the position are no longer kept,
+	 * so the follower must load a snapshot.
+	 *
+	 * @param after the position the follower has applied
+	 * @param wait the most seconds to wait
+	 */
+	@GET
+	@Path("replication/log")
+	@Produces(MediaType.TEXT_PLAIN)
+	public Response getReplicationLog(@QueryParam("after") @DefaultValue("0") final long after, @QueryParam("wait") @DefaultValue("0") int wait) {
+		final ReplicationLog log = getStore().getReplicationLog();
+		if (log == null) {
+			return Response.status(Status.NOT_FOUND).entity("Not a replication leader").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		try {
+			if (!log.await(after, Math.min(Math.max(wait, 0), MAX_REPLICATION_WAIT) * 1000L)) {
+				return Response.status(Status.GONE).header(LDPConstants.HDR_REPLICATION_POSITION, log.getLast()).build();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Response.status(Status.SERVICE_UNAVAILABLE).build();
+		}
+
+		final long position = log.getLast();
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				log.read(after, REPLICATION_BATCH_BYTES, output);
+			}
+		};
+
+		return Response.ok(out, MediaType.TEXT_PLAIN).header(LDPConstants.HDR_REPLICATION_POSITION, position).build();
+	}
+
+	/**
+	 * The whole dataset as N-Quads, including the replication position, for
+	 * a new follower.
+	 */
+	@GET
+	@Path("replication/snapshot")
+	@Produces(LDPConstants.CT_APPLICATION_NQUADS)
+	public Response getReplicationSnapshot() {
+		final TDBGraphStore store = getStore();
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				store.readLock();
+				try {
+					ReplicationLog.writeSnapshot(store, output);
+				} finally {
+					store.end();
+				}
+			}
+		};
+
+		return Response.ok(out, LDPConstants.CT_APPLICATION_NQUADS).build();
+	}
+
+	/**
+	 * The background jobs that are queued or running, and the most recent
+	 * finished ones, oldest first.
+	 */
+	@GET
+	@Path("jobs")
+	public String getJobs() {
+		JsonArray jobs = new JsonArray();
+		for (BackgroundJob job : BackgroundJobs.getInstance().list()) {
+			jobs.add(job.toJSON());
+		}
+		JsonObject json = new JsonObject();
+		json.put("jobs", jobs);
+
+		return json.toString();
+	}
+
+	/**
+	 * The state and progress of a background job.
+	 */
+	@GET
+	@Path("jobs/{id}")
+	public String getJob(@PathParam("id") String id) {
+		return getBackgroundJob(id).toJSON().toString();
+	}
+
+	/**
+	 * Cancels a background job. It stops before its next batch; the
+	 * batches it already did stay done. The resources a cancelled subtree
+	 * delete didn't reach are left for the garbage collector.
+	 */
+	@DELETE
+	@Path("jobs/{id}")
+	public String cancelJob(@PathParam("id") String id) {
+		final BackgroundJob job = getBackgroundJob(id);
+		job.cancel();
+
+		return job.toJSON().toString();
+	}
+
+	/**
+	 * Starts a garbage collection, or returns the one already queued or
+	 * running. The response is 202 Accepted with the job, whose state is
+	 * at the <code>Location</code>.
+	 *
+	 * @see JenaLDPGarbageCollector
+	 */
+	@POST
+	@Path("gc")
+	public Response collectGarbage() {
+		if (JenaLDPService.getFollower() != null) {
+			return Response.status(Status.CONFLICT).entity("Collect garbage on the leader").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final BackgroundJob job = JenaLDPService.collectGarbage();
+		return Response.status(Status.ACCEPTED).location(URI.create(JOBS_PATH + "/" + job.getId()))
+				.entity(job.toJSON().toString()).build();
+	}
+
+	/**
+	 * The transactions of each store, one for each shard on a sharded
+	 * server: the writer with its current stack, the writers queued behind
+	 * it, and the number of readers.
+	 *
+	 * @see TransactionMonitor
+	 */
+	@GET
+	@Path("transactions")
+	public String getTransactions() {
+		final ShardRouter shards = getStore().getShards();
+		JsonArray stores = new JsonArray();
+		for (TDBGraphStore store : (shards == null) ? Collections.singletonList(getStore()) : shards.getStores()) {
+			final TransactionMonitor monitor = store.getTransactionMonitor();
+			JsonObject json = new JsonObject();
+			json.put("readers", monitor.getReaders());
+			final TransactionMonitor.Transaction writer = monitor.getWriter();
+			if (writer != null) {
+				JsonObject holder = toJSON(writer);
+				JsonArray stack = new JsonArray();
+				for (StackTraceElement element : writer.getThread().getStackTrace()) {
+					stack.add(element.toString());
+				}
+				holder.put("stack", stack);
+				json.put("writer", holder);
+			}
+			JsonArray waiting = new JsonArray();
+			for (TransactionMonitor.Transaction transaction : monitor.getWaiting()) {
+				waiting.add(toJSON(transaction));
+			}
+			json.put("queueDepth", waiting.size());
+			json.put("waiting", waiting);
+			stores.add(json);
+		}
+		JsonObject json = new JsonObject();
+		json.put("slowMillis", getStore().getTransactionMonitor().getSlow());
+		json.put("stores", stores);
+
+		return json.toString();
+	}
+
+	/**
+	 * The server's {@link Metrics} for Prometheus to scrape.
+	 */
+	@GET
+	@Path("metrics")
+	@Produces(CT_PROMETHEUS)
+	public Response getMetrics() {
+		// Registers the stores' metrics if nothing has used them yet.
+		getStore();
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				final Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+				Metrics.getInstance().write(writer);
+				writer.flush();
+			}
+		};
+
+		return Response.ok(out, CT_PROMETHEUS).build();
+	}
+
+	private BackgroundJob getBackgroundJob(String id) {
+		final BackgroundJob job = BackgroundJobs.getInstance().get(id);
+		if (job == null) {
+			throw new WebApplicationException(Response.status(Status.NOT_FOUND).entity("No such job").type(MediaType.TEXT_PLAIN).build());
+		}
+
+		return job;
+	}
+
+	private long time(TDBGraphStore store, Query query) {
+		// Bypass the result cache so the query really runs.
+		store.getQueryResultCache().clear();
+		final long start = System.currentTimeMillis();
+		store.query(NullOutputStream.NULL_OUTPUT_STREAM, query, QueryResultsFormat.getSupportedTypes(query).get(0));
+		return System.currentTimeMillis() - start;
+	}
+
+	private JsonObject toJSON(TransactionMonitor.Transaction transaction) {
+		JsonObject json = new JsonObject();
+		json.put("thread", transaction.getThread().getName());
+		if (transaction.getOperation() != null) {
+			json.put("operation", transaction.getOperation());
+			json.put("uri", transaction.getURI());
+		}
+		json.put("waitedMillis", transaction.getWaitMillis());
+		json.put("heldMillis", transaction.getHeldMillis());
+		return json;
+	}
+
+	private JsonObject toJSON(TDBStatistics statistics) {
+		JsonObject json = new JsonObject();
+		json.put("generation", statistics.getGeneration());
+		json.put("lastRun", statistics.getLastRun());
+		json.put("lastDurationMillis", statistics.getLastDuration());
+		if (statistics.getFile() != null) {
+			json.put("file", statistics.getFile().getPath());
+		}
+
+		StatsResults results = statistics.getResults();
+		if (results != null) {
+			json.put("triples", results.getCount());
+			json.put("predicates", results.getPredicates().size());
+			json.put("types", results.getTypes().size());
+		}
+
+		JsonObject before = new JsonObject();
+		before.put("queries", statistics.getQueriesBefore());
+		before.put("meanMillis", JsonNumber.value(statistics.getMeanTimeBefore()));
+		json.put("before", before);
+
+		JsonObject after = new JsonObject();
+		after.put("queries", statistics.getQueriesAfter());
+		after.put("meanMillis", JsonNumber.value(statistics.getMeanTimeAfter()));
+		json.put("after", after);
+
+		return json;
+	}
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.eclipse.lyo.ldp.server.ILDPResource;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Reads many resources in one request and one read transaction. The
+ * response is a TriG or N-Quads stream with each resource's graph named by
+ * its URI. Each graph is the representation a GET with the same
+ * <code>Prefer</code> header returns. The default graph, written last,
+ * reports the status of each resource and, for those found, the ETag a GET
+ * would return:
+ *
+ * <pre>
+ * &lt;http://example.com/resources/bug1&gt; lyo:status 200 ; lyo:etag "W/\"...\"" .
+ * &lt;http://example.com/resources/bug9&gt; lyo:status 404 .
+ * </pre>
+ *
+ * Missing resources don't fail the batch.
+ */
+@Path("_batch")
+public class JenaLDPBatchService {
+	public static final String LDP_BATCH_MAX_RESOURCES = "ldp.batch.maxResources";
+	public static final String PARAM_URI = "uri";
+
+	private static final String[] RESPONSE_TYPES = {
+		LDPConstants.CT_APPLICATION_TRIG, LDPConstants.CT_TEXT_TRIG, LDPConstants.CT_APPLICATION_NQUADS };
+
+	@Context HttpHeaders fRequestHeaders;
+
+	protected TDBGraphStore getStore() {
+		return JenaLDPService.getStore();
+	}
+
+	protected List<MediaType> getAcceptableMediaTypes() {
+		return fRequestHeaders.getAcceptableMediaTypes();
+	}
+
+	protected MultivaluedMap<String, String> getPreferences() {
+		return LDPService.parsePreferences(fRequestHeaders.getRequestHeaders().get(LDPConstants.HDR_PREFER));
+	}
+
+	/**
+	 * @param uris the resources, one <code>uri</code> query parameter each
+	 */
+	@GET
+	@Produces({ LDPConstants.CT_APPLICATION_TRIG, LDPConstants.CT_TEXT_TRIG, LDPConstants.CT_APPLICATION_NQUADS })
+	public Response get(@QueryParam(PARAM_URI) List<String> uris) {
+		return batch(uris);
+	}
+
+	/**
+	 * @param body the resources as a <code>text/uri-list</code>
+	 */
+	@POST
+	@Consumes(LDPConstants.CT_TEXT_URI_LIST)
+	@Produces({ LDPConstants.CT_APPLICATION_TRIG, LDPConstants.CT_TEXT_TRIG, LDPConstants.CT_APPLICATION_NQUADS })
+	public Response post(String body) {
+		final List<String> uris = new ArrayList<String>();
+		for (String line : body.split("\r?\n")) {
+			line = line.trim();
+			// Lines starting with # are comments (RFC 2483).
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				uris.add(line);
+			}
+		}
+
+		return batch(uris);
+	}
+
+	protected Response batch(Collection<String> requested) {
+		if (requested == null || requested.isEmpty()) {
+			return Response.status(Status.BAD_REQUEST).entity("No resources requested").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final Set<String> uris = new LinkedHashSet<String>(requested);
+		final int max = Integer.getInteger(LDP_BATCH_MAX_RESOURCES, 1000);
+		if (uris.size() > max) {
+			return Response.status(Status.REQUEST_ENTITY_TOO_LARGE)
+					.entity("At most " + max + " resources per batch").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final String contentType = negotiate();
+		// The pretty TriG stream writer garbles output when the graph
+		// changes, so use the flat form (one quad per line).
+		final RDFFormat format = LDPConstants.CT_APPLICATION_NQUADS.equals(contentType) ? RDFFormat.NQUADS : RDFFormat.TRIG_FLAT;
+		final TDBGraphStore store = getStore();
+		final JenaLDPResourceManager resources = new JenaLDPResourceManager(store);
+		final MultivaluedMap<String, String> preferences = getPreferences();
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				final StreamRDF stream = StreamRDFWriter.getWriterStream(output, format);
+				stream.start();
+				stream.prefix("lyo", Lyo.NS);
+				// Status triples are small, so keep them and write the default
+				// graph last rather than switching graphs for every resource.
+				final List<Triple> statuses = new ArrayList<Triple>();
+				// On a sharded server, the resources can be in any shard.
+				final ShardRouter shards = store.getShards();
+				if (shards != null) {
+					shards.readLock();
+				} else {
+					store.readLock();
+				}
+				try {
+					for (String uri : uris) {
+						writeResource(stream, resources, uri, preferences, statuses);
+					}
+				} finally {
+					if (shards != null) {
+						shards.end();
+					} else {
+						store.end();
+					}
+				}
+				for (Triple status : statuses) {
+					stream.triple(status);
+				}
+				stream.finish();
+			}
+		};
+
+		return Response.ok(out, contentType).build();
+	}
+
+	private void writeResource(StreamRDF stream, JenaLDPResourceManager resources, String uri,
+			MultivaluedMap<String, String> preferences, List<Triple> statuses) {
+		if (!isAbsolute(uri)) {
+			final Node error = NodeFactory.createBlankNode();
+			statuses.add(status(error, Status.BAD_REQUEST));
+			statuses.add(new Triple(error, Lyo.details.asNode(), NodeFactory.createLiteral("Invalid URI: " + uri)));
+			return;
+		}
+
+		// The same resource and representation as a GET.
+		final Node graphName = NodeFactory.createURI(uri);
+		final ILDPResource resource = resources.getInTransaction(uri);
+		if (resource instanceof JenaLDPNonRdfSource) {
+			// A non-RDF source has no graph to return.
+			statuses.add(status(graphName, Status.NOT_ACCEPTABLE));
+			return;
+		}
+		final ResponseBuilder response = Response.ok();
+		final Model graph = (resource == null) ? null : ((JenaLDPRDFSource) resource).getRepresentation(preferences, response);
+		if (graph == null) {
+			statuses.add(status(graphName, Status.NOT_FOUND));
+			return;
+		}
+
+		statuses.add(status(graphName, Status.OK));
+		statuses.add(new Triple(graphName, Lyo.etag.asNode(), NodeFactory.createLiteral(response.build().getHeaderString(LDPConstants.HDR_ETAG))));
+		final ExtendedIterator<Triple> triples = graph.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				stream.quad(new Quad(graphName, triples.next()));
+			}
+		} finally {
+			triples.close();
+		}
+	}
+
+	private static Triple status(Node subject, Status status) {
+		return new Triple(subject, Lyo.status.asNode(),
+				NodeFactory.createLiteral(Integer.toString(status.getStatusCode()), XSDDatatype.XSDinteger));
+	}
+
+	private static boolean isAbsolute(String uri) {
+		try {
+			return new URI(uri).isAbsolute();
+		} catch (URISyntaxException e) {
+			return false;
+		}
+	}
+
+	private String negotiate() {
+		for (MediaType acceptable : getAcceptableMediaTypes()) {
+			for (String type : RESPONSE_TYPES) {
+				if (acceptable.isCompatible(MediaType.valueOf(type))) {
+					return type;
+				}
+			}
+		}
+
+		return LDPConstants.CT_APPLICATION_TRIG;
+	}
+}
@@ -34,35 +34,69 @@
 package org.eclipse.lyo.ldp.server.jena;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.eclipse.lyo.ldp.server.ILDPContainer;
 import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.query.OSLCQuery;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJobs;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
 import org.eclipse.lyo.ldp.server.jena.store.GraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.QueryCache;
+import org.eclipse.lyo.ldp.server.jena.store.QueryGovernor;
+import org.eclipse.lyo.ldp.server.jena.store.QueryResultsFormat;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
 import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.TextIndex;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
 import org.eclipse.lyo.ldp.server.service.LDPService;
 
+import org.apache.jena.atlas.json.JsonArray;
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryException;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.NodeIterator;
 import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapFactory;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
 
@@ -74,8 +108,38 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 {
 	public static final String DEFAULT_RESOURCE_PREFIX = "res";
 
+	/**
+	 * System property for the most members inlined in a container response
+	 * when the client asks for contained descriptions.
+	 */
+	public static final String LDP_INLINE_PAGE_SIZE = "ldp.inline.pageSize";
+
+	/**
+	 * System property for the number of full-text search results per page.
+	 */
+	public static final String LDP_SEARCH_PAGE_SIZE = "ldp.search.pageSize";
+
+	/**
+	 * System property for how long, in seconds, a change feed request stays
+	 * open: the whole event stream, or a long poll waiting for a change.
+	 */
+	public static final String LDP_CHANGES_TIMEOUT = "ldp.changes.timeout";
+
+	/**
+	 * Milliseconds between comments on an idle event stream, so proxies don't
+	 * close it.
+	 */
+	private static final long HEARTBEAT_MILLIS = 15000;
+
+	/**
+	 * The most changes read from the bus at a time.
+	 */
+	private static final int CHANGES_BATCH = 100;
+
 	protected String fResourceURIPrefix; // New resource name template, default is "res" + N
 
+	private JenaLDPSubtreeDelete fSubtreeDelete; // Set while deleteSubtree() deletes the container
+
 	/**
 	 * Create a LDPContainer instance for the specified URI and with the default configuration parameters}.
 	 * @see #LDPContainer(String, String, GraphStore, GraphStore, InputStream)
@@ -143,6 +207,320 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 		fGraphStore.query(outStream, queryString, resultsFormat);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.lyo.ldp.server.ILDPContainer#query(java.lang.String, javax.ws.rs.core.MultivaluedMap, java.util.List)
+	 */
+	@Override
+	public Response query(String queryString, MultivaluedMap<String, String> parameters, List<MediaType> acceptableTypes)
+	{
+		final Query query = parseQuery(queryString, parameters);
+		final String contentType = QueryResultsFormat.negotiate(query, acceptableTypes);
+		if (contentType == null) {
+			return Response.status(Status.NOT_ACCEPTABLE).build();
+		}
+
+		// The root container answers for the whole dataset. Other containers
+		// only see the graphs in their subtree.
+		final boolean scoped = !LDPService.ROOT_CONTAINER_URL.equals(fURI);
+		final boolean includeCompanions = Boolean.parseBoolean(parameters.getFirst(LDPService.PARAM_COMPANIONS));
+		// Wait for a slot now. Once the results are streaming, the status has
+		// been sent and a 503 is no longer possible.
+		final QueryGovernor.Admission admission;
+		try {
+			admission = fGraphStore.admitQuery();
+		} catch (QueryGovernor.SaturatedException e) {
+			throw unavailable(e);
+		}
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				fGraphStore.query(output, query, contentType, scoped ? fURI : null, includeCompanions, admission);
+			}
+		};
+
+		return Response.ok(out, contentType).build();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.lyo.ldp.server.ILDPContainer#search(java.lang.String, javax.ws.rs.core.MultivaluedMap)
+	 */
+	public Response search(String contentType, MultivaluedMap<String, String> parameters)
+	{
+		final String queryString = parameters.getFirst(LDPService.PARAM_SEARCH);
+		final int page = getPage(parameters);
+		if (queryString == null || queryString.trim().isEmpty() || page < 1) {
+			return Response.status(Status.BAD_REQUEST).entity("Missing search or invalid page").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		if (contentType == null) {
+			contentType = LDPConstants.CT_TEXT_TURTLE;
+		} else if (LDPConstants.CT_APPLICATION_JSON.equals(contentType)) {
+			contentType = LDPConstants.CT_APPLICATION_LD_JSON;
+		}
+		final Lang lang = RDFLanguages.contentTypeToLang(contentType);
+		if (lang == null || (lang.equals(Lang.JSONLD) && !isJSONLDPresent())) {
+			fail(Status.NOT_ACCEPTABLE);
+		}
+
+		final int pageSize = Integer.getInteger(LDP_SEARCH_PAGE_SIZE, 20);
+		final String scope = LDPService.ROOT_CONTAINER_URL.equals(fURI) ? null : fURI;
+		final List<TextIndex.Hit> hits;
+		try {
+			// One extra to tell if there is another page.
+			hits = fGraphStore.search(queryString, scope, (page - 1) * pageSize, pageSize + 1);
+		} catch (IllegalArgumentException e) {
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final Model model = ModelFactory.createDefaultModel();
+		for (TextIndex.Hit hit : hits.subList(0, Math.min(hits.size(), pageSize))) {
+			model.getResource(hit.uri).addLiteral(Lyo.score, model.createTypedLiteral(hit.score));
+		}
+		model.setNsPrefix("lyo", Lyo.NS);
+
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				JenaLDPRDFSource.write(model, output, lang);
+			}
+		};
+		ResponseBuilder response = Response.ok(out, contentType);
+		if (hits.size() > pageSize) {
+			response.header(LDPConstants.HDR_LINK, "<" + getPageURI(parameters, page + 1) + ">; rel=\"next\"");
+		}
+
+		return build(response);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.lyo.ldp.server.ILDPContainer#getChanges(java.lang.String, javax.ws.rs.core.MultivaluedMap, java.lang.String)
+	 */
+	public Response getChanges(String contentType, MultivaluedMap<String, String> parameters, String lastEventID)
+	{
+		final String since = (lastEventID != null) ? lastEventID : parameters.getFirst(LDPService.PARAM_SINCE);
+		final String wait = parameters.getFirst(LDPService.PARAM_WAIT);
+		final long after;
+		long timeout = Integer.getInteger(LDP_CHANGES_TIMEOUT, 30) * 1000L;
+		try {
+			after = (since == null || since.isEmpty()) ? fGraphStore.getChangeBus().getLastID() : Long.parseLong(since.trim());
+			if (wait != null) {
+				timeout = Math.min(timeout, Math.max(0, Long.parseLong(wait.trim()) * 1000L));
+			}
+		} catch (NumberFormatException e) {
+			return Response.status(Status.BAD_REQUEST).entity("Invalid change ID or wait").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final String scope = LDPService.ROOT_CONTAINER_URL.equals(fURI) ? null : fURI;
+		if (LDPConstants.CT_APPLICATION_JSON.equals(contentType)) {
+			final ChangeBus.Page page;
+			try {
+				page = fGraphStore.getChanges(after, scope, CHANGES_BATCH, timeout);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return Response.status(Status.SERVICE_UNAVAILABLE).build();
+			}
+
+			final JsonObject json = new JsonObject();
+			json.put("last", page.last);
+			json.put("reset", page.reset);
+			final JsonArray changes = new JsonArray();
+			for (ChangeBus.Change change : page.changes) {
+				changes.add(change.toJSON());
+			}
+			json.put("changes", changes);
+
+			return Response.ok(json.toString(), LDPConstants.CT_APPLICATION_JSON)
+					.header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+		}
+
+		if (contentType != null && !LDPConstants.CT_TEXT_EVENT_STREAM.equals(contentType)) {
+			fail(Status.NOT_ACCEPTABLE);
+		}
+
+		final long streamTimeout = timeout;
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				final Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+				final long deadline = System.currentTimeMillis() + streamTimeout;
+				writer.write("retry: 1000\n\n");
+				writer.flush();
+
+				long last = after;
+				try {
+					long remaining;
+					while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+						final ChangeBus.Page page = fGraphStore.getChanges(last, scope, CHANGES_BATCH, Math.min(remaining, HEARTBEAT_MILLIS));
+						if (page.reset) {
+							writeEvent(writer, page.last, "reset", "{ \"last\" : " + page.last + " }");
+						} else if (page.changes.isEmpty()) {
+							writer.write(": heartbeat\n\n");
+						}
+						for (ChangeBus.Change change : page.changes) {
+							writeEvent(writer, change.id, change.type.getName(), change.toJSON().toString());
+						}
+						writer.flush();
+						last = page.last;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		return Response.ok(out, LDPConstants.CT_TEXT_EVENT_STREAM)
+				.header(HttpHeaders.CACHE_CONTROL, "no-cache").build();
+	}
+
+	/**
+	 * Writes a Server-Sent Event. Each line of the data gets its own
+	 * <code>data:</code> field, which the client joins back together.
+	 */
+	private static void writeEvent(Writer writer, long id, String event, String data) throws IOException {
+		writer.write("id: " + id + "\n");
+		writer.write("event: " + event + "\n");
+		for (String line : data.split("\n")) {
+			writer.write("data: " + line + "\n");
+		}
+		writer.write("\n");
+	}
+
+	/**
+	 * A 503 response for a query the governor rejected or cancelled. A
+	 * cancellation only reaches the client if no results were written
+	 * before the timeout.
+	 */
+	protected WebApplicationException unavailable(RuntimeException e) {
+		if (e instanceof QueryGovernor.SaturatedException) {
+			return new WebApplicationException(Response.status(Status.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, ((QueryGovernor.SaturatedException) e).getRetryAfter()).build());
+		}
+
+		return new WebApplicationException(Response.status(Status.SERVICE_UNAVAILABLE)
+				.entity("Query timed out").type(MediaType.TEXT_PLAIN).build());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.lyo.ldp.server.ILDPContainer#queryMembers(java.lang.String, javax.ws.rs.core.MultivaluedMap)
+	 */
+	public Response queryMembers(String contentType, MultivaluedMap<String, String> parameters)
+	{
+		final OSLCQuery oslcQuery;
+		try {
+			oslcQuery = OSLCQuery.parse(parameters);
+		} catch (IllegalArgumentException e) {
+			return Response.status(Status.BAD_REQUEST).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+		}
+
+		if (contentType == null) {
+			contentType = LDPConstants.CT_TEXT_TURTLE;
+		} else if (LDPConstants.CT_APPLICATION_JSON.equals(contentType)) {
+			contentType = LDPConstants.CT_APPLICATION_LD_JSON;
+		}
+		final boolean streamed = QueryResultsFormat.GRAPH_TYPES.contains(contentType);
+		if (!streamed && !(LDPConstants.CT_APPLICATION_LD_JSON.equals(contentType) && isJSONLDPresent())) {
+			return Response.status(Status.NOT_ACCEPTABLE).build();
+		}
+
+		// For a page, find the members first so the CONSTRUCT only has to
+		// describe those. Otherwise a single query does both.
+		List<String> members = null;
+		String next = null;
+		if (oslcQuery.isPaged()) {
+			try {
+				members = fGraphStore.selectURIs(oslcQuery.getMemberQuery(fURI), "m");
+			} catch (QueryGovernor.SaturatedException | QueryCancelledException e) {
+				throw unavailable(e);
+			}
+			if (members.size() > oslcQuery.getPageSize()) {
+				members = members.subList(0, oslcQuery.getPageSize());
+				next = getPageURI(parameters, oslcQuery.getPage() + 1);
+			}
+		}
+
+		final Query query = oslcQuery.getConstructQuery(fURI, members);
+		final String responseType = contentType;
+		final QueryGovernor.Admission admission;
+		try {
+			admission = fGraphStore.admitQuery();
+		} catch (QueryGovernor.SaturatedException e) {
+			throw unavailable(e);
+		}
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				if (streamed) {
+					fGraphStore.queryDistinct(output, query, responseType, admission);
+				} else {
+					// JSON-LD can't be streamed.
+					final Model model = fGraphStore.construct(query, admission);
+					model.setNsPrefixes(query.getPrefixMapping());
+					JenaLDPRDFSource.write(model, output, Lang.JSONLD);
+				}
+			}
+		};
+
+		ResponseBuilder response = Response.ok(out, responseType);
+		if (next != null) {
+			response.header(LDPConstants.HDR_LINK, "<" + next + ">; rel=\"next\"");
+		}
+
+		return response.build();
+	}
+
+	/**
+	 * Parses a SPARQL protocol query, adding any dataset from the
+	 * <code>default-graph-uri</code> and <code>named-graph-uri</code>
+	 * parameters and substituting the values of any <code>$var</code>
+	 * parameters. Parameterized queries keep the same query text from
+	 * request to request, so they are only parsed once.
+	 *
+	 * @throws WebApplicationException with status 400 if the query or a parameter value is not valid
+	 */
+	protected Query parseQuery(String queryString, MultivaluedMap<String, String> parameters) {
+		Query query;
+		try {
+			query = fGraphStore.parseQuery(queryString);
+		} catch (QueryException e) {
+			throw new WebApplicationException(Response.status(Status.BAD_REQUEST).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build());
+		}
+
+		final Map<String, Node> bindings = new HashMap<String, Node>();
+		final PrefixMap prefixes = PrefixMapFactory.create(query.getPrefixMapping());
+		for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+			final String name = parameter.getKey();
+			if (name.length() > 1 && name.startsWith(LDPService.PARAM_BINDING_PREFIX)) {
+				try {
+					bindings.put(name.substring(1), NodeFactoryExtra.parseNode(parameter.getValue().get(0), prefixes));
+				} catch (RiotException e) {
+					throw new WebApplicationException(Response.status(Status.BAD_REQUEST)
+							.entity("Invalid value for " + name + ": " + e.getMessage()).type(MediaType.TEXT_PLAIN).build());
+				}
+			}
+		}
+		query = QueryCache.bind(query, bindings);
+
+		final List<String> defaultGraphURIs = parameters.get(LDPService.PARAM_DEFAULT_GRAPH_URI);
+		final List<String> namedGraphURIs = parameters.get(LDPService.PARAM_NAMED_GRAPH_URI);
+		if (defaultGraphURIs != null || namedGraphURIs != null) {
+			// The protocol dataset replaces any FROM and FROM NAMED in the query.
+			query.getGraphURIs().clear();
+			query.getNamedGraphURIs().clear();
+			if (defaultGraphURIs != null) {
+				for (String uri : defaultGraphURIs) {
+					query.addGraphURI(uri);
+				}
+			}
+			if (namedGraphURIs != null) {
+				for (String uri : namedGraphURIs) {
+					query.addNamedGraphURI(uri);
+				}
+			}
+		}
+
+		return query;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.lyo.ldp.server.impl.ILDPContainer#post(java.io.InputStream, java.lang.String, java.lang.String)
 	 */
@@ -150,13 +528,28 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 	{
 		fGraphStore.writeLock();
 		try {
-			String resourceURI = fGraphStore.createGraph(fURI, fResourceURIPrefix, nameHint);
-			Model configModel = fGraphStore.createCompanionGraph(resourceURI, JenaLDPResourceManager.mintConfigURI(resourceURI));
-			String result = createResource(resourceURI, true, stream, contentType, user);
-			// Only if request header is sent of rel='type' <ldp#Resource> do we set this (and use it), all other values
-			// are ignored and fall back to default behavior.
-			if (isResourceInteractionModel) {
-				configModel.addLiteral(configModel.createResource(resourceURI), Lyo.isResourceInteractionModel, true);
+			final ShardRouter shards = fGraphStore.getShards();
+			final String resourceURI;
+			if (shards != null && shards.isRoot(fURI)) {
+				// The resource goes in its own shard, so don't allocate the graph here.
+				resourceURI = shards.mintURI(fResourceURIPrefix, nameHint);
+			} else {
+				resourceURI = fGraphStore.createGraph(fURI, fResourceURIPrefix, nameHint);
+			}
+			final TDBGraphStore store = getStoreForNew(resourceURI);
+			String result;
+			lockMemberStore(store);
+			try {
+				Model configModel = store.createCompanionGraph(resourceURI, JenaLDPResourceManager.mintConfigURI(resourceURI));
+				result = createResource(resourceURI, true, stream, contentType, user);
+				// Only if request header is sent of rel='type' <ldp#Resource> do we set this (and use it), all other values
+				// are ignored and fall back to default behavior.
+				if (isResourceInteractionModel) {
+					configModel.addLiteral(configModel.createResource(resourceURI), Lyo.isResourceInteractionModel, true);
+				}
+				commitMemberStore(store);
+			} finally {
+				endMemberStore(store);
 			}
 			fGraphStore.commit();
 			return result;
@@ -165,6 +558,44 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 		}
 	}
 
+	/**
+	 * The store for a new resource created through this container: the
+	 * container's own, or on a sharded server, for the root container, the
+	 * shard of the resource's top-level resource, which is assigned one if
+	 * needed. Must be called in a write transaction.
+	 */
+	protected TDBGraphStore getStoreForNew(String resourceURI) {
+		final ShardRouter shards = fGraphStore.getShards();
+		return (shards != null && shards.getRoot() == fGraphStore) ? shards.assign(resourceURI) : fGraphStore;
+	}
+
+	/**
+	 * Begins a write transaction on the store for a new resource if it is
+	 * in another shard. This container's store is always locked first.
+	 */
+	private void lockMemberStore(TDBGraphStore store) {
+		if (store != fGraphStore) {
+			store.writeLock();
+		}
+	}
+
+	/**
+	 * Commits the store for a new resource if it is in another shard. The
+	 * resource is committed before its containment triple, so the triple
+	 * never refers to a missing resource.
+	 */
+	private void commitMemberStore(TDBGraphStore store) {
+		if (store != fGraphStore) {
+			store.commit();
+		}
+	}
+
+	private void endMemberStore(TDBGraphStore store) {
+		if (store != fGraphStore) {
+			store.end();
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.lyo.ldp.server.impl.ILDPContainer#putCreate(java.lang.String, java.io.InputStream, java.lang.String, java.lang.String)
 	 */
@@ -173,20 +604,34 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 	{
 		boolean create = false;
 
+		final JenaLDPContainer shardContainer = getShardContainer(resourceURI);
+		if (shardContainer != null) {
+			// Nothing to add to the root store, so only lock the shard.
+			return shardContainer.putCreate(resourceURI, stream, contentType, user, requestHeaders);
+		}
+
 		fGraphStore.writeLock();
 		try {
-			if (fGraphStore.getGraph(resourceURI) == null) {
-				Model configModel = fGraphStore.getGraph(JenaLDPResourceManager.mintConfigURI(resourceURI));
-				if (configModel != null) {
-					// Attempting to reuse a URI, fail the request.
-					throw new WebApplicationException(Response.status(Status.BAD_REQUEST).entity(
-							"Can not create a resource for URI that has already been used for a deleted resource at: "+resourceURI).build());
+			final TDBGraphStore store = getStoreForNew(resourceURI);
+			lockMemberStore(store);
+			try {
+				// Most new URIs are ruled out without reading the store.
+				final boolean maybeUsed = store.mightHaveBeenUsed(resourceURI);
+				if (!maybeUsed || store.getGraph(resourceURI) == null) {
+					if (maybeUsed && store.getGraph(JenaLDPResourceManager.mintConfigURI(resourceURI)) != null) {
+						// Attempting to reuse a URI, fail the request.
+						throw new WebApplicationException(Response.status(Status.BAD_REQUEST).entity(
+								"Can not create a resource for URI that has already been used for a deleted resource at: "+resourceURI).build());
+					}
+					store.createCompanionGraph(resourceURI, JenaLDPResourceManager.mintConfigURI(resourceURI));
+					createResource(resourceURI, false, stream, contentType, user);
+					create = true;
+				} else {
+					updateResource(stream, contentType, user, requestHeaders);
 				}
-				fGraphStore.createCompanionGraph(resourceURI, JenaLDPResourceManager.mintConfigURI(resourceURI));
-				createResource(resourceURI, false, stream, contentType, user);
-				create = true;
-			} else {
-				updateResource(stream, contentType, user, requestHeaders);
+				commitMemberStore(store);
+			} finally {
+				endMemberStore(store);
 			}
 			fGraphStore.commit();
 		} finally {
@@ -202,18 +647,81 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 	public void patch(String resourceURI, InputStream stream, String contentType, String user)
 	{
 		String baseURI = resourceURI.equals(fConfigGraphURI) ? fURI : resourceURI;
+		final JenaLDPContainer shardContainer = getShardContainer(resourceURI);
+		if (shardContainer != null && shardContainer.patchExisting(resourceURI, baseURI, stream, contentType, user)) {
+			return;
+		}
+
+		fGraphStore.writeLock();
+		try {
+			final TDBGraphStore store = getStoreForNew(resourceURI);
+			lockMemberStore(store);
+			try {
+				if (store.getGraph(resourceURI) == null)
+					createResource(resourceURI, true, stream, contentType, user);
+				else
+					patchResource(resourceURI, baseURI, stream, contentType, user);
+				commitMemberStore(store);
+			} finally {
+				endMemberStore(store);
+			}
+			fGraphStore.commit();
+		} finally {
+			fGraphStore.end();
+		}
+	}
+
+	/**
+	 * Patches a resource if it exists, in a write transaction on this
+	 * container's store only.
+	 *
+	 * @return false if there is no resource to patch
+	 */
+	private boolean patchExisting(String resourceURI, String baseURI, InputStream stream, String contentType, String user)
+	{
 		fGraphStore.writeLock();
 		try {
-			if (fGraphStore.getGraph(resourceURI) == null)
-				createResource(resourceURI, true, stream, contentType, user);
-			else
-				patchResource(resourceURI, baseURI, stream, contentType, user);
+			if (fGraphStore.getGraph(resourceURI) == null) {
+				// Creating it adds a containment triple, which may be in the root store.
+				return false;
+			}
+			patchResource(resourceURI, baseURI, stream, contentType, user);
 			fGraphStore.commit();
+			return true;
 		} finally {
 			fGraphStore.end();
 		}
 	}
 
+	/**
+	 * On a sharded server, the root container as seen from the shard of a
+	 * resource's top-level resource, so writing the resource only locks
+	 * that shard. The root store is only locked to assign a shard to a new
+	 * top-level resource, or to add a containment triple to the root
+	 * container.
+	 *
+	 * @return the container, or null if this isn't the root store or the
+	 *         resource has to be written through it
+	 */
+	private JenaLDPContainer getShardContainer(String resourceURI)
+	{
+		final ShardRouter shards = fGraphStore.getShards();
+		if (shards == null || shards.getRoot() != fGraphStore || !shards.isAssigned(resourceURI)) {
+			return null;
+		}
+
+		final TDBGraphStore store = shards.getStore(resourceURI);
+		if (store == fGraphStore) {
+			return null;
+		}
+		store.readLock();
+		try {
+			return new JenaLDPContainer(fURI, store);
+		} finally {
+			store.end();
+		}
+	}
+
 	/**
 	 * Create resource and add membership triples
 	 * @param resourceURI The NEW resource being added (including any query params, etc)
@@ -254,7 +762,10 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 		model.add(subject, DCTerms.created, model.createTypedLiteral(time));
 		model.add(subject, DCTerms.modified, model.createTypedLiteral(time));
 
-		fGraphStore.putGraph(resourceURI, model);
+		// In another shard for a new top-level resource
+		final TDBGraphStore store = fGraphStore.getStoreFor(resourceURI);
+		store.putGraph(resourceURI, model);
+		store.recordChange(ChangeBus.Type.CREATE, resourceURI, addToContainer ? fURI : null);
 
 		return resourceURI;
 	}
@@ -294,6 +805,7 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 				// Update dcterms:modified
 				membershipResource.removeAll(DCTerms.modified);
 				membershipResource.addLiteral(DCTerms.modified, membershipResourceModel.createTypedLiteral(time));
+				fGraphStore.recordChange(ChangeBus.Type.UPDATE, membershipResourceURI, null);
 			}
 		}
 
@@ -301,6 +813,7 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 		containerResource.addProperty(LDP.contains, containerModel.createResource(resourceURI));
 		containerResource.removeAll(DCTerms.modified);
 		containerResource.addLiteral(DCTerms.modified, containerModel.createTypedLiteral(time));
+		fGraphStore.recordChange(ChangeBus.Type.UPDATE, containerURI, null);
 	}
 
 	protected void patchResource(String resourceURI, String baseURI, InputStream stream, String contentType, String user)
@@ -325,12 +838,49 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 	 */
 	public void delete()
 	{
-		// TODO: Need to determine if we need any other Container-specific
-		super.delete();
+		final JenaLDPSubtreeDelete job = deleteSubtree();
+		if (job != null) {
+			BackgroundJobs.getInstance().submit(job);
+		}
+	}
+
+	/**
+	 * Deletes the container, and returns a job to delete its members and
+	 * everything below them. The container is gone when this returns, but
+	 * its members can still be read until the job deletes them.
+	 *
+	 * @return the job, not yet submitted, or null if the container had no members
+	 * @see JenaLDPSubtreeDelete
+	 */
+	public JenaLDPSubtreeDelete deleteSubtree()
+	{
+		if (fURI.equals(LDPService.ROOT_CONTAINER_URL)) {
+			fail(Status.FORBIDDEN);
+		}
+
+		final JenaLDPSubtreeDelete job = new JenaLDPSubtreeDelete(fGraphStore, fURI);
+		fSubtreeDelete = job;
+		try {
+			super.delete();
+		} finally {
+			fSubtreeDelete = null;
+		}
+
+		return (job.getRemaining() > 0) ? job : null;
 	}
 
 	@Override
-	protected Model amendResponseGraph(Model container, MultivaluedMap<String, String> preferences)
+	protected void deleteGraph(Calendar time)
+	{
+		final Model model = fGraphStore.getGraph(fURI);
+		if (fSubtreeDelete != null && model != null) {
+			fSubtreeDelete.addMembers(model, model.getResource(fURI), time);
+		}
+		super.deleteGraph(time);
+	}
+
+	@Override
+	protected Model amendResponseGraph(Model container, MultivaluedMap<String, String> preferences, ResponseBuilder response)
 	{
 		final Model result = ModelFactory.createDefaultModel();
 		result.add(container);
@@ -340,29 +890,90 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 			result.getResource(fURI).removeAll(LDP.contains);
 		}
 
-		return result;
+		// Member graphs are read in the same transaction as the container,
+		// and copied straight into the response.
+		if (includeContainedDescriptions(preferences)) {
+			// One extra to tell if there is another page.
+			final int pageSize = getInlinePageSize();
+			final List<String> contained = getContainedURIs(container, pageSize + 1);
+			for (String uri : contained.subList(0, Math.min(contained.size(), pageSize))) {
+				final Model member = fGraphStore.getGraph(uri);
+				if (member != null) {
+					result.add(member);
+				}
+			}
+
+			// Point to the rest of the members if they didn't all fit.
+			if (contained.size() > pageSize) {
+				MultivaluedHashMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+				parameters.putSingle(OSLCQuery.PARAM_SELECT, "*");
+				parameters.putSingle(OSLCQuery.PARAM_PAGE_SIZE, Integer.toString(pageSize));
+				response.header(LDPConstants.HDR_LINK, "<" + getPageURI(parameters, 2) + ">; rel=\"next\"");
+			}
+		}
+
+		return super.amendResponseGraph(result, preferences, response);
 	}
 
+	/**
+	 * Finds the first resources the container contains in URI order, the
+	 * order of an OSLC member query, so inlined members match its first
+	 * page. Only <code>limit</code> URIs are kept while reading the
+	 * containment triples.
+	 *
+	 * @param container the container graph
+	 * @param limit the most URIs to return
+	 * @return the first <code>limit</code> contained resources, sorted
+	 */
+	protected List<String> getContainedURIs(Model container, int limit) {
+		// The largest URI kept is at the head, ready to make way for a smaller one.
+		final PriorityQueue<String> first = new PriorityQueue<String>(limit + 1, Collections.reverseOrder());
+		NodeIterator i = container.listObjectsOfProperty(container.getResource(fURI), LDP.contains);
+		try {
+			while (i.hasNext()) {
+				final RDFNode node = i.next();
+				if (node.isURIResource()) {
+					first.add(node.asResource().getURI());
+					if (first.size() > limit) {
+						first.poll();
+					}
+				}
+			}
+		} finally {
+			i.close();
+		}
+		final List<String> contained = new ArrayList<String>(first);
+		Collections.sort(contained);
+
+		return contained;
+	}
+
+	/**
+	 * @return the most members inlined for {@link LDPConstants#PREFER_CONTAINED_DESCRIPTIONS}
+	 */
+	protected int getInlinePageSize() {
+		return Integer.getInteger(LDP_INLINE_PAGE_SIZE, 100);
+	}
+
+	protected boolean includeContainedDescriptions(MultivaluedMap<String, String> preferences) {
+		final List<String> include = preferences.get(LDPConstants.PREFER_INCLUDE);
+		return include != null && include.contains(LDPConstants.PREFER_CONTAINED_DESCRIPTIONS);
+	}
+
+	@Override
 	protected boolean isReturnRepresentationPreferenceApplied(MultivaluedMap<String, String> preferences) {
 		// Return true if any recognized include or omit preferences are in the request.
 		final List<String> include = preferences.get(LDPConstants.PREFER_INCLUDE);
 		final List<String> omit = preferences.get(LDPConstants.PREFER_OMIT);
 
 		if (include != null
-				&& (include.contains(LDPConstants.PREFER_MINIMAL_CONTAINER) || include.contains(LDPConstants.PREFER_CONTAINMENT))) {
+				&& (include.contains(LDPConstants.PREFER_MINIMAL_CONTAINER) || include.contains(LDPConstants.PREFER_CONTAINMENT)
+						|| include.contains(LDPConstants.PREFER_CONTAINED_DESCRIPTIONS))) {
 			return true;
 		}
 
-		return omit != null && omit.contains(LDPConstants.PREFER_CONTAINMENT);
-	}
-
-	@Override
-	protected void amendResponse(ResponseBuilder response,
-			MultivaluedMap<String, String> preferences) {
-		if (isReturnRepresentationPreferenceApplied(preferences)) {
-			response.header(LDPConstants.HDR_PREFERENCE_APPLIED, LDPConstants.PREFER_RETURN_REPRESENTATION);
-		}
-		super.amendResponse(response, preferences);
+		return (omit != null && omit.contains(LDPConstants.PREFER_CONTAINMENT))
+				|| super.isReturnRepresentationPreferenceApplied(preferences);
 	}
 
 	public static Property getMemberRelation(Model containerGraph, Resource containerResource)
@@ -406,41 +1017,58 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 
 	@Override
 	public Response postNonRDFSource(InputStream content, String stripCharset, String user, String slug) {
+		String savedURI = null; // Set while there's a file no committed graph refers to
 		fGraphStore.writeLock();
 		try {
-			String uri = fGraphStore.mintURI(fURI, fResourceURIPrefix, slug);
-
-			// Config graph for internal metadata (e.g., tracking resource deletion)
-			String configURI = JenaLDPResourceManager.mintConfigURI(uri);
-			Model configModel = fGraphStore.createCompanionGraph(uri, configURI);
-
-			// LDP-NR associated RDF source
+			final ShardRouter shards = fGraphStore.getShards();
+			String uri = (shards != null && shards.isRoot(fURI))
+					? shards.mintURI(fResourceURIPrefix, slug)
+					: fGraphStore.mintURI(fURI, fResourceURIPrefix, slug);
+			final TDBGraphStore store = getStoreForNew(uri);
 			String associatedURI = JenaLDPResourceManager.mintAssociatedRDFSourceURI(uri);
-			Model associatedModel = fGraphStore.createCompanionGraph(uri, associatedURI);
-
-			JenaLDPNonRdfSource.save(content, uri);
-
-			addToContainer(uri, null, Calendar.getInstance());
-			configModel.add(configModel.getResource(configURI), Lyo.memberOf, configModel.getResource(fURI));
+			lockMemberStore(store);
+			try {
+				// Config graph for internal metadata (e.g., tracking resource deletion)
+				String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+				Model configModel = store.createCompanionGraph(uri, configURI);
+
+				// LDP-NR associated RDF source
+				Model associatedModel = store.createCompanionGraph(uri, associatedURI);
+
+				JenaLDPNonRdfSource.save(content, uri);
+				savedURI = uri;
+				store.recordChange(ChangeBus.Type.CREATE, uri, fURI);
+
+				addToContainer(uri, null, Calendar.getInstance());
+				configModel.add(configModel.getResource(configURI), Lyo.memberOf, configModel.getResource(fURI));
+
+				Resource associatedResource = associatedModel.getResource(associatedURI);
+				if (stripCharset != null) {
+					Resource mediaType = associatedModel.createResource(null,  associatedModel.createResource(DCTerms.NS + "IMT"));
+					mediaType.addProperty(RDF.value, stripCharset);
+					associatedResource.addProperty(DCTerms.format, mediaType);
+				}
 
-			Resource associatedResource = associatedModel.getResource(associatedURI);
-			if (stripCharset != null) {
-				Resource mediaType = associatedModel.createResource(null,  associatedModel.createResource(DCTerms.NS + "IMT"));
-				mediaType.addProperty(RDF.value, stripCharset);
-				associatedResource.addProperty(DCTerms.format, mediaType);
-			}
+				if (slug != null) {
+					associatedResource.addProperty(Lyo.slug, slug);
+				}
 
-			if (slug != null) {
-				associatedResource.addProperty(Lyo.slug, slug);
-			}
+				if (user != null) {
+					Resource userResource = associatedModel.getResource(JenaLDPResourceManager.mintUserURI(user));
+					associatedModel.add(associatedResource, DCTerms.creator, userResource);
+					associatedModel.add(associatedResource, DCTerms.contributor, userResource);
+				}
 
-			if (user != null) {
-				Resource userResource = associatedModel.getResource(JenaLDPResourceManager.mintUserURI(user));
-				associatedModel.add(associatedResource, DCTerms.creator, userResource);
-				associatedModel.add(associatedResource, DCTerms.contributor, userResource);
+				commitMemberStore(store);
+				if (store != fGraphStore) {
+					// The shard committed the resource's graphs.
+					savedURI = null;
+				}
+			} finally {
+				endMemberStore(store);
 			}
-
 			fGraphStore.commit();
+			savedURI = null;
 
 			return build(
 					Response
@@ -453,6 +1081,10 @@ public class JenaLDPContainer extends JenaLDPRDFSource implements ILDPContainer
 			);
 		} finally {
 			fGraphStore.end();
+			if (savedURI != null) {
+				// The transaction was aborted.
+				JenaLDPNonRdfSource.deleteFile(savedURI);
+			}
 		}
 	}
 
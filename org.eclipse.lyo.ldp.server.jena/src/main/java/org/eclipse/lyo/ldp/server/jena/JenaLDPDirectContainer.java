@@ -24,6 +24,7 @@ import java.util.Set;
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 
 import org.eclipse.lyo.ldp.server.ILDPDirectContainer;
@@ -84,10 +85,10 @@ public class JenaLDPDirectContainer extends JenaLDPContainer implements ILDPDire
 	}
 
 	@Override
-	protected Model amendResponseGraph(Model container, MultivaluedMap<String, String> preferences)
+	protected Model amendResponseGraph(Model container, MultivaluedMap<String, String> preferences, ResponseBuilder response)
 	{
 		// The super implementation makes a copy we can modify.
-		Model result = super.amendResponseGraph(container, preferences);
+		Model result = super.amendResponseGraph(container, preferences, response);
 		final Resource containerResource = container.getResource(fURI);
 		final String membershipResourceURI = getMembershipResourceURI(container, containerResource);
 		final Property isMemberOfRelation = getIsMemberOfRelation(container, containerResource);
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.WebApplicationException;
+
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.datatypes.xsd.XSDDateTime;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.DCTerms;
+
+/**
+ * Finds and reclaims storage that nothing refers to any more:
+ * <ul>
+ * <li>resources whose container was deleted without them, for instance
+ * when its {@link JenaLDPSubtreeDelete} was cancelled, which are deleted
+ * with the resources below them,</li>
+ * <li>LDP-NRs whose file is missing, which are deleted,</li>
+ * <li>files in {@link JenaLDPNonRdfSource#LDP_NR_DIR} without an LDP-NR,
+ * which are deleted.</li>
+ * </ul>
+ * Config graphs are kept, since they record which URIs were used.
+ * <p>
+ * The stores are scanned first, one read transaction each. Then the
+ * orphans are reclaimed in batches, at most {@link #LDP_GC_RATE} a second,
+ * so the collector doesn't compete with requests for the store or the
+ * disk. Resources and files younger than {@link #LDP_GC_MIN_AGE} are never
+ * reclaimed, since they may belong to a request still in progress.
+ */
+public class JenaLDPGarbageCollector extends BackgroundJob {
+	/**
+	 * System property for the seconds between garbage collections. Default
+	 * is 0, to only collect when asked to at <code>_admin/gc</code>.
+	 */
+	public static final String LDP_GC_INTERVAL = "ldp.gc.interval";
+
+	/**
+	 * System property for the most orphans reclaimed a second. Default is 200.
+	 */
+	public static final String LDP_GC_RATE = "ldp.gc.rate";
+
+	/**
+	 * System property for the most orphans reclaimed in a batch. Default is 100.
+	 */
+	public static final String LDP_GC_BATCH_SIZE = "ldp.gc.batchSize";
+
+	/**
+	 * System property for the seconds a resource or file must have existed
+	 * before it is reclaimed. Default is 3600.
+	 */
+	public static final String LDP_GC_MIN_AGE = "ldp.gc.minAge";
+
+	public static final String TYPE = "gc";
+
+	private enum Phase { SCAN, RESOURCES, NONRDF, FILES, DONE }
+
+	private final List<TDBGraphStore> fStores;
+	private final int fRate = Math.max(Integer.getInteger(LDP_GC_RATE, 200), 1);
+	private final int fBatchSize = Math.max(Integer.getInteger(LDP_GC_BATCH_SIZE, 100), 1);
+	private final long fCutoff = System.currentTimeMillis() - 1000 * Long.getLong(LDP_GC_MIN_AGE, 3600);
+
+	private volatile Phase fPhase = Phase.SCAN;
+	private int fNext; // The next store to scan or reclaim, or the next file
+
+	// Found by the scan. Only used by one thread at a time.
+	private final List<JenaLDPSubtreeDelete> fOrphans = new ArrayList<JenaLDPSubtreeDelete>();
+	private final List<String[]> fDangling = new ArrayList<String[]>(); // Pairs of LDP-NR URI and store index
+	private final Set<String> fFilenames = new HashSet<String>(); // Files of the LDP-NRs
+	private List<File> fFiles;
+
+	private long fThrottleStart;
+	private long fThrottled;
+
+	private volatile long fGraphsScanned;
+	private volatile long fFilesScanned;
+	private volatile long fOrphanResources;
+	private volatile long fDanglingResources;
+	private volatile long fOrphanFiles;
+	private volatile long fBytesReclaimed;
+
+	/**
+	 * @param stores the stores to collect, all the shards of a sharded server
+	 */
+	public JenaLDPGarbageCollector(List<TDBGraphStore> stores) {
+		super(TYPE);
+		fStores = stores;
+	}
+
+	@Override
+	protected boolean runBatch() {
+		switch (fPhase) {
+		case SCAN:
+			scan(fStores.get(fNext++));
+			if (fNext == fStores.size()) {
+				fPhase = Phase.RESOURCES;
+				fNext = 0;
+				fThrottleStart = System.currentTimeMillis();
+			}
+			break;
+
+		case RESOURCES:
+			if (fNext == fOrphans.size()) {
+				fPhase = Phase.NONRDF;
+				fNext = 0;
+				break;
+			}
+			final JenaLDPSubtreeDelete delete = fOrphans.get(fNext);
+			final long processed = delete.getProcessed();
+			final long freed = delete.getBytesFreed();
+			if (!delete.runBatch()) {
+				fNext++;
+			}
+			fOrphanResources += delete.getProcessed() - processed;
+			fBytesReclaimed += delete.getBytesFreed() - freed;
+			processed(delete.getProcessed() - processed);
+			throttle(delete.getProcessed() - processed);
+			break;
+
+		case NONRDF:
+			final int end = Math.min(fNext + fBatchSize, fDangling.size());
+			int count = 0;
+			for (; fNext < end; fNext++) {
+				final String[] dangling = fDangling.get(fNext);
+				try {
+					// Each in its own transaction, as if a client had deleted it.
+					new JenaLDPNonRdfSource(dangling[0], fStores.get(Integer.parseInt(dangling[1]))).delete();
+					fDanglingResources++;
+					count++;
+				} catch (WebApplicationException e) {
+					// Deleted in the meantime.
+				}
+			}
+			processed(count);
+			throttle(count);
+			if (fNext == fDangling.size()) {
+				fPhase = Phase.FILES;
+				fNext = 0;
+				fFiles = listOrphanFiles();
+			}
+			break;
+
+		case FILES:
+			final int last = Math.min(fNext + fBatchSize, fFiles.size());
+			int deleted = 0;
+			for (; fNext < last; fNext++) {
+				final File file = fFiles.get(fNext);
+				final long length = file.length();
+				if (file.lastModified() < fCutoff && file.delete()) {
+					fOrphanFiles++;
+					fBytesReclaimed += length;
+					deleted++;
+				}
+			}
+			processed(deleted);
+			throttle(deleted);
+			if (fNext == fFiles.size()) {
+				fPhase = Phase.DONE;
+			}
+			break;
+
+		case DONE:
+			break;
+		}
+
+		return fPhase != Phase.DONE;
+	}
+
+	/**
+	 * Finds the orphans in a store. Resources in a shard are contained in the
+	 * root store if they are top-level, so both are read.
+	 */
+	private void scan(TDBGraphStore store) {
+		final ShardRouter shards = store.getShards();
+		final TDBGraphStore root = (shards == null) ? store : shards.getRoot();
+		final JenaLDPSubtreeDelete orphans = new JenaLDPSubtreeDelete(store, null);
+		if (root != store) {
+			root.readLock();
+		}
+		store.readLock();
+		try {
+			final Iterator<String> names = store.listGraphNames();
+			while (names.hasNext()) {
+				final String name = names.next();
+				fGraphsScanned++;
+				final boolean associated = JenaLDPResourceManager.isAssociatedRDFSource(name);
+				final String uri = associated
+						? name.substring(0, name.length() - JenaLDPResourceManager.ASSOCIATED_LDP_RS_PARAM.length())
+						: name;
+				if (associated) {
+					fFilenames.add(JenaLDPNonRdfSource.getFile(uri).getName());
+				}
+
+				// Only resources below the root container are managed here.
+				if (!uri.startsWith(LDPService.ROOT_CONTAINER_URL) || uri.equals(LDPService.ROOT_CONTAINER_URL)
+						|| JenaLDPResourceManager.isCompanion(uri)) {
+					continue;
+				}
+				if (store.getContainerStore(uri).isContained(uri)) {
+					if (associated && !JenaLDPNonRdfSource.getFile(uri).isFile() && isOld(store, uri)) {
+						fDangling.add(new String[] { uri, Integer.toString(fStores.indexOf(store)) });
+					}
+				} else if (isOld(store, uri) && !(associated && store.getGraph(uri) != null) && isContainerDeleted(store, uri)) {
+					orphans.add(uri, null);
+				}
+			}
+		} finally {
+			store.end();
+			if (root != store) {
+				root.end();
+			}
+		}
+
+		if (orphans.getRemaining() > 0) {
+			fOrphans.add(orphans);
+		}
+	}
+
+	/**
+	 * @return true if the resource was created before the cutoff, or it isn't known when
+	 */
+	private boolean isOld(TDBGraphStore store, String uri) {
+		final long created = getCreated(store, uri);
+		return created < 0 || created < fCutoff;
+	}
+
+	/**
+	 * Tells whether a resource no container has <code>ldp:contains</code>
+	 * was left behind when its container was deleted. Resources created with
+	 * PUT are never contained, so being uncontained isn't enough. The
+	 * container is the one recorded in the resource's config graph if there
+	 * is one, otherwise the resource its URI is below. It must have been
+	 * deleted after the resource was created: a URI below one that was never
+	 * a resource, or below a resource deleted before, can still be created
+	 * with PUT.
+	 */
+	private boolean isContainerDeleted(TDBGraphStore store, String uri) {
+		final TDBGraphStore containerStore = store.getContainerStore(uri);
+		final String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+		final Model config = store.getGraph(configURI);
+		final Resource memberOf = (config == null) ? null : config.getResource(configURI).getPropertyResourceValue(Lyo.memberOf);
+		final String containerURI;
+		if (memberOf != null && memberOf.isURIResource()) {
+			containerURI = memberOf.getURI();
+		} else {
+			// The URI without its last segment, with or without a trailing slash.
+			final String path = uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+			final String parentURI = path.substring(0, path.lastIndexOf('/') + 1);
+			containerURI = (containerStore.getGraph(JenaLDPResourceManager.mintConfigURI(parentURI)) != null)
+					? parentURI
+					: parentURI.substring(0, parentURI.length() - 1);
+		}
+		if (containerStore.getGraph(containerURI) != null) {
+			return false;
+		}
+		final Model containerConfig = containerStore.getGraph(JenaLDPResourceManager.mintConfigURI(containerURI));
+		if (containerConfig == null) {
+			// Never a resource.
+			return false;
+		}
+
+		final long deleted = getTime(containerConfig, containerURI, Lyo.deleted);
+		final long created = getCreated(store, uri);
+		return deleted < 0 || created < 0 || created <= deleted;
+	}
+
+	/**
+	 * @return when the resource was created, or -1 if it isn't known
+	 */
+	private static long getCreated(TDBGraphStore store, String uri) {
+		final String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+		final Model config = store.getGraph(configURI);
+		return (config == null) ? -1 : getTime(config, configURI, DCTerms.created);
+	}
+
+	/**
+	 * @return the time in milliseconds of a date-time property, or -1 if it has none
+	 */
+	private static long getTime(Model model, String subject, Property property) {
+		final Statement time = model.getResource(subject).getProperty(property);
+		if (time == null || !(time.getObject().isLiteral()) || !(time.getLiteral().getValue() instanceof XSDDateTime)) {
+			return -1;
+		}
+
+		return ((XSDDateTime) time.getLiteral().getValue()).asCalendar().getTimeInMillis();
+	}
+
+	/**
+	 * @return the LDP-NR files no LDP-NR found by the scan refers to
+	 */
+	private List<File> listOrphanFiles() {
+		final List<File> orphans = new ArrayList<File>();
+		final File[] files = JenaLDPNonRdfSource.getLDPNRDirectory().listFiles();
+		if (files == null) {
+			return orphans;
+		}
+		for (File file : files) {
+			if (file.getName().startsWith(JenaLDPNonRdfSource.FILE_PREFIX) && file.isFile()) {
+				fFilesScanned++;
+				if (!fFilenames.contains(file.getName()) && file.lastModified() < fCutoff) {
+					orphans.add(file);
+				}
+			}
+		}
+
+		return orphans;
+	}
+
+	/**
+	 * Sleeps as long as it takes to stay under the rate limit.
+	 */
+	private void throttle(long items) {
+		fThrottled += items;
+		final long wait = fThrottleStart + fThrottled * 1000 / fRate - System.currentTimeMillis();
+		if (wait > 0) {
+			try {
+				Thread.sleep(wait);
+			} catch (InterruptedException e) {
+				cancel();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public JsonObject toJSON() {
+		JsonObject json = super.toJSON();
+		json.put("phase", fPhase.name().toLowerCase());
+		json.put("graphsScanned", fGraphsScanned);
+		json.put("filesScanned", fFilesScanned);
+		json.put("orphanResources", fOrphanResources);
+		json.put("danglingResources", fDanglingResources);
+		json.put("orphanFiles", fOrphanFiles);
+		json.put("bytesReclaimed", fBytesReclaimed);
+		return json;
+	}
+}
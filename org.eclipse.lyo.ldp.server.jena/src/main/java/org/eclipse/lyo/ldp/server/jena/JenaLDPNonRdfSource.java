@@ -37,9 +37,13 @@ import javax.ws.rs.core.Response.Status;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.lyo.ldp.server.LDPConstants;
 import org.eclipse.lyo.ldp.server.LDPNonRDFSource;
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
 import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
@@ -49,12 +53,21 @@ import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.RDF;
 
 public class JenaLDPNonRdfSource extends LDPNonRDFSource {
+	private final static Logger log = LoggerFactory.getLogger(JenaLDPNonRdfSource.class);
+
 	protected final TDBGraphStore fGraphStore; // GraphStore in which to store the container and member resources	
 
 	/**
 	 * Directory for non-RDF resources.
 	 */
 	public static final String LDP_NR_DIR = "ldp.nr.dir";
+
+	static final String FILE_PREFIX = "ldpnr-";
+
+	private static final Metrics.Counter BYTES_IN = Metrics.getInstance().counter("ldp_nr_bytes_total",
+			"Bytes of LDP-NR content stored and returned.", "direction", "in");
+	private static final Metrics.Counter BYTES_OUT = Metrics.getInstance().counter("ldp_nr_bytes_total",
+			"Bytes of LDP-NR content stored and returned.", "direction", "out");
 	
 	public JenaLDPNonRdfSource(String resourceURI, TDBGraphStore graphStore) {
 		super(resourceURI, null);
@@ -107,6 +120,7 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 				Resource userResource = associatedModel.getResource(JenaLDPResourceManager.mintUserURI(user));
 				associatedModel.add(associatedResource, DCTerms.contributor, userResource);
 			}
+			fGraphStore.recordChange(ChangeBus.Type.UPDATE, getURI(), null);
 
 			fGraphStore.commit();
 		} catch (UnsupportedEncodingException e) {
@@ -131,24 +145,27 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 
 	@Override
 	public void delete() {
+		// The root store for a top-level resource of a sharded server, locked first.
+		final TDBGraphStore containerStore = fGraphStore.getContainerStore(getURI());
+		if (containerStore != fGraphStore) {
+			containerStore.writeLock();
+		}
 		fGraphStore.writeLock();
+		final File file;
 		try {
-			// Delete the file.
-			final File file = toFile(getURI());
-			if (!file.isFile()) {
+			// An LDP-NR whose file is missing can still be deleted, so it doesn't linger.
+			final String associatedURI = JenaLDPResourceManager.mintAssociatedRDFSourceURI(getURI());
+			file = toFile(getURI());
+			if (!file.isFile() && fGraphStore.getGraph(associatedURI) == null) {
 				throw new WebApplicationException(Response.Status.NOT_FOUND);
 			}
-	
-			if (!file.delete()) {
-				fail(Status.INTERNAL_SERVER_ERROR);
-			}
 
 			// FIXME: Move this logic into JenaLDPContainer and subclasses
 			final String configURI = JenaLDPResourceManager.mintConfigURI(getURI());
 			final Model configGraph = fGraphStore.getGraph(configURI);
 			final Resource configResource = configGraph.getResource(configURI);
 			final String containerURI = configResource.getPropertyResourceValue(Lyo.memberOf).getURI();
-			final Model containerModel = fGraphStore.getGraph(containerURI);
+			final Model containerModel = containerStore.getGraph(containerURI);
 			final Resource containerResource = containerModel.getResource(containerURI);
 			final Calendar time = Calendar.getInstance();
 			
@@ -156,33 +173,50 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 			final Property memberRelation = JenaLDPDirectContainer.getMemberRelation(containerModel, containerResource);
 			if (memberRelation != null) {
 				final String membershipResourceURI = JenaLDPDirectContainer.getMembershipResourceURI(containerModel, containerResource);
-				final Model membershipResourceModel = (membershipResourceURI.equals(containerURI)) ? containerModel : fGraphStore.getGraph(membershipResourceURI);
+				final Model membershipResourceModel = (membershipResourceURI.equals(containerURI)) ? containerModel : containerStore.getGraph(membershipResourceURI);
 				final Resource membershipResource = membershipResourceModel.getResource(membershipResourceURI);
 				membershipResource.removeAll(DCTerms.modified);
 				membershipResource.addLiteral(DCTerms.modified, containerModel.createTypedLiteral(time));
 				membershipResourceModel.remove(membershipResource, memberRelation, containerModel.getResource(getURI()));
+				containerStore.recordChange(ChangeBus.Type.UPDATE, membershipResourceURI, null);
 			}
 
 			// Next remove the containment triples
 			containerModel.remove(containerResource, LDP.contains, containerModel.getResource(getURI()));
 			containerResource.removeAll(DCTerms.modified);
 			containerResource.addLiteral(DCTerms.modified, containerModel.createTypedLiteral(time));
+			containerStore.recordChange(ChangeBus.Type.UPDATE, containerURI, null);
+			fGraphStore.recordChange(ChangeBus.Type.DELETE, getURI(), containerURI);
 
 			// Delete the resource itself
-			fGraphStore.deleteGraph(JenaLDPResourceManager.mintAssociatedRDFSourceURI(getURI()));
+			fGraphStore.deleteGraph(associatedURI);
 
 			// Keep track of the deletion by logging the delete time
 			configGraph.getResource(getURI()).addLiteral(Lyo.deleted, configGraph.createTypedLiteral(time));
 
+			if (containerStore != fGraphStore) {
+				containerStore.commit();
+			}
 			fGraphStore.commit();
 		} catch (UnsupportedEncodingException e) {
 			e.printStackTrace();
 			fail(Status.INTERNAL_SERVER_ERROR);
+			return;
 		} catch (NoSuchAlgorithmException e) {
 			e.printStackTrace();
 			fail(Status.INTERNAL_SERVER_ERROR);
+			return;
 		} finally {
 			fGraphStore.end();
+			if (containerStore != fGraphStore) {
+				containerStore.end();
+			}
+		}
+
+		// Delete the file once nothing refers to it. If this fails, the
+		// garbage collector reclaims it later.
+		if (file.isFile() && !file.delete()) {
+			log.warn("Failed to delete {}", file);
 		}
 	}
 
@@ -202,6 +236,7 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 			}
 	
 			ResponseBuilder response = Response.ok(file);
+			BYTES_OUT.add(file.length());
 			response.header(LDPConstants.HDR_ETAG, getETag(file));
 			
 			Resource configResource = associatedModel.getResource(associatedURI);
@@ -296,6 +331,34 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 		}
 	}
 	
+	/**
+	 * Deletes the file of an LDP-NR, if there is one.
+	 *
+	 * @param uri the URI of the LDP-NR
+	 * @return the number of bytes freed
+	 */
+	static long deleteFile(String uri) {
+		final File file = getFile(uri);
+		final long length = file.length();
+		return file.delete() ? length : 0;
+	}
+
+	/**
+	 * @param uri the URI of the LDP-NR
+	 * @return its file, whether or not it exists
+	 */
+	static File getFile(String uri) {
+		try {
+			return toFile(uri);
+		} catch (UnsupportedEncodingException e) {
+			e.printStackTrace();
+			throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+		} catch (NoSuchAlgorithmException e) {
+			e.printStackTrace();
+			throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+		}
+	}
+
 	private static File toFile(String uri) throws UnsupportedEncodingException, NoSuchAlgorithmException {
 		String filename = toFilename(uri);
 		File directory = getLDPNRDirectory();
@@ -314,10 +377,10 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 	 */
 	private static String toFilename(String uri) throws UnsupportedEncodingException, NoSuchAlgorithmException {
 		// Use the md5 hash of the URI to create a unique filename.
-		return "ldpnr-" + org.apache.commons.codec.digest.DigestUtils.md5Hex(uri);
+		return FILE_PREFIX + org.apache.commons.codec.digest.DigestUtils.md5Hex(uri);
 	}
 
-	private static File getLDPNRDirectory() {
+	static File getLDPNRDirectory() {
 		// Use LDP_NR_DIR property if set. If not, fall back to user.dir.
 		String path = System.getProperty(LDP_NR_DIR, System.getProperty("user.dir"));
 		File f = new File(path);
@@ -331,7 +394,7 @@ public class JenaLDPNonRdfSource extends LDPNonRDFSource {
 	private static void writeToFile(InputStream content, File file) throws IOException {
 		FileOutputStream out = new FileOutputStream(file);
 		try {
-			IOUtils.copy(content, out);
+			BYTES_IN.add(IOUtils.copyLarge(content, out));
 		} finally {
 			out.close();
 		}
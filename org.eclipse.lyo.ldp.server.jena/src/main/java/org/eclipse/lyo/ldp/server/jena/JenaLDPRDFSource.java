@@ -24,14 +24,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.Calendar;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
@@ -40,16 +45,22 @@ import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.http.HttpStatus;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFLanguages;
 import org.eclipse.lyo.ldp.server.LDPConstants;
 import org.eclipse.lyo.ldp.server.LDPRDFSource;
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.jena.query.OSLCQuery;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
 import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
 import org.eclipse.lyo.ldp.server.service.LDPService;
 
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Property;
@@ -65,6 +76,20 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 	public static final String CONSTRAINTS_URI =
 			UriBuilder.fromPath(LDPService.ROOT_APP_URL).path("constraints.ttl").build().toString();
 
+	/**
+	 * The most inbound references in a response, either inlined for
+	 * {@link LDPConstants#PREFER_INBOUND_REFERENCES} or on one page of
+	 * {@link #getInboundReferences(String, MultivaluedMap)}.
+	 */
+	public static final String LDP_INBOUND_PAGE_SIZE = "ldp.inbound.pageSize";
+
+	/**
+	 * Counters of the RDF bytes read and written, labelled with the Jena
+	 * language name.
+	 */
+	public static final String PARSED_BYTES = "ldp_rdf_parsed_bytes_total";
+	public static final String SERIALIZED_BYTES = "ldp_rdf_serialized_bytes_total";
+
 	/**
 	 * A companion resource "next to" the "real" resource, used to hold implementation
 	 * specific data.
@@ -123,6 +148,7 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 		}
 
 		fGraphStore.putGraph(getURI(), model);
+		fGraphStore.recordChange(ChangeBus.Type.UPDATE, getURI(), null);
 	}
 
 	protected void checkIfMatch(HttpHeaders requestHeaders, Model before) {
@@ -153,11 +179,16 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 			fail(Status.FORBIDDEN);
 		}
 
+		// The root store for a top-level resource of a sharded server. It's locked first, as when creating the resource.
+		final TDBGraphStore containerStore = fGraphStore.getContainerStore(getURI());
+		if (containerStore != fGraphStore) {
+			containerStore.writeLock();
+		}
 		fGraphStore.writeLock();
 		try {
 			// FIXME: Logic to remove containment and membership triples should really be in JenaLDPContainer and subclasses.
 			final String containerURI = getContainerURIForResource(getURI());
-			final Model containerModel = fGraphStore.getGraph(containerURI);
+			final Model containerModel = containerStore.getGraph(containerURI);
 			final Resource containerResource = containerModel.getResource(containerURI);
 			final Property memberRelation = JenaLDPDirectContainer.getMemberRelation(containerModel, containerResource);
 			final Calendar time = Calendar.getInstance();
@@ -165,20 +196,23 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 			// Remove the membership triples.
 			if (memberRelation != null) {
 				final String membershipResourceURI = JenaLDPDirectContainer.getMembershipResourceURI(containerModel, containerResource);
-				final Model membershipResourceModel = (membershipResourceURI.equals(containerURI)) ? containerModel : fGraphStore.getGraph(membershipResourceURI);
+				final Model membershipResourceModel = (membershipResourceURI.equals(containerURI)) ? containerModel : containerStore.getGraph(membershipResourceURI);
 				final Resource membershipResource = membershipResourceModel.getResource(membershipResourceURI);
 				membershipResource.removeAll(DCTerms.modified);
 				membershipResource.addLiteral(DCTerms.modified, membershipResourceModel.createTypedLiteral(time));
 				membershipResourceModel.remove(membershipResource, memberRelation, membershipResourceModel.getResource(getURI()));
+				containerStore.recordChange(ChangeBus.Type.UPDATE, membershipResourceURI, null);
 			}
 
 			// Remove containment triples.
 			containerModel.remove(containerResource, LDP.contains, containerModel.getResource(getURI()));
 			containerResource.removeAll(DCTerms.modified);
 			containerResource.addLiteral(DCTerms.modified, containerModel.createTypedLiteral(time));
+			containerStore.recordChange(ChangeBus.Type.UPDATE, containerURI, null);
 
 			// Delete the resource itself
-			fGraphStore.deleteGraph(getURI());
+			deleteGraph(time);
+			fGraphStore.recordChange(ChangeBus.Type.DELETE, getURI(), containerURI);
 
 			// Keep track of the deletion by logging the delete time
 			final String configURI = JenaLDPResourceManager.mintConfigURI(getURI());
@@ -188,22 +222,38 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 			}
 			configModel.getResource(getURI()).addLiteral(Lyo.deleted, configModel.createTypedLiteral(time));
 
+			if (containerStore != fGraphStore) {
+				// Remove the containment triple first, so it never refers to a missing resource.
+				containerStore.commit();
+			}
 			fGraphStore.commit();
 		} finally {
 			fGraphStore.end();
+			if (containerStore != fGraphStore) {
+				containerStore.end();
+			}
 		}
 	}
 
+	/**
+	 * Deletes the graph of the resource. Called by {@link #delete()} in its
+	 * write transaction.
+	 *
+	 * @param time the delete time
+	 */
+	protected void deleteGraph(Calendar time) {
+		fGraphStore.deleteGraph(getURI());
+	}
+
 	@Override
 	public Response get(String contentType, MultivaluedMap<String, String> preferences) {
 		fGraphStore.readLock();
 		try {
-			Model graph = fGraphStore.getGraph(fURI);
+			final ResponseBuilder response = Response.ok();
+			final Model graph = getRepresentation(preferences, response);
 			if (graph == null)
 				throw new WebApplicationException(Status.NOT_FOUND);
 
-			final String eTag = getETag(graph);
-			graph = amendResponseGraph(graph, preferences);
 			StreamingOutput out;
 			if (LDPConstants.CT_APPLICATION_JSON.equals(contentType)) {
 				contentType = LDPConstants.CT_APPLICATION_LD_JSON;
@@ -216,11 +266,11 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 			out = new StreamingOutput() {
 				@Override
 				public void write(OutputStream output) throws IOException, WebApplicationException {
-					responseModel.write(output, lang.getName());
+					JenaLDPRDFSource.write(responseModel, output, lang);
 				}
 			};
 
-			ResponseBuilder response = Response.ok(out).header(LDPConstants.HDR_ETAG, eTag);
+			response.entity(out);
 			amendResponse(response, preferences);
 
 			return build(response);
@@ -229,7 +279,126 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 		}
 	}
 
+	/**
+	 * Reads the representation a GET returns: the stored graph amended for
+	 * the preferences. Must be called in a read transaction.
+	 *
+	 * @param preferences the <code>Prefer</code> header values
+	 * @param response the response, for the ETag and any headers that
+	 *        depend on the representation
+	 * @return the representation, or null if the resource has no graph
+	 */
+	public Model getRepresentation(MultivaluedMap<String, String> preferences, ResponseBuilder response) {
+		final Model graph = fGraphStore.getGraph(fURI);
+		if (graph == null) {
+			return null;
+		}
+
+		response.header(LDPConstants.HDR_ETAG, getETag(graph));
+		return amendResponseGraph(graph, preferences, response);
+	}
+
 	protected void amendResponse(ResponseBuilder response, MultivaluedMap<String, String> preferences) {
+		if (isReturnRepresentationPreferenceApplied(preferences)) {
+			response.header(LDPConstants.HDR_PREFERENCE_APPLIED, LDPConstants.PREFER_RETURN_REPRESENTATION);
+		}
+
+	}
+
+	protected boolean isReturnRepresentationPreferenceApplied(MultivaluedMap<String, String> preferences) {
+		return includeInboundReferences(preferences);
+	}
+
+	protected boolean includeInboundReferences(MultivaluedMap<String, String> preferences) {
+		final List<String> include = preferences.get(LDPConstants.PREFER_INCLUDE);
+		return include != null && include.contains(LDPConstants.PREFER_INBOUND_REFERENCES);
+	}
+
+	protected int getInboundPageSize() {
+		return Integer.getInteger(LDP_INBOUND_PAGE_SIZE, 100);
+	}
+
+	@Override
+	public Response getInboundReferences(String contentType, MultivaluedMap<String, String> parameters) {
+		final int page = getPage(parameters);
+		if (page < 1) {
+			return Response.status(Status.BAD_REQUEST).entity("Invalid page").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		if (contentType == null) {
+			contentType = LDPConstants.CT_TEXT_TURTLE;
+		} else if (LDPConstants.CT_APPLICATION_JSON.equals(contentType)) {
+			contentType = LDPConstants.CT_APPLICATION_LD_JSON;
+		}
+		final Lang lang = RDFLanguages.contentTypeToLang(contentType);
+		if (lang == null || (lang.equals(Lang.JSONLD) && !isJSONLDPresent())) {
+			fail(Status.NOT_ACCEPTABLE);
+		}
+
+		final int pageSize = getInboundPageSize();
+		final Model model = ModelFactory.createDefaultModel();
+		final List<Triple> triples;
+		fGraphStore.readLock();
+		try {
+			// One extra to tell if there is another page.
+			triples = fGraphStore.getInboundReferences(fURI, (long) (page - 1) * pageSize, pageSize + 1);
+		} finally {
+			fGraphStore.end();
+		}
+		for (Triple triple : triples.subList(0, Math.min(triples.size(), pageSize))) {
+			model.getGraph().add(triple);
+		}
+
+		StreamingOutput out = new StreamingOutput() {
+			@Override
+			public void write(OutputStream output) throws IOException, WebApplicationException {
+				JenaLDPRDFSource.write(model, output, lang);
+			}
+		};
+		ResponseBuilder response = Response.ok(out, contentType);
+		if (triples.size() > pageSize) {
+			response.header(LDPConstants.HDR_LINK, "<" + getPageURI(parameters, page + 1) + ">; rel=\"next\"");
+		}
+
+		return build(response);
+	}
+
+	/**
+	 * @return the <code>page</code> parameter, 1 if there is none, or 0 if it's not a number
+	 */
+	protected int getPage(MultivaluedMap<String, String> parameters) {
+		try {
+			return parameters.containsKey(OSLCQuery.PARAM_PAGE) ? Integer.parseInt(parameters.getFirst(OSLCQuery.PARAM_PAGE)) : 1;
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * The resource URI with the same query parameters, but for another page.
+	 */
+	protected String getPageURI(MultivaluedMap<String, String> parameters, int page) {
+		final StringBuilder uri = new StringBuilder(fURI);
+		char separator = '?';
+		try {
+			for (Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+				if (OSLCQuery.PARAM_PAGE.equals(parameter.getKey())) {
+					continue;
+				}
+				for (String value : parameter.getValue()) {
+					uri.append(separator).append(URLEncoder.encode(parameter.getKey(), "UTF-8"));
+					if (!value.isEmpty()) {
+						uri.append('=').append(URLEncoder.encode(value, "UTF-8"));
+					}
+					separator = '&';
+				}
+			}
+			uri.append(separator).append(OSLCQuery.PARAM_PAGE).append('=').append(page);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return uri.toString();
 	}
 
 	/**
@@ -241,6 +410,16 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 	 * @see <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.19">HTTP 1.1: Section 14.19 - ETag</a>
 	 */
 	protected String getETag(Model m) {
+		return createETag(m);
+	}
+
+	/**
+	 * The ETag {@link #get(String, MultivaluedMap)} returns for a resource
+	 * with graph <code>m</code>.
+	 *
+	 * @see #getETag(Model)
+	 */
+	public static String createETag(Model m) {
 		// Get the MD5 hash of the model as N-Triples.
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		m.write(out,  "N-TRIPLE");
@@ -252,14 +431,34 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 
 	/**
 	 * For sub-classes to implement, given the graph for resource R, amend some triples before
-	 * response set to client
+	 * response set to client. Called in the read transaction.
 	 * @param graph
 	 * @param preferences
+	 * @param response the response, for headers that depend on what was
+	 *        added, such as a Link to the next page
 	 * @return the amended model
 	 */
-	protected Model amendResponseGraph(Model graph, MultivaluedMap<String, String> preferences) {
-		// Nothing to do unless we're a container, which is handled by subclasses.
-		return graph;
+	protected Model amendResponseGraph(Model graph, MultivaluedMap<String, String> preferences, ResponseBuilder response) {
+		if (!includeInboundReferences(preferences)) {
+			return graph;
+		}
+
+		// Don't change the stored graph.
+		final Model result = ModelFactory.createDefaultModel();
+		result.add(graph);
+		// One extra to tell if there is another page.
+		final int pageSize = getInboundPageSize();
+		final List<Triple> triples = fGraphStore.getInboundReferences(fURI, 0, pageSize + 1);
+		for (Triple triple : triples.subList(0, Math.min(triples.size(), pageSize))) {
+			result.getGraph().add(triple);
+		}
+		if (triples.size() > pageSize) {
+			MultivaluedHashMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+			parameters.putSingle(LDPService.PARAM_INBOUND, "");
+			response.header(LDPConstants.HDR_LINK, "<" + getPageURI(parameters, 2) + ">; rel=\"next\"");
+		}
+
+		return result;
 	}
 
 	public TDBGraphStore getGraphStore() {
@@ -284,7 +483,7 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 	 */
 	protected String getContainerURIForResource(String resourceURI) {
 		// Determine which container this resource belongs (so we can remove the right membership and containment triples)
-		Model globalModel = fGraphStore.getGraph("urn:x-arq:UnionGraph");
+		Model globalModel = fGraphStore.getContainerStore(resourceURI).getGraph("urn:x-arq:UnionGraph");
 		StmtIterator stmts = globalModel.listStatements(null, LDP.contains, globalModel.getResource(resourceURI));
 		String containerURI = null;
 		if (stmts.hasNext()) {
@@ -348,15 +547,32 @@ public class JenaLDPRDFSource extends LDPRDFSource {
 		if (lang == null || (lang.equals(Lang.JSONLD) && !isJSONLDPresent())) {
 			fail(Status.UNSUPPORTED_MEDIA_TYPE);
 		}
+		final CountingInputStream counting = new CountingInputStream(stream);
 		try {
-			model.read(stream, baseURI, lang.getName());
+			model.read(counting, baseURI, lang.getName());
 		} catch (Exception e) {
 			failParsingRDF(contentType, e);
+		} finally {
+			Metrics.getInstance().counter(PARSED_BYTES, "Bytes of RDF read from requests.", "lang", lang.getName())
+					.add(counting.getByteCount());
 		}
 
 		return model;
 	}
 
+	/**
+	 * Writes a model to a response, counting the bytes written.
+	 */
+	static void write(Model model, OutputStream out, Lang lang) {
+		final CountingOutputStream counting = new CountingOutputStream(out);
+		try {
+			model.write(counting, lang.getName());
+		} finally {
+			Metrics.getInstance().counter(SERIALIZED_BYTES, "Bytes of RDF written to responses.", "lang", lang.getName())
+					.add(counting.getByteCount());
+		}
+	}
+
 	protected void failParsingRDF(String contentType, Exception e) {
 		Model responseBody = ModelFactory.createDefaultModel();
 		Resource error = responseBody.createResource(Lyo.Error);
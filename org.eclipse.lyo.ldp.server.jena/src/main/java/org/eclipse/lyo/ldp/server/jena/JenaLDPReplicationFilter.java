@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena;
+
+import java.io.IOException;
+import java.net.URI;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationFollower;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationLog;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+
+/**
+ * Replication behavior of {@link JenaLDPService} requests (see
+ * {@link JenaLDPService#LDP_REPLICATION}).
+ * <p>
+ * Every response from a leader or follower has a
+ * <code>Lyo-Replication-Position</code> header with the position of the
+ * server's data in the leader's log. A client that sends the position it got
+ * from a write back with a read is guaranteed to read its own write: the
+ * follower waits up to {@link #LDP_REPLICATION_READ_TIMEOUT} milliseconds to
+ * catch up, and otherwise redirects the client to the leader.
+ * <p>
+ * On a follower, writes are redirected to the leader with
+ * <code>307 Temporary Redirect</code>, and reads without a position fail
+ * with <code>503 Service Unavailable</code> if the follower hasn't been
+ * current for longer than
+ * {@link ReplicationFollower#LDP_REPLICATION_MAX_STALENESS}.
+ * Resource URIs are the leader's, so a follower must have the same
+ * <code>ldp.rooturi</code> as the leader.
+ */
+@Provider
+@PreMatching
+public class JenaLDPReplicationFilter implements ContainerRequestFilter, ContainerResponseFilter {
+	/**
+	 * System property for the most milliseconds a follower waits to catch
+	 * up with a client's <code>Lyo-Replication-Position</code>. Default is 5000.
+	 */
+	public static final String LDP_REPLICATION_READ_TIMEOUT = "ldp.replication.readTimeout";
+
+	private static final String ADMIN_PATH = "_admin";
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		final ReplicationFollower follower = JenaLDPService.getFollower();
+		if (follower == null) {
+			return;
+		}
+
+		final URI requestURI = requestContext.getUriInfo().getRequestUri();
+		String path = requestContext.getUriInfo().getPath();
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		if (path.startsWith(ADMIN_PATH)) {
+			return;
+		}
+
+		final String method = requestContext.getMethod();
+		if (!isRead(method, path, requestContext)) {
+			requestContext.abortWith(redirect(follower, requestURI, path));
+			return;
+		}
+
+		final String token = requestContext.getHeaderString(LDPConstants.HDR_REPLICATION_POSITION);
+		if (token != null) {
+			final long position;
+			try {
+				position = Long.parseLong(token.trim());
+			} catch (NumberFormatException e) {
+				requestContext.abortWith(Response.status(Status.BAD_REQUEST)
+						.entity("Invalid " + LDPConstants.HDR_REPLICATION_POSITION).type(MediaType.TEXT_PLAIN).build());
+				return;
+			}
+			try {
+				if (!follower.awaitPosition(position, Long.getLong(LDP_REPLICATION_READ_TIMEOUT, 5000))) {
+					requestContext.abortWith(redirect(follower, requestURI, path));
+					return;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				requestContext.abortWith(Response.status(Status.SERVICE_UNAVAILABLE).build());
+				return;
+			}
+		} else if (follower.getStaleness() > follower.getMaxStaleness()) {
+			requestContext.abortWith(Response.status(Status.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, 1)
+					.entity("Replica is behind the leader").type(MediaType.TEXT_PLAIN).build());
+			return;
+		}
+	}
+
+	/**
+	 * @return true for a request a follower can answer: GET, HEAD, OPTIONS
+	 *         and SPARQL queries
+	 */
+	private static boolean isRead(String method, String path, ContainerRequestContext requestContext) {
+		if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+			return true;
+		}
+		return HttpMethod.POST.equals(method) && (LDPService.SPARQL_ENDPOINT.equals(path)
+				|| requestContext.getUriInfo().getQueryParameters().containsKey(LDPService.PARAM_SPARQL));
+	}
+
+	private static Response redirect(ReplicationFollower follower, URI requestURI, String path) {
+		final String query = requestURI.getRawQuery();
+		return Response.temporaryRedirect(URI.create(follower.getLeader() + path + (query == null ? "" : "?" + query))).build();
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+		final ReplicationLog log = JenaLDPService.getStore().getReplicationLog();
+		final ReplicationFollower follower = JenaLDPService.getFollower();
+		if (log != null) {
+			// After the request's commit, so at least its position.
+			responseContext.getHeaders().putSingle(LDPConstants.HDR_REPLICATION_POSITION, log.getLast());
+		} else if (follower != null) {
+			responseContext.getHeaders().putSingle(LDPConstants.HDR_REPLICATION_POSITION, follower.getPosition());
+		}
+	}
+}
@@ -48,30 +48,41 @@ public class JenaLDPResourceManager implements LDPResourceManager {
 	}
 
 	public ILDPResource get(String resourceURI) {
-		gs.readLock();
+		// The resource's shard, if the server is sharded
+		final TDBGraphStore store = gs.getStoreFor(resourceURI);
+		store.readLock();
 		try {
-			Model graph = gs.getGraph(resourceURI);
-			if (graph == null) {
-				if (JenaLDPNonRdfSource.isLDPNR(resourceURI)) {
-					return new JenaLDPNonRdfSource(resourceURI, gs);
-				}
-				return null;
+			return getInTransaction(resourceURI);
+		} finally {
+			store.end();
+		}
+	}
+
+	/**
+	 * Like {@link #get(String)}, in the caller's read transaction on the
+	 * resource's store.
+	 */
+	ILDPResource getInTransaction(String resourceURI) {
+		final TDBGraphStore store = gs.getStoreFor(resourceURI);
+		Model graph = store.getGraph(resourceURI);
+		if (graph == null) {
+			if (JenaLDPNonRdfSource.isLDPNR(resourceURI)) {
+				return new JenaLDPNonRdfSource(resourceURI, store);
 			}
-			Resource r = graph.getResource(resourceURI);
-			if (!isResourceInteractionModel(resourceURI)) {
-				if (r.hasProperty(RDF.type, LDP.DirectContainer)) {
-					return new JenaLDPDirectContainer(resourceURI, gs);
-				} else if (r.hasProperty(RDF.type, LDP.BasicContainer)) {
-					return new JenaLDPBasicContainer(resourceURI, gs);
-				} else if (r.hasProperty(RDF.type, LDP.Container)) {
-					// TODO: SPEC: Should only rdf:type of #Container be treated as RDF Source or error?  Probably an error
-					System.err.println("Received type of ldp:Container but treating as ldp:RDFSource.");
-				}
+			return null;
+		}
+		Resource r = graph.getResource(resourceURI);
+		if (!isResourceInteractionModel(resourceURI)) {
+			if (r.hasProperty(RDF.type, LDP.DirectContainer)) {
+				return new JenaLDPDirectContainer(resourceURI, store);
+			} else if (r.hasProperty(RDF.type, LDP.BasicContainer)) {
+				return new JenaLDPBasicContainer(resourceURI, store);
+			} else if (r.hasProperty(RDF.type, LDP.Container)) {
+				// TODO: SPEC: Should only rdf:type of #Container be treated as RDF Source or error?  Probably an error
+				System.err.println("Received type of ldp:Container but treating as ldp:RDFSource.");
 			}
-			return new JenaLDPRDFSource(resourceURI, gs);
-		} finally {
-			gs.end();
 		}
+		return new JenaLDPRDFSource(resourceURI, store);
 	}
 
 	public static String mintConfigURI(String uri) {
@@ -114,7 +125,7 @@ public class JenaLDPResourceManager implements LDPResourceManager {
 	}
 	
 	public boolean isResourceInteractionModel(String resourceURI) {
-		Model graph = gs.getGraph(mintConfigURI(resourceURI));
+		Model graph = gs.getStoreFor(resourceURI).getGraph(mintConfigURI(resourceURI));
 		if (graph == null) return false;
 		
 		Resource r = graph.getResource(resourceURI);
@@ -20,18 +20,138 @@
  *******************************************************************************/
 package org.eclipse.lyo.ldp.server.jena;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.lyo.ldp.server.ILDPResource;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJobs;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationFollower;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
 import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
 import org.eclipse.lyo.ldp.server.service.LDPService;
 
 public class JenaLDPService extends LDPService {
+	/**
+	 * System property for the replication role of this server:
+	 * <code>leader</code> to log every write transaction for followers, or
+	 * <code>follower</code> to replay the log of the leader at
+	 * {@link ReplicationFollower#LDP_REPLICATION_LEADER} and serve reads.
+	 * Unset for a standalone server.
+	 */
+	public static final String LDP_REPLICATION = "ldp.replication";
+
 	private static JenaLDPContainer rootContainer;
 	private static TDBGraphStore graphStore = new TDBGraphStore(false);
 	private static JenaLDPResourceManager resManager;
+	private static ReplicationFollower follower;
+	private static ShardRouter shards;
 	
 	static {
+		startReplication();
+		startShards();
 		reset();
+		startGarbageCollection();
+		registerMetrics();
+	}
+
+	private static void registerMetrics() {
+		if (shards == null) {
+			graphStore.registerMetrics("0");
+			return;
+		}
+		// The root store first, then the shards in order.
+		for (int i = 0; i < shards.getStores().size(); i++) {
+			shards.getStores().get(i).registerMetrics(Integer.toString(i));
+		}
+	}
+
+	private static void startShards() {
+		shards = ShardRouter.create(graphStore, ROOT_CONTAINER_URL);
+		if (shards != null && System.getProperty(LDP_REPLICATION) != null) {
+			// The replication log only covers one store.
+			throw new IllegalStateException(ShardRouter.LDP_SHARDS + " can't be used with " + LDP_REPLICATION);
+		}
+	}
+
+	private static void startReplication() {
+		final String role = System.getProperty(LDP_REPLICATION);
+		if ("leader".equals(role)) {
+			final String datasetDir = System.getProperty(TDBGraphStore.LDP_DATASET_DIR);
+			try {
+				final File dir = (datasetDir != null) ? new File(datasetDir) : Files.createTempDirectory("ldp-replication").toFile();
+				graphStore.startReplicationLog(dir);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		} else if ("follower".equals(role)) {
+			final String leader = System.getProperty(ReplicationFollower.LDP_REPLICATION_LEADER);
+			if (leader == null) {
+				throw new IllegalStateException(ReplicationFollower.LDP_REPLICATION_LEADER + " is not set");
+			}
+			follower = new ReplicationFollower(graphStore, leader);
+			follower.start();
+			// The root container comes from the leader.
+			try {
+				follower.awaitReady();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 	
+	private static void startGarbageCollection() {
+		final long interval = Long.getLong(JenaLDPGarbageCollector.LDP_GC_INTERVAL, 0);
+		if (interval <= 0 || follower != null) {
+			return;
+		}
+
+		final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ldp-gc");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				collectGarbage();
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Starts a {@link JenaLDPGarbageCollector} unless one is already queued
+	 * or running.
+	 *
+	 * @return the job
+	 */
+	public static synchronized BackgroundJob collectGarbage() {
+		for (BackgroundJob job : BackgroundJobs.getInstance().list()) {
+			if (JenaLDPGarbageCollector.TYPE.equals(job.getType()) && !job.isDone()) {
+				return job;
+			}
+		}
+
+		final JenaLDPGarbageCollector job = new JenaLDPGarbageCollector(
+				(shards == null) ? Collections.singletonList(graphStore) : shards.getStores());
+		BackgroundJobs.getInstance().submit(job);
+		return job;
+	}
+
 	public JenaLDPService() {
 	}
 
@@ -55,7 +175,42 @@ public class JenaLDPService extends LDPService {
 		return resManager;
 	}
 	
+	/**
+	 * Deletes a container's members in the background. The response is 202
+	 * Accepted with the job, whose state is at the <code>Location</code>.
+	 */
+	@Override
+	protected Response delete(ILDPResource ldpR) {
+		if (!(ldpR instanceof JenaLDPContainer)) {
+			return super.delete(ldpR);
+		}
+
+		final JenaLDPSubtreeDelete job = ((JenaLDPContainer) ldpR).deleteSubtree();
+		if (job == null) {
+			return Response.status(Status.NO_CONTENT).build();
+		}
+		final String id = BackgroundJobs.getInstance().submit(job);
+
+		// Relative to the base URI, where JenaLDPAdminService is.
+		return Response.status(Status.ACCEPTED).location(URI.create(JenaLDPAdminService.JOBS_PATH + "/" + id))
+				.entity(job.toJSON().toString()).type(MediaType.APPLICATION_JSON).build();
+	}
+
 	public static TDBGraphStore getStore() {
 		return graphStore;
 	}
+
+	/**
+	 * @return the shards if {@link ShardRouter#LDP_SHARDS} is set, otherwise null
+	 */
+	public static ShardRouter getShards() {
+		return shards;
+	}
+
+	/**
+	 * @return the follower if this server is a replication follower, otherwise null
+	 */
+	public static ReplicationFollower getFollower() {
+		return follower;
+	}
 }
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.List;
+
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+
+import org.apache.jena.atlas.json.JsonObject;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.NodeIterator;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+
+/**
+ * Deletes the members of a deleted container, and their members in turn,
+ * in batches of {@link #LDP_DELETE_BATCH_SIZE} resources per write
+ * transaction. Each resource is deleted as a single DELETE would: its
+ * graph, its associated RDF source and file if it is an LDP-NR, and its
+ * membership triples, with the delete time recorded in its config graph so
+ * the URI isn't reused.
+ * <p>
+ * The container itself is deleted before the job starts, so the members
+ * are no longer listed by any container. They are not hidden otherwise:
+ * until the job reaches them, a GET on a member still returns it and
+ * SPARQL queries still match it.
+ * <p>
+ * Jobs only live in memory. If the job is cancelled or the server stops,
+ * the members not yet deleted stay, orphaned, until a
+ * {@link JenaLDPGarbageCollector} run deletes them. With the default
+ * {@link JenaLDPGarbageCollector#LDP_GC_INTERVAL}, that is only when one
+ * is started at <code>_admin/gc</code>.
+ */
+public class JenaLDPSubtreeDelete extends BackgroundJob {
+	/**
+	 * System property for the most resources deleted in one write
+	 * transaction. Default is 500.
+	 */
+	public static final String LDP_DELETE_BATCH_SIZE = "ldp.delete.batchSize";
+
+	public static final String TYPE = "delete";
+
+	private final TDBGraphStore fStore;
+	private final String fContainerURI;
+	private final int fBatchSize = Math.max(Integer.getInteger(LDP_DELETE_BATCH_SIZE, 500), 1);
+
+	// Pairs of member and container URIs, only used by one thread at a time.
+	private final Deque<String[]> fPending = new ArrayDeque<String[]>();
+	private volatile long fRemaining;
+	private volatile long fBytesFreed;
+
+	/**
+	 * @param store the store with the container and its members
+	 * @param containerURI the deleted container
+	 */
+	public JenaLDPSubtreeDelete(TDBGraphStore store, String containerURI) {
+		super(TYPE);
+		fStore = store;
+		fContainerURI = containerURI;
+	}
+
+	public String getContainerURI() {
+		return fContainerURI;
+	}
+
+	/**
+	 * Queues a resource to be deleted, with the resources below it.
+	 *
+	 * @param uri the resource
+	 * @param containerURI its container, or null if it has none
+	 */
+	void add(String uri, String containerURI) {
+		fPending.add(new String[] { uri, containerURI });
+		fRemaining = fPending.size();
+	}
+
+	/**
+	 * Queues the members of a container to be deleted, and removes their
+	 * membership triples from a membership resource outside the container.
+	 * Must be called in a write transaction, before the container graph is
+	 * deleted.
+	 */
+	void addMembers(Model containerModel, Resource containerResource, Calendar time) {
+		final String containerURI = containerResource.getURI();
+		final List<Resource> members = new ArrayList<Resource>();
+		final NodeIterator i = containerModel.listObjectsOfProperty(containerResource, LDP.contains);
+		while (i.hasNext()) {
+			final RDFNode member = i.next();
+			if (member.isURIResource()) {
+				members.add(member.asResource());
+				fPending.add(new String[] { member.asResource().getURI(), containerURI });
+			}
+		}
+		fRemaining = fPending.size();
+
+		// Membership triples in the member graphs (ldp:isMemberOfRelation) or
+		// the container graph go with those graphs.
+		if (members.isEmpty() || !containerResource.hasProperty(LDP.membershipResource)
+				|| JenaLDPContainer.getIsMemberOfRelation(containerModel, containerResource) != null) {
+			return;
+		}
+		final String membershipResourceURI = JenaLDPContainer.getMembershipResourceURI(containerModel, containerResource);
+		final Model membershipResourceModel = membershipResourceURI.equals(containerURI) ? null : fStore.getGraph(membershipResourceURI);
+		if (membershipResourceModel == null) {
+			return;
+		}
+		final Property memberRelation = JenaLDPContainer.getMemberRelation(containerModel, containerResource);
+		final Resource membershipResource = membershipResourceModel.getResource(membershipResourceURI);
+		for (Resource member : members) {
+			membershipResourceModel.remove(membershipResource, memberRelation, member);
+		}
+		membershipResource.removeAll(DCTerms.modified);
+		membershipResource.addLiteral(DCTerms.modified, membershipResourceModel.createTypedLiteral(time));
+		fStore.recordChange(ChangeBus.Type.UPDATE, membershipResourceURI, null);
+	}
+
+	@Override
+	protected boolean runBatch() {
+		final List<String> files = new ArrayList<String>();
+		int count = 0;
+		fStore.writeLock();
+		try {
+			final Calendar time = Calendar.getInstance();
+			while (count < fBatchSize && !fPending.isEmpty()) {
+				final String[] member = fPending.remove();
+				delete(member[0], member[1], time, files);
+				count++;
+			}
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+
+		// Only delete the files once the graphs that refer to them are gone.
+		long freed = 0;
+		for (String uri : files) {
+			freed += JenaLDPNonRdfSource.deleteFile(uri);
+		}
+		fBytesFreed += freed;
+		fRemaining = fPending.size();
+		processed(count);
+
+		return !fPending.isEmpty();
+	}
+
+	private void delete(String uri, String containerURI, Calendar time, List<String> files) {
+		final Model model = fStore.getGraph(uri);
+		if (model != null) {
+			final Resource resource = model.getResource(uri);
+			if (JenaLDPResourceManager.isContainer(resource)) {
+				addMembers(model, resource, time);
+			}
+			fStore.deleteGraph(uri);
+		}
+
+		final String associatedURI = JenaLDPResourceManager.mintAssociatedRDFSourceURI(uri);
+		if (fStore.getGraph(associatedURI) != null) {
+			fStore.deleteGraph(associatedURI);
+			files.add(uri);
+		}
+
+		// Keep track of the deletion by logging the delete time
+		final String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+		Model configModel = fStore.getGraph(configURI);
+		if (configModel == null) {
+			configModel = fStore.createCompanionGraph(uri, configURI);
+		}
+		configModel.getResource(uri).addLiteral(Lyo.deleted, configModel.createTypedLiteral(time));
+		fStore.recordChange(ChangeBus.Type.DELETE, uri, containerURI);
+	}
+
+	@Override
+	public long getRemaining() {
+		return fRemaining;
+	}
+
+	/**
+	 * @return the bytes of the LDP-NR files deleted so far
+	 */
+	public long getBytesFreed() {
+		return fBytesFreed;
+	}
+
+	@Override
+	public JsonObject toJSON() {
+		JsonObject json = super.toJSON();
+		json.put("container", fContainerURI);
+		json.put("bytesFreed", fBytesFreed);
+		return json;
+	}
+}
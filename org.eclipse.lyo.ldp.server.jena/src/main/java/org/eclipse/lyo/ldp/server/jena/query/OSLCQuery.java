@@ -0,0 +1,411 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
+
+/**
+ * A query over the members of a container using the OSLC query parameters
+ * <code>oslc.where</code>, <code>oslc.select</code>,
+ * <code>oslc.orderBy</code>, <code>oslc.pageSize</code> and
+ * <code>oslc.prefix</code>, compiled to SPARQL.
+ * <p>
+ * Members are the objects of the container's <code>ldp:contains</code>
+ * triples. Terms on a member's own properties match its graph. Nested terms
+ * and nested selections, such as <code>dcterms:creator{foaf:name="Ann"}</code>,
+ * follow links into the rest of the dataset. Supported are
+ * <code>and</code>, the comparison operators, <code>in</code>, nested terms,
+ * nested properties and the <code>*</code> wildcard in
+ * <code>oslc.select</code>. Full-text search (<code>oslc.searchTerms</code>)
+ * is not.
+ */
+public class OSLCQuery {
+	public static final String PARAM_WHERE = "oslc.where";
+	public static final String PARAM_SELECT = "oslc.select";
+	public static final String PARAM_ORDER_BY = "oslc.orderBy";
+	public static final String PARAM_PAGE_SIZE = "oslc.pageSize";
+	public static final String PARAM_PREFIX = "oslc.prefix";
+	public static final String PARAM_PAGE = "page";
+
+	private static final String MEMBER = "?m";
+
+	/**
+	 * A term of <code>oslc.where</code>. Either a comparison or, if
+	 * <code>nested</code> is set, terms on the objects of a property.
+	 */
+	static class Term {
+		final String property;
+		String op;
+		final List<Node> values = new ArrayList<Node>();
+		List<Term> nested;
+
+		Term(String property) {
+			this.property = property;
+		}
+	}
+
+	/**
+	 * A property of <code>oslc.select</code>. The property is null for the
+	 * wildcard.
+	 */
+	static class Selection {
+		final String property;
+		List<Selection> nested;
+
+		Selection(String property) {
+			this.property = property;
+		}
+	}
+
+	static class SortKey {
+		final String property;
+		final boolean ascending;
+
+		SortKey(String property, boolean ascending) {
+			this.property = property;
+			this.ascending = ascending;
+		}
+	}
+
+	private final PrefixMapping fPrefixes = PrefixMapping.Factory.create();
+	private List<Term> fWhere = Collections.emptyList();
+	private List<Selection> fSelect = Collections.emptyList();
+	private List<SortKey> fOrderBy = Collections.emptyList();
+	private int fPageSize = 0;
+	private int fPage = 1;
+
+	private OSLCQuery() {
+		fPrefixes.setNsPrefix("rdf", RDF.getURI());
+		fPrefixes.setNsPrefix("rdfs", RDFS.getURI());
+		fPrefixes.setNsPrefix("xsd", XSD.getURI());
+		fPrefixes.setNsPrefix("dcterms", DCTerms.getURI());
+		fPrefixes.setNsPrefix("ldp", LDPConstants.getNSURI());
+		fPrefixes.setNsPrefix("oslc", "http://open-services.net/ns/core#");
+		fPrefixes.setNsPrefix("foaf", "http://xmlns.com/foaf/0.1/");
+	}
+
+	/**
+	 * Parses the query parameters of a request.
+	 *
+	 * @param parameters the request query parameters
+	 * @return the query
+	 * @throws IllegalArgumentException if a parameter is not valid
+	 */
+	public static OSLCQuery parse(Map<String, List<String>> parameters) {
+		final OSLCQuery query = new OSLCQuery();
+		final String prefixes = getFirst(parameters, PARAM_PREFIX);
+		if (prefixes != null) {
+			new OSLCQueryParser(prefixes, query.fPrefixes).parsePrefixes();
+		}
+
+		final String where = getFirst(parameters, PARAM_WHERE);
+		if (where != null) {
+			query.fWhere = new OSLCQueryParser(where, query.fPrefixes).parseWhere();
+		}
+
+		final String select = getFirst(parameters, PARAM_SELECT);
+		if (select != null) {
+			query.fSelect = new OSLCQueryParser(select, query.fPrefixes).parseSelect();
+		}
+
+		final String orderBy = getFirst(parameters, PARAM_ORDER_BY);
+		if (orderBy != null) {
+			query.fOrderBy = new OSLCQueryParser(orderBy, query.fPrefixes).parseOrderBy();
+		}
+
+		query.fPageSize = getInt(parameters, PARAM_PAGE_SIZE, 0);
+		query.fPage = getInt(parameters, PARAM_PAGE, 1);
+		if (query.fPageSize < 0 || query.fPage < 1) {
+			throw new IllegalArgumentException("Invalid " + PARAM_PAGE_SIZE + " or " + PARAM_PAGE);
+		}
+
+		return query;
+	}
+
+	private static String getFirst(Map<String, List<String>> parameters, String name) {
+		final List<String> values = parameters.get(name);
+		if (values == null || values.isEmpty() || values.get(0).trim().isEmpty()) {
+			return null;
+		}
+
+		return values.get(0);
+	}
+
+	private static int getInt(Map<String, List<String>> parameters, String name, int defaultValue) {
+		final String value = getFirst(parameters, name);
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + name + ": " + value);
+		}
+	}
+
+	public boolean isPaged() {
+		return fPageSize > 0;
+	}
+
+	public int getPageSize() { return fPageSize; }
+	public int getPage() { return fPage; }
+
+	/**
+	 * @return the default prefixes and any from <code>oslc.prefix</code>
+	 */
+	public PrefixMapping getPrefixes() {
+		return fPrefixes;
+	}
+
+	/**
+	 * A SELECT of the matching members, <code>?m</code>, in order. If the
+	 * query is paged, it asks for one more member than the page size so the
+	 * caller can tell whether there is a next page.
+	 *
+	 * @param containerURI the container
+	 */
+	public Query getMemberQuery(String containerURI) {
+		final Compiler compiler = new Compiler();
+		final StringBuilder sparql = new StringBuilder("SELECT ").append(MEMBER);
+		final StringBuilder where = new StringBuilder();
+		compiler.members(containerURI, where);
+
+		final StringBuilder order = new StringBuilder();
+		for (SortKey key : fOrderBy) {
+			final String value = compiler.newVar();
+			final String sortKey = compiler.newVar();
+			where.append(" OPTIONAL { GRAPH ").append(MEMBER).append(" { ")
+					.append(MEMBER).append(' ').append(uri(key.property)).append(' ').append(value).append(" } }");
+			// A member can have several values. Sort on the first for ascending order, the last for descending.
+			sparql.append(key.ascending ? " (MIN(" : " (MAX(").append(value).append(") AS ").append(sortKey).append(')');
+			order.append(key.ascending ? "ASC(" : "DESC(").append(sortKey).append(") ");
+		}
+
+		sparql.append(" WHERE {").append(where).append(" } GROUP BY ").append(MEMBER)
+				.append(" ORDER BY ").append(order).append(MEMBER);
+		if (isPaged()) {
+			sparql.append(" LIMIT ").append(fPageSize + 1).append(" OFFSET ").append((long) (fPage - 1) * fPageSize);
+		}
+
+		return create(sparql);
+	}
+
+	/**
+	 * A CONSTRUCT of the container's containment triples for the matching
+	 * members and the selected properties of each.
+	 *
+	 * @param containerURI the container
+	 * @param members the members to describe, or null for all matching members
+	 */
+	public Query getConstructQuery(String containerURI, List<String> members) {
+		final Compiler compiler = new Compiler();
+		final StringBuilder template = new StringBuilder();
+		template.append(uri(containerURI)).append(' ').append(uri(LDP.contains.getURI())).append(' ').append(MEMBER).append(" .");
+
+		final StringBuilder where = new StringBuilder();
+		if (members != null) {
+			where.append(" VALUES ").append(MEMBER).append(" {");
+			for (String member : members) {
+				where.append(' ').append(uri(member));
+			}
+			where.append(" }");
+		} else {
+			where.append(" { SELECT DISTINCT ").append(MEMBER).append(" WHERE {");
+			compiler.members(containerURI, where);
+			where.append(" } }");
+		}
+
+		if (!fSelect.isEmpty()) {
+			where.append(" {");
+			compiler.select(fSelect, MEMBER, true, template, where);
+			where.append(" }");
+		}
+
+		return create(new StringBuilder("CONSTRUCT { ").append(template).append(" } WHERE {").append(where).append(" }"));
+	}
+
+	private Query create(StringBuilder sparql) {
+		final Query query = QueryFactory.create(sparql.toString());
+		query.setPrefixMapping(fPrefixes);
+
+		return query;
+	}
+
+	private static String uri(String uri) {
+		return FmtUtils.stringForNode(NodeFactory.createURI(uri));
+	}
+
+	/**
+	 * Writes SPARQL for the terms and selections, naming a new variable for
+	 * each.
+	 */
+	private class Compiler {
+		private int fNextVar = 0;
+
+		String newVar() {
+			return "?v" + fNextVar++;
+		}
+
+		/**
+		 * The patterns that bind <code>?m</code> to each matching member.
+		 */
+		void members(String containerURI, StringBuilder where) {
+			// Terms that match exact values come before containment so the
+			// query starts from the index of those values, then checks
+			// containment for each candidate rather than testing every member.
+			final List<Term> exact = new ArrayList<Term>();
+			final List<Term> others = new ArrayList<Term>();
+			for (Term term : fWhere) {
+				(isExact(term) ? exact : others).add(term);
+			}
+			where(exact, MEMBER, true, where);
+			where.append(" GRAPH ").append(uri(containerURI)).append(" { ")
+					.append(uri(containerURI)).append(' ').append(uri(LDP.contains.getURI())).append(' ').append(MEMBER).append(" }");
+			where(others, MEMBER, true, where);
+		}
+
+		/**
+		 * @param subject the variable the terms apply to
+		 * @param inMemberGraph if the properties are in the member's graph rather than anywhere in the dataset
+		 */
+		private void where(List<Term> terms, String subject, boolean inMemberGraph, StringBuilder where) {
+			for (Term term : terms) {
+				if (isExact(term)) {
+					if (term.values.size() == 1) {
+						triple(subject, uri(term.property), FmtUtils.stringForNode(term.values.get(0)), inMemberGraph, where);
+					} else {
+						final String value = newVar();
+						where.append(" VALUES ").append(value).append(" {");
+						for (Node node : term.values) {
+							where.append(' ').append(FmtUtils.stringForNode(node));
+						}
+						where.append(" }");
+						triple(subject, uri(term.property), value, inMemberGraph, where);
+					}
+					continue;
+				}
+
+				final String value = newVar();
+				triple(subject, uri(term.property), value, inMemberGraph, where);
+				if (term.nested != null) {
+					where(term.nested, value, false, where);
+				} else if ("in".equals(term.op)) {
+					where.append(" FILTER (").append(value).append(" IN (");
+					for (int i = 0; i < term.values.size(); i++) {
+						where.append((i == 0) ? "" : ", ").append(FmtUtils.stringForNode(term.values.get(i)));
+					}
+					where.append("))");
+				} else {
+					where.append(" FILTER (").append(value).append(' ').append(term.op).append(' ')
+							.append(FmtUtils.stringForNode(term.values.get(0))).append(')');
+				}
+			}
+		}
+
+		/**
+		 * A union with a branch for the properties and one for each nested
+		 * selection. The empty first branch keeps subjects that have none
+		 * of the properties.
+		 */
+		void select(List<Selection> selections, String subject, boolean inMemberGraph, StringBuilder template, StringBuilder where) {
+			where.append(" { }");
+
+			boolean wildcard = false;
+			final List<String> properties = new ArrayList<String>();
+			for (Selection selection : selections) {
+				if (selection.nested == null) {
+					if (selection.property == null) {
+						wildcard = true;
+					} else {
+						properties.add(selection.property);
+					}
+				}
+			}
+
+			if (wildcard || !properties.isEmpty()) {
+				final String predicate = newVar();
+				final String object = newVar();
+				template.append(' ').append(subject).append(' ').append(predicate).append(' ').append(object).append(" .");
+				where.append(" UNION {");
+				if (!wildcard) {
+					where.append(" VALUES ").append(predicate).append(" {");
+					for (String property : properties) {
+						where.append(' ').append(uri(property));
+					}
+					where.append(" }");
+				}
+				triple(subject, predicate, object, inMemberGraph, where);
+				where.append(" }");
+			}
+
+			for (Selection selection : selections) {
+				if (selection.nested != null) {
+					final String predicate = (selection.property == null) ? newVar() : uri(selection.property);
+					final String object = newVar();
+					template.append(' ').append(subject).append(' ').append(predicate).append(' ').append(object).append(" .");
+					where.append(" UNION {");
+					triple(subject, predicate, object, inMemberGraph, where);
+					where.append(" {");
+					select(selection.nested, object, false, template, where);
+					where.append(" } }");
+				}
+			}
+		}
+
+		/**
+		 * If the term can be matched as triple patterns rather than a filter.
+		 * Only URIs and strings, whose RDF terms are equal exactly when their
+		 * values are. Numbers such as <code>1</code> and <code>1.0</code> are
+		 * equal but are different terms.
+		 */
+		private boolean isExact(Term term) {
+			if (term.nested != null || !("=".equals(term.op) || "in".equals(term.op))) {
+				return false;
+			}
+			for (Node node : term.values) {
+				if (!node.isURI() && !(node.isLiteral()
+						&& (node.getLiteralDatatypeURI() == null
+								|| XSD.xstring.getURI().equals(node.getLiteralDatatypeURI())
+								|| !node.getLiteralLanguage().isEmpty()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void triple(String subject, String predicate, String object, boolean inMemberGraph, StringBuilder where) {
+			if (inMemberGraph) {
+				where.append(" GRAPH ").append(MEMBER).append(" { ").append(subject).append(' ').append(predicate).append(' ').append(object).append(" }");
+			} else {
+				where.append(' ').append(subject).append(' ').append(predicate).append(' ').append(object).append(" .");
+			}
+		}
+	}
+}
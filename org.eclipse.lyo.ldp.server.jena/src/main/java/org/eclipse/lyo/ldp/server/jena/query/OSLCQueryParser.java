@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.shared.PrefixMapping;
+
+/**
+ * A recursive descent parser for the OSLC query syntax used in
+ * <code>oslc.where</code>, <code>oslc.select</code>,
+ * <code>oslc.orderBy</code> and <code>oslc.prefix</code>.
+ *
+ * @see <a href="http://open-services.net/bin/view/Main/OSLCCoreSpecQuery">OSLC Core Query Syntax</a>
+ */
+class OSLCQueryParser {
+	private final String fInput;
+	private final PrefixMapping fPrefixes;
+	private int fPos = 0;
+
+	OSLCQueryParser(String input, PrefixMapping prefixes) {
+		fInput = input;
+		fPrefixes = prefixes;
+	}
+
+	/**
+	 * prefix_defs ::= prefix_def ("," prefix_def)*
+	 * prefix_def ::= prefix "=" uri_ref
+	 */
+	void parsePrefixes() {
+		do {
+			skipWhitespace();
+			final int start = fPos;
+			while (fPos < fInput.length() && isNameChar(fInput.charAt(fPos))) {
+				fPos++;
+			}
+			final String prefix = fInput.substring(start, fPos);
+			// A prefix is an NCName, which can't start with a digit, '-' or '.'.
+			if (!prefix.isEmpty() && !Character.isLetter(prefix.charAt(0)) && prefix.charAt(0) != '_') {
+				fPos = start;
+				throw error("Invalid prefix");
+			}
+			expect('=');
+			skipWhitespace();
+			fPrefixes.setNsPrefix(prefix, parseURIRef());
+			skipWhitespace();
+		} while (accept(','));
+		expectEnd();
+	}
+
+	/**
+	 * compound_term ::= simple_term (space? "and" space? simple_term)*
+	 */
+	List<OSLCQuery.Term> parseWhere() {
+		final List<OSLCQuery.Term> terms = parseCompoundTerm();
+		expectEnd();
+		return terms;
+	}
+
+	private List<OSLCQuery.Term> parseCompoundTerm() {
+		final List<OSLCQuery.Term> terms = new ArrayList<OSLCQuery.Term>();
+		terms.add(parseSimpleTerm());
+		skipWhitespace();
+		while (fInput.startsWith("and", fPos)) {
+			fPos += 3;
+			terms.add(parseSimpleTerm());
+			skipWhitespace();
+		}
+
+		return terms;
+	}
+
+	/**
+	 * simple_term ::= term | scoped_term
+	 * term ::= identifier comparison_op value | identifier space "in" space in_val
+	 * scoped_term ::= identifier "{" compound_term "}"
+	 */
+	private OSLCQuery.Term parseSimpleTerm() {
+		skipWhitespace();
+		final OSLCQuery.Term term = new OSLCQuery.Term(parseIdentifier());
+		skipWhitespace();
+		if (accept('{')) {
+			term.nested = parseCompoundTerm();
+			expect('}');
+			return term;
+		}
+
+		if (fInput.startsWith("in", fPos) && fPos + 2 < fInput.length()
+				&& (Character.isWhitespace(fInput.charAt(fPos + 2)) || fInput.charAt(fPos + 2) == '[')) {
+			fPos += 2;
+			term.op = "in";
+			skipWhitespace();
+			expect('[');
+			do {
+				skipWhitespace();
+				term.values.add(parseValue());
+				skipWhitespace();
+			} while (accept(','));
+			expect(']');
+			return term;
+		}
+
+		for (String op : new String[] { "!=", "<=", ">=", "=", "<", ">" }) {
+			if (fInput.startsWith(op, fPos)) {
+				fPos += op.length();
+				term.op = op;
+				skipWhitespace();
+				term.values.add(parseValue());
+				return term;
+			}
+		}
+
+		throw error("Expected a comparison operator");
+	}
+
+	/**
+	 * properties ::= property ("," property)*
+	 * property ::= identifier | wildcard | nested_property
+	 * nested_property ::= (identifier | wildcard) "{" properties "}"
+	 */
+	List<OSLCQuery.Selection> parseSelect() {
+		final List<OSLCQuery.Selection> properties = parseProperties();
+		expectEnd();
+		return properties;
+	}
+
+	private List<OSLCQuery.Selection> parseProperties() {
+		final List<OSLCQuery.Selection> properties = new ArrayList<OSLCQuery.Selection>();
+		do {
+			skipWhitespace();
+			final OSLCQuery.Selection property = new OSLCQuery.Selection(accept('*') ? null : parseIdentifier());
+			skipWhitespace();
+			if (accept('{')) {
+				property.nested = parseProperties();
+				expect('}');
+				skipWhitespace();
+			}
+			properties.add(property);
+		} while (accept(','));
+
+		return properties;
+	}
+
+	/**
+	 * sort_terms ::= sort_term ("," sort_term)*
+	 * sort_term ::= ("+" | "-") identifier
+	 */
+	List<OSLCQuery.SortKey> parseOrderBy() {
+		final List<OSLCQuery.SortKey> keys = new ArrayList<OSLCQuery.SortKey>();
+		do {
+			skipWhitespace();
+			final boolean ascending;
+			if (accept('+')) {
+				ascending = true;
+			} else if (accept('-')) {
+				ascending = false;
+			} else {
+				throw error("Expected + or -");
+			}
+			keys.add(new OSLCQuery.SortKey(parseIdentifier(), ascending));
+			skipWhitespace();
+		} while (accept(','));
+		expectEnd();
+
+		return keys;
+	}
+
+	/**
+	 * value ::= uri_ref | literal_value | prefixed_name
+	 * literal_value ::= boolean | decimal | string_esc (("^^" prefixed_name) | ("@" lang))?
+	 */
+	private Node parseValue() {
+		if (peek() == '<') {
+			return NodeFactory.createURI(parseURIRef());
+		}
+
+		if (peek() == '"') {
+			final String lexical = parseString();
+			if (fInput.startsWith("^^", fPos)) {
+				fPos += 2;
+				return NodeFactory.createLiteral(lexical, null, TypeMapper.getInstance().getSafeTypeByName(parseIdentifier()));
+			}
+			if (accept('@')) {
+				final int start = fPos;
+				while (fPos < fInput.length() && (Character.isLetterOrDigit(fInput.charAt(fPos)) || fInput.charAt(fPos) == '-')) {
+					fPos++;
+				}
+				return NodeFactory.createLiteral(lexical, fInput.substring(start, fPos), false);
+			}
+			return NodeFactory.createLiteral(lexical);
+		}
+
+		final int start = fPos;
+		if (peek() == '+' || peek() == '-') {
+			fPos++;
+		}
+		if (fPos < fInput.length() && Character.isDigit(fInput.charAt(fPos))) {
+			while (fPos < fInput.length() && Character.isDigit(fInput.charAt(fPos))) {
+				fPos++;
+			}
+			if (fPos + 1 < fInput.length() && fInput.charAt(fPos) == '.' && Character.isDigit(fInput.charAt(fPos + 1))) {
+				fPos++;
+				while (fPos < fInput.length() && Character.isDigit(fInput.charAt(fPos))) {
+					fPos++;
+				}
+				return NodeFactory.createLiteral(fInput.substring(start, fPos), XSDDatatype.XSDdecimal);
+			}
+			return NodeFactory.createLiteral(fInput.substring(start, fPos), XSDDatatype.XSDinteger);
+		}
+		fPos = start;
+
+		for (String b : new String[] { "true", "false" }) {
+			if (fInput.startsWith(b, fPos) && (fPos + b.length() == fInput.length() || !isNameChar(fInput.charAt(fPos + b.length())))) {
+				fPos += b.length();
+				return NodeFactory.createLiteral(b, XSDDatatype.XSDboolean);
+			}
+		}
+
+		return NodeFactory.createURI(parseIdentifier());
+	}
+
+	private String parseString() {
+		expect('"');
+		final StringBuilder value = new StringBuilder();
+		while (fPos < fInput.length()) {
+			char c = fInput.charAt(fPos++);
+			if (c == '"') {
+				return value.toString();
+			}
+			if (c == '\\' && fPos < fInput.length()) {
+				c = fInput.charAt(fPos++);
+			}
+			value.append(c);
+		}
+
+		throw error("Unterminated string");
+	}
+
+	private String parseURIRef() {
+		expect('<');
+		final int end = fInput.indexOf('>', fPos);
+		if (end == -1) {
+			throw error("Unterminated URI");
+		}
+		final String uri = fInput.substring(fPos, end);
+		for (int i = 0; i < uri.length(); i++) {
+			char c = uri.charAt(i);
+			if (Character.isWhitespace(c) || c == '<' || c == '"' || c == '{' || c == '}' || c == '\\') {
+				throw error("Invalid character in URI");
+			}
+		}
+		fPos = end + 1;
+
+		return uri;
+	}
+
+	/**
+	 * A prefixed name, such as <code>dcterms:title</code>, expanded to a URI.
+	 */
+	private String parseIdentifier() {
+		final int start = fPos;
+		while (fPos < fInput.length() && isNameChar(fInput.charAt(fPos))) {
+			fPos++;
+		}
+		if (!accept(':')) {
+			fPos = start;
+			throw error("Expected a prefixed name");
+		}
+		final String prefix = fInput.substring(start, fPos - 1);
+		final int localStart = fPos;
+		while (fPos < fInput.length() && isNameChar(fInput.charAt(fPos))) {
+			fPos++;
+		}
+		// A trailing '.' is not part of a name.
+		while (fPos > localStart && fInput.charAt(fPos - 1) == '.') {
+			fPos--;
+		}
+
+		final String namespace = fPrefixes.getNsPrefixURI(prefix);
+		if (namespace == null) {
+			fPos = start;
+			throw error("Undefined prefix '" + prefix + "'");
+		}
+
+		return namespace + fInput.substring(localStart, fPos);
+	}
+
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+	}
+
+	private char peek() {
+		return (fPos < fInput.length()) ? fInput.charAt(fPos) : 0;
+	}
+
+	private boolean accept(char c) {
+		if (peek() == c) {
+			fPos++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(char c) {
+		if (!accept(c)) {
+			throw error("Expected '" + c + "'");
+		}
+	}
+
+	private void expectEnd() {
+		skipWhitespace();
+		if (fPos != fInput.length()) {
+			throw error("Unexpected input");
+		}
+	}
+
+	private void skipWhitespace() {
+		while (fPos < fInput.length() && Character.isWhitespace(fInput.charAt(fPos))) {
+			fPos++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + fPos + " in: " + fInput);
+	}
+}
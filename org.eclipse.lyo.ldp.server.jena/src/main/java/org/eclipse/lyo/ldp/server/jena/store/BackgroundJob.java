@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.jena.atlas.json.JsonObject;
+
+/**
+ * Long-running maintenance work that runs in the background, one batch per
+ * write transaction, so other writers get the store between batches. A job
+ * can be cancelled between batches; the batches already committed stay
+ * committed.
+ *
+ * @see BackgroundJobs
+ */
+public abstract class BackgroundJob implements Runnable {
+	private final static Logger log = LoggerFactory.getLogger(BackgroundJob.class);
+
+	/**
+	 * System property for the milliseconds to pause between batches.
+	 * Default is 10.
+	 */
+	public static final String LDP_JOBS_PAUSE = "ldp.jobs.pause";
+
+	public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+	private final String fType;
+	private final long fPause = Long.getLong(LDP_JOBS_PAUSE, 10);
+	private String fId;
+	private volatile State fState = State.QUEUED;
+	private volatile boolean fCancelled;
+	private volatile long fProcessed;
+	private volatile long fBatches;
+	private final long fCreated = System.currentTimeMillis();
+	private volatile long fStarted;
+	private volatile long fFinished;
+	private volatile String fError;
+
+	protected BackgroundJob(String type) {
+		fType = type;
+	}
+
+	/**
+	 * Does the next batch of work in its own transaction.
+	 *
+	 * @return true if there is more to do
+	 */
+	protected abstract boolean runBatch();
+
+	/**
+	 * @return the number of items known to be left, or -1 if not known
+	 */
+	public long getRemaining() {
+		return -1;
+	}
+
+	/**
+	 * Called by subclasses as items are done.
+	 */
+	protected void processed(long count) {
+		fProcessed += count;
+	}
+
+	@Override
+	public void run() {
+		if (fCancelled) {
+			fState = State.CANCELLED;
+			return;
+		}
+
+		fState = State.RUNNING;
+		fStarted = System.currentTimeMillis();
+		try {
+			boolean more = true;
+			while (more && !fCancelled) {
+				more = runBatch();
+				fBatches++;
+				if (more && fPause > 0) {
+					Thread.sleep(fPause);
+				}
+			}
+			fState = fCancelled ? State.CANCELLED : State.COMPLETED;
+		} catch (InterruptedException e) {
+			fState = State.CANCELLED;
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			log.error("Background job " + fId + " (" + fType + ") failed", e);
+			fError = e.toString();
+			fState = State.FAILED;
+		} finally {
+			fFinished = System.currentTimeMillis();
+			log.info("Background job {} ({}) {} after {} items", fId, fType, fState, fProcessed);
+		}
+	}
+
+	/**
+	 * Stops the job before its next batch.
+	 */
+	public void cancel() {
+		fCancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return fCancelled;
+	}
+
+	public boolean isDone() {
+		return fState != State.QUEUED && fState != State.RUNNING;
+	}
+
+	void setId(String id) {
+		fId = id;
+	}
+
+	public String getId() {
+		return fId;
+	}
+
+	public String getType() {
+		return fType;
+	}
+
+	public State getState() {
+		return fState;
+	}
+
+	public long getProcessed() {
+		return fProcessed;
+	}
+
+	public String getError() {
+		return fError;
+	}
+
+	/**
+	 * The state and progress of the job. Subclasses add what they report.
+	 */
+	public JsonObject toJSON() {
+		JsonObject json = new JsonObject();
+		json.put("id", fId);
+		json.put("type", fType);
+		json.put("state", fState.name().toLowerCase());
+		json.put("processed", fProcessed);
+		json.put("batches", fBatches);
+		final long remaining = getRemaining();
+		if (remaining >= 0) {
+			json.put("remaining", remaining);
+		}
+		json.put("created", fCreated);
+		if (fStarted != 0) {
+			json.put("started", fStarted);
+			json.put("durationMillis", ((fFinished != 0) ? fFinished : System.currentTimeMillis()) - fStarted);
+		}
+		if (fFinished != 0) {
+			json.put("finished", fFinished);
+		}
+		if (fError != null) {
+			json.put("error", fError);
+		}
+
+		return json;
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs {@link BackgroundJob}s one at a time on a daemon thread, and keeps
+ * the most recent finished jobs so clients can see how they ended. Jobs
+ * only live in memory; a job that was running when the server stopped is
+ * not resumed.
+ */
+public class BackgroundJobs {
+	/**
+	 * The most finished jobs kept.
+	 */
+	private static final int MAX_FINISHED = 100;
+
+	private static final BackgroundJobs INSTANCE = new BackgroundJobs();
+
+	private final AtomicLong fNextId = new AtomicLong(1);
+	private final ConcurrentSkipListMap<Long, BackgroundJob> fJobs = new ConcurrentSkipListMap<Long, BackgroundJob>();
+	private final ExecutorService fExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "ldp-jobs");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.NORM_PRIORITY - 1);
+			return thread;
+		}
+	});
+
+	public static BackgroundJobs getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Queues a job to run after the jobs submitted before it.
+	 *
+	 * @return the job ID
+	 */
+	public String submit(BackgroundJob job) {
+		final long id = fNextId.getAndIncrement();
+		job.setId(Long.toString(id));
+		fJobs.put(id, job);
+		prune();
+		fExecutor.execute(job);
+
+		return job.getId();
+	}
+
+	/**
+	 * @return the job, or null if there is no such job or it was pruned
+	 */
+	public BackgroundJob get(String id) {
+		try {
+			return fJobs.get(Long.parseLong(id));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the jobs, oldest first
+	 */
+	public List<BackgroundJob> list() {
+		return new ArrayList<BackgroundJob>(fJobs.values());
+	}
+
+	private void prune() {
+		int finished = 0;
+		for (BackgroundJob job : fJobs.values()) {
+			if (job.isDone()) {
+				finished++;
+			}
+		}
+
+		final Iterator<Map.Entry<Long, BackgroundJob>> i = fJobs.entrySet().iterator();
+		while (finished > MAX_FINISHED && i.hasNext()) {
+			if (i.next().getValue().isDone()) {
+				i.remove();
+				finished--;
+			}
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.jena.atlas.json.JsonObject;
+
+/**
+ * The changes committed to a {@link TDBGraphStore}, in commit order, for
+ * clients that follow changes instead of polling. Each change has an ID one
+ * higher than the one before, assigned by the {@link ChangeJournal}. The most
+ * recent changes are kept in memory (see {@link #LDP_CHANGES_BUFFER}) so a
+ * client can resume after the last ID it saw. A client that falls further
+ * behind, or resumes after a restart, is told to reset, and
+ * {@link TDBGraphStore#getChanges(long, String, int, long)} reads the journal
+ * instead.
+ */
+public class ChangeBus {
+	/**
+	 * System property for the number of recent changes kept.
+	 */
+	public static final String LDP_CHANGES_BUFFER = "ldp.changes.buffer";
+
+	public enum Type {
+		CREATE, UPDATE, DELETE;
+
+		public String getName() {
+			return name().toLowerCase(Locale.ENGLISH);
+		}
+	}
+
+	public static class Change {
+		public final long id;
+		public final Type type;
+		public final String uri;
+		public final String containerURI;
+		/** The ETag of the resource after the change, or null if not recorded. */
+		public final String etag;
+		/** The write transaction, numbered from 1. Changes committed together have the same number. */
+		public final long commit;
+		public final long time;
+		final Set<String> fScopes; // The resource and the containers above it
+
+		Change(long id, Type type, String uri, String containerURI, String etag, long commit, long time, Collection<String> scopes) {
+			this.id = id;
+			this.type = type;
+			this.uri = uri;
+			this.containerURI = containerURI;
+			this.etag = etag;
+			this.commit = commit;
+			this.time = time;
+			fScopes = new LinkedHashSet<String>(scopes);
+		}
+
+		/**
+		 * @param scope a container URI, or null for the whole store
+		 * @return true iff the change is to the container or a resource below it
+		 */
+		public boolean isIn(String scope) {
+			return scope == null || fScopes.contains(scope);
+		}
+
+		public JsonObject toJSON() {
+			final JsonObject json = new JsonObject();
+			json.put("id", id);
+			json.put("type", type.getName());
+			json.put("uri", uri);
+			if (containerURI != null) {
+				json.put("container", containerURI);
+			}
+			if (etag != null) {
+				json.put("etag", etag);
+			}
+			json.put("commit", commit);
+			json.put("time", time);
+
+			return json;
+		}
+	}
+
+	/**
+	 * Changes after some ID.
+	 */
+	public static class Page {
+		public final List<Change> changes;
+		/** The ID to resume after next time. */
+		public final long last;
+		/** If changes after the requested ID were discarded, so the client must reread what it follows. */
+		public final boolean reset;
+
+		Page(List<Change> changes, long last, boolean reset) {
+			this.changes = changes;
+			this.last = last;
+			this.reset = reset;
+		}
+	}
+
+	private final Change[] fBuffer;
+	private final long fFirst; // ID of the first change published since startup
+	private long fLast; // ID of the latest change
+
+	/**
+	 * @param last the ID of the latest change before startup
+	 */
+	public ChangeBus(long last) {
+		fBuffer = new Change[Math.max(1, Integer.getInteger(LDP_CHANGES_BUFFER, 10000))];
+		fFirst = last + 1;
+		fLast = last;
+	}
+
+	public synchronized long getLastID() {
+		return fLast;
+	}
+
+	/**
+	 * Publishes a committed change.
+	 *
+	 * @param change the change, with an ID after the latest one published.
+	 *        On a replication follower, there are gaps where the journal
+	 *        was compacted.
+	 */
+	public synchronized void publish(Change change) {
+		if (change.id <= fLast) {
+			throw new IllegalArgumentException("Expected a change after " + fLast + ", not " + change.id);
+		}
+		fBuffer[(int) (change.id % fBuffer.length)] = change;
+		fLast = change.id;
+		notifyAll();
+	}
+
+	/**
+	 * Gets the changes after an ID in a scope, waiting up to
+	 * <code>timeoutMillis</code> for one if there are none yet.
+	 *
+	 * @param after the last ID the client saw
+	 * @param scope a container URI, or null for the whole store
+	 * @param max the most changes to return
+	 * @param timeoutMillis how long to wait, or 0 not to wait
+	 * @return the changes, possibly none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public synchronized Page await(long after, String scope, int max, long timeoutMillis) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		long last = after;
+		while (true) {
+			if (last > fLast || last < Math.max(fFirst - 1, fLast - fBuffer.length)) {
+				// From before startup, or too far behind.
+				return new Page(Collections.<Change>emptyList(), fLast, true);
+			}
+
+			final List<Change> changes = new ArrayList<Change>();
+			while (last < fLast && changes.size() < max) {
+				final Change change = fBuffer[(int) ((last + 1) % fBuffer.length)];
+				last++;
+				if (change != null && change.id == last && change.isIn(scope)) {
+					changes.add(change);
+				}
+			}
+
+			final long remaining = deadline - System.currentTimeMillis();
+			if (!changes.isEmpty() || remaining <= 0) {
+				return new Page(changes, last, false);
+			}
+			wait(remaining);
+		}
+	}
+}
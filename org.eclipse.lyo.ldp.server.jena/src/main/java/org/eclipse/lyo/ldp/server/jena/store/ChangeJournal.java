@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * A durable, ordered journal of the changes committed to a
+ * {@link TDBGraphStore}, so clients can catch up on what changed in a
+ * container subtree since a change ID instead of rereading it.
+ * <p>
+ * The journal is kept in the stored default graph of the TDB dataset and
+ * written in the same write transaction as the changes it records. With
+ * TDB's union default graph, SPARQL queries and resource reads only see the
+ * named graphs, so the journal stays out of sight. Each entry has the change
+ * ID, the operation, the resource, its container, its new ETag, the commit
+ * number, the time and the containers above the resource.
+ * <p>
+ * Entries are also filed in buckets of {@link #BUCKET_SIZE} consecutive
+ * IDs, for the whole store and for each container above the resource, so
+ * reading the changes after an ID only looks up the buckets from that ID
+ * on. A page costs about as much as the changes it returns, however long
+ * the journal is.
+ * <p>
+ * By default the journal keeps only the latest entry for each resource
+ * ({@link #LDP_JOURNAL_COMPACT}), which is all a client needs to catch up.
+ * The oldest entries are discarded once there are more than
+ * {@link #LDP_JOURNAL_MAX_ENTRIES} or they are older than
+ * {@link #LDP_JOURNAL_RETENTION}. A client asking for changes since a
+ * discarded ID is told to reset.
+ */
+public class ChangeJournal {
+	/**
+	 * System property for the most entries kept. Default is 100000.
+	 */
+	public static final String LDP_JOURNAL_MAX_ENTRIES = "ldp.journal.maxEntries";
+
+	/**
+	 * System property for how long, in hours, entries are kept. Default is
+	 * 0, which keeps them until there are too many.
+	 */
+	public static final String LDP_JOURNAL_RETENTION = "ldp.journal.retention";
+
+	/**
+	 * System property to keep only the latest entry for each resource.
+	 * Default is true.
+	 */
+	public static final String LDP_JOURNAL_COMPACT = "ldp.journal.compact";
+
+	private static final String ENTRY_PREFIX = "urn:lyo:journal:";
+	private static final Node HEAD = NodeFactory.createURI("urn:lyo:journal");
+	private static final Node LAST = property("journalLast");
+	private static final Node COMMIT = property("journalCommit");
+	private static final Node COUNT = property("journalCount");
+	private static final Node HORIZON = property("journalHorizon");
+	private static final Node CHANGE_ID = property("changeId");
+	private static final Node OPERATION = property("operation");
+	private static final Node RESOURCE = property("resource");
+	private static final Node CONTAINER = property("container");
+	private static final Node ETAG = property("etag");
+	private static final Node COMMIT_NUMBER = property("commit");
+	private static final Node TIME = property("time");
+	private static final Node SCOPE = property("scope");
+	private static final Node BUCKET = property("journalBucket");
+	private static final Node SCOPE_BUCKET = property("journalScopeBucket");
+	private static final Node BUCKETED = property("journalBucketed");
+
+	/**
+	 * The number of consecutive change IDs in a bucket.
+	 */
+	static final int BUCKET_SIZE = 1024;
+
+	/**
+	 * Milliseconds between checks for entries older than the retention.
+	 */
+	private static final long TRIM_INTERVAL = 3600000;
+
+	private final TDBGraphStore fStore;
+	private final int fMaxEntries;
+	private final long fRetentionMillis;
+	private final boolean fCompact;
+	private long fLastTrim; // Only used by the writer
+
+	public ChangeJournal(TDBGraphStore store) {
+		fStore = store;
+		fMaxEntries = Math.max(1, Integer.getInteger(LDP_JOURNAL_MAX_ENTRIES, 100000));
+		fRetentionMillis = Long.getLong(LDP_JOURNAL_RETENTION, 0) * 3600000;
+		fCompact = !"false".equals(System.getProperty(LDP_JOURNAL_COMPACT));
+		fLastTrim = System.currentTimeMillis();
+	}
+
+	private static Node property(String localName) {
+		return NodeFactory.createURI(Lyo.NS + localName);
+	}
+
+	private Graph graph() {
+		// Through the store, so a replication leader logs the changes.
+		return fStore.getDefaultModel().getGraph();
+	}
+
+	/**
+	 * Files the entries of a journal written before it had buckets, once.
+	 * Must be called in a write transaction.
+	 *
+	 * @return true if the journal changed
+	 */
+	boolean index() {
+		final Graph graph = graph();
+		if (graph.contains(HEAD, BUCKETED, Node.ANY)) {
+			return false;
+		}
+		for (Triple changeId : graph.find(Node.ANY, CHANGE_ID, Node.ANY).toList()) {
+			final Node entry = changeId.getSubject();
+			final long bucket = getId(entry) / BUCKET_SIZE;
+			graph.add(new Triple(entry, BUCKET, bucket(bucket, null)));
+			for (Triple scope : graph.find(entry, SCOPE, Node.ANY).toList()) {
+				graph.add(new Triple(entry, SCOPE_BUCKET, bucket(bucket, scope.getObject().getURI())));
+			}
+		}
+		graph.add(new Triple(HEAD, BUCKETED, NodeFactory.createLiteral("true", XSDDatatype.XSDboolean)));
+
+		return true;
+	}
+
+	/**
+	 * @return the ID of the latest change. Must be called in a transaction.
+	 */
+	public long getLast() {
+		return getLong(HEAD, LAST);
+	}
+
+	/**
+	 * Starts recording the changes of a write transaction.
+	 *
+	 * @return the number of the transaction
+	 */
+	public long beginCommit() {
+		final long commit = getLong(HEAD, COMMIT) + 1;
+		setLong(HEAD, COMMIT, commit);
+
+		return commit;
+	}
+
+	/**
+	 * Adds an entry, and if compacting, removes the older entry for the
+	 * resource. Must be called in the write transaction of the change.
+	 *
+	 * @param etag the new ETag, or null
+	 * @param commit the number from {@link #beginCommit()}
+	 * @param scopes the resource URI and the URIs of the containers above it
+	 * @return the change
+	 */
+	public ChangeBus.Change append(ChangeBus.Type type, String uri, String containerURI, String etag, long commit, long time, Collection<String> scopes) {
+		final Graph graph = graph();
+		final Node resource = NodeFactory.createURI(uri);
+		long count = getLong(HEAD, COUNT);
+		if (fCompact) {
+			for (Triple previous : graph.find(Node.ANY, RESOURCE, resource).toList()) {
+				graph.remove(previous.getSubject(), Node.ANY, Node.ANY);
+				count--;
+			}
+		}
+
+		final long id = getLast() + 1;
+		final Node entry = NodeFactory.createURI(ENTRY_PREFIX + id);
+		graph.add(new Triple(entry, CHANGE_ID, NodeFactory.createLiteral(Long.toString(id), XSDDatatype.XSDlong)));
+		graph.add(new Triple(entry, BUCKET, bucket(id / BUCKET_SIZE, null)));
+		graph.add(new Triple(entry, OPERATION, NodeFactory.createLiteral(type.getName())));
+		graph.add(new Triple(entry, RESOURCE, resource));
+		if (containerURI != null) {
+			graph.add(new Triple(entry, CONTAINER, NodeFactory.createURI(containerURI)));
+		}
+		if (etag != null) {
+			graph.add(new Triple(entry, ETAG, NodeFactory.createLiteral(etag)));
+		}
+		graph.add(new Triple(entry, COMMIT_NUMBER, NodeFactory.createLiteral(Long.toString(commit), XSDDatatype.XSDlong)));
+		graph.add(new Triple(entry, TIME, NodeFactory.createLiteral(Long.toString(time), XSDDatatype.XSDlong)));
+		for (String scope : scopes) {
+			graph.add(new Triple(entry, SCOPE, NodeFactory.createURI(scope)));
+			graph.add(new Triple(entry, SCOPE_BUCKET, bucket(id / BUCKET_SIZE, scope)));
+		}
+		setLong(HEAD, LAST, id);
+		setLong(HEAD, COUNT, count + 1);
+
+		return new ChangeBus.Change(id, type, uri, containerURI, etag, commit, time, scopes);
+	}
+
+	/**
+	 * Discards the oldest entries if there are too many or, at most once an
+	 * hour, if they are older than the retention. Must be called in a write
+	 * transaction.
+	 *
+	 * @return the number of entries discarded
+	 */
+	public int trim(long now) {
+		final long count = getLong(HEAD, COUNT);
+		final boolean checkAge = fRetentionMillis > 0 && now - fLastTrim >= TRIM_INTERVAL;
+		// Let the journal grow a little past the limit so this scan is rare.
+		if (count <= fMaxEntries + fMaxEntries / 10 && !checkAge) {
+			return 0;
+		}
+		fLastTrim = now;
+
+		// Oldest first, from the last entry discarded before.
+		final Graph graph = graph();
+		final long last = getLast();
+		long horizon = getLong(HEAD, HORIZON);
+		int removed = 0;
+		trim:
+		for (long bucket = horizon / BUCKET_SIZE; bucket <= last / BUCKET_SIZE; bucket++) {
+			for (Map.Entry<Long, Node> entry : getBucket(bucket, null, horizon).entrySet()) {
+				if (count - removed <= fMaxEntries
+						&& (fRetentionMillis <= 0 || getLong(entry.getValue(), TIME) >= now - fRetentionMillis)) {
+					break trim;
+				}
+				graph.remove(entry.getValue(), Node.ANY, Node.ANY);
+				horizon = entry.getKey();
+				removed++;
+			}
+		}
+		if (removed > 0) {
+			setLong(HEAD, HORIZON, horizon);
+			setLong(HEAD, COUNT, count - removed);
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Reads the changes to a container subtree after a change ID, oldest
+	 * first. Must be called in a transaction.
+	 *
+	 * @param after the last change ID the client saw
+	 * @param scope a container URI, or null for the whole store
+	 * @param max the most changes to return
+	 * @return the changes. If there are more, <code>last</code> is the ID of
+	 *         the last one returned. <code>reset</code> is set if changes
+	 *         after <code>after</code> were discarded.
+	 */
+	public ChangeBus.Page read(long after, String scope, int max) {
+		final long last = getLast();
+		if (after > last || after < getLong(HEAD, HORIZON)) {
+			return new ChangeBus.Page(Collections.<ChangeBus.Change>emptyList(), last, true);
+		}
+
+		final List<ChangeBus.Change> changes = new ArrayList<ChangeBus.Change>();
+		for (long bucket = after / BUCKET_SIZE; bucket <= last / BUCKET_SIZE; bucket++) {
+			for (Map.Entry<Long, Node> entry : getBucket(bucket, scope, after).entrySet()) {
+				if (changes.size() == max) {
+					return new ChangeBus.Page(changes, changes.get(max - 1).id, false);
+				}
+				changes.add(getChange(entry.getKey(), entry.getValue()));
+			}
+		}
+
+		return new ChangeBus.Page(changes, last, false);
+	}
+
+	/**
+	 * @param scope a container URI, or null for the whole store
+	 * @return the key of a bucket
+	 */
+	private static Node bucket(long bucket, String scope) {
+		return (scope == null)
+				? NodeFactory.createLiteral(Long.toString(bucket), XSDDatatype.XSDlong)
+				: NodeFactory.createLiteral(bucket + " " + scope);
+	}
+
+	/**
+	 * @return the entries in a bucket with IDs after <code>after</code>, by ID
+	 */
+	private TreeMap<Long, Node> getBucket(long bucket, String scope, long after) {
+		final TreeMap<Long, Node> entries = new TreeMap<Long, Node>();
+		final ExtendedIterator<Triple> triples = graph().find(Node.ANY, (scope == null) ? BUCKET : SCOPE_BUCKET, bucket(bucket, scope));
+		try {
+			while (triples.hasNext()) {
+				final Node entry = triples.next().getSubject();
+				final long id = getId(entry);
+				if (id > after) {
+					entries.put(id, entry);
+				}
+			}
+		} finally {
+			triples.close();
+		}
+
+		return entries;
+	}
+
+	/**
+	 * @return the ID of an entry, from its URI
+	 */
+	private static long getId(Node entry) {
+		return Long.parseLong(entry.getURI().substring(ENTRY_PREFIX.length()));
+	}
+
+	private ChangeBus.Change getChange(long id, Node entry) {
+		final Graph graph = graph();
+		final List<String> scopes = new ArrayList<String>();
+		final Iterator<Triple> triples = graph.find(entry, SCOPE, Node.ANY);
+		while (triples.hasNext()) {
+			scopes.add(triples.next().getObject().getURI());
+		}
+		final Node container = getObject(entry, CONTAINER);
+		final Node etag = getObject(entry, ETAG);
+
+		return new ChangeBus.Change(id,
+				ChangeBus.Type.valueOf(getObject(entry, OPERATION).getLiteralLexicalForm().toUpperCase(Locale.ENGLISH)),
+				getObject(entry, RESOURCE).getURI(),
+				container == null ? null : container.getURI(),
+				etag == null ? null : etag.getLiteralLexicalForm(),
+				getLong(entry, COMMIT_NUMBER),
+				getLong(entry, TIME),
+				scopes);
+	}
+
+	private Node getObject(Node subject, Node predicate) {
+		final ExtendedIterator<Triple> triples = graph().find(subject, predicate, Node.ANY);
+		try {
+			return triples.hasNext() ? triples.next().getObject() : null;
+		} finally {
+			triples.close();
+		}
+	}
+
+	private long getLong(Node subject, Node predicate) {
+		final Node value = getObject(subject, predicate);
+		return (value == null) ? 0 : Long.parseLong(value.getLiteralLexicalForm());
+	}
+
+	private void setLong(Node subject, Node predicate, long value) {
+		graph().remove(subject, predicate, Node.ANY);
+		graph().add(new Triple(subject, predicate, NodeFactory.createLiteral(Long.toString(value), XSDDatatype.XSDlong)));
+	}
+}
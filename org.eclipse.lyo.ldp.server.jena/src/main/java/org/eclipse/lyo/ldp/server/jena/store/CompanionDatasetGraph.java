@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.Iterator;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphBaseFind;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * A read-only view of a store's data and metadata datasets as one, for
+ * container queries that include the config graphs of the resources. The
+ * default graph is the union of the data graphs only.
+ */
+public class CompanionDatasetGraph extends DatasetGraphBaseFind {
+	private final DatasetGraph fData;
+	private final DatasetGraph fMetadata;
+
+	public CompanionDatasetGraph(DatasetGraph data, DatasetGraph metadata) {
+		fData = data;
+		fMetadata = metadata;
+	}
+
+	private DatasetGraph getDataset(Node graphName) {
+		return (graphName.isURI() && JenaLDPResourceManager.isConfigURI(graphName.getURI())) ? fMetadata : fData;
+	}
+
+	@Override
+	public Graph getDefaultGraph() {
+		return fData.getGraph(Quad.unionGraph);
+	}
+
+	@Override
+	public Graph getGraph(Node graphName) {
+		if (Quad.isUnionGraph(graphName) || Quad.isDefaultGraph(graphName)) {
+			return getDefaultGraph();
+		}
+
+		return getDataset(graphName).getGraph(graphName);
+	}
+
+	@Override
+	public boolean containsGraph(Node graphName) {
+		if (Quad.isUnionGraph(graphName) || Quad.isDefaultGraph(graphName)) {
+			return true;
+		}
+
+		return getDataset(graphName).containsGraph(graphName);
+	}
+
+	@Override
+	public Iterator<Node> listGraphNodes() {
+		return Iter.concat(fData.listGraphNodes(), fMetadata.listGraphNodes());
+	}
+
+	@Override
+	protected Iterator<Quad> findAny(Node s, Node p, Node o) {
+		// The default graph is only a view of the named graphs.
+		return findInAnyNamedGraphs(s, p, o);
+	}
+
+	@Override
+	protected Iterator<Quad> findInDftGraph(Node s, Node p, Node o) {
+		return triples2quadsDftGraph(getDefaultGraph().find(s, p, o));
+	}
+
+	@Override
+	protected Iterator<Quad> findInSpecificNamedGraph(Node g, Node s, Node p, Node o) {
+		if (Quad.isUnionGraph(g)) {
+			return triples2quads(Quad.unionGraph, getDefaultGraph().find(s, p, o));
+		}
+
+		return getDataset(g).find(g, s, p, o);
+	}
+
+	@Override
+	protected Iterator<Quad> findInAnyNamedGraphs(Node s, Node p, Node o) {
+		return Iter.concat(fData.findNG(Node.ANY, s, p, o), fMetadata.findNG(Node.ANY, s, p, o));
+	}
+
+	@Override
+	public void addGraph(Node graphName, Graph graph) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void removeGraph(Node graphName) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void add(Quad quad) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void delete(Quad quad) {
+		throw new UnsupportedOperationException("Read only");
+	}
+}
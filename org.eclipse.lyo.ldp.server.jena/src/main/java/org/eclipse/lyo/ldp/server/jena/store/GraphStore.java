@@ -20,6 +20,7 @@ package org.eclipse.lyo.ldp.server.jena.store;
 
 import java.io.OutputStream;
 
+import org.apache.jena.query.Query;
 import org.apache.jena.rdf.model.Model;
 
 /**
@@ -33,5 +34,6 @@ public interface GraphStore
 	String createGraph(String containerURI, String graphURIPrefix, String nameHint);
 	void query(OutputStream outStream, String queryString);
 	void query(OutputStream outStream, String queryString, String contentType);
+	void query(OutputStream outStream, Query query, String contentType);
 	Model construct(String queryString);
 }
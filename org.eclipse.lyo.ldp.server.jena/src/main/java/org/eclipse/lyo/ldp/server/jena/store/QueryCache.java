@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
+
+/**
+ * An LRU cache of parsed SPARQL queries keyed by query text.
+ * <p>
+ * Only parsing is cached. TDB compiles and optimizes the algebra for each
+ * execution because the join order it picks depends on the dataset
+ * statistics, which change as the data does.
+ * <p>
+ * Cached queries are never handed out directly. Callers get a shallow copy
+ * (new dataset description and query form, shared query pattern) that they
+ * can change without affecting other requests.
+ */
+public class QueryCache {
+	public static final String LDP_QUERY_PARSE_CACHE_SIZE = "ldp.query.parseCache.size";
+
+	private final int fMaxEntries;
+	private final Map<String, Query> fEntries;
+
+	private final AtomicLong fHits = new AtomicLong();
+	private final AtomicLong fMisses = new AtomicLong();
+
+	/**
+	 * Create a cache configured from system properties.
+	 */
+	public QueryCache() {
+		this(Integer.getInteger(LDP_QUERY_PARSE_CACHE_SIZE, 256));
+	}
+
+	/**
+	 * @param maxEntries the number of queries to keep, or 0 to disable the cache
+	 */
+	public QueryCache(final int maxEntries) {
+		fMaxEntries = maxEntries;
+		fEntries = new LinkedHashMap<String, Query>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Parses a query, or copies it if the same text was parsed before.
+	 *
+	 * @param queryString the SPARQL query
+	 * @return a query the caller is free to modify
+	 * @throws org.apache.jena.query.QueryException if the query is not valid
+	 */
+	public Query parse(String queryString) {
+		if (fMaxEntries <= 0) {
+			return QueryFactory.create(queryString);
+		}
+
+		Query query;
+		synchronized (fEntries) {
+			query = fEntries.get(queryString);
+		}
+
+		if (query != null) {
+			fHits.incrementAndGet();
+		} else {
+			fMisses.incrementAndGet();
+			// Parse outside the lock. Two threads might parse the same query, which is harmless.
+			query = QueryFactory.create(queryString);
+			synchronized (fEntries) {
+				fEntries.put(queryString, query);
+			}
+		}
+
+		return QueryTransformOps.shallowCopy(query);
+	}
+
+	/**
+	 * Substitutes values for variables in a query without parsing it again.
+	 * Bound variables that are projected by a SELECT are still returned with
+	 * their values.
+	 *
+	 * @param query the query
+	 * @param bindings values for variables, keyed by variable name without the leading <code>?</code> or <code>$</code>
+	 * @return a new query, or <code>query</code> if there are no bindings
+	 */
+	public static Query bind(Query query, Map<String, Node> bindings) {
+		if (bindings.isEmpty()) {
+			return query;
+		}
+
+		final Map<Var, Node> substitutions = new HashMap<Var, Node>();
+		for (Map.Entry<String, Node> binding : bindings.entrySet()) {
+			substitutions.put(Var.alloc(binding.getKey()), binding.getValue());
+		}
+
+		return QueryTransformOps.transform(query, substitutions);
+	}
+
+	public int getEntries() {
+		synchronized (fEntries) {
+			return fEntries.size();
+		}
+	}
+
+	public long getHits() { return fHits.get(); }
+	public long getMisses() { return fMisses.get(); }
+}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the SPARQL queries running against a graph store. Queries are
+ * admitted up to a fixed concurrency, a bounded number more may wait for a
+ * slot, and anything beyond that is rejected so the caller can answer 503.
+ * Every admitted query gets a timeout so a runaway query can't hold a read
+ * transaction (and old TDB journal state) open indefinitely.
+ */
+public class QueryGovernor {
+	private final static Logger log = LoggerFactory.getLogger(QueryGovernor.class);
+
+	public static final String LDP_QUERY_TIMEOUT = "ldp.query.timeout";
+	public static final String LDP_QUERY_MAX_CONCURRENT = "ldp.query.maxConcurrent";
+	public static final String LDP_QUERY_MAX_QUEUED = "ldp.query.maxQueued";
+	public static final String LDP_QUERY_QUEUE_TIMEOUT = "ldp.query.queueTimeout";
+	public static final String LDP_QUERY_SLOW = "ldp.query.slow";
+	public static final String LDP_QUERY_RETRY_AFTER = "ldp.query.retryAfter";
+
+	/**
+	 * How a query execution ended.
+	 */
+	public enum Outcome { COMPLETED, TIMED_OUT, CANCELLED, FAILED }
+
+	/**
+	 * Thrown when a query can't be admitted because the governor is saturated.
+	 */
+	public static class SaturatedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		private final int retryAfter;
+
+		SaturatedException(int retryAfter) {
+			super("Too many concurrent SPARQL queries");
+			this.retryAfter = retryAfter;
+		}
+
+		/**
+		 * @return the suggested delay in seconds before retrying
+		 */
+		public int getRetryAfter() {
+			return retryAfter;
+		}
+	}
+
+	private final long fTimeout;
+	private final int fMaxConcurrent;
+	private final int fMaxQueued;
+	private final long fQueueTimeout;
+	private final long fSlowQuery;
+	private final int fRetryAfter;
+
+	private final Semaphore fPermits;
+	private final AtomicInteger fQueued = new AtomicInteger();
+	private final Set<Admission> fAdmitted = ConcurrentHashMap.newKeySet(); // Admissions whose query hasn't started
+
+	private final AtomicLong fCompleted = new AtomicLong();
+	private final AtomicLong fTimedOut = new AtomicLong();
+	private final AtomicLong fCancelled = new AtomicLong();
+	private final AtomicLong fFailed = new AtomicLong();
+	private final AtomicLong fRejected = new AtomicLong();
+	private final AtomicLong fTotalTime = new AtomicLong();
+	private final AtomicLong fMaxTime = new AtomicLong();
+
+	/**
+	 * Create a governor configured from system properties.
+	 */
+	public QueryGovernor() {
+		this(Long.getLong(LDP_QUERY_TIMEOUT, 60000),
+			Integer.getInteger(LDP_QUERY_MAX_CONCURRENT, Runtime.getRuntime().availableProcessors()),
+			Integer.getInteger(LDP_QUERY_MAX_QUEUED, 16),
+			Long.getLong(LDP_QUERY_QUEUE_TIMEOUT, 10000));
+	}
+
+	/**
+	 * @param timeout the query timeout in milliseconds, or a negative value for none
+	 * @param maxConcurrent the number of queries that can run at once
+	 * @param maxQueued the number of queries that can wait for a slot
+	 * @param queueTimeout how long in milliseconds a query waits for a slot
+	 */
+	public QueryGovernor(long timeout, int maxConcurrent, int maxQueued, long queueTimeout) {
+		fTimeout = timeout;
+		fMaxConcurrent = maxConcurrent;
+		fMaxQueued = maxQueued;
+		fQueueTimeout = queueTimeout;
+		fSlowQuery = Long.getLong(LDP_QUERY_SLOW, 1000);
+		fRetryAfter = Integer.getInteger(LDP_QUERY_RETRY_AFTER, 5);
+		fPermits = new Semaphore(maxConcurrent, true);
+	}
+
+	/**
+	 * A slot taken before a response is committed, for a query that runs when
+	 * the response body is written. A saturated server can then still answer
+	 * 503 rather than fail a response that already has a 200 status.
+	 */
+	public static final class Admission {
+		private final long fTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Wait for a slot for a query that will run later. Pass the admission to
+	 * {@link #acquire(Admission)} when the query runs, or to
+	 * {@link #discard(Admission)} if it doesn't. An admission that is never
+	 * used (say, the body of a HEAD response is never written) gives its slot
+	 * back once it is older than the queue timeout.
+	 *
+	 * @throws SaturatedException if the queue is full or no slot frees up in time
+	 */
+	public Admission admit() {
+		acquire();
+		final Admission admission = new Admission();
+		fAdmitted.add(admission);
+		return admission;
+	}
+
+	/**
+	 * Take the slot of an admission, or wait for a new one if it is null or
+	 * expired. Must be paired with {@link #release()}.
+	 *
+	 * @throws SaturatedException if the queue is full or no slot frees up in time
+	 */
+	public void acquire(Admission admission) {
+		if (admission == null || !fAdmitted.remove(admission)) {
+			acquire();
+		}
+	}
+
+	/**
+	 * Give back the slot of an admission whose query won't run.
+	 */
+	public void discard(Admission admission) {
+		if (admission != null && fAdmitted.remove(admission)) {
+			fPermits.release();
+		}
+	}
+
+	/**
+	 * Give back the slots of admissions that were never used.
+	 */
+	private void expire() {
+		final long expired = System.currentTimeMillis() - fQueueTimeout;
+		for (Admission admission : fAdmitted) {
+			if (admission.fTime < expired && fAdmitted.remove(admission)) {
+				log.warn("Query admission unused after {} ms, releasing its slot", fQueueTimeout);
+				fPermits.release();
+			}
+		}
+	}
+
+	/**
+	 * Wait for a slot to run a query. Must be paired with {@link #release()}.
+	 *
+	 * @throws SaturatedException if the queue is full or no slot frees up in time
+	 */
+	public void acquire() {
+		if (!fAdmitted.isEmpty()) {
+			expire();
+		}
+		if (fPermits.tryAcquire()) {
+			return;
+		}
+
+		if (fQueued.incrementAndGet() > fMaxQueued) {
+			fQueued.decrementAndGet();
+			reject();
+		}
+
+		try {
+			if (!fPermits.tryAcquire(fQueueTimeout, TimeUnit.MILLISECONDS)) {
+				reject();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			reject();
+		} finally {
+			fQueued.decrementAndGet();
+		}
+	}
+
+	private void reject() {
+		fRejected.incrementAndGet();
+		throw new SaturatedException(fRetryAfter);
+	}
+
+	public void release() {
+		fPermits.release();
+	}
+
+	/**
+	 * Applies the query timeout to an execution.
+	 */
+	public void prepare(QueryExecution qexec) {
+		if (fTimeout >= 0) {
+			qexec.setTimeout(fTimeout, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Classifies an exception that ended a query execution. A failure to write
+	 * to the response means the client went away.
+	 */
+	public static Outcome getOutcome(Throwable t) {
+		for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+			if (cause instanceof QueryCancelledException) {
+				return Outcome.TIMED_OUT;
+			}
+			if (cause instanceof IOException) {
+				return Outcome.CANCELLED;
+			}
+		}
+
+		return Outcome.FAILED;
+	}
+
+	/**
+	 * Record the execution of one query.
+	 *
+	 * @param query the query
+	 * @param outcome how it ended
+	 * @param elapsed the execution time in milliseconds, including writing the results
+	 */
+	public void record(Query query, Outcome outcome, long elapsed) {
+		switch (outcome) {
+		case COMPLETED:
+			fCompleted.incrementAndGet();
+			break;
+		case TIMED_OUT:
+			fTimedOut.incrementAndGet();
+			break;
+		case CANCELLED:
+			fCancelled.incrementAndGet();
+			break;
+		default:
+			fFailed.incrementAndGet();
+		}
+
+		fTotalTime.addAndGet(elapsed);
+		long max = fMaxTime.get();
+		while (elapsed > max && !fMaxTime.compareAndSet(max, elapsed)) {
+			max = fMaxTime.get();
+		}
+
+		if (outcome == Outcome.TIMED_OUT || elapsed >= fSlowQuery) {
+			log.warn("SPARQL query {} after {} ms: {}", outcome, elapsed, query);
+		} else {
+			log.debug("SPARQL query {} after {} ms", outcome, elapsed);
+		}
+	}
+
+	public long getTimeout() { return fTimeout; }
+	public int getMaxConcurrent() { return fMaxConcurrent; }
+	public int getMaxQueued() { return fMaxQueued; }
+	public int getRunning() { return fMaxConcurrent - fPermits.availablePermits(); }
+	public int getQueued() { return fQueued.get(); }
+	public long getCompleted() { return fCompleted.get(); }
+	public long getTimedOut() { return fTimedOut.get(); }
+	public long getCancelled() { return fCancelled.get(); }
+	public long getFailed() { return fFailed.get(); }
+	public long getRejected() { return fRejected.get(); }
+	public long getMaxTime() { return fMaxTime.get(); }
+	public long getTotalTime() { return fTotalTime.get(); }
+
+	/**
+	 * @return the number of queries that ran, however they ended
+	 */
+	public long getExecuted() {
+		return fCompleted.get() + fTimedOut.get() + fCancelled.get() + fFailed.get();
+	}
+
+	/**
+	 * @return the mean execution time in milliseconds of all queries that ran
+	 */
+	public double getMeanTime() {
+		long count = getExecuted();
+		return count == 0 ? 0 : (double) fTotalTime.get() / count;
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.apache.jena.query.Query;
+
+/**
+ * An LRU cache of serialized SPARQL query results, bounded by the total size
+ * of the results in bytes. Entries are keyed by the commit version of the
+ * dataset they were computed from, so a write never has to invalidate
+ * anything: queries after the write simply look up a newer version, and
+ * entries for older versions are dropped the first time a newer one is
+ * stored.
+ */
+public class QueryResultCache {
+	public static final String LDP_QUERY_CACHE_SIZE = "ldp.query.cache.size";
+	public static final String LDP_QUERY_CACHE_MAX_ENTRY = "ldp.query.cache.maxEntry";
+
+	/**
+	 * Functions whose results differ between executions over the same data.
+	 */
+	private static final Pattern NONDETERMINISTIC = Pattern.compile(
+			"\\b(NOW|RAND|UUID|STRUUID|BNODE)\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+	private final long fMaxSize;
+	private final int fMaxEntrySize;
+
+	private final LinkedHashMap<String, byte[]> fEntries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private long fSize = 0;
+	private long fVersion = 0;
+
+	private final AtomicLong fHits = new AtomicLong();
+	private final AtomicLong fMisses = new AtomicLong();
+	private final AtomicLong fEvictions = new AtomicLong();
+
+	/**
+	 * Create a cache configured from system properties.
+	 */
+	public QueryResultCache() {
+		this(Long.getLong(LDP_QUERY_CACHE_SIZE, 32 * 1024 * 1024),
+			Integer.getInteger(LDP_QUERY_CACHE_MAX_ENTRY, 1024 * 1024));
+	}
+
+	/**
+	 * @param maxSize the total size in bytes of the cached results, or 0 to disable the cache
+	 * @param maxEntrySize the size in bytes of the largest result to cache
+	 */
+	public QueryResultCache(long maxSize, int maxEntrySize) {
+		fMaxSize = maxSize;
+		fMaxEntrySize = (int) Math.min(maxEntrySize, maxSize);
+	}
+
+	public boolean isEnabled() {
+		return fMaxSize > 0;
+	}
+
+	/**
+	 * Whether the results of a query can be cached at all.
+	 */
+	public boolean isCacheable(Query query) {
+		return isEnabled() && !NONDETERMINISTIC.matcher(query.toString()).find();
+	}
+
+	/**
+	 * Builds the cache key for a query execution.
+	 *
+	 * @param query the query, which is serialized to normalize whitespace, prefixes, and comments
+	 * @param contentType the results format
+	 * @param scope identifies the dataset view the query runs over, or null for the whole dataset
+	 * @param version the commit version of the dataset
+	 */
+	public static String key(Query query, String contentType, String scope, long version) {
+		return new StringBuilder()
+			.append(version).append('\n')
+			.append(contentType).append('\n')
+			.append(scope == null ? "" : scope).append('\n')
+			.append(query.toString())
+			.toString();
+	}
+
+	/**
+	 * @return the cached results or null
+	 */
+	public synchronized byte[] get(String key) {
+		final byte[] results = fEntries.get(key);
+		if (results == null) {
+			fMisses.incrementAndGet();
+		} else {
+			fHits.incrementAndGet();
+		}
+
+		return results;
+	}
+
+	/**
+	 * Cache the results of a query, evicting the least recently used results
+	 * if the cache is full.
+	 *
+	 * @param key the key from {@link #key(Query, String, String, long)}
+	 * @param version the version in the key
+	 * @param results the serialized results
+	 */
+	public synchronized void put(String key, long version, byte[] results) {
+		if (version < fVersion || results.length > fMaxEntrySize) {
+			return;
+		}
+
+		if (version > fVersion) {
+			// Nothing computed from an older version will be asked for again.
+			fVersion = version;
+			fEvictions.addAndGet(fEntries.size());
+			fEntries.clear();
+			fSize = 0;
+		}
+
+		final byte[] previous = fEntries.put(key, results);
+		fSize += results.length - (previous == null ? 0 : previous.length);
+
+		final Iterator<byte[]> i = fEntries.values().iterator();
+		while (fSize > fMaxSize && i.hasNext()) {
+			fSize -= i.next().length;
+			i.remove();
+			fEvictions.incrementAndGet();
+		}
+	}
+
+	public synchronized void clear() {
+		fEntries.clear();
+		fSize = 0;
+	}
+
+	/**
+	 * Wraps the response stream so that everything written to it is also
+	 * kept for the cache, up to the maximum entry size.
+	 */
+	public CapturingOutputStream capture(OutputStream outStream) {
+		return new CapturingOutputStream(outStream, fMaxEntrySize);
+	}
+
+	public long getMaxSize() { return fMaxSize; }
+	public synchronized long getSize() { return fSize; }
+	public synchronized int getEntries() { return fEntries.size(); }
+	public long getHits() { return fHits.get(); }
+	public long getMisses() { return fMisses.get(); }
+	public long getEvictions() { return fEvictions.get(); }
+
+	/**
+	 * @return the fraction of lookups that were hits
+	 */
+	public double getHitRate() {
+		long hits = fHits.get();
+		long lookups = hits + fMisses.get();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Copies everything written to a stream, giving up once the copy exceeds a limit.
+	 */
+	public static class CapturingOutputStream extends OutputStream {
+		private final OutputStream fOut;
+		private final int fLimit;
+		private ByteArrayOutputStream fCopy = new ByteArrayOutputStream();
+
+		CapturingOutputStream(OutputStream out, int limit) {
+			fOut = out;
+			fLimit = limit;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			fOut.write(b);
+			if (fCopy != null) {
+				fCopy.write(b);
+				checkLimit();
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			fOut.write(b, off, len);
+			if (fCopy != null) {
+				fCopy.write(b, off, len);
+				checkLimit();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			fOut.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			fOut.close();
+		}
+
+		private void checkLimit() {
+			if (fCopy.size() > fLimit) {
+				fCopy = null;
+			}
+		}
+
+		/**
+		 * @return what was written, or null if it was too large to keep
+		 */
+		public byte[] getCaptured() {
+			return fCopy == null ? null : fCopy.toByteArray();
+		}
+	}
+}
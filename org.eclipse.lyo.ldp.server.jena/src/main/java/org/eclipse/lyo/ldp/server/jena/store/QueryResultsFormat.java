@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MediaType;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFormatter;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sparql.resultset.ResultsFormat;
+
+/**
+ * Content negotiation and serialization of SPARQL query results. Result sets
+ * and triples are written as the query produces them so that large results
+ * are never held in memory (the one exception is RDF/XML, which has no
+ * streaming writer).
+ */
+public final class QueryResultsFormat {
+
+	/**
+	 * Formats for SELECT results, default first.
+	 */
+	public static final List<String> RESULT_SET_TYPES = Arrays.asList(
+			LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON,
+			LDPConstants.CT_APPLICATION_SPARQLRESULTSXML,
+			LDPConstants.CT_TEXT_CSV,
+			LDPConstants.CT_TEXT_TSV,
+			LDPConstants.CT_APPLICATION_SPARQLRESULTSTHRIFT,
+			LDPConstants.CT_APPLICATION_JSON);
+
+	/**
+	 * Formats for ASK results, default first. There is no Thrift encoding of a boolean result.
+	 */
+	public static final List<String> BOOLEAN_TYPES = Arrays.asList(
+			LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON,
+			LDPConstants.CT_APPLICATION_SPARQLRESULTSXML,
+			LDPConstants.CT_TEXT_CSV,
+			LDPConstants.CT_TEXT_TSV,
+			LDPConstants.CT_APPLICATION_JSON);
+
+	/**
+	 * Formats for CONSTRUCT and DESCRIBE results, default first.
+	 */
+	public static final List<String> GRAPH_TYPES = Arrays.asList(
+			LDPConstants.CT_TEXT_TURTLE,
+			LDPConstants.CT_APPLICATION_NTRIPLES,
+			LDPConstants.CT_APPLICATION_RDFTHRIFT,
+			LDPConstants.CT_APPLICATION_XTURTLE,
+			LDPConstants.CT_APPLICATION_RDFXML);
+
+	/**
+	 * How many recent triples a distinct streamed graph result is checked
+	 * against for duplicates.
+	 */
+	static final int DISTINCT_WINDOW = 10000;
+
+	private QueryResultsFormat() {
+	}
+
+	/**
+	 * Chooses the response content type for a query.
+	 *
+	 * @param query the parsed query
+	 * @param acceptableTypes the acceptable media types, most preferred first
+	 * @return the content type or null if none of the acceptable types are supported
+	 */
+	public static String negotiate(Query query, List<MediaType> acceptableTypes) {
+		final List<String> supported = getSupportedTypes(query);
+		if (acceptableTypes == null || acceptableTypes.isEmpty()) {
+			return supported.get(0);
+		}
+
+		for (MediaType acceptable : acceptableTypes) {
+			for (String type : supported) {
+				if (acceptable.isCompatible(MediaType.valueOf(type))) {
+					return type;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	public static List<String> getSupportedTypes(Query query) {
+		if (query.isAskType()) {
+			return BOOLEAN_TYPES;
+		}
+
+		if (query.isConstructType() || query.isDescribeType()) {
+			return GRAPH_TYPES;
+		}
+
+		return RESULT_SET_TYPES;
+	}
+
+	/**
+	 * Executes the query and writes its results. The caller is responsible for
+	 * any transaction and for closing <code>qexec</code>.
+	 *
+	 * @param outStream the stream to write to
+	 * @param qexec the query execution
+	 * @param contentType one of the types from {@link #getSupportedTypes(Query)}
+	 */
+	public static void write(OutputStream outStream, QueryExecution qexec, String contentType) {
+		write(outStream, qexec, contentType, false);
+	}
+
+	/**
+	 * Executes the query and writes its results. The caller is responsible for
+	 * any transaction and for closing <code>qexec</code>.
+	 *
+	 * @param outStream the stream to write to
+	 * @param qexec the query execution
+	 * @param contentType one of the types from {@link #getSupportedTypes(Query)}
+	 * @param distinct if true, skip triples repeated within the last
+	 *        {@link #DISTINCT_WINDOW} triples of a CONSTRUCT or DESCRIBE
+	 *        result, as for queries whose template repeats a triple for every
+	 *        solution
+	 */
+	public static void write(OutputStream outStream, QueryExecution qexec, String contentType, boolean distinct) {
+		final Query query = qexec.getQuery();
+		if (query.isAskType()) {
+			writeBoolean(outStream, qexec.execAsk(), contentType);
+		} else if (query.isConstructType()) {
+			writeTriples(outStream, qexec.execConstructTriples(), query, contentType, distinct);
+		} else if (query.isDescribeType()) {
+			writeTriples(outStream, qexec.execDescribeTriples(), query, contentType, distinct);
+		} else {
+			writeResultSet(outStream, qexec.execSelect(), contentType);
+		}
+	}
+
+	static void writeResultSet(OutputStream outStream, ResultSet result, String contentType) {
+		if (LDPConstants.CT_APPLICATION_SPARQLRESULTSXML.equals(contentType)) {
+			ResultSetFormatter.outputAsXML(outStream, result);
+		} else if (LDPConstants.CT_TEXT_CSV.equals(contentType)) {
+			ResultSetFormatter.outputAsCSV(outStream, result);
+		} else if (LDPConstants.CT_TEXT_TSV.equals(contentType)) {
+			ResultSetFormatter.outputAsTSV(outStream, result);
+		} else if (LDPConstants.CT_APPLICATION_SPARQLRESULTSTHRIFT.equals(contentType)) {
+			ResultSetFormatter.output(outStream, result, ResultsFormat.FMT_RS_THRIFT);
+		} else {
+			ResultSetFormatter.outputAsJSON(outStream, result);
+		}
+	}
+
+	static void writeBoolean(OutputStream outStream, boolean result, String contentType) {
+		if (LDPConstants.CT_APPLICATION_SPARQLRESULTSXML.equals(contentType)) {
+			ResultSetFormatter.outputAsXML(outStream, result);
+		} else if (LDPConstants.CT_TEXT_CSV.equals(contentType)) {
+			ResultSetFormatter.outputAsCSV(outStream, result);
+		} else if (LDPConstants.CT_TEXT_TSV.equals(contentType)) {
+			ResultSetFormatter.outputAsTSV(outStream, result);
+		} else {
+			ResultSetFormatter.outputAsJSON(outStream, result);
+		}
+	}
+
+	static void writeTriples(OutputStream outStream, Iterator<Triple> triples, Query query, String contentType, boolean distinct) {
+		if (LDPConstants.CT_APPLICATION_RDFXML.equals(contentType)) {
+			// No streaming writer for RDF/XML, so build the graph first.
+			final Model model = ModelFactory.createDefaultModel();
+			model.setNsPrefixes(query.getPrefixMapping());
+			while (triples.hasNext()) {
+				model.getGraph().add(triples.next());
+			}
+			RDFDataMgr.write(outStream, model, Lang.RDFXML);
+			return;
+		}
+
+		final Lang lang;
+		if (LDPConstants.CT_APPLICATION_NTRIPLES.equals(contentType)) {
+			lang = Lang.NTRIPLES;
+		} else if (LDPConstants.CT_APPLICATION_RDFTHRIFT.equals(contentType)) {
+			lang = Lang.RDFTHRIFT;
+		} else {
+			lang = Lang.TURTLE;
+		}
+
+		final StreamRDF stream = StreamRDFWriter.getWriterStream(outStream, lang);
+		stream.start();
+		for (Map.Entry<String, String> prefix : query.getPrefixMapping().getNsPrefixMap().entrySet()) {
+			stream.prefix(prefix.getKey(), prefix.getValue());
+		}
+		if (!distinct) {
+			while (triples.hasNext()) {
+				stream.triple(triples.next());
+			}
+			stream.finish();
+			return;
+		}
+
+		// A template triple is produced once per solution. Skip repeats,
+		// remembering only the most recent triples to keep memory bounded.
+		final Map<Triple, Boolean> recent = new LinkedHashMap<Triple, Boolean>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Triple, Boolean> eldest) {
+				return size() > DISTINCT_WINDOW;
+			}
+		};
+		while (triples.hasNext()) {
+			final Triple triple = triples.next();
+			if (recent.put(triple, Boolean.TRUE) == null) {
+				stream.triple(triple);
+			}
+		}
+		stream.finish();
+	}
+}
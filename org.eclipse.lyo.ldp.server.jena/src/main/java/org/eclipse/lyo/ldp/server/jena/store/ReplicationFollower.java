@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Keeps a follower's {@link TDBGraphStore} in step with a leader's by
+ * replaying the leader's {@link ReplicationLog}, so followers can serve
+ * reads. A background thread long-polls the leader's
+ * <code>_admin/replication/log</code> for the records after the follower's
+ * position and applies each one in its own write transaction. A new
+ * follower, or one further behind than the leader keeps records, loads
+ * <code>_admin/replication/snapshot</code> first.
+ * <p>
+ * The follower is <em>current</em> as of the last time the leader said it
+ * had nothing newer. {@link #getStaleness()} is how long ago that was, which
+ * callers compare with {@link #LDP_REPLICATION_MAX_STALENESS}.
+ */
+public class ReplicationFollower implements Runnable {
+	/**
+	 * System property for the base URL of the leader's resources, for
+	 * example <code>http://localhost:8080/ldp/resources/</code>.
+	 */
+	public static final String LDP_REPLICATION_LEADER = "ldp.replication.leader";
+
+	/**
+	 * System property for the most milliseconds a follower serves reads
+	 * without hearing it is current. Default is 10000.
+	 */
+	public static final String LDP_REPLICATION_MAX_STALENESS = "ldp.replication.maxStaleness";
+
+	/**
+	 * The most bytes of log records to ask for at a time.
+	 */
+	private static final long MAX_BYTES = 4 * 1024 * 1024;
+
+	/**
+	 * Milliseconds to wait after a failure before trying again.
+	 */
+	private static final long RETRY_MILLIS = 1000;
+
+	private final TDBGraphStore fStore;
+	private final String fLeader;
+	private final long fMaxStaleness;
+	private long fPosition; // Last position applied
+	private long fCurrentAt; // When the leader last said there was nothing newer, or 0
+	private boolean fReady; // Has the leader's data
+	private String fLastError;
+	private volatile Thread fThread;
+
+	/**
+	 * @param store the follower's store
+	 * @param leader the base URL of the leader's resources
+	 */
+	public ReplicationFollower(TDBGraphStore store, String leader) {
+		fStore = store;
+		fLeader = leader.endsWith("/") ? leader : leader + "/";
+		fMaxStaleness = Long.getLong(LDP_REPLICATION_MAX_STALENESS, 10000);
+		fStore.readLock();
+		try {
+			fPosition = fStore.getReplicationPosition();
+		} finally {
+			fStore.end();
+		}
+		fReady = fPosition > 0;
+	}
+
+	public String getLeader() {
+		return fLeader;
+	}
+
+	public long getMaxStaleness() {
+		return fMaxStaleness;
+	}
+
+	public synchronized long getPosition() {
+		return fPosition;
+	}
+
+	public synchronized String getLastError() {
+		return fLastError;
+	}
+
+	/**
+	 * @return milliseconds since the follower was last known to be current,
+	 *         or {@link Long#MAX_VALUE} if it never was
+	 */
+	public synchronized long getStaleness() {
+		return (fCurrentAt == 0) ? Long.MAX_VALUE : System.currentTimeMillis() - fCurrentAt;
+	}
+
+	/**
+	 * Starts following the leader in a background thread.
+	 */
+	public synchronized void start() {
+		if (fThread == null) {
+			fThread = new Thread(this, "LDP replication follower");
+			fThread.setDaemon(true);
+			fThread.start();
+		}
+	}
+
+	public void stop() {
+		final Thread thread = fThread;
+		fThread = null;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Waits until the follower has the leader's data, for instance before
+	 * serving any requests.
+	 */
+	public synchronized void awaitReady() throws InterruptedException {
+		while (!fReady) {
+			wait();
+		}
+	}
+
+	/**
+	 * Waits until the follower has applied a position, so a client reads
+	 * its own writes.
+	 *
+	 * @return true if the position was reached in time
+	 */
+	public synchronized boolean awaitPosition(long position, long timeoutMillis) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		long remaining;
+		while (fPosition < position && (remaining = deadline - System.currentTimeMillis()) > 0) {
+			wait(remaining);
+		}
+
+		return fPosition >= position;
+	}
+
+	@Override
+	public void run() {
+		while (fThread == Thread.currentThread()) {
+			try {
+				if (!fReady || !poll()) {
+					loadSnapshot();
+				}
+				synchronized (this) {
+					fLastError = null;
+				}
+			} catch (IOException e) {
+				synchronized (this) {
+					fLastError = e.toString();
+				}
+				try {
+					Thread.sleep(RETRY_MILLIS);
+				} catch (InterruptedException ie) {
+					return;
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Applies the next records from the leader, waiting for some if there
+	 * are none.
+	 *
+	 * @return false if the leader no longer has the records after our
+	 *         position, so the follower needs a snapshot
+	 */
+	protected boolean poll() throws IOException, InterruptedException {
+		// Wait less than the staleness bound, so an idle leader keeps us current.
+		final long wait = Math.max(1, fMaxStaleness / 2000);
+		final long position = getPosition();
+		final HttpURLConnection connection = open("_admin/replication/log?after=" + position + "&wait=" + wait);
+		try {
+			if (connection.getResponseCode() == HttpURLConnection.HTTP_GONE) {
+				return false;
+			}
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Leader returned " + connection.getResponseCode() + " for the replication log");
+			}
+			final long leaderPosition = Long.parseLong(connection.getHeaderField(LDPConstants.HDR_REPLICATION_POSITION));
+			final List<ReplicationLog.Record> records = ReplicationLog.parse(
+					new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)));
+			apply(records);
+			synchronized (this) {
+				if (fPosition >= leaderPosition) {
+					fCurrentAt = System.currentTimeMillis();
+				}
+			}
+		} finally {
+			connection.disconnect();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Applies records in order, skipping those already applied.
+	 *
+	 * @throws IOException if a record is missing
+	 */
+	public void apply(List<ReplicationLog.Record> records) throws IOException {
+		for (ReplicationLog.Record record : records) {
+			final long position = getPosition();
+			if (record.position <= position) {
+				continue;
+			}
+			if (record.position != position + 1) {
+				throw new IOException("Expected replication record " + (position + 1) + ", not " + record.position);
+			}
+			apply(record);
+			synchronized (this) {
+				fPosition = record.position;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Applies a write transaction from the leader. The record sets the
+	 * replication position itself. Followers publish the leader's journal
+	 * entries on their own {@link ChangeBus}.
+	 */
+	private void apply(ReplicationLog.Record record) {
+		fStore.writeLock();
+		try {
+			for (ReplicationLog.Op op : record.ops) {
+				final Node graph = (op.type == ReplicationLog.OP_CLEAR) ? op.graph : op.quad.getGraph();
+				final DatasetGraph dsg = fStore.getDatasetGraph(graph);
+				if (op.type == ReplicationLog.OP_ADD) {
+					if (graph.isURI() && !Quad.isDefaultGraph(graph)) {
+						fStore.used(graph.getURI());
+					}
+					dsg.add(op.quad);
+				} else if (op.type == ReplicationLog.OP_DELETE) {
+					dsg.delete(op.quad);
+				} else if (Quad.isDefaultGraph(graph)) {
+					dsg.getDefaultGraph().clear();
+				} else {
+					dsg.removeGraph(graph);
+				}
+				if (graph.isURI() && !Quad.isDefaultGraph(graph)) {
+					fStore.textChanged(graph.getURI());
+				}
+			}
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+
+		fStore.publishJournal();
+	}
+
+	/**
+	 * Replaces the follower's data with a snapshot of the leader's.
+	 */
+	protected void loadSnapshot() throws IOException {
+		final long requested = System.currentTimeMillis();
+		final HttpURLConnection connection = open("_admin/replication/snapshot");
+		try {
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Leader returned " + connection.getResponseCode() + " for a snapshot");
+			}
+			final InputStream in = connection.getInputStream();
+			try {
+				loadSnapshot(in, requested); // The leader's data when we asked
+			} finally {
+				in.close();
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	/**
+	 * Replaces the whole dataset with a snapshot of the leader's, on a
+	 * follower that is new or too far behind to replay the log.
+	 *
+	 * @param in the snapshot from {@link ReplicationLog#writeSnapshot(TDBGraphStore, java.io.OutputStream)}
+	 */
+	public void loadSnapshot(InputStream in) {
+		loadSnapshot(in, 0);
+	}
+
+	/**
+	 * @param currentAt when the snapshot was current, or 0 if not known
+	 */
+	private void loadSnapshot(InputStream in, long currentAt) {
+		fStore.writeLock();
+		try {
+			for (DatasetGraph dsg : new DatasetGraph[] { fStore.fDataset.asDatasetGraph(), fStore.fMetadata.asDatasetGraph() }) {
+				for (Node graph : Iter.toList(dsg.listGraphNodes())) {
+					dsg.removeGraph(graph);
+				}
+				dsg.getDefaultGraph().clear();
+			}
+			RDFDataMgr.parse(new StreamRDFBase() {
+				@Override
+				public void triple(Triple triple) {
+					fStore.fDataset.asDatasetGraph().getDefaultGraph().add(triple);
+				}
+
+				@Override
+				public void quad(Quad quad) {
+					fStore.getDatasetGraph(quad.getGraph()).add(quad);
+				}
+			}, in, Lang.NQUADS);
+			fStore.rebuildUsed();
+			fStore.commit();
+		} finally {
+			fStore.end();
+		}
+
+		fStore.rebuildTextIndex();
+		fStore.resetChangeBus();
+		fStore.readLock();
+		try {
+			synchronized (this) {
+				fPosition = fStore.getReplicationPosition();
+				if (currentAt > 0) {
+					fCurrentAt = currentAt;
+				}
+				fReady = true;
+				notifyAll();
+			}
+		} finally {
+			fStore.end();
+		}
+	}
+
+	private HttpURLConnection open(String path) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(fLeader + path).openConnection();
+		connection.setConnectTimeout(5000);
+		connection.setReadTimeout((int) Math.max(30000, fMaxStaleness * 2));
+
+		return connection;
+	}
+}
@@ -0,0 +1,535 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.GraphListener;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.riot.tokens.Token;
+import org.apache.jena.riot.tokens.Tokenizer;
+import org.apache.jena.riot.tokens.TokenizerFactory;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * The leader's ordered log of committed write transactions, which followers
+ * replay to keep their own datasets in step (see {@link ReplicationFollower}).
+ * <p>
+ * {@link StoreReplication} registers a {@link GraphListener} from
+ * {@link #listener(Node)} on every graph a {@link TDBGraphStore} hands out
+ * in a write transaction, so each record holds the quads added and deleted,
+ * and the graphs cleared or removed, in the order they happened. When the
+ * transaction commits, the record is appended and synced to the log file
+ * <em>before</em> the TDB commit, and its position is written into the same
+ * TDB transaction. On startup, records after the position TDB committed are
+ * discarded, so the log and the dataset always agree.
+ * <p>
+ * A record is lines of text:
+ *
+ * <pre>
+ * B 42 1792402584263
+ * A &lt;s&gt; &lt;p&gt; "o" &lt;g&gt; .
+ * D &lt;s&gt; &lt;p&gt; "o" &lt;g&gt; .
+ * C &lt;g&gt;
+ * E 42
+ * </pre>
+ *
+ * for the position and commit time, each added (A) or deleted (D) quad, each
+ * cleared or removed graph (C), and the end of the record. The last
+ * {@link #LDP_REPLICATION_RETAIN} records are kept. A follower further
+ * behind has to load a snapshot instead.
+ */
+public class ReplicationLog implements Closeable {
+	/**
+	 * System property for the number of records kept. Default is 100000.
+	 */
+	public static final String LDP_REPLICATION_RETAIN = "ldp.replication.retain";
+
+	public static final String FILE_NAME = "replication.log";
+
+	public static final char OP_ADD = 'A';
+	public static final char OP_DELETE = 'D';
+	public static final char OP_CLEAR = 'C';
+	private static final char BEGIN = 'B';
+	private static final char END = 'E';
+
+	/**
+	 * A change to a dataset: a quad added or deleted, or a graph cleared.
+	 */
+	public static class Op {
+		public final char type;
+		public final Quad quad; // For OP_ADD and OP_DELETE
+		public final Node graph; // For OP_CLEAR
+
+		Op(char type, Quad quad, Node graph) {
+			this.type = type;
+			this.quad = quad;
+			this.graph = graph;
+		}
+	}
+
+	/**
+	 * A committed write transaction.
+	 */
+	public static class Record {
+		public final long position;
+		public final long time;
+		public final List<Op> ops;
+
+		Record(long position, long time, List<Op> ops) {
+			this.position = position;
+			this.time = time;
+			this.ops = ops;
+		}
+	}
+
+	private final File fFile;
+	private final int fRetain;
+	private RandomAccessFile fOut;
+	private final TreeMap<Long, Long> fOffsets = new TreeMap<Long, Long>(); // File offset of each record
+	private long fFirst; // Position of the first record in the log, or after fLast if there are none
+	private long fLast; // Position of the last committed record
+	private List<Op> fOps; // Changes in the current write transaction, or null if none
+
+	/**
+	 * Opens the log in a directory, discarding records the dataset never committed.
+	 *
+	 * @param dir the directory of the log file
+	 * @param committed the position TDB last committed
+	 */
+	public ReplicationLog(File dir, long committed) {
+		fFile = new File(dir, FILE_NAME);
+		fRetain = Math.max(1, Integer.getInteger(LDP_REPLICATION_RETAIN, 100000));
+		try {
+			fOut = new RandomAccessFile(fFile, "rw");
+			recover(committed);
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	private void recover(long committed) throws IOException {
+		// Index the complete records up to the committed position.
+		long end = 0;
+		long offset = 0;
+		long begun = -1;
+		fOut.seek(0);
+		String line;
+		while ((line = readLine(fOut)) != null) {
+			if (line.charAt(0) == BEGIN) {
+				begun = Long.parseLong(line.split(" ")[1]);
+				offset = fOut.getFilePointer() - line.getBytes(StandardCharsets.UTF_8).length - 1;
+				if (begun > committed) {
+					break;
+				}
+			} else if (line.charAt(0) == END && begun >= 0) {
+				fOffsets.put(begun, offset);
+				end = fOut.getFilePointer();
+			}
+		}
+		fOut.setLength(end);
+		fOut.seek(end);
+
+		if (fOffsets.isEmpty() || fOffsets.lastKey() != committed) {
+			// The log was lost or is from another dataset. Start over.
+			fOffsets.clear();
+			fOut.setLength(0);
+		}
+		fLast = committed;
+		fFirst = fOffsets.isEmpty() ? committed + 1 : fOffsets.firstKey();
+	}
+
+	private static String readLine(RandomAccessFile file) throws IOException {
+		final String line = file.readLine();
+		// RandomAccessFile reads bytes as Latin-1.
+		return (line == null || line.isEmpty()) ? null : new String(line.getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the position of the last committed record
+	 */
+	public synchronized long getLast() {
+		return fLast;
+	}
+
+	/**
+	 * @return the position of the oldest record kept
+	 */
+	public synchronized long getFirst() {
+		return fFirst;
+	}
+
+	/**
+	 * Starts recording the changes of a write transaction.
+	 */
+	public void begin() {
+		fOps = new ArrayList<Op>();
+	}
+
+	/**
+	 * Forgets the changes of the current write transaction.
+	 */
+	public void abort() {
+		fOps = null;
+	}
+
+	/**
+	 * @return true if the current write transaction changed anything
+	 */
+	public boolean hasChanges() {
+		return fOps != null && !fOps.isEmpty();
+	}
+
+	/**
+	 * Records that a graph was cleared or removed in the current write transaction.
+	 */
+	public void cleared(Node graph) {
+		if (fOps != null) {
+			fOps.add(new Op(OP_CLEAR, null, graph));
+		}
+	}
+
+	/**
+	 * A listener that records the changes to a graph in the current write
+	 * transaction. Changes after the transaction ends are ignored.
+	 *
+	 * @param graphName the name of the graph, or {@link Quad#defaultGraphIRI}
+	 */
+	public GraphListener listener(final Node graphName) {
+		final List<Op> ops = fOps;
+		return new GraphListener() {
+			private void add(char type, Triple triple) {
+				if (ops != null && ops == fOps) {
+					ops.add(new Op(type, new Quad(graphName, triple), null));
+				}
+			}
+
+			private void add(char type, Iterator<Triple> triples) {
+				while (triples.hasNext()) {
+					add(type, triples.next());
+				}
+			}
+
+			@Override
+			public void notifyAddTriple(Graph g, Triple t) {
+				add(OP_ADD, t);
+			}
+
+			@Override
+			public void notifyAddArray(Graph g, Triple[] triples) {
+				for (Triple t : triples) {
+					add(OP_ADD, t);
+				}
+			}
+
+			@Override
+			public void notifyAddList(Graph g, List<Triple> triples) {
+				add(OP_ADD, triples.iterator());
+			}
+
+			@Override
+			public void notifyAddIterator(Graph g, Iterator<Triple> it) {
+				add(OP_ADD, it);
+			}
+
+			@Override
+			public void notifyAddGraph(Graph g, Graph added) {
+				add(OP_ADD, added.find(Node.ANY, Node.ANY, Node.ANY));
+			}
+
+			@Override
+			public void notifyDeleteTriple(Graph g, Triple t) {
+				add(OP_DELETE, t);
+			}
+
+			@Override
+			public void notifyDeleteList(Graph g, List<Triple> triples) {
+				add(OP_DELETE, triples.iterator());
+			}
+
+			@Override
+			public void notifyDeleteArray(Graph g, Triple[] triples) {
+				for (Triple t : triples) {
+					add(OP_DELETE, t);
+				}
+			}
+
+			@Override
+			public void notifyDeleteIterator(Graph g, Iterator<Triple> it) {
+				add(OP_DELETE, it);
+			}
+
+			@Override
+			public void notifyDeleteGraph(Graph g, Graph removed) {
+				add(OP_DELETE, removed.find(Node.ANY, Node.ANY, Node.ANY));
+			}
+
+			@Override
+			public void notifyEvent(Graph source, Object value) {
+				// Removing by pattern also reports each triple, but removeAll doesn't.
+				if (value == GraphEvents.removeAll && ops != null && ops == fOps) {
+					ops.add(new Op(OP_CLEAR, null, graphName));
+				}
+			}
+		};
+	}
+
+	/**
+	 * Appends the changes of the current write transaction and syncs them
+	 * to disk. Call before the TDB commit, after writing the position into
+	 * the transaction.
+	 *
+	 * @param position the position from {@link #getLast()} plus one
+	 */
+	public synchronized void append(long position, long time) {
+		if (position != fLast + 1) {
+			throw new IllegalStateException("Expected position " + (fLast + 1) + ", not " + position);
+		}
+		final StringBuilder record = new StringBuilder();
+		record.append(BEGIN).append(' ').append(position).append(' ').append(time).append('\n');
+		for (Op op : fOps) {
+			record.append(op.type).append(' ');
+			if (op.type == OP_CLEAR) {
+				record.append(NodeFmtLib.str(op.graph));
+			} else {
+				record.append(NodeFmtLib.str(op.quad.getSubject())).append(' ')
+						.append(NodeFmtLib.str(op.quad.getPredicate())).append(' ')
+						.append(NodeFmtLib.str(op.quad.getObject())).append(' ')
+						.append(NodeFmtLib.str(op.quad.getGraph())).append(" .");
+			}
+			record.append('\n');
+		}
+		record.append(END).append(' ').append(position).append('\n');
+		fOps = null;
+
+		try {
+			final long offset = fOut.length();
+			fOut.seek(offset);
+			fOut.write(record.toString().getBytes(StandardCharsets.UTF_8));
+			fOut.getFD().sync();
+			fOffsets.put(position, offset);
+			fLast = position;
+			if (fFirst > position) {
+				fFirst = position;
+			}
+			notifyAll();
+			if (fOffsets.size() > fRetain + fRetain / 10) {
+				trim();
+			}
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	/**
+	 * Takes back the last record after the TDB commit failed.
+	 */
+	public synchronized void discard(long position) {
+		final Long offset = fOffsets.remove(position);
+		if (offset == null) {
+			return;
+		}
+		try {
+			fOut.setLength(offset);
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+		fLast = position - 1;
+		fFirst = fOffsets.isEmpty() ? fLast + 1 : fOffsets.firstKey();
+	}
+
+	/**
+	 * Keeps only the last {@link #LDP_REPLICATION_RETAIN} records.
+	 */
+	private void trim() throws IOException {
+		final long first = fLast - fRetain + 1;
+		final long from = fOffsets.get(first);
+		final File tmp = new File(fFile.getPath() + ".tmp");
+		final RandomAccessFile out = new RandomAccessFile(tmp, "rw");
+		try {
+			out.setLength(0);
+			final byte[] buffer = new byte[65536];
+			fOut.seek(from);
+			int n;
+			while ((n = fOut.read(buffer)) > 0) {
+				out.write(buffer, 0, n);
+			}
+			out.getFD().sync();
+		} finally {
+			out.close();
+		}
+		fOut.close();
+		Files.move(tmp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		fOut = new RandomAccessFile(fFile, "rw");
+
+		final TreeMap<Long, Long> offsets = new TreeMap<Long, Long>();
+		for (Map.Entry<Long, Long> entry : fOffsets.tailMap(first).entrySet()) {
+			offsets.put(entry.getKey(), entry.getValue() - from);
+		}
+		fOffsets.clear();
+		fOffsets.putAll(offsets);
+		fFirst = first;
+	}
+
+	/**
+	 * Waits up to <code>timeoutMillis</code> for records after a position.
+	 *
+	 * @return false if the records after the position are no longer kept,
+	 *         or the position is after the last record
+	 */
+	public synchronized boolean await(long after, long timeoutMillis) throws InterruptedException {
+		if (after < fFirst - 1 || after > fLast) {
+			return false;
+		}
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		long remaining;
+		while (after == fLast && (remaining = deadline - System.currentTimeMillis()) > 0) {
+			wait(remaining);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Copies records after a position, as text.
+	 *
+	 * @param after the position the follower has applied
+	 * @param maxBytes stop after the record that reaches this size
+	 * @return the position of the last record copied
+	 */
+	public synchronized long read(long after, long maxBytes, OutputStream out) throws IOException {
+		if (after >= fLast || after < fFirst - 1) {
+			return after;
+		}
+		final long start = fOffsets.get(after + 1);
+		long position = after;
+		long end = start;
+		for (Map.Entry<Long, Long> entry : fOffsets.tailMap(after + 1, true).entrySet()) {
+			if (end - start >= maxBytes) {
+				break;
+			}
+			position = entry.getKey();
+			final Map.Entry<Long, Long> next = fOffsets.higherEntry(position);
+			end = (next == null) ? fOut.length() : next.getValue();
+		}
+
+		final byte[] buffer = new byte[65536];
+		fOut.seek(start);
+		long remaining = end - start;
+		while (remaining > 0) {
+			final int n = fOut.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+			if (n < 0) {
+				break;
+			}
+			out.write(buffer, 0, n);
+			remaining -= n;
+		}
+
+		return position;
+	}
+
+	/**
+	 * Parses records written by {@link #read(long, long, OutputStream)}.
+	 * An incomplete record at the end is ignored.
+	 */
+	public static List<Record> parse(BufferedReader reader) throws IOException {
+		final List<Record> records = new ArrayList<Record>();
+		List<Op> ops = null;
+		long position = 0;
+		long time = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			final char type = line.charAt(0);
+			final String rest = line.substring(2);
+			switch (type) {
+			case BEGIN:
+				final String[] fields = rest.split(" ");
+				position = Long.parseLong(fields[0]);
+				time = Long.parseLong(fields[1]);
+				ops = new ArrayList<Op>();
+				break;
+			case END:
+				if (ops != null && Long.parseLong(rest) == position) {
+					records.add(new Record(position, time, ops));
+				}
+				ops = null;
+				break;
+			case OP_CLEAR:
+				ops.add(new Op(OP_CLEAR, null, parseNodes(rest, 1)[0]));
+				break;
+			case OP_ADD:
+			case OP_DELETE:
+				final Node[] nodes = parseNodes(rest, 4);
+				ops.add(new Op(type, new Quad(nodes[3], nodes[0], nodes[1], nodes[2]), null));
+				break;
+			default:
+				throw new IOException("Unexpected replication log line: " + line);
+			}
+		}
+
+		return records;
+	}
+
+	private static Node[] parseNodes(String line, int count) throws IOException {
+		final Tokenizer tokenizer = TokenizerFactory.makeTokenizerString(line);
+		final Node[] nodes = new Node[count];
+		for (int i = 0; i < count; i++) {
+			if (!tokenizer.hasNext()) {
+				throw new IOException("Expected " + count + " terms: " + line);
+			}
+			final Token token = tokenizer.next();
+			nodes[i] = token.asNode();
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Writes a store's whole dataset, including the default graph with the
+	 * journal and the replication position, then the config graphs, as
+	 * N-Quads, for {@link ReplicationFollower#loadSnapshot(java.io.InputStream)}.
+	 * Must be called in a transaction.
+	 */
+	public static void writeSnapshot(TDBGraphStore store, OutputStream out) {
+		RDFDataMgr.write(out, store.fDataset.asDatasetGraph(), Lang.NQUADS);
+		// Not the metadata default graph, which only marks the migration.
+		RDFDataMgr.writeQuads(out, store.fMetadata.asDatasetGraph().findNG(Node.ANY, Node.ANY, Node.ANY, Node.ANY));
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		fOut.close();
+	}
+}
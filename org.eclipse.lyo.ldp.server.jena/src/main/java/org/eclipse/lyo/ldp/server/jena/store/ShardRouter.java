@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+
+/**
+ * Partitions the resources of a server across several
+ * {@link TDBGraphStore}s, each with its own dataset directory and writer,
+ * so writes to different partitions run in parallel.
+ * <p>
+ * Each resource directly in the root container, usually a top-level
+ * container, is assigned a shard when it is created, by a hash of its URI.
+ * It and every resource below it live in that shard. The assignments are
+ * kept in the root store, which also holds the root container and any
+ * top-level resources created before sharding was turned on. Adding shards
+ * only changes where new top-level resources go. Shards can't be removed.
+ * <p>
+ * Only creating and deleting top-level resources involves two stores: the
+ * resource's shard and the root's, for the containment triples. The
+ * resource is committed before its containment triple on create, and after
+ * on delete, so a failure between the two leaves an uncontained resource
+ * rather than a containment triple for a missing one. Queries and searches
+ * on the root store cover every shard (see {@link ShardedDatasetGraph}).
+ */
+public class ShardRouter {
+	/**
+	 * System property for the number of shards, not counting the root
+	 * store. Default is 0, no sharding. Shard <i>n</i> is in the directory
+	 * <code>shard-</code><i>n</i> of <code>ldp.dataset.dir</code>.
+	 */
+	public static final String LDP_SHARDS = "ldp.shards";
+
+	private static final Node SHARD = NodeFactory.createURI(Lyo.NS + "shard");
+
+	private final TDBGraphStore fRoot;
+	private final String fRootURI;
+	private final List<TDBGraphStore> fStores; // The root store, then the shards
+	private final Map<String, Integer> fAssigned = new ConcurrentHashMap<String, Integer>(); // Top-level URI to index in fStores
+
+	/**
+	 * @param root the store with the root container
+	 * @param rootURI the URI of the root container
+	 * @param shards the other stores
+	 */
+	public ShardRouter(TDBGraphStore root, String rootURI, List<TDBGraphStore> shards) {
+		fRoot = root;
+		fRootURI = rootURI.endsWith("/") ? rootURI : rootURI + "/";
+		final List<TDBGraphStore> stores = new ArrayList<TDBGraphStore>();
+		stores.add(root);
+		stores.addAll(shards);
+		fStores = Collections.unmodifiableList(stores);
+		for (TDBGraphStore store : fStores) {
+			store.setShards(this);
+		}
+
+		root.readLock();
+		try {
+			final Iterator<Triple> triples = root.getDefaultModel().getGraph().find(Node.ANY, SHARD, Node.ANY);
+			while (triples.hasNext()) {
+				final Triple triple = triples.next();
+				final int shard = Integer.parseInt(triple.getObject().getLiteralLexicalForm());
+				if (shard >= fStores.size()) {
+					throw new IllegalStateException(LDP_SHARDS + " is " + shards.size() + ", but shard " + shard + " is in use");
+				}
+				fAssigned.put(triple.getSubject().getURI(), shard);
+			}
+		} finally {
+			root.end();
+		}
+	}
+
+	/**
+	 * Creates the shards configured by {@link #LDP_SHARDS}.
+	 *
+	 * @return the router, or null if sharding is off
+	 */
+	public static ShardRouter create(TDBGraphStore root, String rootURI) {
+		final int count = Integer.getInteger(LDP_SHARDS, 0);
+		if (count <= 0) {
+			return null;
+		}
+
+		final List<TDBGraphStore> shards = new ArrayList<TDBGraphStore>();
+		for (int i = 1; i <= count; i++) {
+			final String dir = (TDBGraphStore.fDatasetDir == null) ? null : new File(TDBGraphStore.fDatasetDir, "shard-" + i).getPath();
+			shards.add(new TDBGraphStore(dir));
+		}
+
+		return new ShardRouter(root, rootURI, shards);
+	}
+
+	public TDBGraphStore getRoot() {
+		return fRoot;
+	}
+
+	public String getRootURI() {
+		return fRootURI;
+	}
+
+	/**
+	 * @return the root store, then the shards
+	 */
+	public List<TDBGraphStore> getStores() {
+		return fStores;
+	}
+
+	/**
+	 * @return the top-level resource a URI is in or below, or null for the
+	 *         root container and its companions, or a URI outside it
+	 */
+	public String getTopLevelURI(String uri) {
+		if (uri == null || !uri.startsWith(fRootURI)) {
+			return null;
+		}
+		int end = fRootURI.length();
+		while (end < uri.length() && "/?#".indexOf(uri.charAt(end)) < 0) {
+			end++;
+		}
+
+		return (end == fRootURI.length()) ? null : uri.substring(0, end);
+	}
+
+	/**
+	 * @return true if the resource is directly in the root container, so
+	 *         its containment triple is in the root store
+	 */
+	public boolean isTopLevel(String uri) {
+		return uri != null && uri.equals(getTopLevelURI(uri));
+	}
+
+	/**
+	 * @return true for the root container, whose queries cover every shard
+	 */
+	public boolean isRoot(String uri) {
+		return fRootURI.equals(uri) || fRootURI.equals(uri + "/");
+	}
+
+	/**
+	 * @return the store of a resource or companion graph
+	 */
+	public TDBGraphStore getStore(String uri) {
+		final String topLevel = getTopLevelURI(uri);
+		final Integer shard = (topLevel == null) ? null : fAssigned.get(topLevel);
+
+		return (shard == null) ? fRoot : fStores.get(shard);
+	}
+
+	/**
+	 * @return true if the resource's top-level resource has a shard
+	 */
+	public boolean isAssigned(String uri) {
+		final String topLevel = getTopLevelURI(uri);
+		return topLevel == null || fAssigned.containsKey(topLevel);
+	}
+
+	/**
+	 * Assigns a shard to the top-level resource of a new resource, if it
+	 * doesn't have one. Must be called in a write transaction on the root
+	 * store.
+	 *
+	 * @return the store for the resource
+	 */
+	public TDBGraphStore assign(String uri) {
+		final String topLevel = getTopLevelURI(uri);
+		if (topLevel == null) {
+			return fRoot;
+		}
+
+		final Graph graph = fRoot.getDefaultModel().getGraph();
+		final Node subject = NodeFactory.createURI(topLevel);
+		final Iterator<Triple> assigned = graph.find(subject, SHARD, Node.ANY);
+		if (assigned.hasNext()) {
+			return fStores.get(Integer.parseInt(assigned.next().getObject().getLiteralLexicalForm()));
+		}
+		if (fRoot.previouslyUsed(topLevel)) {
+			// From before sharding
+			return fRoot;
+		}
+
+		final int shard = getHashShard(topLevel);
+		graph.add(new Triple(subject, SHARD, NodeFactory.createLiteral(Integer.toString(shard))));
+		// The same shard if the transaction aborts and the resource is created again.
+		fAssigned.put(topLevel, shard);
+
+		return fStores.get(shard);
+	}
+
+	private int getHashShard(String topLevel) {
+		return 1 + Math.floorMod(topLevel.hashCode(), fStores.size() - 1);
+	}
+
+	/**
+	 * Mints the URI of a new resource in the root container, checking that
+	 * it wasn't used in the root store or the shard it would go in. Must be
+	 * called in a write transaction on the root store.
+	 *
+	 * @see TDBGraphStore#mintURI(String, String, String)
+	 */
+	public String mintURI(String graphURIPrefix, String nameHint) {
+		return fRoot.mintURI(fRootURI, graphURIPrefix, nameHint, new Predicate<String>() {
+			@Override
+			public boolean test(String uri) {
+				if (fRoot.previouslyUsed(uri)) {
+					return true;
+				}
+				final Integer assigned = fAssigned.get(uri);
+				final TDBGraphStore store = fStores.get((assigned == null) ? getHashShard(uri) : assigned);
+				store.readLock();
+				try {
+					return store.previouslyUsed(uri);
+				} finally {
+					store.end();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Begins a read transaction on every store, for a query over all of them.
+	 */
+	public void readLock() {
+		for (TDBGraphStore store : fStores) {
+			store.readLock();
+		}
+	}
+
+	public void end() {
+		for (TDBGraphStore store : fStores) {
+			store.end();
+		}
+	}
+
+	/**
+	 * @return the sum of the stores' commit versions, which increases with
+	 *         every commit to any of them
+	 */
+	public long getVersion() {
+		long version = 0;
+		for (TDBGraphStore store : fStores) {
+			version += store.getVersion();
+		}
+
+		return version;
+	}
+
+	/**
+	 * @return a read-only view of every store. Needs {@link #readLock()}.
+	 */
+	public Dataset getDataset() {
+		return DatasetFactory.wrap(new ShardedDatasetGraph(this));
+	}
+
+	/**
+	 * Searches every shard's text index and merges the hits by score. Each
+	 * index scores against its own term statistics, so the order across
+	 * shards is approximate.
+	 *
+	 * @see TextIndex#search(String, String, int, int)
+	 */
+	public List<TextIndex.Hit> search(String queryString, String containerURI, int offset, int limit) {
+		// Shards don't know the root contains their resources.
+		final String scope = isRoot(containerURI) ? null : containerURI;
+		final int max = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+		final List<TextIndex.Hit> hits = new ArrayList<TextIndex.Hit>();
+		for (TDBGraphStore store : fStores) {
+			hits.addAll(store.fTextIndex.search(queryString, scope, 0, max));
+		}
+		Collections.sort(hits, new Comparator<TextIndex.Hit>() {
+			@Override
+			public int compare(TextIndex.Hit h1, TextIndex.Hit h2) {
+				return Float.compare(h2.score, h1.score);
+			}
+		});
+
+		return new ArrayList<TextIndex.Hit>(hits.subList(Math.min(offset, hits.size()), Math.min(max, hits.size())));
+	}
+}
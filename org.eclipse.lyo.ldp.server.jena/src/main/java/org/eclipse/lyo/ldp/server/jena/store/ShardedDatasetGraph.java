@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.compose.MultiUnion;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphBaseFind;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * A read-only view of the datasets of all the shards of a
+ * {@link ShardRouter} as one, for queries that aren't limited to a shard.
+ * Each named graph is in exactly one shard, so a named graph is read from
+ * its shard, and patterns over any named graph ask every shard. As in each
+ * TDB dataset, the default graph is the union of the named graphs. Callers
+ * need a read transaction on every shard.
+ */
+public class ShardedDatasetGraph extends DatasetGraphBaseFind {
+	private final ShardRouter fShards;
+	private final boolean fIncludeCompanions;
+
+	public ShardedDatasetGraph(ShardRouter shards) {
+		this(shards, false);
+	}
+
+	/**
+	 * @param includeCompanions if true, include each shard's config graphs
+	 */
+	public ShardedDatasetGraph(ShardRouter shards, boolean includeCompanions) {
+		fShards = shards;
+		fIncludeCompanions = includeCompanions;
+	}
+
+	private List<DatasetGraph> getDatasets() {
+		final List<DatasetGraph> datasets = new ArrayList<DatasetGraph>();
+		for (TDBGraphStore store : fShards.getStores()) {
+			datasets.add(store.getQueryDatasetGraph(fIncludeCompanions));
+		}
+
+		return datasets;
+	}
+
+	private DatasetGraph getDataset(Node graphName) {
+		return fShards.getStore(graphName.getURI()).getQueryDatasetGraph(fIncludeCompanions);
+	}
+
+	@Override
+	public Graph getDefaultGraph() {
+		final MultiUnion union = new MultiUnion();
+		for (DatasetGraph dataset : getDatasets()) {
+			union.addGraph(dataset.getGraph(Quad.unionGraph));
+		}
+
+		return union;
+	}
+
+	@Override
+	public Graph getGraph(Node graphName) {
+		if (Quad.isUnionGraph(graphName) || Quad.isDefaultGraph(graphName)) {
+			return getDefaultGraph();
+		}
+
+		return getDataset(graphName).getGraph(graphName);
+	}
+
+	@Override
+	public boolean containsGraph(Node graphName) {
+		if (Quad.isUnionGraph(graphName) || Quad.isDefaultGraph(graphName)) {
+			return true;
+		}
+
+		return graphName.isURI() && getDataset(graphName).containsGraph(graphName);
+	}
+
+	@Override
+	public Iterator<Node> listGraphNodes() {
+		Iterator<Node> nodes = Iter.nullIterator();
+		for (DatasetGraph dataset : getDatasets()) {
+			nodes = Iter.concat(nodes, dataset.listGraphNodes());
+		}
+
+		return nodes;
+	}
+
+	@Override
+	protected Iterator<Quad> findAny(Node s, Node p, Node o) {
+		// The default graph is only a view of the named graphs.
+		return findInAnyNamedGraphs(s, p, o);
+	}
+
+	@Override
+	protected Iterator<Quad> findInDftGraph(Node s, Node p, Node o) {
+		return triples2quadsDftGraph(getDefaultGraph().find(s, p, o));
+	}
+
+	@Override
+	protected Iterator<Quad> findInSpecificNamedGraph(Node g, Node s, Node p, Node o) {
+		if (Quad.isUnionGraph(g)) {
+			return triples2quads(Quad.unionGraph, getDefaultGraph().find(s, p, o));
+		}
+
+		return getDataset(g).find(g, s, p, o);
+	}
+
+	@Override
+	protected Iterator<Quad> findInAnyNamedGraphs(Node s, Node p, Node o) {
+		Iterator<Quad> quads = Iter.nullIterator();
+		for (DatasetGraph dataset : getDatasets()) {
+			quads = Iter.concat(quads, dataset.findNG(Node.ANY, s, p, o));
+		}
+
+		return quads;
+	}
+
+	@Override
+	public void addGraph(Node graphName, Graph graph) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void removeGraph(Node graphName) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void add(Quad quad) {
+		throw new UnsupportedOperationException("Read only");
+	}
+
+	@Override
+	public void delete(Quad quad) {
+		throw new UnsupportedOperationException("Read only");
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.File;
+import java.util.Iterator;
+
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * The replication side of a {@link TDBGraphStore}'s write transactions. The
+ * store calls it when a write transaction begins, commits or aborts, and for
+ * every graph it hands out in a write transaction.
+ * <p>
+ * On a leader, it records the changes for the {@link ReplicationLog} and
+ * writes each transaction's position into the same transaction. On a
+ * follower, the position comes with the records and snapshots it applies.
+ */
+final class StoreReplication {
+	/**
+	 * The replication position committed with each write transaction, in the default graph.
+	 */
+	private static final Node REPLICATION = NodeFactory.createURI("urn:lyo:replication");
+	private static final Node REPLICATION_POSITION = NodeFactory.createURI(Lyo.NS + "replicationPosition");
+
+	private final TDBGraphStore fStore;
+	private volatile ReplicationLog fLog; // Commits for followers to replay, if this is a replication leader
+
+	StoreReplication(TDBGraphStore store) {
+		fStore = store;
+	}
+
+	/**
+	 * Opens the log, once. Must be called in a transaction.
+	 */
+	synchronized ReplicationLog start(File dir) {
+		if (fLog == null) {
+			fLog = new ReplicationLog(dir, getPosition());
+		}
+
+		return fLog;
+	}
+
+	/**
+	 * @return the log if this store is a replication leader, otherwise null
+	 */
+	ReplicationLog getLog() {
+		return fLog;
+	}
+
+	/**
+	 * @return the position committed last, or 0 if none. Must be called in
+	 *         a transaction.
+	 */
+	long getPosition() {
+		final Iterator<Triple> triples = fStore.fDataset.asDatasetGraph().getDefaultGraph().find(REPLICATION, REPLICATION_POSITION, Node.ANY);
+		return triples.hasNext() ? Long.parseLong(triples.next().getObject().getLiteralLexicalForm()) : 0;
+	}
+
+	void begin() {
+		if (fLog != null) {
+			fLog.begin();
+		}
+	}
+
+	/**
+	 * Records the changes made to a graph in the current write transaction.
+	 *
+	 * @param graphName the name of the graph, or {@link Quad#defaultGraphIRI}
+	 * @return the model
+	 */
+	Model track(Model model, Node graphName) {
+		if (fLog != null) {
+			model.getGraph().getEventManager().register(fLog.listener(graphName));
+		}
+		return model;
+	}
+
+	void cleared(Node graphName) {
+		if (fLog != null) {
+			fLog.cleared(graphName);
+		}
+	}
+
+	/**
+	 * Logs the current write transaction for followers with the next
+	 * position, and writes the position into the transaction. Call before
+	 * the TDB commit.
+	 *
+	 * @return the position, or 0 if nothing was logged
+	 */
+	long prepareCommit() {
+		final ReplicationLog log = fLog;
+		if (log == null || !log.hasChanges()) {
+			return 0;
+		}
+		final long position = log.getLast() + 1;
+		// Through a tracked graph, so followers get the position with the record.
+		final Graph graph = track(fStore.fDataset.getDefaultModel(), Quad.defaultGraphIRI).getGraph();
+		graph.remove(REPLICATION, REPLICATION_POSITION, Node.ANY);
+		graph.add(new Triple(REPLICATION, REPLICATION_POSITION, NodeFactory.createLiteral(Long.toString(position), XSDDatatype.XSDlong)));
+		log.append(position, System.currentTimeMillis());
+
+		return position;
+	}
+
+	/**
+	 * Takes back the record from {@link #prepareCommit()} after the TDB
+	 * commit failed.
+	 */
+	void commitFailed(long position) {
+		if (position > 0) {
+			fLog.discard(position);
+		}
+	}
+
+	void abort() {
+		if (fLog != null) {
+			fLog.abort();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphUnionRead;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
+
+/**
+ * The read-only union of a set of graphs, such as the graphs in a container
+ * subtree.
+ * <p>
+ * Jena's {@link GraphUnionRead} asks each graph in turn, so every pattern
+ * costs one index lookup per graph even if only a few graphs match. TDB
+ * also indexes quads by subject and object across all graphs (the SPOG,
+ * POSG and OSPG indexes, maintained in every write transaction). A pattern
+ * with a subject or object, such as <code>?s rdf:type bt:Bug</code>, is
+ * answered from those with one lookup, keeping only the matches in the set.
+ * The cost is proportional to the matches in the whole dataset rather than
+ * the number of graphs. Patterns with neither still go graph by graph.
+ * <p>
+ * For a small subtree and a common term, such as <code>rdf:type</code>
+ * objects shared by most resources, the dataset-wide matches can far
+ * outnumber the graphs. The lookup reads at most a few matches per graph
+ * before giving up and going graph by graph, so a pattern never costs much
+ * more than it would with {@link GraphUnionRead}.
+ */
+public class SubtreeUnionGraph extends GraphBase {
+	/**
+	 * How many dataset-wide matches per graph to read before going graph by
+	 * graph. Reading the next entry of an index range is cheaper than
+	 * starting a new lookup.
+	 */
+	static final int MATCHES_PER_GRAPH = 4;
+
+	private final DatasetGraph fDataset;
+	private final Set<Node> fGraphs;
+	private final GraphUnionRead fUnion;
+
+	/**
+	 * @param dataset the dataset holding the graphs
+	 * @param graphs the graph names
+	 */
+	public SubtreeUnionGraph(DatasetGraph dataset, Collection<Node> graphs) {
+		fDataset = dataset;
+		fGraphs = new HashSet<Node>(graphs);
+		fUnion = new GraphUnionRead(dataset, graphs);
+	}
+
+	@Override
+	protected ExtendedIterator<Triple> graphBaseFind(Triple m) {
+		if (!m.getSubject().isConcrete() && !m.getObject().isConcrete()) {
+			return fUnion.find(m);
+		}
+
+		// Read the matches up to the limit. If there are more, the pattern
+		// isn't selective enough for this subtree.
+		final long limit = (long) fGraphs.size() * MATCHES_PER_GRAPH;
+		final Set<Triple> matches = new LinkedHashSet<Triple>();
+		final Iterator<Quad> quads = fDataset.findNG(Node.ANY, m.getSubject(), m.getPredicate(), m.getObject());
+		try {
+			for (long read = 0; quads.hasNext(); read++) {
+				if (read == limit) {
+					return fUnion.find(m);
+				}
+				final Quad quad = quads.next();
+				// The same triple can be in more than one graph.
+				if (fGraphs.contains(quad.getGraph())) {
+					matches.add(quad.asTriple());
+				}
+			}
+		} finally {
+			Iter.close(quads);
+		}
+
+		return WrappedIterator.create(matches.iterator());
+	}
+}
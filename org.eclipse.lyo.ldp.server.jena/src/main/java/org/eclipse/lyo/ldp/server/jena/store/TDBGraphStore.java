@@ -20,36 +20,77 @@
  *******************************************************************************/
 package org.eclipse.lyo.ldp.server.jena.store;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import javax.ws.rs.core.UriBuilder;
 
 import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
 import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
 import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
 
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QueryExecutionFactory;
-import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.query.ResultSetFormatter;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.NodeIterator;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphAltDefaultGraph;
+import org.apache.jena.sparql.core.DynamicDatasets;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
 import org.apache.jena.tdb.TDB;
 import org.apache.jena.tdb.TDBFactory;
 import org.apache.jena.tdb.base.block.FileMode;
 import org.apache.jena.tdb.sys.SystemTDB;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.WrappedIterator;
 import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.XSD;
+import org.apache.lucene.document.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This class implements a Graph Store using a Jena TDB dataset.
  */
 public class TDBGraphStore implements GraphStore
 {
+	private final static Logger log = LoggerFactory.getLogger(TDBGraphStore.class);
+
 	public static final String LDP_DATASET_DIR = "ldp.dataset.dir";
 
 	static String fDatasetDir=null;
@@ -58,101 +99,791 @@ public class TDBGraphStore implements GraphStore
 		TDB.getContext().set(TDB.symUnionDefaultGraph, true);
 		TDB.setOptimizerWarningFlag(false);
 		SystemTDB.setFileMode(FileMode.direct) ;
+		TextSearch.register();
 		System.out.println("Using dataset directory: " + fDatasetDir);
 	}
 	
 	protected Dataset fDataset; // Dataset to store the graphs
+	protected final Dataset fMetadata; // Config graphs, kept out of fDataset so queries and the union graph don't scan them
+	protected final QueryGovernor fGovernor = new QueryGovernor(); // Limits for SPARQL queries
+	protected final QueryCache fQueryCache = new QueryCache(); // Parsed SPARQL queries
+	protected final QueryResultCache fResultCache = new QueryResultCache(); // Results of recent SPARQL queries
+	protected final AtomicLong fVersion = new AtomicLong(); // Incremented on every commit
+	protected final TDBStatistics fStatistics; // Optimizer statistics
+	protected final TextIndex fTextIndex; // Full-text index of the resources
+	private final AtomicBoolean fTextIndexStale = new AtomicBoolean(); // The text index missed a commit and a rebuild is queued
+	private final Set<String> fTextChanged = new HashSet<String>(); // Graphs changed in the current write transaction
+	protected final ChangeJournal fJournal; // Durable record of committed changes
+	private ChangeBus fChangeBus; // Recent committed changes, for clients that follow them. Created on first use.
+	private final Map<String, PendingChange> fPendingChanges = new LinkedHashMap<String, PendingChange>(); // Changes in the current write transaction
+	private final StoreReplication fReplication = new StoreReplication(this); // Replication hooks of the write transactions
+	private volatile Thread fWriter; // The thread in a write transaction that hasn't committed yet. Only one at a time.
+	private final Object fCommitLock = new Object(); // Held from a TDB commit until its changes are published
+	private volatile UsedURIFilter fUsed; // Every resource URI used. Created in the first write transaction.
+	private File fUsedFile; // Where fUsed is saved, or null for an in-memory store
+	private ShardRouter fShards; // The shards this store is one of, or null
+	private final TransactionMonitor fMonitor = new TransactionMonitor(); // Who holds and waits for transactions
+
+	private static final Metrics.Timer COMMIT = Metrics.getInstance().timer("ldp_tdb_commit_seconds",
+			"Write transaction commits, including the journal, text index, and change notifications.");
+
+	/**
+	 * Marks a metadata dataset that config graphs were moved to, in its default graph.
+	 */
+	private static final Node METADATA = NodeFactory.createURI("urn:lyo:metadata");
+	private static final Node MIGRATED = NodeFactory.createURI(Lyo.NS + "migrated");
 
 	public TDBGraphStore(Dataset dataset)
 	{
 		fDataset = dataset;
+		fMetadata = TDBFactory.createDataset();
+		fStatistics = new TDBStatistics(this, null); // Can't be installed in a dataset that already exists
+		fTextIndex = TextIndex.create(null);
+		fJournal = new ChangeJournal(this);
 	}
 
 	public TDBGraphStore() // Use in-memory Dataset. For testing.
 	{
-		fDataset = TDBFactory.createDataset();
+		fStatistics = new TDBStatistics(this, null);
+		fDataset = fStatistics.createDataset(null);
+		fMetadata = TDBFactory.createDataset();
+		fTextIndex = TextIndex.create(null);
+		fJournal = new ChangeJournal(this);
 	}
 	
 	public TDBGraphStore(boolean inMemory) {
-		if (inMemory || fDatasetDir == null) {
-			fDataset = TDBFactory.createDataset();
+		this(inMemory ? null : fDatasetDir);
+	}
+
+	/**
+	 * @param datasetDir the directory of the TDB dataset, or null for an in-memory dataset
+	 */
+	public TDBGraphStore(String datasetDir) {
+		if (datasetDir == null) {
+			fStatistics = new TDBStatistics(this, null);
+			fDataset = fStatistics.createDataset(null);
+			fMetadata = TDBFactory.createDataset();
+			fTextIndex = TextIndex.create(null);
 		} else {
-			fDataset = TDBFactory.createDataset(fDatasetDir);
-			if (fDatasetDir == null) {
-				System.err.println("Jena TDB failed to create dataset for directory: "+fDatasetDir+", switching to inmemory dataset.");
+			fStatistics = new TDBStatistics(this, datasetDir);
+			fDataset = fStatistics.createDataset(datasetDir);
+			fMetadata = TDBFactory.createDataset(new File(datasetDir, "meta").getPath());
+			migrateMetadata();
+			fUsedFile = new File(datasetDir, UsedURIFilter.FILE_NAME);
+			Runtime.getRuntime().addShutdownHook(new Thread("ldp-uri-filter") {
+				@Override
+				public void run() {
+					final UsedURIFilter used = fUsed;
+					if (used != null) {
+						used.save();
+					}
+				}
+			});
+			fStatistics.schedule(Long.getLong(TDBStatistics.LDP_STATS_INTERVAL, 3600));
+			fTextIndex = TextIndex.create(datasetDir);
+		}
+		fJournal = new ChangeJournal(this);
+		if (datasetDir != null) {
+			indexJournal();
+		}
+	}
+
+	/**
+	 * Moves the config graphs of a dataset from before they had their own
+	 * dataset, once. The metadata commits first, so if the server stops in
+	 * between, the old copies are only left behind, unused.
+	 */
+	private void migrateMetadata() {
+		fMetadata.begin(ReadWrite.WRITE);
+		try {
+			final Graph marker = fMetadata.asDatasetGraph().getDefaultGraph();
+			if (marker.contains(METADATA, MIGRATED, Node.ANY)) {
+				return;
+			}
+			final List<String> configURIs = new ArrayList<String>();
+			fDataset.begin(ReadWrite.READ);
+			try {
+				final Iterator<String> names = fDataset.listNames();
+				while (names.hasNext()) {
+					final String uri = names.next();
+					if (JenaLDPResourceManager.isConfigURI(uri)) {
+						configURIs.add(uri);
+						fMetadata.addNamedModel(uri, fDataset.getNamedModel(uri));
+					}
+				}
+			} finally {
+				fDataset.end();
+			}
+			marker.add(new Triple(METADATA, MIGRATED, NodeFactory.createLiteral(Integer.toString(configURIs.size()), XSDDatatype.XSDinteger)));
+			fMetadata.commit();
+
+			if (!configURIs.isEmpty()) {
+				fDataset.begin(ReadWrite.WRITE);
+				try {
+					for (String uri : configURIs) {
+						fDataset.removeNamedModel(uri);
+					}
+					fDataset.commit();
+				} finally {
+					fDataset.end();
+				}
 			}
-		}		
+		} finally {
+			fMetadata.end();
+		}
+	}
+
+	/**
+	 * Files the entries of a journal from before it had buckets, once.
+	 */
+	private void indexJournal() {
+		fDataset.begin(ReadWrite.WRITE);
+		try {
+			if (fJournal.index()) {
+				fDataset.commit();
+			}
+		} finally {
+			fDataset.end();
+		}
+	}
+
+	/**
+	 * @return the dataset with a graph: {@link #fMetadata} for config graphs, otherwise {@link #fDataset}
+	 */
+	private Dataset getDataset(String graphURI) {
+		return (graphURI != null && JenaLDPResourceManager.isConfigURI(graphURI)) ? fMetadata : fDataset;
+	}
+
+	DatasetGraph getDatasetGraph(Node graphName) {
+		return getDataset(graphName.isURI() ? graphName.getURI() : null).asDatasetGraph();
+	}
+
+	/**
+	 * @return the dataset for queries, with the config graphs too if
+	 *         <code>includeCompanions</code>. Needs a transaction.
+	 */
+	DatasetGraph getQueryDatasetGraph(boolean includeCompanions) {
+		return includeCompanions
+				? new CompanionDatasetGraph(fDataset.asDatasetGraph(), fMetadata.asDatasetGraph())
+				: fDataset.asDatasetGraph();
 	}
 	
 	public void readLock() {
-		fDataset.begin(ReadWrite.READ);
+		final TransactionMonitor.Transaction transaction = fMonitor.request(false);
+		boolean begun = false;
+		try {
+			fDataset.begin(ReadWrite.READ);
+			fMetadata.begin(ReadWrite.READ);
+			begun = true;
+		} finally {
+			fMonitor.begun(transaction, begun);
+		}
 	}
 	
 	public void writeLock() {
-		fDataset.begin(ReadWrite.WRITE);
+		final TransactionMonitor.Transaction transaction = fMonitor.request(true);
+		boolean begun = false;
+		try {
+			fDataset.begin(ReadWrite.WRITE);
+			fMetadata.begin(ReadWrite.WRITE);
+			begun = true;
+		} finally {
+			fMonitor.begun(transaction, begun);
+		}
+		if (fUsed == null) {
+			initUsed();
+		}
+		// Only one write transaction at a time, so this is the only writer.
+		fTextChanged.clear();
+		fPendingChanges.clear();
+		fWriter = Thread.currentThread();
+		fReplication.begin();
 	}
 	
 	public void commit() {
-		fDataset.commit();
+		final long start = System.nanoTime();
+		try {
+			doCommit();
+		} finally {
+			COMMIT.recordSince(start);
+			fMonitor.end();
+		}
+	}
+
+	private void doCommit() {
+		// Read the changed resources while still in the transaction.
+		final Map<String, Document> textChanges = new HashMap<String, Document>();
+		for (String uri : fTextChanged) {
+			textChanges.put(uri, getTextDocument(uri));
+		}
+		fTextChanged.clear();
+		// Journal the changes in the same transaction.
+		final List<ChangeBus.Change> changes = new ArrayList<ChangeBus.Change>();
+		if (!fPendingChanges.isEmpty()) {
+			getChangeBus(); // Before the journal moves on
+			final long time = System.currentTimeMillis();
+			final long commit = fJournal.beginCommit();
+			for (PendingChange change : fPendingChanges.values()) {
+				final Set<String> scopes = getScopes(change.containerURI != null ? change.containerURI : change.uri);
+				scopes.add(change.uri);
+				changes.add(fJournal.append(change.type, change.uri, change.containerURI, getJournalETag(change), commit, time, scopes));
+			}
+			fJournal.trim(time);
+		}
+		fPendingChanges.clear();
+		// Log the transaction for followers before committing it, with its position.
+		final long position = fReplication.prepareCommit();
+		fWriter = null;
+		// The next writer can begin as soon as TDB commits, so hold it off
+		// until this commit's changes are published and indexed, in order.
+		synchronized (fCommitLock) {
+			try {
+				// Metadata first: a config graph without its resource only keeps the URI from being reused.
+				fMetadata.commit();
+				fDataset.commit();
+			} catch (RuntimeException e) {
+				fReplication.commitFailed(position);
+				throw e;
+			}
+			// After the commit, so a reader never pairs a version with an older snapshot.
+			fVersion.incrementAndGet();
+			for (ChangeBus.Change change : changes) {
+				getChangeBus().publish(change);
+			}
+			// The data is committed whatever happens to the index, so a
+			// failure here doesn't fail the write.
+			if (!textChanges.isEmpty()) {
+				try {
+					fTextIndex.apply(textChanges);
+				} catch (RuntimeException e) {
+					log.error("Could not update the text index; it will be rebuilt", e);
+					scheduleTextIndexRebuild();
+				}
+				// Again, so text searches cached before the index caught up aren't reused.
+				fVersion.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Queues a rebuild of the text index, unless one is queued already.
+	 */
+	private void scheduleTextIndexRebuild() {
+		if (fTextIndexStale.compareAndSet(false, true)) {
+			BackgroundJobs.getInstance().submit(new BackgroundJob("text-index") {
+				@Override
+				protected boolean runBatch() {
+					// Before reading, so a commit that fails during the rebuild queues another.
+					fTextIndexStale.set(false);
+					processed(rebuildTextIndex());
+					return false;
+				}
+			});
+		}
+	}
+
+	/**
+	 * The ETag to journal for a change: the one a GET of an RDF source
+	 * returns. None for deletes, non-RDF sources, and containers, whose
+	 * graph changes with every member and would have to be hashed on every
+	 * POST.
+	 */
+	private String getJournalETag(PendingChange change) {
+		if (change.type == ChangeBus.Type.DELETE || !fDataset.containsNamedModel(change.uri)) {
+			return null;
+		}
+		final Model graph = fDataset.getNamedModel(change.uri);
+		if (JenaLDPResourceManager.isContainer(graph.getResource(change.uri))) {
+			return null;
+		}
+
+		return JenaLDPRDFSource.createETag(graph);
+	}
+
+	private static class PendingChange {
+		final ChangeBus.Type type;
+		final String uri;
+		final String containerURI;
+
+		PendingChange(ChangeBus.Type type, String uri, String containerURI) {
+			this.type = type;
+			this.uri = uri;
+			this.containerURI = containerURI;
+		}
+	}
+
+	/**
+	 * Records a change to a resource in the current write transaction. The
+	 * change is published on the {@link ChangeBus} if the transaction
+	 * commits. Several changes to one resource in a transaction are
+	 * published as one: a create followed by updates is a create, and
+	 * anything followed by a delete is a delete.
+	 *
+	 * @param type the kind of change
+	 * @param uri the resource
+	 * @param containerURI the container of the resource, or null to look it
+	 *        up when the transaction commits. Required for a delete, since the
+	 *        containment triple is gone by then.
+	 */
+	public void recordChange(ChangeBus.Type type, String uri, String containerURI)
+	{
+		final PendingChange pending = fPendingChanges.get(uri);
+		if (pending == null) {
+			fPendingChanges.put(uri, new PendingChange(type, uri, containerURI));
+		} else if (pending.type != ChangeBus.Type.CREATE || type != ChangeBus.Type.UPDATE) {
+			fPendingChanges.put(uri, new PendingChange(type, uri, containerURI != null ? containerURI : pending.containerURI));
+		}
+	}
+
+	public synchronized ChangeBus getChangeBus() {
+		if (fChangeBus == null) {
+			// Not in the constructor, since reading puts the dataset in transactional mode.
+			if (fDataset.isInTransaction()) {
+				fChangeBus = new ChangeBus(fJournal.getLast());
+			} else {
+				readLock();
+				try {
+					fChangeBus = new ChangeBus(fJournal.getLast());
+				} finally {
+					end();
+				}
+			}
+		}
+
+		return fChangeBus;
+	}
+
+	/**
+	 * Gets the changes to a container subtree after a change ID, waiting up
+	 * to <code>timeoutMillis</code> for one if there are none yet. Recent
+	 * changes come from the {@link ChangeBus}. If the ID is older than the
+	 * bus keeps, or from before a restart, they are read from the
+	 * {@link ChangeJournal}, and only the latest change to each resource
+	 * may be returned.
+	 *
+	 * @param after the last change ID the client saw
+	 * @param scope a container URI, or null for the whole store
+	 * @param max the most changes to return
+	 * @param timeoutMillis how long to wait, or 0 not to wait
+	 * @return the changes, possibly none
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public ChangeBus.Page getChanges(long after, String scope, int max, long timeoutMillis) throws InterruptedException
+	{
+		final ChangeBus.Page page = getChangeBus().await(after, scope, max, timeoutMillis);
+		if (!page.reset) {
+			return page;
+		}
+
+		readLock();
+		try {
+			return fJournal.read(after, scope, max);
+		} finally {
+			end();
+		}
+	}
+
+	/**
+	 * Makes this store a replication leader, logging every write transaction
+	 * for followers.
+	 *
+	 * @param dir the directory for the log file
+	 * @return the log
+	 */
+	public ReplicationLog startReplicationLog(File dir)
+	{
+		readLock();
+		try {
+			return fReplication.start(dir);
+		} finally {
+			end();
+		}
+	}
+
+	/**
+	 * @return the shards this store is one of, or null if the server isn't sharded
+	 */
+	public ShardRouter getShards() {
+		return fShards;
+	}
+
+	void setShards(ShardRouter shards) {
+		fShards = shards;
+	}
+
+	/**
+	 * @return the store of a resource: this one, or its shard if the server
+	 *         is sharded
+	 */
+	public TDBGraphStore getStoreFor(String uri) {
+		return (fShards == null) ? this : fShards.getStore(uri);
+	}
+
+	/**
+	 * @return the store with the container of a resource in this store: this
+	 *         one, or the root store for a top-level resource of a sharded
+	 *         server
+	 */
+	public TDBGraphStore getContainerStore(String uri) {
+		return (fShards != null && fShards.isTopLevel(uri)) ? fShards.getRoot() : this;
+	}
+
+	/**
+	 * Queries on the root store of a sharded server cover all the shards.
+	 */
+	private boolean isFanOut() {
+		return fShards != null && fShards.getRoot() == this;
+	}
+
+	/**
+	 * @return the log if this store is a replication leader, otherwise null
+	 */
+	public ReplicationLog getReplicationLog() {
+		return fReplication.getLog();
+	}
+
+	/**
+	 * The position in the leader's {@link ReplicationLog} of the last write
+	 * transaction committed, on the leader or on a follower. Must be called
+	 * in a transaction.
+	 *
+	 * @return the position, or 0 if none
+	 */
+	public long getReplicationPosition() {
+		return fReplication.getPosition();
+	}
+
+	/**
+	 * Notes a graph a follower applied or loaded as used, as
+	 * {@link #getNamedModel(String)} does for the graphs it hands out. Must
+	 * be called in a write transaction.
+	 */
+	void used(String graphURI) {
+		fUsed.add(getUsedURI(graphURI));
+	}
+
+	/**
+	 * Rebuilds the {@link UsedURIFilter} after a follower replaced the
+	 * dataset. Must be called in the write transaction.
+	 */
+	void rebuildUsed() {
+		fUsed = buildUsed();
+	}
+
+	/**
+	 * Drops the recent changes after a follower replaced the dataset, so
+	 * clients following changes start over.
+	 */
+	synchronized void resetChangeBus() {
+		fChangeBus = null;
+	}
+
+	/**
+	 * Publishes the journal entries a follower hasn't published yet.
+	 */
+	void publishJournal() {
+		final ChangeBus bus = getChangeBus();
+		final ChangeBus.Page page;
+		readLock();
+		try {
+			page = fJournal.read(bus.getLastID(), null, Integer.MAX_VALUE);
+		} finally {
+			end();
+		}
+		if (!page.reset) {
+			for (ChangeBus.Change change : page.changes) {
+				bus.publish(change);
+			}
+		}
+	}
+
+	/**
+	 * The commit version increases with every committed write transaction.
+	 * A read transaction that begins after reading the version sees data at
+	 * least as new as that version.
+	 */
+	public long getVersion() {
+		return fVersion.get();
 	}
 	
 	public void abort() {
+		fMonitor.end();
+		if (isWriting()) {
+			fTextChanged.clear();
+			fPendingChanges.clear();
+			fWriter = null;
+			fReplication.abort();
+		}
+		fMetadata.abort();
 		fDataset.abort();
 	}
 	
 	public void end() {
+		fMonitor.end();
+		// Only a writer that hasn't committed aborts. Not a reader, and not a
+		// writer ending after its commit, when the next writer may have begun.
+		if (isWriting()) {
+			// Ended without a commit, which TDB treats as an abort.
+			fWriter = null;
+			fReplication.abort();
+		}
+		fMetadata.end();
 		fDataset.end();
 	}
 	
+	/**
+	 * @return true if the current thread is in a write transaction it hasn't committed
+	 */
+	private boolean isWriting() {
+		return fWriter == Thread.currentThread();
+	}
+
 	public Model getDefaultModel() {
-		return fDataset.getDefaultModel();
+		return track(fDataset.getDefaultModel(), Quad.defaultGraphIRI);
+	}
+
+	/**
+	 * In a write transaction, has {@link StoreReplication} record the
+	 * changes to a graph. Every model this class returns or changes goes
+	 * through here.
+	 */
+	private Model track(Model model, Node graphName) {
+		return isWriting() ? fReplication.track(model, graphName) : model;
+	}
+
+	private Model getNamedModel(String graphURI) {
+		if (fUsed != null && isWriting()) {
+			// The graph may be new.
+			used(graphURI);
+		}
+		return track(getDataset(graphURI).getNamedModel(graphURI), NodeFactory.createURI(graphURI));
 	}
 
 	public void putGraph(String graphURI, Model model)
 	{
-		Model graphModel = graphURI != null ? fDataset.getNamedModel(graphURI) : fDataset.getDefaultModel();
+		Model graphModel = graphURI != null ? getNamedModel(graphURI) : getDefaultModel();
 		graphModel.removeAll();
 		graphModel.add(model);
+		textChanged(graphURI);
 	}
 
 	public Model getGraph(String graphURI)
 	{
 		if (graphURI != null) {
-			return fDataset.containsNamedModel(graphURI) ? fDataset.getNamedModel(graphURI) : null;
+			return getDataset(graphURI).containsNamedModel(graphURI) ? getNamedModel(graphURI) : null;
+		}
+		return getDefaultModel();
+	}
+
+	/**
+	 * Lists the triples in other resources that refer to a resource, that is,
+	 * the triples with the resource as object. TDB's OSPG index keeps every
+	 * quad by object and is updated in the same transaction as the graphs,
+	 * so the cost is proportional to <code>offset + limit</code> rather than
+	 * the size of the dataset. Only the named graphs are read, not the
+	 * stored default graph with the {@link ChangeJournal}, whose entries
+	 * refer to every container. Companion graphs are skipped. A triple in
+	 * more than one graph is listed once. Must be called in a transaction.
+	 *
+	 * @param uri the resource
+	 * @param offset the number of triples to skip
+	 * @param limit the most triples to return
+	 * @return the triples, ordered by subject then predicate
+	 */
+	public List<Triple> getInboundReferences(String uri, long offset, int limit)
+	{
+		final List<Triple> triples = new ArrayList<Triple>();
+		final Iterator<Quad> quads = fDataset.asDatasetGraph().findNG(Node.ANY, Node.ANY, Node.ANY, NodeFactory.createURI(uri));
+		Triple previous = null;
+		long skipped = 0;
+		while (quads.hasNext() && triples.size() < limit) {
+			final Quad quad = quads.next();
+			if (JenaLDPResourceManager.isCompanion(quad.getGraph().getURI())) {
+				continue;
+			}
+			// Quads are in object, subject, predicate, graph order, so copies are adjacent.
+			final Triple triple = quad.asTriple();
+			if (triple.equals(previous)) {
+				continue;
+			}
+			previous = triple;
+			if (skipped < offset) {
+				skipped++;
+			} else {
+				triples.add(triple);
+			}
 		}
-		return fDataset.getDefaultModel();
+
+		return triples;
 	}
 
 	public void deleteGraph(String graphURI)
 	{
-		Model model = fDataset.getNamedModel(graphURI);
+		Model model = getDataset(graphURI).getNamedModel(graphURI);
 		Resource resource = model.getResource(graphURI);
-		fDataset.asDatasetGraph().removeGraph(resource.asNode());
+		getDataset(graphURI).asDatasetGraph().removeGraph(resource.asNode());
+		fReplication.cleared(resource.asNode());
+		textChanged(graphURI);
+	}
+
+	void textChanged(String graphURI) {
+		if (graphURI != null && !JenaLDPResourceManager.isCompanion(graphURI)) {
+			fTextChanged.add(graphURI);
+		}
+	}
+
+	/**
+	 * Lists the names of the resource graphs and LDP-NR associated RDF
+	 * sources, but not the config graphs. Must be called in a transaction.
+	 */
+	public Iterator<String> listGraphNames() {
+		return fDataset.listNames();
+	}
+
+	/**
+	 * Is there a containment triple for the resource in this store? Must be
+	 * called in a transaction.
+	 *
+	 * @param uri the resource
+	 * @return true if a container in this store has <code>ldp:contains</code> the resource
+	 * @see #getContainerStore(String)
+	 */
+	public boolean isContained(String uri) {
+		final Iterator<Quad> containers = fDataset.asDatasetGraph().find(Node.ANY, Node.ANY, LDP.contains.asNode(), NodeFactory.createURI(uri));
+		return containers.hasNext();
+	}
+
+	/**
+	 * The text index document for a resource: its string literals, and the
+	 * URIs of the resource and the containers above it. Must be called in a
+	 * transaction.
+	 *
+	 * @return the document, or null if the resource doesn't exist
+	 */
+	protected Document getTextDocument(String graphURI) {
+		if (!fDataset.containsNamedModel(graphURI)) {
+			return null;
+		}
+
+		final StringBuilder text = new StringBuilder();
+		final ExtendedIterator<Triple> triples = fDataset.getNamedModel(graphURI).getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		try {
+			while (triples.hasNext()) {
+				final Node object = triples.next().getObject();
+				if (object.isLiteral() && (XSD.xstring.getURI().equals(object.getLiteralDatatypeURI())
+						|| !object.getLiteralLanguage().isEmpty())) {
+					text.append(object.getLiteralLexicalForm()).append('\n');
+				}
+			}
+		} finally {
+			triples.close();
+		}
+
+		return TextIndex.document(graphURI, getScopes(graphURI), text.toString());
+	}
+
+	/**
+	 * Follows <code>ldp:contains</code> from a resource up to the root
+	 * container. Must be called in a transaction.
+	 *
+	 * @return the resource URI and the URIs of the containers above it
+	 */
+	protected Set<String> getScopes(String uri) {
+		final Set<String> scopes = new LinkedHashSet<String>();
+		Node node = NodeFactory.createURI(uri);
+		while (node != null && node.isURI() && scopes.add(node.getURI())) {
+			final Iterator<Quad> containers = fDataset.asDatasetGraph().find(Node.ANY, Node.ANY, LDP.contains.asNode(), node);
+			node = containers.hasNext() ? containers.next().getSubject() : null;
+		}
+
+		return scopes;
+	}
+
+	/**
+	 * Recreates the text index from the resources in the store. Searches
+	 * use the old index until it finishes.
+	 *
+	 * @return the number of resources indexed
+	 */
+	public int rebuildTextIndex()
+	{
+		// Hold the index while reading, so changes committed after the read
+		// transaction begins are applied after the rebuild rather than lost.
+		synchronized (fTextIndex) {
+			readLock();
+			try {
+				return fTextIndex.rebuild(WrappedIterator.create(fDataset.listNames())
+						.filterDrop(new Predicate<String>() {
+							@Override
+							public boolean test(String uri) {
+								return JenaLDPResourceManager.isCompanion(uri);
+							}
+						})
+						.mapWith(new Function<String, Document>() {
+							@Override
+							public Document apply(String uri) {
+								return getTextDocument(uri);
+							}
+						}));
+			} finally {
+				end();
+			}
+		}
+	}
+
+	/**
+	 * Searches the text index, best matches first. The index is updated
+	 * when write transactions commit.
+	 *
+	 * @param queryString the query in Lucene syntax
+	 * @param containerURI only return this container and the resources below it, or null for all resources
+	 * @param offset the number of hits to skip
+	 * @param limit the most hits to return
+	 * @throws IllegalArgumentException if the query is not valid
+	 */
+	public List<TextIndex.Hit> search(String queryString, String containerURI, int offset, int limit)
+	{
+		if (isFanOut()) {
+			return fShards.search(queryString, containerURI, offset, limit);
+		}
+		return fTextIndex.search(queryString, containerURI, offset, limit);
 	}
 
 	public String createGraph(String containerURI, String graphURIPrefix, String nameHint)
 	{
 		String graphURI = mintURI(containerURI, graphURIPrefix, nameHint);
 		// Add a dummy triple, just to allocate the graph
-		Model model = fDataset.getNamedModel(graphURI);
+		Model model = getNamedModel(graphURI);
 		Resource graphResource = model.getResource(graphURI);
 		model.add(graphResource, DCTerms.description, "Graph Placeholder");
 		return graphURI;
 	}
 
 	public String mintURI(String containerURI, String graphURIPrefix, String nameHint) {
+		return mintURI(containerURI, graphURIPrefix, nameHint, new Predicate<String>() {
+			@Override
+			public boolean test(String uri) {
+				return previouslyUsed(uri);
+			}
+		});
+	}
+
+	/**
+	 * @param used tells whether a URI was used before
+	 */
+	public String mintURI(String containerURI, String graphURIPrefix, String nameHint, Predicate<String> used) {
 		String graphURI = null;
 		if (nameHint != null && nameHint.length() > 0) {
 			// Strip special characters from the slug
 			nameHint = nameHint.replaceAll("[^\\w\\s\\-_]", "");
 			graphURI = appendURISegment(containerURI,  nameHint);
-			if (previouslyUsed(graphURI)) graphURI = null;
+			if (used.test(graphURI)) graphURI = null;
 		} 
 		if (graphURI == null) {
 			// TODO: Use count # from container so we don't have to always start at 1
 			for (long count = 1; ; ++count) {
 				graphURI = graphURIPrefix + count;
-				if (!previouslyUsed(graphURI)) break;
+				if (!used.test(graphURI)) break;
 			}
 		}
 		return graphURI;
@@ -164,7 +895,7 @@ public class TDBGraphStore implements GraphStore
 	 * @param configURI A side resource, in support of uri
 	 */
 	public Model createCompanionGraph(String uri, String configURI) {
-		Model model = fDataset.getNamedModel(configURI);
+		Model model = getNamedModel(configURI);
 		Resource graphResource = model.getResource(uri);
 		Resource companionResource = model.getResource(configURI);
 		model.add(companionResource, Lyo.describes, graphResource);
@@ -180,7 +911,62 @@ public class TDBGraphStore implements GraphStore
 	 * @return true if found an old config graph
 	 */
 	public boolean previouslyUsed(String uri) {
-		return fDataset.containsNamedModel(uri) || fDataset.containsNamedModel(JenaLDPResourceManager.mintConfigURI(uri));
+		return mightHaveBeenUsed(uri)
+				&& (fDataset.containsNamedModel(uri) || fMetadata.containsNamedModel(JenaLDPResourceManager.mintConfigURI(uri)));
+	}
+
+	/**
+	 * Checks the {@link UsedURIFilter} without reading the store.
+	 *
+	 * @return false if the URI was certainly never used, true if it may have
+	 *         been and {@link #previouslyUsed(String)} must be asked
+	 */
+	public boolean mightHaveBeenUsed(String uri) {
+		final UsedURIFilter used = fUsed;
+		return used == null || used.mightContain(uri);
+	}
+
+	/**
+	 * Loads the {@link UsedURIFilter} saved at the last shutdown, or builds
+	 * it from the graph names. Called in the first write transaction, so no
+	 * graph is committed in the meantime without being added.
+	 */
+	private void initUsed() {
+		UsedURIFilter used = (fUsedFile == null) ? null : UsedURIFilter.load(fUsedFile);
+		if (used == null) {
+			used = buildUsed();
+		}
+		fUsed = used;
+	}
+
+	private UsedURIFilter buildUsed() {
+		final long start = System.currentTimeMillis();
+		long count = 0;
+		for (Dataset dataset : new Dataset[] { fDataset, fMetadata }) {
+			count += Iter.count(dataset.listNames());
+		}
+		final UsedURIFilter used = new UsedURIFilter(UsedURIFilter.getExpected(count), fUsedFile);
+		for (Dataset dataset : new Dataset[] { fDataset, fMetadata }) {
+			final Iterator<String> names = dataset.listNames();
+			while (names.hasNext()) {
+				used.add(getUsedURI(names.next()));
+			}
+		}
+		if (fUsedFile != null) {
+			log.info("Built used URI filter for {} graphs in {} ms", count, System.currentTimeMillis() - start);
+		}
+
+		return used;
+	}
+
+	/**
+	 * @return the resource URI a graph makes used: its own, or for a config
+	 *         graph, the resource's
+	 */
+	private static String getUsedURI(String graphURI) {
+		return JenaLDPResourceManager.isConfigURI(graphURI)
+				? graphURI.substring(0, graphURI.length() - JenaLDPResourceManager.CONFIG_PARAM.length())
+				: graphURI;
 	}
 
 	public void query(OutputStream outStream, String queryString)
@@ -190,29 +976,405 @@ public class TDBGraphStore implements GraphStore
 
 	@Override
 	public void query(OutputStream outStream, String queryString, String resultsFormat) {
-		readLock();
+		Query query = fQueryCache.parse(queryString);
+		if (resultsFormat == null || !QueryResultsFormat.getSupportedTypes(query).contains(resultsFormat)) {
+			resultsFormat = query.isConstructType() || query.isDescribeType()
+					? LDPConstants.CT_TEXT_TURTLE : LDPConstants.CT_APPLICATION_SPARQLRESULTSXML;
+		}
+		query(outStream, query, resultsFormat);
+	}
+
+	/**
+	 * Execute a query in a read transaction, writing the results as they are produced.
+	 *
+	 * @param outStream the stream for the results
+	 * @param query the parsed query
+	 * @param contentType the results format, one of {@link QueryResultsFormat#getSupportedTypes(Query)}
+	 */
+	@Override
+	public void query(OutputStream outStream, Query query, String contentType) {
+		execute(outStream, query, contentType, null, false, false, null);
+	}
+
+	/**
+	 * Execute a CONSTRUCT or DESCRIBE query like
+	 * {@link #query(OutputStream, Query, String)}, but skip triples the
+	 * query repeats within {@link QueryResultsFormat#DISTINCT_WINDOW} triples.
+	 * For generated queries, such as container member queries, whose template
+	 * produces the same triples for many solutions.
+	 *
+	 * @param outStream the stream for the results
+	 * @param query the parsed query
+	 * @param contentType the results format, one of {@link QueryResultsFormat#getSupportedTypes(Query)}
+	 * @param admission the query's slot from {@link #admitQuery()}, or null to wait for one now
+	 */
+	public void queryDistinct(OutputStream outStream, Query query, String contentType, QueryGovernor.Admission admission) {
+		execute(outStream, query, contentType, null, false, true, admission);
+	}
+
+	/**
+	 * Execute a query over a container and the resources in its subtree only.
+	 * The default graph is the union of the subtree's graphs, and they are
+	 * also the only named graphs. Any FROM or FROM NAMED in the query is
+	 * restricted to the subtree.
+	 *
+	 * @param outStream the stream for the results
+	 * @param query the parsed query
+	 * @param contentType the results format, one of {@link QueryResultsFormat#getSupportedTypes(Query)}
+	 * @param containerURI the root of the subtree
+	 * @param includeCompanions if true, include the companion graphs of the subtree's resources
+	 *
+	 * @see #getSubtreeGraphs(String, boolean)
+	 */
+	public void query(OutputStream outStream, Query query, String contentType, String containerURI, boolean includeCompanions) {
+		execute(outStream, query, contentType, containerURI, includeCompanions, false, null);
+	}
+
+	/**
+	 * Execute a query like {@link #query(OutputStream, Query, String, String, boolean)}
+	 * in a slot taken earlier.
+	 *
+	 * @param outStream the stream for the results
+	 * @param query the parsed query
+	 * @param contentType the results format, one of {@link QueryResultsFormat#getSupportedTypes(Query)}
+	 * @param containerURI the root of the subtree, or null for the whole dataset
+	 * @param includeCompanions if true, include the companion graphs of the subtree's resources
+	 * @param admission the query's slot from {@link #admitQuery()}, or null to wait for one now
+	 */
+	public void query(OutputStream outStream, Query query, String contentType, String containerURI, boolean includeCompanions, QueryGovernor.Admission admission) {
+		execute(outStream, query, contentType, containerURI, includeCompanions, false, admission);
+	}
+
+	/**
+	 * Waits for a slot to run a query later, such as when a response body is
+	 * written. Errors can then be reported before the response status is sent.
+	 *
+	 * @return the admission to pass to the query
+	 * @throws QueryGovernor.SaturatedException if no slot is available
+	 *
+	 * @see QueryGovernor#admit()
+	 */
+	public QueryGovernor.Admission admitQuery() {
+		return fGovernor.admit();
+	}
+
+	private void execute(OutputStream outStream, Query query, String contentType, String containerURI, boolean includeCompanions, boolean distinct, QueryGovernor.Admission admission) {
+		// Read the version before the transaction begins (see getVersion()).
+		final boolean fanOut = isFanOut();
+		final long version = fanOut ? fShards.getVersion() : fVersion.get();
+		String cacheKey = null;
+		if (fResultCache.isCacheable(query)) {
+			final String scope = (containerURI == null) ? null : containerURI + (includeCompanions ? " companions" : "");
+			cacheKey = QueryResultCache.key(query, distinct ? contentType + " distinct" : contentType, scope, version);
+			final byte[] results = fResultCache.get(cacheKey);
+			if (results != null) {
+				fGovernor.discard(admission);
+				try {
+					outStream.write(results);
+				} catch (IOException e) {
+					throw new RuntimeIOException(e);
+				}
+				return;
+			}
+		}
+
+		fGovernor.acquire(admission);
+		final long start = System.currentTimeMillis();
+		QueryGovernor.Outcome outcome = QueryGovernor.Outcome.COMPLETED;
 		try {
-			Query query = QueryFactory.create(queryString);
-			QueryExecution qexec = QueryExecutionFactory.create(query, fDataset);
-			ResultSet result = qexec.execSelect();
+			queryLock(fanOut);
 			try {
-				if (resultsFormat != null && resultsFormat.equals(LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON)) {
-					ResultSetFormatter.outputAsJSON(outStream, result);
+				QueryExecution qexec;
+				if (containerURI == null) {
+					qexec = QueryExecutionFactory.create(query, fanOut ? fShards.getDataset() : fDataset);
 				} else {
-					ResultSetFormatter.outputAsXML(outStream, result);
+					Query scoped = QueryTransformOps.shallowCopy(query);
+					Dataset dataset = getSubtreeDataset(scoped, containerURI, includeCompanions);
+					qexec = QueryExecutionFactory.create(scoped, dataset);
+					qexec.getContext().set(TextIndex.SCOPE, containerURI);
+				}
+				qexec.getContext().set(TextIndex.SYMBOL, fanOut ? fShards : fTextIndex);
+				fGovernor.prepare(qexec);
+				try {
+					if (cacheKey == null) {
+						QueryResultsFormat.write(outStream, qexec, contentType, distinct);
+					} else {
+						final QueryResultCache.CapturingOutputStream capture = fResultCache.capture(outStream);
+						QueryResultsFormat.write(capture, qexec, contentType, distinct);
+						final byte[] results = capture.getCaptured();
+						if (results != null) {
+							fResultCache.put(cacheKey, version, results);
+						}
+					}
+				} catch (RuntimeException e) {
+					outcome = QueryGovernor.getOutcome(e);
+					qexec.abort();
+					throw e;
+				} finally { qexec.close(); }
+			} finally { queryEnd(fanOut); }
+		} finally {
+			fGovernor.release();
+			fGovernor.record(query, outcome, System.currentTimeMillis() - start);
+		}
+	}
+
+	private void queryLock(boolean fanOut) {
+		if (fanOut) {
+			fShards.readLock();
+		} else {
+			readLock();
+		}
+	}
+
+	private void queryEnd(boolean fanOut) {
+		if (fanOut) {
+			fShards.end();
+		} else {
+			end();
+		}
+	}
+
+	/**
+	 * Builds a view of the dataset limited to a subtree, removing the
+	 * dataset description from the query (it is folded into the view).
+	 */
+	private Dataset getSubtreeDataset(Query query, String containerURI, boolean includeCompanions) {
+		final Set<String> subtree = getSubtreeGraphs(containerURI, includeCompanions);
+		final List<Node> defaultGraphs = new ArrayList<Node>();
+		final List<Node> namedGraphs = new ArrayList<Node>();
+		if (query.hasDatasetDescription()) {
+			for (String uri : query.getGraphURIs()) {
+				if (subtree.contains(uri)) defaultGraphs.add(NodeFactory.createURI(uri));
+			}
+			for (String uri : query.getNamedGraphURIs()) {
+				if (subtree.contains(uri)) namedGraphs.add(NodeFactory.createURI(uri));
+			}
+			query.getGraphURIs().clear();
+			query.getNamedGraphURIs().clear();
+		} else {
+			for (String uri : subtree) {
+				Node graph = NodeFactory.createURI(uri);
+				defaultGraphs.add(graph);
+				namedGraphs.add(graph);
+			}
+		}
+
+		final DatasetGraph base = isFanOut() ? new ShardedDatasetGraph(fShards, includeCompanions) : getQueryDatasetGraph(includeCompanions);
+		DatasetGraph view = DynamicDatasets.dynamicDataset(defaultGraphs, namedGraphs, base, false);
+		if (defaultGraphs.size() > 1) {
+			// Answer selective patterns from the quad indexes rather than graph by graph.
+			view = new DatasetGraphAltDefaultGraph(view, new SubtreeUnionGraph(base, defaultGraphs));
+		}
+
+		return DatasetFactory.wrap(view);
+	}
+
+	/**
+	 * Finds the graphs of a container and every resource it contains,
+	 * following <code>ldp:contains</code> transitively. Cost is proportional to
+	 * the size of the subtree. Must be called in a transaction, on every
+	 * shard if this is the root store of a sharded server.
+	 *
+	 * @param containerURI the root of the subtree
+	 * @param includeCompanions if true, also return the companion graphs (such
+	 *        as config graphs and LDP-NR associated RDF sources) that exist
+	 * @return the graph URIs, the container first
+	 */
+	public Set<String> getSubtreeGraphs(String containerURI, boolean includeCompanions) {
+		final Set<String> graphs = new LinkedHashSet<String>();
+		final Set<String> visited = new HashSet<String>();
+		final Deque<String> pending = new ArrayDeque<String>();
+		pending.add(containerURI);
+		visited.add(containerURI);
+		while (!pending.isEmpty()) {
+			final String uri = pending.remove();
+			final TDBGraphStore store = isFanOut() ? fShards.getStore(uri) : this;
+			final Dataset dataset = store.fDataset;
+			if (dataset.containsNamedModel(uri)) {
+				graphs.add(uri);
+				final Model model = dataset.getNamedModel(uri);
+				final NodeIterator members = model.listObjectsOfProperty(model.getResource(uri), LDP.contains);
+				while (members.hasNext()) {
+					RDFNode member = members.next();
+					if (member.isURIResource() && visited.add(member.asResource().getURI())) {
+						pending.add(member.asResource().getURI());
+					}
 				}
-			} finally { qexec.close(); }
-		} finally { end(); }
+			}
+
+			if (includeCompanions) {
+				final String configURI = JenaLDPResourceManager.mintConfigURI(uri);
+				if (store.fMetadata.containsNamedModel(configURI)) graphs.add(configURI);
+				final String associatedURI = JenaLDPResourceManager.mintAssociatedRDFSourceURI(uri);
+				if (dataset.containsNamedModel(associatedURI)) graphs.add(associatedURI);
+			}
+		}
+
+		return graphs;
 	}
 
 	public Model construct(String queryString)
 	{
-		readLock();
+		return construct(fQueryCache.parse(queryString));
+	}
+
+	public Model construct(Query query)
+	{
+		return construct(query, null);
+	}
+
+	/**
+	 * Runs a CONSTRUCT query in a slot taken earlier.
+	 *
+	 * @param query the query
+	 * @param admission the query's slot from {@link #admitQuery()}, or null to wait for one now
+	 * @return the constructed model
+	 */
+	public Model construct(Query query, QueryGovernor.Admission admission)
+	{
+		return governed(query, admission, new QueryWork<Model>() {
+			@Override
+			public Model run(QueryExecution qexec) {
+				return qexec.execConstruct();
+			}
+		});
+	}
+
+	/**
+	 * Runs a SELECT query and returns the URIs bound to one variable, in
+	 * order. For small results such as a page of resources.
+	 *
+	 * @param query the query
+	 * @param var the variable name
+	 * @return the URIs, skipping any solutions where <code>var</code> is unbound or not a URI
+	 */
+	public List<String> selectURIs(Query query, final String var)
+	{
+		return governed(query, null, new QueryWork<List<String>>() {
+			@Override
+			public List<String> run(QueryExecution qexec) {
+				final List<String> uris = new ArrayList<String>();
+				final ResultSet results = qexec.execSelect();
+				while (results.hasNext()) {
+					final RDFNode node = results.next().get(var);
+					if (node != null && node.isURIResource()) {
+						uris.add(node.asResource().getURI());
+					}
+				}
+				return uris;
+			}
+		});
+	}
+
+	private interface QueryWork<T> {
+		T run(QueryExecution qexec);
+	}
+
+	/**
+	 * Runs a query over the whole dataset in a read transaction, subject to the query governor.
+	 */
+	private <T> T governed(Query query, QueryGovernor.Admission admission, QueryWork<T> work) {
+		fGovernor.acquire(admission);
+		final long start = System.currentTimeMillis();
+		QueryGovernor.Outcome outcome = QueryGovernor.Outcome.COMPLETED;
 		try {
-			Query query = QueryFactory.create(queryString);
-			QueryExecution qexec = QueryExecutionFactory.create(query, fDataset);
-			return qexec.execConstruct();
-		} finally { end(); }
+			final boolean fanOut = isFanOut();
+			queryLock(fanOut);
+			try {
+				QueryExecution qexec = QueryExecutionFactory.create(query, fanOut ? fShards.getDataset() : fDataset);
+				qexec.getContext().set(TextIndex.SYMBOL, fanOut ? fShards : fTextIndex);
+				fGovernor.prepare(qexec);
+				try {
+					return work.run(qexec);
+				} catch (RuntimeException e) {
+					outcome = QueryGovernor.getOutcome(e);
+					throw e;
+				} finally { qexec.close(); }
+			} finally { queryEnd(fanOut); }
+		} finally {
+			fGovernor.release();
+			fGovernor.record(query, outcome, System.currentTimeMillis() - start);
+		}
+	}
+
+	/**
+	 * Parses a query, reusing the parse of an identical query string when
+	 * possible. The query returned may be modified by the caller.
+	 *
+	 * @throws org.apache.jena.query.QueryException if the query is not valid
+	 */
+	public Query parseQuery(String queryString) {
+		return fQueryCache.parse(queryString);
+	}
+
+	public QueryCache getQueryCache() {
+		return fQueryCache;
+	}
+
+	public QueryResultCache getQueryResultCache() {
+		return fResultCache;
+	}
+
+	public TransactionMonitor getTransactionMonitor() {
+		return fMonitor;
+	}
+
+	/**
+	 * Registers the store's caches, query limits and transactions with {@link Metrics},
+	 * replacing those of a store registered before with the same name.
+	 *
+	 * @param name the <code>store</code> label, to tell shards apart
+	 */
+	public void registerMetrics(String name) {
+		final Metrics metrics = Metrics.getInstance();
+		metrics.register("ldp_query_parse_cache_hits_total", "SPARQL queries found parsed in the cache.", Metrics.Type.COUNTER, new Metrics.Value() {
+			@Override
+			public double get() { return fQueryCache.getHits(); }
+		}, "store", name);
+		metrics.register("ldp_query_parse_cache_misses_total", "SPARQL queries parsed because they weren't in the cache.", Metrics.Type.COUNTER, new Metrics.Value() {
+			@Override
+			public double get() { return fQueryCache.getMisses(); }
+		}, "store", name);
+		metrics.register("ldp_query_result_cache_hits_total", "SPARQL query results found in the cache.", Metrics.Type.COUNTER, new Metrics.Value() {
+			@Override
+			public double get() { return fResultCache.getHits(); }
+		}, "store", name);
+		metrics.register("ldp_query_result_cache_misses_total", "Cacheable SPARQL queries whose results weren't in the cache.", Metrics.Type.COUNTER, new Metrics.Value() {
+			@Override
+			public double get() { return fResultCache.getMisses(); }
+		}, "store", name);
+		metrics.register("ldp_query_result_cache_evictions_total", "SPARQL query results evicted from the cache.", Metrics.Type.COUNTER, new Metrics.Value() {
+			@Override
+			public double get() { return fResultCache.getEvictions(); }
+		}, "store", name);
+		metrics.register("ldp_query_result_cache_bytes", "Size of the cached SPARQL query results.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return fResultCache.getSize(); }
+		}, "store", name);
+		metrics.register("ldp_sparql_queries_running", "SPARQL queries executing.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return fGovernor.getRunning(); }
+		}, "store", name);
+		metrics.register("ldp_tdb_writers_waiting", "Write transactions waiting for the writer to finish.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return fMonitor.getWaiting().size(); }
+		}, "store", name);
+		metrics.register("ldp_tdb_readers", "Read transactions.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return fMonitor.getReaders(); }
+		}, "store", name);
+		metrics.register("ldp_sparql_queries_queued", "SPARQL queries waiting to execute.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return fGovernor.getQueued(); }
+		}, "store", name);
+	}
+
+	public TDBStatistics getStatistics() {
+		return fStatistics;
+	}
+
+	public QueryGovernor getQueryGovernor() {
+		return fGovernor;
 	}
 
 	public static String appendURISegment(String base, String append)
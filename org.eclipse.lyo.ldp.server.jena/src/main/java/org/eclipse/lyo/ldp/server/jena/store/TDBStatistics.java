@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.engine.optimizer.StatsMatcher;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderProc;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderWeighted;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.tdb.solver.stats.Stats;
+import org.apache.jena.tdb.solver.stats.StatsCollector;
+import org.apache.jena.tdb.solver.stats.StatsResults;
+import org.apache.jena.tdb.sys.SystemTDB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the statistics the TDB optimizer uses to order the triple
+ * patterns of a query, and installs them in the running store.
+ * <p>
+ * TDB only reads <code>stats.opt</code> when a dataset is opened, so the
+ * store's dataset is created with a reorder transformation that delegates to
+ * whichever statistics were generated last. They are kept in
+ * <code>ldp-stats.opt</code> in the dataset directory and loaded again on
+ * startup. (A <code>stats.opt</code> file, if one exists, still takes
+ * precedence and turns off live updates.)
+ */
+public class TDBStatistics {
+	private final static Logger log = LoggerFactory.getLogger(TDBStatistics.class);
+
+	public static final String LDP_STATS_INTERVAL = "ldp.stats.interval";
+	public static final String STATS_FILE = "ldp-stats.opt";
+
+	/**
+	 * Delegates to the current transformation. Created before the dataset so
+	 * TDB picks it up as the default.
+	 */
+	static class SwitchableReorderTransformation implements ReorderTransformation {
+		private volatile ReorderTransformation fDelegate;
+
+		SwitchableReorderTransformation(ReorderTransformation delegate) {
+			fDelegate = delegate;
+		}
+
+		@Override
+		public ReorderProc reorderIndexes(BasicPattern pattern) {
+			return fDelegate.reorderIndexes(pattern);
+		}
+
+		@Override
+		public BasicPattern reorder(BasicPattern pattern) {
+			return fDelegate.reorder(pattern);
+		}
+	}
+
+	private final TDBGraphStore fStore;
+	private final File fFile; // null for an in-memory dataset
+	private final SwitchableReorderTransformation fReorder;
+	private ScheduledExecutorService fExecutor;
+	private final Object fGenerateLock = new Object();
+
+	private volatile StatsResults fResults;
+	private volatile long fLastRun = 0;
+	private volatile long fLastDuration = 0;
+	private volatile int fGeneration = 0;
+
+	// Query timings from the query governor when the current statistics were installed
+	private volatile double fMeanTimeBefore = 0;
+	private volatile long fQueriesBefore = 0;
+	private volatile long fExecutedAtInstall = 0;
+	private volatile long fTotalTimeAtInstall = 0;
+
+	/**
+	 * @param store the store to generate statistics for
+	 * @param directory the dataset directory, or null for an in-memory dataset
+	 */
+	TDBStatistics(TDBGraphStore store, String directory) {
+		fStore = store;
+		fFile = (directory == null) ? null : new File(directory, STATS_FILE);
+		fReorder = new SwitchableReorderTransformation(SystemTDB.defaultReorderTransform);
+		if (fFile != null && fFile.exists()) {
+			try {
+				fReorder.fDelegate = new ReorderWeighted(new StatsMatcher(fFile.getPath()));
+				fLastRun = fFile.lastModified();
+				log.info("Loaded TDB optimizer statistics from {}", fFile);
+			} catch (RuntimeException e) {
+				log.warn("Ignoring invalid TDB optimizer statistics in " + fFile, e);
+			}
+		}
+	}
+
+	/**
+	 * Creates the TDB dataset so that its BGP optimizer uses these statistics.
+	 *
+	 * @param directory the dataset directory, or null for an in-memory dataset
+	 */
+	Dataset createDataset(String directory) {
+		// TDB copies the default transformation when it builds the dataset.
+		synchronized (TDBStatistics.class) {
+			final ReorderTransformation defaultReorder = SystemTDB.defaultReorderTransform;
+			SystemTDB.defaultReorderTransform = fReorder;
+			try {
+				return (directory == null) ? TDBFactory.createDataset() : TDBFactory.createDataset(directory);
+			} finally {
+				SystemTDB.defaultReorderTransform = defaultReorder;
+			}
+		}
+	}
+
+	/**
+	 * Regenerate the statistics periodically in the background.
+	 *
+	 * @param interval seconds between runs, or 0 to never run
+	 */
+	public synchronized void schedule(long interval) {
+		if (interval <= 0 || fExecutor != null) {
+			return;
+		}
+
+		fExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "ldp-tdb-stats");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+
+		// Without statistics, don't wait a whole interval for the first run.
+		final long initialDelay = (fLastRun == 0) ? Math.min(interval, 60) : interval;
+		fExecutor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					generate();
+				} catch (RuntimeException e) {
+					log.error("Failed to generate TDB optimizer statistics", e);
+				}
+			}
+		}, initialDelay, interval, TimeUnit.SECONDS);
+	}
+
+	public synchronized void shutdown() {
+		if (fExecutor != null) {
+			fExecutor.shutdownNow();
+			fExecutor = null;
+		}
+	}
+
+	/**
+	 * Scans the dataset in a read transaction, saves the statistics, and
+	 * installs them for queries that start afterwards. Only one run happens
+	 * at a time.
+	 *
+	 * @return the statistics
+	 */
+	public StatsResults generate() {
+		synchronized (fGenerateLock) {
+			return generateStats();
+		}
+	}
+
+	private StatsResults generateStats() {
+		final long start = System.currentTimeMillis();
+		final StatsCollector collector = new StatsCollector();
+		fStore.readLock();
+		try {
+			final Iterator<Quad> quads = fStore.fDataset.asDatasetGraph().find();
+			while (quads.hasNext()) {
+				final Quad quad = quads.next();
+				collector.record(quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject());
+			}
+		} finally {
+			fStore.end();
+		}
+
+		final StatsResults results = collector.results();
+		if (fFile != null) {
+			save(results);
+		}
+		install(results);
+		fLastDuration = System.currentTimeMillis() - start;
+		fLastRun = start;
+		log.info("Generated TDB optimizer statistics for {} triples in {} ms", results.getCount(), fLastDuration);
+
+		return results;
+	}
+
+	private void save(StatsResults results) {
+		// Write a temporary file and rename it so a crash never leaves a partial file.
+		final File temp = new File(fFile.getPath() + ".tmp");
+		try {
+			OutputStream out = new FileOutputStream(temp);
+			try {
+				Stats.write(out, results);
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			temp.delete();
+			log.error("Failed to save TDB optimizer statistics to " + fFile, e);
+		}
+	}
+
+	private void install(StatsResults results) {
+		final ReorderTransformation reorder = new ReorderWeighted(new StatsMatcher(Stats.format(results)));
+		final QueryGovernor governor = fStore.getQueryGovernor();
+		synchronized (this) {
+			final long executed = governor.getExecuted();
+			final long totalTime = governor.getTotalTime();
+			fQueriesBefore = executed - fExecutedAtInstall;
+			fMeanTimeBefore = (fQueriesBefore == 0) ? 0 : (double) (totalTime - fTotalTimeAtInstall) / fQueriesBefore;
+			fExecutedAtInstall = executed;
+			fTotalTimeAtInstall = totalTime;
+			fReorder.fDelegate = reorder;
+			fResults = results;
+			fGeneration++;
+		}
+	}
+
+	/**
+	 * @return the transformation TDB uses to order triple patterns
+	 */
+	public ReorderTransformation getReorderTransformation() {
+		return fReorder;
+	}
+
+	/**
+	 * @return the statistics from the last run in this process, or null
+	 */
+	public StatsResults getResults() { return fResults; }
+
+	/**
+	 * @return the number of times statistics were installed in this process
+	 */
+	public int getGeneration() { return fGeneration; }
+
+	/**
+	 * @return when the statistics were last generated, or 0 if never
+	 */
+	public long getLastRun() { return fLastRun; }
+	public long getLastDuration() { return fLastDuration; }
+	public File getFile() { return fFile; }
+
+	/**
+	 * @return the mean query time in milliseconds with the previous statistics
+	 */
+	public double getMeanTimeBefore() { return fMeanTimeBefore; }
+	public long getQueriesBefore() { return fQueriesBefore; }
+
+	/**
+	 * @return the mean query time in milliseconds since the current statistics were installed
+	 */
+	public synchronized double getMeanTimeAfter() {
+		final long queries = getQueriesAfter();
+		return (queries == 0) ? 0 : (double) (fStore.getQueryGovernor().getTotalTime() - fTotalTimeAtInstall) / queries;
+	}
+
+	public synchronized long getQueriesAfter() {
+		return fStore.getQueryGovernor().getExecuted() - fExecutedAtInstall;
+	}
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+
+/**
+ * A Lucene full-text index of the string literals in each resource. There is
+ * one document per resource graph, holding the resource URI, its text, and
+ * the URIs of the resource and every container above it so that searches can
+ * be limited to a container subtree.
+ * <p>
+ * {@link TDBGraphStore} collects the changed graphs during a write
+ * transaction and passes their documents to {@link #apply(Map)} once the
+ * transaction commits. Searches see the index as of the last commit. If the
+ * index is lost or falls behind (for instance after a crash between the two
+ * commits), {@link TDBGraphStore#rebuildTextIndex()} recreates it. The store
+ * queues a rebuild itself if updating the index fails.
+ */
+public class TextIndex implements Closeable {
+	public static final String FIELD_URI = "uri";
+	public static final String FIELD_SCOPE = "scope";
+	public static final String FIELD_TEXT = "text";
+
+	/**
+	 * Query execution context key for the index, or the {@link ShardRouter}
+	 * of a sharded server, read by {@link TextSearch}.
+	 */
+	public static final Symbol SYMBOL = Symbol.create("http://eclipse.org/lyo/ns#textIndex");
+
+	/**
+	 * Query execution context key for the container a query is limited to, if any.
+	 */
+	public static final Symbol SCOPE = Symbol.create("http://eclipse.org/lyo/ns#textScope");
+
+	public static class Hit {
+		public final String uri;
+		public final float score;
+
+		Hit(String uri, float score) {
+			this.uri = uri;
+			this.score = score;
+		}
+	}
+
+	private final Analyzer fAnalyzer = new StandardAnalyzer();
+	private final IndexWriter fWriter;
+	private final SearcherManager fSearchers;
+
+	public TextIndex(Directory directory) throws IOException {
+		fWriter = new IndexWriter(directory, new IndexWriterConfig(fAnalyzer));
+		// Make sure there's an index to search, even if it's empty.
+		fWriter.commit();
+		fSearchers = new SearcherManager(fWriter, true, null);
+	}
+
+	/**
+	 * @param datasetDir the TDB dataset directory, or null for an index in memory
+	 */
+	public static TextIndex create(String datasetDir) {
+		try {
+			final Directory directory = (datasetDir == null) ? new RAMDirectory() : FSDirectory.open(new File(datasetDir, "text").toPath());
+			return new TextIndex(directory);
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	/**
+	 * @param uri the resource URI
+	 * @param scopes the resource URI and the URIs of the containers above it
+	 * @param text the string literals of the resource
+	 */
+	public static Document document(String uri, Collection<String> scopes, String text) {
+		final Document document = new Document();
+		document.add(new StringField(FIELD_URI, uri, Store.YES));
+		for (String scope : scopes) {
+			document.add(new StringField(FIELD_SCOPE, scope, Store.NO));
+		}
+		document.add(new TextField(FIELD_TEXT, text, Store.NO));
+
+		return document;
+	}
+
+	/**
+	 * Replaces or deletes the documents of some resources and commits.
+	 *
+	 * @param changes the new document for each resource, or null if it was deleted
+	 */
+	public synchronized void apply(Map<String, Document> changes) {
+		try {
+			for (Map.Entry<String, Document> change : changes.entrySet()) {
+				final Term uri = new Term(FIELD_URI, change.getKey());
+				if (change.getValue() == null) {
+					fWriter.deleteDocuments(uri);
+				} else {
+					fWriter.updateDocument(uri, change.getValue());
+				}
+			}
+			commit();
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+	}
+
+	/**
+	 * Replaces every document. Searches see the old index until it finishes,
+	 * and changes committed meanwhile wait and are applied after.
+	 *
+	 * @param documents the document of each resource
+	 * @return the number of documents
+	 */
+	public synchronized int rebuild(Iterator<Document> documents) {
+		int count = 0;
+		try {
+			fWriter.deleteAll();
+			while (documents.hasNext()) {
+				fWriter.addDocument(documents.next());
+				count++;
+			}
+			commit();
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+
+		return count;
+	}
+
+	private void commit() throws IOException {
+		fWriter.commit();
+		fSearchers.maybeRefresh();
+	}
+
+	/**
+	 * Searches the index, best matches first.
+	 *
+	 * @param queryString the query in Lucene syntax, for example <code>crash AND "null pointer"</code>
+	 * @param scope only return the container with this URI and the resources below it, or null for all resources
+	 * @param offset the number of hits to skip
+	 * @param limit the most hits to return
+	 * @return the hits
+	 * @throws IllegalArgumentException if the query is not valid
+	 */
+	public List<Hit> search(String queryString, String scope, int offset, int limit) {
+		Query query;
+		try {
+			query = new QueryParser(FIELD_TEXT, fAnalyzer).parse(queryString);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+		if (scope != null) {
+			query = new BooleanQuery.Builder()
+					.add(query, Occur.MUST)
+					.add(new TermQuery(new Term(FIELD_SCOPE, scope)), Occur.FILTER)
+					.build();
+		}
+
+		final List<Hit> hits = new ArrayList<Hit>();
+		if (limit <= 0) {
+			return hits;
+		}
+		try {
+			final IndexSearcher searcher = fSearchers.acquire();
+			try {
+				final TopDocs top = searcher.search(query, offset + limit);
+				for (int i = offset; i < top.scoreDocs.length; i++) {
+					final ScoreDoc scoreDoc = top.scoreDocs[i];
+					hits.add(new Hit(searcher.doc(scoreDoc.doc).get(FIELD_URI), scoreDoc.score));
+				}
+			} finally {
+				fSearchers.release(searcher);
+			}
+		} catch (IOException e) {
+			throw new RuntimeIOException(e);
+		}
+
+		return hits;
+	}
+
+	@Override
+	public void close() throws IOException {
+		fSearchers.close();
+		fWriter.close();
+	}
+}
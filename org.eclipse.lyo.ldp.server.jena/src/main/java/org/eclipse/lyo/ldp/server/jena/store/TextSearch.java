@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.QueryBuildException;
+import org.apache.jena.query.QueryExecException;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.binding.BindingMap;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.apache.jena.sparql.pfunction.PropertyFunctionBase;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+
+/**
+ * The SPARQL property function <code>lyo:textSearch</code>, which finds
+ * resources in the {@link TextIndex}, best matches first:
+ *
+ * <pre>
+ * PREFIX lyo: &lt;http://eclipse.org/lyo/ns#&gt;
+ * SELECT ?bug ?score WHERE { (?bug ?score) lyo:textSearch ("crash" 20) }
+ * </pre>
+ *
+ * The subject is the resource, or a list of the resource and its score. The
+ * object is the query in Lucene syntax, or a list of the query and the most
+ * results to return. In a container query, only the container and the
+ * resources below it match.
+ */
+public class TextSearch extends PropertyFunctionBase {
+	public static final String URI = Lyo.NS + "textSearch";
+
+	/**
+	 * The most results if the query doesn't give a limit.
+	 */
+	static final int DEFAULT_LIMIT = 10000;
+
+	public static void register() {
+		PropertyFunctionRegistry.get().put(URI, TextSearch.class);
+	}
+
+	@Override
+	public void build(PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		if (argSubject.isList() && (argSubject.getArgListSize() < 1 || argSubject.getArgListSize() > 2)) {
+			throw new QueryBuildException("Subject of lyo:textSearch must be a resource or a list (resource score)");
+		}
+		if (argObject.isList() && (argObject.getArgListSize() < 1 || argObject.getArgListSize() > 2)) {
+			throw new QueryBuildException("Object of lyo:textSearch must be a query or a list (query limit)");
+		}
+	}
+
+	@Override
+	public QueryIterator exec(Binding binding, PropFuncArg argSubject, Node predicate, PropFuncArg argObject, ExecutionContext execCxt) {
+		// A text index, or every shard's on the root store of a sharded server
+		final Object index = execCxt.getContext().get(TextIndex.SYMBOL);
+		if (index == null) {
+			throw new QueryExecException("No text index");
+		}
+
+		final Node subject = substitute(argSubject.isList() ? argSubject.getArg(0) : argSubject.getArg(), binding);
+		final Node score = (argSubject.isList() && argSubject.getArgListSize() == 2) ? substitute(argSubject.getArg(1), binding) : null;
+		final Node query = substitute(argObject.isList() ? argObject.getArg(0) : argObject.getArg(), binding);
+		final Node limit = (argObject.isList() && argObject.getArgListSize() == 2) ? substitute(argObject.getArg(1), binding) : null;
+		if (!query.isLiteral()) {
+			throw new QueryExecException("lyo:textSearch query must be a literal");
+		}
+
+		int max = DEFAULT_LIMIT;
+		if (limit != null) {
+			if (!limit.isLiteral() || !(limit.getLiteralValue() instanceof Number)) {
+				throw new QueryExecException("lyo:textSearch limit must be a number");
+			}
+			max = ((Number) limit.getLiteralValue()).intValue();
+		}
+
+		final List<TextIndex.Hit> hits;
+		try {
+			final String scope = (String) execCxt.getContext().get(TextIndex.SCOPE);
+			hits = (index instanceof ShardRouter)
+					? ((ShardRouter) index).search(query.getLiteralLexicalForm(), scope, 0, max)
+					: ((TextIndex) index).search(query.getLiteralLexicalForm(), scope, 0, max);
+		} catch (IllegalArgumentException e) {
+			throw new QueryExecException(e.getMessage(), e);
+		}
+
+		final List<Binding> results = new ArrayList<Binding>();
+		for (TextIndex.Hit hit : hits) {
+			final BindingMap result = BindingFactory.create(binding);
+			if (bind(result, subject, NodeFactory.createURI(hit.uri))
+					&& (score == null || bind(result, score, NodeFactory.createLiteral(Float.toString(hit.score), XSDDatatype.XSDfloat)))) {
+				results.add(result);
+			}
+		}
+
+		return new QueryIterPlainWrapper(results.iterator(), execCxt);
+	}
+
+	private static Node substitute(Node node, Binding binding) {
+		if (Var.isVar(node) && binding.contains(Var.alloc(node))) {
+			return binding.get(Var.alloc(node));
+		}
+		return node;
+	}
+
+	/**
+	 * @return false if the node is already bound to another value
+	 */
+	private static boolean bind(BindingMap binding, Node node, Node value) {
+		if (Var.isVar(node)) {
+			binding.add(Var.alloc(node), value);
+			return true;
+		}
+		return node.sameValueAs(value);
+	}
+}
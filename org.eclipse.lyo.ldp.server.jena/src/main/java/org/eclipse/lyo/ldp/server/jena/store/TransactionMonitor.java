@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.service.MetricsFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the transactions of a {@link TDBGraphStore}: who began
+ * each one, how long it waited to begin, and how long it was held. TDB
+ * allows one writer at a time, so when writes slow down this shows which
+ * request holds the writer and how many are queued behind it.
+ * <p>
+ * Transactions that wait or are held for longer than
+ * {@link #LDP_TX_SLOW} milliseconds are logged with the stack where they
+ * ended, which is usually the method that began them.
+ */
+public class TransactionMonitor {
+	private final static Logger log = LoggerFactory.getLogger(TransactionMonitor.class);
+
+	/**
+	 * System property for the milliseconds a transaction can wait or be held
+	 * before it is logged. Default is 1000.
+	 */
+	public static final String LDP_TX_SLOW = "ldp.tx.slow";
+
+	private static final Metrics.Timer READ_WAIT = timer("wait", "read");
+	private static final Metrics.Timer WRITE_WAIT = timer("wait", "write");
+	private static final Metrics.Timer READ_HOLD = timer("hold", "read");
+	private static final Metrics.Timer WRITE_HOLD = timer("hold", "write");
+	private static final Metrics.Counter READ_SLOW = slowCounter("read");
+	private static final Metrics.Counter WRITE_SLOW = slowCounter("write");
+
+	private final long fSlow = Long.getLong(LDP_TX_SLOW, 1000);
+	private final ThreadLocal<Transaction> fCurrent = new ThreadLocal<Transaction>(); // The current thread's transaction
+	private final Set<Transaction> fWaiting = Collections.newSetFromMap(new ConcurrentHashMap<Transaction, Boolean>()); // Writers waiting to begin
+	private volatile Transaction fWriter; // The writer, if there is one
+	private final AtomicInteger fReaders = new AtomicInteger();
+
+	/**
+	 * A read or write transaction, and who began it.
+	 */
+	public static class Transaction {
+		private final boolean fWrite;
+		private final Thread fThread = Thread.currentThread();
+		private final String fOperation = MetricsFilter.getOperation();
+		private final String fURI = MetricsFilter.getRequestURI();
+		private final long fRequested = System.nanoTime();
+		private volatile long fBegun; // System.nanoTime() once it began, or 0 while it waits
+
+		Transaction(boolean write) {
+			fWrite = write;
+		}
+
+		public boolean isWrite() { return fWrite; }
+		public Thread getThread() { return fThread; }
+
+		/**
+		 * @return the request operation, for example <code>POST JenaLDPService.post</code>,
+		 *         or null if the transaction isn't for a request
+		 */
+		public String getOperation() { return fOperation; }
+
+		/**
+		 * @return the request URI, or null if the transaction isn't for a request
+		 */
+		public String getURI() { return fURI; }
+
+		/**
+		 * @return the milliseconds the transaction waited to begin, so far if it is still waiting
+		 */
+		public long getWaitMillis() {
+			final long begun = fBegun;
+			return ((begun == 0 ? System.nanoTime() : begun) - fRequested) / 1000000;
+		}
+
+		/**
+		 * @return the milliseconds since the transaction began, or 0 if it is still waiting
+		 */
+		public long getHeldMillis() {
+			final long begun = fBegun;
+			return (begun == 0) ? 0 : (System.nanoTime() - begun) / 1000000;
+		}
+
+		@Override
+		public String toString() {
+			return (fWrite ? "write" : "read") + " transaction of "
+					+ ((fOperation == null) ? "thread " + fThread.getName() : fOperation + " " + fURI + " on thread " + fThread.getName());
+		}
+	}
+
+	/**
+	 * Called before the current thread begins a transaction.
+	 */
+	Transaction request(boolean write) {
+		final Transaction transaction = new Transaction(write);
+		if (write) {
+			fWaiting.add(transaction);
+		}
+		return transaction;
+	}
+
+	/**
+	 * Called once the transaction has begun, or failed to.
+	 *
+	 * @param begun true if the transaction began
+	 */
+	void begun(Transaction transaction, boolean begun) {
+		if (transaction.fWrite) {
+			fWaiting.remove(transaction);
+		}
+		if (!begun) {
+			return;
+		}
+
+		transaction.fBegun = System.nanoTime();
+		(transaction.fWrite ? WRITE_WAIT : READ_WAIT).record(transaction.fBegun - transaction.fRequested);
+		fCurrent.set(transaction);
+		if (transaction.fWrite) {
+			fWriter = transaction;
+		} else {
+			fReaders.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Called when the current thread commits or ends its transaction.
+	 *
+	 * @return the transaction, or null if it already ended or didn't begin through the store
+	 */
+	Transaction end() {
+		final Transaction transaction = fCurrent.get();
+		if (transaction == null) {
+			return null;
+		}
+
+		fCurrent.remove();
+		final long held = System.nanoTime() - transaction.fBegun;
+		if (transaction.fWrite) {
+			fWriter = null;
+			WRITE_HOLD.record(held);
+		} else {
+			fReaders.decrementAndGet();
+			READ_HOLD.record(held);
+		}
+
+		final long waitMillis = transaction.getWaitMillis();
+		final long heldMillis = held / 1000000;
+		if (fSlow >= 0 && (waitMillis > fSlow || heldMillis > fSlow)) {
+			(transaction.fWrite ? WRITE_SLOW : READ_SLOW).increment();
+			log.warn("Slow " + transaction + ": waited " + waitMillis + " ms, held " + heldMillis + " ms",
+					new Throwable("Transaction ended"));
+		}
+
+		return transaction;
+	}
+
+	/**
+	 * @return the write transaction, or null if there is none
+	 */
+	public Transaction getWriter() {
+		return fWriter;
+	}
+
+	/**
+	 * @return the write transactions waiting to begin, longest waiting first
+	 */
+	public List<Transaction> getWaiting() {
+		final List<Transaction> waiting = new ArrayList<Transaction>(fWaiting);
+		Collections.sort(waiting, new Comparator<Transaction>() {
+			@Override
+			public int compare(Transaction t1, Transaction t2) {
+				return Long.compare(t1.fRequested, t2.fRequested);
+			}
+		});
+		return waiting;
+	}
+
+	/**
+	 * @return the number of read transactions
+	 */
+	public int getReaders() {
+		return fReaders.get();
+	}
+
+	/**
+	 * @return the milliseconds a transaction can wait or be held before it is logged, or negative to never log
+	 */
+	public long getSlow() {
+		return fSlow;
+	}
+
+	private static Metrics.Timer timer(String phase, String mode) {
+		return Metrics.getInstance().timer("ldp_tdb_transaction_" + phase + "_seconds",
+				"wait".equals(phase) ? "Time to begin a TDB transaction." : "Time from beginning a TDB transaction to its commit or end.",
+				"mode", mode);
+	}
+
+	private static Metrics.Counter slowCounter(String mode) {
+		return Metrics.getInstance().counter("ldp_tdb_transaction_slow_total",
+				"TDB transactions that waited or were held longer than " + LDP_TX_SLOW + ".", "mode", mode);
+	}
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Bloom filter of every resource URI a store has used, so most checks
+ * that a new URI was never used before are answered without reading TDB.
+ * URIs are only ever added, and a URI that was added is always reported,
+ * so a negative answer is certain and only positives need to be checked in
+ * the store.
+ * <p>
+ * The filter is saved to <code>ldp-uris.bloom</code> in the dataset
+ * directory when the server shuts down. The file is deleted when it is
+ * loaded, and again whenever a URI is added after it was saved, so a file
+ * that exists is always current. Otherwise the store rebuilds the filter
+ * from its graph names.
+ */
+public class UsedURIFilter {
+	private final static Logger log = LoggerFactory.getLogger(UsedURIFilter.class);
+
+	/**
+	 * System property for the number of URIs the filter is sized for.
+	 * Default is 1,000,000 (about 1.2 MB). A filter rebuilt for a larger
+	 * store is sized for twice its URIs.
+	 */
+	public static final String LDP_URI_FILTER_EXPECTED = "ldp.uriFilter.expected";
+	public static final String FILE_NAME = "ldp-uris.bloom";
+
+	private static final int MAGIC = 0x4c594f55;
+	private static final int BITS_PER_URI = 10;
+	private static final int HASHES = 7; // About 1% false positives at BITS_PER_URI
+
+	private final AtomicLongArray fBits;
+	private final long fSize; // In bits
+	private final File fFile;
+	private long fCount; // URIs added, including duplicates
+	private boolean fSaved; // fFile is current
+
+	/**
+	 * @param expected the number of URIs to size the filter for
+	 * @param file where to save the filter, or null not to
+	 */
+	public UsedURIFilter(long expected, File file) {
+		this(new AtomicLongArray((int) Math.min((Math.max(expected, 1) * BITS_PER_URI + 63) / 64, Integer.MAX_VALUE)), 0, file);
+	}
+
+	private UsedURIFilter(AtomicLongArray bits, long count, File file) {
+		fBits = bits;
+		fSize = 64L * bits.length();
+		fCount = count;
+		fFile = file;
+	}
+
+	/**
+	 * @return the number of URIs to size a new filter for, given how many are in use
+	 */
+	public static long getExpected(long used) {
+		return Math.max(Long.getLong(LDP_URI_FILTER_EXPECTED, 1000000), 2 * used);
+	}
+
+	/**
+	 * Loads a filter saved at shutdown, and deletes the file.
+	 *
+	 * @return the filter, or null if there is no current one or it is too
+	 *         full to be useful
+	 */
+	public static UsedURIFilter load(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+
+		UsedURIFilter filter = null;
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() == MAGIC) {
+					final long count = in.readLong();
+					final AtomicLongArray bits = new AtomicLongArray(in.readInt());
+					for (int i = 0; i < bits.length(); i++) {
+						bits.set(i, in.readLong());
+					}
+					filter = new UsedURIFilter(bits, count, file);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			log.warn("Failed to load used URI filter from " + file, e);
+		}
+		file.delete();
+
+		if (filter != null && filter.getCount() * BITS_PER_URI > filter.fSize) {
+			log.info("Used URI filter has {} URIs, rebuilding it larger", filter.getCount());
+			return null;
+		}
+
+		return filter;
+	}
+
+	/**
+	 * Saves the filter so it can be loaded instead of rebuilt.
+	 */
+	public synchronized void save() {
+		if (fFile == null || fSaved) {
+			return;
+		}
+
+		// Write a temporary file and rename it so a crash never leaves a partial file.
+		final File temp = new File(fFile.getPath() + ".tmp");
+		try {
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeLong(fCount);
+				out.writeInt(fBits.length());
+				for (int i = 0; i < fBits.length(); i++) {
+					out.writeLong(fBits.get(i));
+				}
+			} finally {
+				out.close();
+			}
+			Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			fSaved = true;
+		} catch (IOException e) {
+			temp.delete();
+			log.error("Failed to save used URI filter to " + fFile, e);
+		}
+	}
+
+	public synchronized void add(String uri) {
+		final long hash = hash(uri);
+		final int h1 = (int) hash;
+		final int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < HASHES; i++) {
+			final long bit = Math.floorMod(h1 + (long) i * h2, fSize);
+			final int word = (int) (bit >>> 6);
+			// Only one writer at a time, and readers see each word atomically.
+			fBits.set(word, fBits.get(word) | (1L << bit));
+		}
+		fCount++;
+		if (fSaved) {
+			// The saved filter is out of date.
+			fFile.delete();
+			fSaved = false;
+		}
+	}
+
+	/**
+	 * @return false if the URI was never added, true if it may have been
+	 */
+	public boolean mightContain(String uri) {
+		final long hash = hash(uri);
+		final int h1 = (int) hash;
+		final int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < HASHES; i++) {
+			final long bit = Math.floorMod(h1 + (long) i * h2, fSize);
+			if ((fBits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public synchronized long getCount() {
+		return fCount;
+	}
+
+	/**
+	 * 64-bit FNV-1a over the characters, with a final mix so both halves
+	 * are usable as independent hashes.
+	 */
+	private static long hash(String s) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+
+		return h;
+	}
+}
@@ -53,6 +53,21 @@ public class Lyo {
 	 */
 	public static final Property slug = property(nsName("slug"));
 
+	/**
+	 * The HTTP status of a resource in a batch response.
+	 */
+	public static final Property status = property(nsName("status"));
+
+	/**
+	 * The ETag of a resource in a batch response.
+	 */
+	public static final Property etag = property(nsName("etag"));
+
+	/**
+	 * How well a resource matches a full-text search. Higher is better.
+	 */
+	public static final Property score = property(nsName("score"));
+
 	public static String nsName(String local) {
 		return NS + local;
 	}
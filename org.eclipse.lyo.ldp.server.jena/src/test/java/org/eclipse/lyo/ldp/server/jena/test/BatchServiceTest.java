@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPBatchService;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPNonRdfSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class BatchServiceTest {
+	private File dir;
+	private TDBGraphStore store;
+	private JenaLDPResourceManager resources;
+	private String container;
+	private String bug;
+	private String binary;
+
+	/**
+	 * The batch service with the request's headers set directly.
+	 */
+	private class Batch extends JenaLDPBatchService {
+		private final MultivaluedMap<String, String> fPreferences;
+
+		Batch(MultivaluedMap<String, String> preferences) {
+			fPreferences = preferences;
+		}
+
+		@Override
+		protected TDBGraphStore getStore() {
+			return store;
+		}
+
+		@Override
+		protected List<MediaType> getAcceptableMediaTypes() {
+			return Collections.singletonList(MediaType.valueOf(LDPConstants.CT_APPLICATION_NQUADS));
+		}
+
+		@Override
+		protected MultivaluedMap<String, String> getPreferences() {
+			return fPreferences;
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("ldpnr").toFile();
+		System.setProperty(JenaLDPNonRdfSource.LDP_NR_DIR, dir.getPath());
+		store = new TDBGraphStore();
+		resources = new JenaLDPResourceManager(store);
+		final JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+		container = root.post(turtle("<> a <" + LDP.BasicContainer.getURI() + "> ."), LDPConstants.CT_TEXT_TURTLE, null, "bugs", false);
+		bug = ((JenaLDPContainer) resources.get(container)).post(turtle("<> <" + DCTerms.title.getURI() + "> \"Bug 1\" ."),
+				LDPConstants.CT_TEXT_TURTLE, null, "bug1", false);
+		root.postNonRDFSource(new ByteArrayInputStream("binary".getBytes(StandardCharsets.UTF_8)), "text/plain", null, "binary");
+		binary = LDPService.ROOT_CONTAINER_URL + "binary";
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(JenaLDPNonRdfSource.LDP_NR_DIR);
+		FileUtils.deleteDirectory(dir);
+	}
+
+	private static ByteArrayInputStream turtle(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Dataset read(Response response) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		final Dataset dataset = DatasetFactory.create();
+		RDFDataMgr.read(dataset, new ByteArrayInputStream(out.toByteArray()), Lang.NQUADS);
+		return dataset;
+	}
+
+	private static Model read(Response response, String base) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		final Model model = ModelFactory.createDefaultModel();
+		model.read(new ByteArrayInputStream(out.toByteArray()), base, "TURTLE");
+		return model;
+	}
+
+	/**
+	 * Checks that the batch has the same graph and ETag as a GET.
+	 */
+	private void assertSameAsGet(Dataset batch, String uri, MultivaluedMap<String, String> preferences) throws IOException {
+		final Response get = resources.get(uri).get(LDPConstants.CT_TEXT_TURTLE, preferences);
+		assertTrue(uri, read(get, uri).isIsomorphicWith(batch.getNamedModel(uri)));
+		final Model statuses = batch.getDefaultModel();
+		assertEquals(200, statuses.getResource(uri).getProperty(Lyo.status).getInt());
+		assertEquals(get.getHeaderString(LDPConstants.HDR_ETAG), statuses.getResource(uri).getProperty(Lyo.etag).getString());
+	}
+
+	@Test
+	public void testSameAsGet() throws IOException {
+		final MultivaluedMap<String, String> preferences = new MultivaluedHashMap<String, String>();
+		final String associated = JenaLDPResourceManager.mintAssociatedRDFSourceURI(binary);
+		final Dataset batch = read(new Batch(preferences).get(Arrays.asList(container, bug, associated)));
+		assertSameAsGet(batch, container, preferences);
+		assertSameAsGet(batch, bug, preferences);
+		assertSameAsGet(batch, associated, preferences);
+	}
+
+	@Test
+	public void testPreferences() throws IOException {
+		// The container's representation includes its members, as for a GET.
+		final MultivaluedMap<String, String> preferences = LDPService.parsePreferences(Collections.singletonList(
+				LDPConstants.PREFER_RETURN_REPRESENTATION + "; " + LDPConstants.PREFER_INCLUDE + "=\"" + LDPConstants.PREFER_CONTAINED_DESCRIPTIONS + "\""));
+		final Dataset batch = read(new Batch(preferences).get(Arrays.asList(container)));
+		assertSameAsGet(batch, container, preferences);
+		assertTrue(batch.getNamedModel(container).contains(null, DCTerms.title, "Bug 1"));
+	}
+
+	@Test
+	public void testStatus() throws IOException {
+		final Model statuses = read(new Batch(new MultivaluedHashMap<String, String>())
+				.get(Arrays.asList(binary, container + "/missing"))).getDefaultModel();
+		assertEquals(406, statuses.getResource(binary).getProperty(Lyo.status).getInt());
+		assertEquals(404, statuses.getResource(container + "/missing").getProperty(Lyo.status).getInt());
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class ChangeBusTest {
+	private static final String CONTAINER = "http://example.com/resources/bugs";
+	private static final String BUG1 = CONTAINER + "/bug1";
+	private static final String OTHER = "http://example.com/resources/bug2";
+
+	private TDBGraphStore store = new TDBGraphStore();
+
+	@Before
+	public void load() {
+		Model container = ModelFactory.createDefaultModel();
+		container.getResource(CONTAINER).addProperty(LDP.contains, container.getResource(BUG1));
+		store.writeLock();
+		try {
+			store.putGraph(CONTAINER, container);
+			store.recordChange(ChangeBus.Type.CREATE, CONTAINER, null);
+			put(BUG1);
+			store.recordChange(ChangeBus.Type.CREATE, BUG1, CONTAINER);
+			// Merged with the create
+			store.recordChange(ChangeBus.Type.UPDATE, BUG1, null);
+			put(OTHER);
+			store.recordChange(ChangeBus.Type.CREATE, OTHER, null);
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	private void put(String uri) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(uri).addProperty(DCTerms.title, "A bug");
+		store.putGraph(uri, model);
+	}
+
+	@Test
+	public void testScope() throws InterruptedException {
+		ChangeBus.Page all = store.getChangeBus().await(0, null, 100, 0);
+		assertEquals(3, all.changes.size());
+		assertEquals(3, all.last);
+
+		ChangeBus.Page scoped = store.getChangeBus().await(0, CONTAINER, 100, 0);
+		assertEquals(2, scoped.changes.size());
+		ChangeBus.Change bug = scoped.changes.get(1);
+		assertEquals(BUG1, bug.uri);
+		assertEquals(ChangeBus.Type.CREATE, bug.type);
+		assertEquals(CONTAINER, bug.containerURI);
+		assertEquals(3, scoped.last);
+	}
+
+	@Test
+	public void testResume() throws InterruptedException {
+		store.writeLock();
+		try {
+			store.deleteGraph(BUG1);
+			store.recordChange(ChangeBus.Type.DELETE, BUG1, CONTAINER);
+			store.commit();
+		} finally {
+			store.end();
+		}
+
+		ChangeBus.Page page = store.getChangeBus().await(3, CONTAINER, 100, 0);
+		assertEquals(1, page.changes.size());
+		assertEquals(ChangeBus.Type.DELETE, page.changes.get(0).type);
+		assertEquals(4, page.changes.get(0).id);
+		assertFalse(page.reset);
+
+		// An ID from before a restart
+		assertTrue(store.getChangeBus().await(10, CONTAINER, 100, 0).reset);
+	}
+
+	@Test
+	public void testAbort() throws InterruptedException {
+		store.writeLock();
+		try {
+			put(BUG1);
+			store.recordChange(ChangeBus.Type.UPDATE, BUG1, null);
+			store.abort();
+		} finally {
+			store.end();
+		}
+		assertEquals(3, store.getChangeBus().getLastID());
+		assertTrue(store.getChangeBus().await(3, null, 100, 0).changes.isEmpty());
+	}
+}
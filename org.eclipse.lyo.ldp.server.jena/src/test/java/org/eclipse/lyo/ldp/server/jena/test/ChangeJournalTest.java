@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
+import org.eclipse.lyo.ldp.server.jena.store.ChangeJournal;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.RDF;
+
+public class ChangeJournalTest {
+	private static final String CONTAINER = "http://example.com/resources/bugs";
+	private static final String BUG = CONTAINER + "/bug";
+
+	private Dataset dataset = TDBFactory.createDataset();
+	private TDBGraphStore store;
+
+	@Before
+	public void load() {
+		store = new TDBGraphStore(dataset);
+		Model container = ModelFactory.createDefaultModel();
+		container.getResource(CONTAINER).addProperty(RDF.type, LDP.BasicContainer);
+		write(container, CONTAINER, ChangeBus.Type.CREATE);
+		for (int i = 1; i <= 3; i++) {
+			put(BUG + i, "Bug " + i, ChangeBus.Type.CREATE);
+		}
+	}
+
+	private void put(String uri, String title, ChangeBus.Type type) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(uri).addProperty(DCTerms.title, title);
+		write(model, uri, type);
+	}
+
+	private void write(Model model, String uri, ChangeBus.Type type) {
+		store.writeLock();
+		try {
+			store.putGraph(uri, model);
+			store.recordChange(type, uri, uri.equals(CONTAINER) ? null : CONTAINER);
+			if (!uri.equals(CONTAINER)) {
+				store.getGraph(CONTAINER).getResource(CONTAINER).addProperty(LDP.contains, store.getGraph(CONTAINER).getResource(uri));
+			}
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testRestart() throws InterruptedException {
+		put(BUG + 1, "Bug 1, again", ChangeBus.Type.UPDATE);
+
+		// The change IDs carry on, and older ones are read from the journal.
+		store = new TDBGraphStore(dataset);
+		assertEquals(5, store.getChangeBus().getLastID());
+		ChangeBus.Page page = store.getChanges(1, CONTAINER, 100, 0);
+		assertFalse(page.reset);
+		assertEquals(5, page.last);
+		// bug1's create was compacted into its update.
+		assertEquals(3, page.changes.size());
+		assertEquals(BUG + 2, page.changes.get(0).uri);
+		ChangeBus.Change update = page.changes.get(2);
+		assertEquals(BUG + 1, update.uri);
+		assertEquals(ChangeBus.Type.UPDATE, update.type);
+		assertEquals(5, update.commit);
+
+		// Paging
+		page = store.getChanges(1, CONTAINER, 2, 0);
+		assertEquals(2, page.changes.size());
+		assertEquals(4, page.last);
+
+		put(BUG + 4, "Bug 4", ChangeBus.Type.CREATE);
+		assertEquals(1, store.getChanges(5, CONTAINER, 100, 0).changes.size());
+	}
+
+	@Test
+	public void testETag() throws InterruptedException {
+		ChangeBus.Page page = store.getChanges(0, null, 100, 0);
+		assertNull(page.changes.get(0).etag);
+		store.readLock();
+		try {
+			assertEquals(JenaLDPRDFSource.createETag(store.getGraph(BUG + 3)), page.changes.get(3).etag);
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testTrim() throws InterruptedException {
+		System.setProperty(ChangeJournal.LDP_JOURNAL_MAX_ENTRIES, "4");
+		try {
+			store = new TDBGraphStore(dataset);
+		} finally {
+			System.clearProperty(ChangeJournal.LDP_JOURNAL_MAX_ENTRIES);
+		}
+		// Trimmed to 4 once there are more than 4 + 4 / 10 entries
+		put(BUG + 4, "Bug 4", ChangeBus.Type.CREATE);
+		put(BUG + 5, "Bug 5", ChangeBus.Type.CREATE);
+
+		store = new TDBGraphStore(dataset);
+		assertTrue(store.getChanges(1, null, 100, 0).reset);
+		ChangeBus.Page page = store.getChanges(2, null, 100, 0);
+		assertFalse(page.reset);
+		assertEquals(4, page.changes.size());
+	}
+
+	@Test
+	public void testPages() throws InterruptedException {
+		// Enough changes to span two buckets, half of them outside the container.
+		final String other = "http://example.com/resources/other";
+		store.writeLock();
+		try {
+			for (int i = 0; i < 1100; i++) {
+				final String uri = ((i % 2 == 0) ? BUG : other + "/res") + "-" + i;
+				Model model = ModelFactory.createDefaultModel();
+				model.getResource(uri).addProperty(DCTerms.title, "Resource " + i);
+				store.putGraph(uri, model);
+				store.recordChange(ChangeBus.Type.CREATE, uri, (i % 2 == 0) ? CONTAINER : other);
+			}
+			store.commit();
+		} finally {
+			store.end();
+		}
+
+		// Restart, so the pages come from the journal.
+		store = new TDBGraphStore(dataset);
+		for (String scope : new String[] { null, CONTAINER }) {
+			long after = 0;
+			int count = 0;
+			ChangeBus.Page page;
+			do {
+				page = store.getChanges(after, scope, 300, 0);
+				assertFalse(page.reset);
+				for (ChangeBus.Change change : page.changes) {
+					assertTrue(change.id > after);
+					after = change.id;
+					count++;
+				}
+				if (page.changes.size() == 300) {
+					assertEquals(after, page.last);
+				}
+				after = page.last;
+			} while (page.changes.size() == 300);
+			assertEquals(1104, after);
+			assertEquals((scope == null) ? 1104 : 554, count);
+		}
+	}
+}
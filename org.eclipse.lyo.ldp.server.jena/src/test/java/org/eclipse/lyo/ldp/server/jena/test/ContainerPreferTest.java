@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.query.OSLCQuery;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class ContainerPreferTest {
+	private JenaLDPContainer fContainer;
+	private String fContainerURI;
+
+	@Before
+	public void load() {
+		final TDBGraphStore store = new TDBGraphStore();
+		final JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+		fContainerURI = root.post(turtle("<> a <" + LDP.BasicContainer.getURI() + "> ."), LDPConstants.CT_TEXT_TURTLE, null, "bugs", false);
+		fContainer = (JenaLDPContainer) new JenaLDPResourceManager(store).get(fContainerURI);
+		for (int i = 1; i <= 5; i++) {
+			fContainer.post(turtle("<> <" + DCTerms.title.getURI() + "> \"Bug " + i + "\" ."), LDPConstants.CT_TEXT_TURTLE, null, "bug" + i, false);
+		}
+		System.setProperty(JenaLDPContainer.LDP_INLINE_PAGE_SIZE, "2");
+	}
+
+	@After
+	public void clear() {
+		System.clearProperty(JenaLDPContainer.LDP_INLINE_PAGE_SIZE);
+	}
+
+	private static ByteArrayInputStream turtle(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static MultivaluedMap<String, String> prefer(String name, String uri) {
+		return LDPService.parsePreferences(Collections.singletonList(
+				LDPConstants.PREFER_RETURN_REPRESENTATION + "; " + name + "=\"" + uri + "\""));
+	}
+
+	private Model read(Response response) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		final Model model = ModelFactory.createDefaultModel();
+		model.read(new ByteArrayInputStream(out.toByteArray()), fContainerURI, "TURTLE");
+		return model;
+	}
+
+	@Test
+	public void testContainedDescriptions() throws IOException {
+		final Response response = fContainer.get(LDPConstants.CT_TEXT_TURTLE, prefer(LDPConstants.PREFER_INCLUDE, LDPConstants.PREFER_CONTAINED_DESCRIPTIONS));
+		final Model model = read(response);
+
+		// Every containment triple, but only the first page of members.
+		assertEquals(5, model.listObjectsOfProperty(model.getResource(fContainerURI), LDP.contains).toList().size());
+		assertEquals(2, model.listStatements(null, DCTerms.title, (RDFNode) null).toList().size());
+		assertTrue(model.contains(model.getResource(fContainerURI + "/bug1"), DCTerms.title));
+		assertTrue(model.contains(model.getResource(fContainerURI + "/bug2"), DCTerms.title));
+		assertEquals(LDPConstants.PREFER_RETURN_REPRESENTATION, response.getHeaderString(LDPConstants.HDR_PREFERENCE_APPLIED));
+
+		// The next link is page 2 of the same members as an OSLC query.
+		final String link = response.getHeaderString(LDPConstants.HDR_LINK);
+		assertTrue(link.contains("<" + fContainerURI + "?oslc.select=*&oslc.pageSize=2&page=2>; rel=\"next\"")
+				|| link.contains("<" + fContainerURI + "?oslc.pageSize=2&oslc.select=*&page=2>; rel=\"next\""));
+		final MultivaluedMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+		parameters.putSingle(OSLCQuery.PARAM_SELECT, "*");
+		parameters.putSingle(OSLCQuery.PARAM_PAGE_SIZE, "2");
+		parameters.putSingle(OSLCQuery.PARAM_PAGE, "2");
+		final Model page = read(fContainer.queryMembers(LDPConstants.CT_TEXT_TURTLE, parameters));
+		assertTrue(page.contains(page.getResource(fContainerURI + "/bug3"), DCTerms.title));
+		assertTrue(page.contains(page.getResource(fContainerURI + "/bug4"), DCTerms.title));
+		assertFalse(page.contains(page.getResource(fContainerURI + "/bug2"), DCTerms.title));
+	}
+
+	@Test
+	public void testAllContainedDescriptions() throws IOException {
+		System.setProperty(JenaLDPContainer.LDP_INLINE_PAGE_SIZE, "5");
+		final Response response = fContainer.get(LDPConstants.CT_TEXT_TURTLE, prefer(LDPConstants.PREFER_INCLUDE, LDPConstants.PREFER_CONTAINED_DESCRIPTIONS));
+		assertEquals(5, read(response).listStatements(null, DCTerms.title, (RDFNode) null).toList().size());
+		assertFalse(String.valueOf(response.getHeaderString(LDPConstants.HDR_LINK)).contains("rel=\"next\""));
+	}
+
+	@Test
+	public void testOmitContainment() throws IOException {
+		final Response response = fContainer.get(LDPConstants.CT_TEXT_TURTLE, prefer(LDPConstants.PREFER_OMIT, LDPConstants.PREFER_CONTAINMENT));
+		final Model model = read(response);
+		assertFalse(model.contains(model.getResource(fContainerURI), LDP.contains));
+		assertFalse(model.contains(null, DCTerms.title));
+		assertEquals(LDPConstants.PREFER_RETURN_REPRESENTATION, response.getHeaderString(LDPConstants.HDR_PREFERENCE_APPLIED));
+	}
+
+	@Test
+	public void testNoPreference() throws IOException {
+		final Response response = fContainer.get(LDPConstants.CT_TEXT_TURTLE, new MultivaluedHashMap<String, String>());
+		final Model model = read(response);
+		assertEquals(5, model.listObjectsOfProperty(model.getResource(fContainerURI), LDP.contains).toList().size());
+		assertFalse(model.contains(null, DCTerms.title));
+		assertNull(response.getHeaderString(LDPConstants.HDR_PREFERENCE_APPLIED));
+		assertFalse(String.valueOf(response.getHeaderString(LDPConstants.HDR_LINK)).contains("rel=\"next\""));
+	}
+}
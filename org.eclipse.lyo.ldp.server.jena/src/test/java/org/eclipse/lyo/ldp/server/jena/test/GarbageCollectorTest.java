@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPGarbageCollector;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPNonRdfSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPSubtreeDelete;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.tdb.TDBFactory;
+
+public class GarbageCollectorTest {
+	private static final String ROOT = LDPService.ROOT_CONTAINER_URL;
+
+	private File dir;
+	private TDBGraphStore store;
+	private JenaLDPContainer root;
+	private JenaLDPResourceManager resources;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("ldpnr").toFile();
+		System.setProperty(JenaLDPNonRdfSource.LDP_NR_DIR, dir.getPath());
+		System.setProperty(JenaLDPGarbageCollector.LDP_GC_MIN_AGE, "0");
+		System.setProperty(BackgroundJob.LDP_JOBS_PAUSE, "0");
+		store = new TDBGraphStore(TDBFactory.createDataset());
+		root = JenaLDPContainer.create(ROOT, store);
+		resources = new JenaLDPResourceManager(store);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		System.clearProperty(JenaLDPNonRdfSource.LDP_NR_DIR);
+		System.clearProperty(JenaLDPGarbageCollector.LDP_GC_MIN_AGE);
+		System.clearProperty(BackgroundJob.LDP_JOBS_PAUSE);
+		FileUtils.deleteDirectory(dir);
+	}
+
+	private String post(JenaLDPContainer parent, String slug, String body) {
+		return parent.post(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), LDPConstants.CT_TEXT_TURTLE, null, slug, false);
+	}
+
+	private boolean put(String uri, String body) {
+		return root.putCreate(uri, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), LDPConstants.CT_TEXT_TURTLE, null, null);
+	}
+
+	private Model getGraph(String uri) {
+		store.readLock();
+		try {
+			return store.getGraph(uri);
+		} finally {
+			store.end();
+		}
+	}
+
+	private JenaLDPGarbageCollector collect() throws InterruptedException {
+		// Everything so far is older than the cutoff.
+		Thread.sleep(5);
+		final JenaLDPGarbageCollector gc = new JenaLDPGarbageCollector(Collections.singletonList(store));
+		gc.run();
+		assertEquals(BackgroundJob.State.COMPLETED, gc.getState());
+		return gc;
+	}
+
+	@Test
+	public void testOrphans() throws IOException, InterruptedException {
+		final String top = post(root, "top", "<> a <" + LDP.BasicContainer.getURI() + "> .");
+		final JenaLDPContainer container = (JenaLDPContainer) resources.get(top);
+		final String member = post(container, "member", "<> <http://purl.org/dc/terms/title> \"Member\" .");
+		final String kept = post(root, "kept", "<> <http://purl.org/dc/terms/title> \"Kept\" .");
+		root.postNonRDFSource(new ByteArrayInputStream("binary".getBytes(StandardCharsets.UTF_8)), "text/plain", null, "binary");
+		assertEquals(1, dir.list().length);
+
+		// Cancel deleting the subtree, so its member is orphaned, and leave a file no LDP-NR refers to.
+		final JenaLDPSubtreeDelete delete = container.deleteSubtree();
+		delete.cancel();
+		delete.run();
+		assertNotNull(getGraph(member));
+		final File stray = new File(dir, "ldpnr-0123456789abcdef0123456789abcdef");
+		FileUtils.writeStringToFile(stray, "stray", StandardCharsets.UTF_8);
+		stray.setLastModified(System.currentTimeMillis() - 60000);
+
+		final JenaLDPGarbageCollector gc = collect();
+		assertNull(getGraph(member));
+		final Model config = getGraph(JenaLDPResourceManager.mintConfigURI(member));
+		assertNotNull(config);
+		assertNotNull(getGraph(kept));
+		assertFalse(stray.exists());
+		assertEquals(1, dir.list().length);
+		assertEquals(1, gc.toJSON().get("orphanResources").getAsNumber().value().intValue());
+		assertEquals(5, gc.toJSON().get("bytesReclaimed").getAsNumber().value().intValue());
+
+		// Nothing left to collect.
+		assertEquals(0, collect().getProcessed());
+	}
+
+	@Test
+	public void testPutCreated() throws InterruptedException {
+		// Resources created with PUT aren't in any container.
+		final String top = ROOT + "putbug";
+		final String nested = ROOT + "nowhere/putbug";
+		assertTrue(put(top, "<> <http://purl.org/dc/terms/title> \"Top\" ."));
+		assertTrue(put(nested, "<> <http://purl.org/dc/terms/title> \"Nested\" ."));
+
+		// Nor is one created below a container deleted before it.
+		final String container = post(root, "gone", "<> a <" + LDP.BasicContainer.getURI() + "> .");
+		resources.get(container).delete();
+		Thread.sleep(5);
+		final String after = container + "/putbug";
+		assertTrue(put(after, "<> <http://purl.org/dc/terms/title> \"After\" ."));
+
+		assertEquals(0, collect().getProcessed());
+		assertNotNull(getGraph(top));
+		assertNotNull(getGraph(nested));
+		assertNotNull(getGraph(after));
+	}
+
+	@Test
+	public void testFailedCommitDeletesFile() {
+		final boolean[] broken = { false };
+		final TDBGraphStore failing = new TDBGraphStore(TDBFactory.createDataset()) {
+			@Override
+			public void commit() {
+				if (broken[0]) {
+					throw new IllegalStateException("Commit failed");
+				}
+				super.commit();
+			}
+		};
+		final JenaLDPContainer container = JenaLDPContainer.create(ROOT, failing);
+		broken[0] = true;
+		try {
+			container.postNonRDFSource(new ByteArrayInputStream("binary".getBytes(StandardCharsets.UTF_8)), "text/plain", null, "binary");
+			fail("Expected the commit to fail");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+
+		// No graph refers to the file, so it's gone.
+		assertEquals(0, dir.list().length);
+	}
+}
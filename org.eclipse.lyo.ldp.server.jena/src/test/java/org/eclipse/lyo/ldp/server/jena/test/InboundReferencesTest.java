@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+
+public class InboundReferencesTest {
+	private static final String BASE = "http://example.com/resources/bugs/bug";
+	private static final String TARGET = BASE + "0";
+
+	private TDBGraphStore store = new TDBGraphStore();
+
+	@Before
+	public void load() {
+		store.writeLock();
+		try {
+			for (int i = 1; i <= 5; i++) {
+				Model model = ModelFactory.createDefaultModel();
+				Property related = model.createProperty("http://example.org/vocab/bugtracker#relatedBug");
+				model.getResource(BASE + i).addProperty(related, model.getResource(TARGET));
+				store.putGraph(BASE + i, model);
+			}
+			// The same triple in a second graph, and a companion graph.
+			store.putGraph(BASE + "9", store.getGraph(BASE + "1"));
+			store.putGraph(JenaLDPResourceManager.mintConfigURI(BASE + "6"), store.getGraph(BASE + "2"));
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	private List<Triple> inbound(long offset, int limit) {
+		store.readLock();
+		try {
+			return store.getInboundReferences(TARGET, offset, limit);
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testPaging() {
+		assertEquals(5, inbound(0, 100).size());
+		List<Triple> page = inbound(3, 100);
+		assertEquals(2, page.size());
+		assertEquals(inbound(0, 100).subList(3, 5), page);
+	}
+
+	@Test
+	public void testDeleteGraph() {
+		store.writeLock();
+		try {
+			store.deleteGraph(BASE + "3");
+			store.commit();
+		} finally {
+			store.end();
+		}
+		assertEquals(4, inbound(0, 100).size());
+	}
+
+	private static Model read(Response response, String base) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		((StreamingOutput) response.getEntity()).write(out);
+		final Model model = ModelFactory.createDefaultModel();
+		model.read(new ByteArrayInputStream(out.toByteArray()), base, "TURTLE");
+		return model;
+	}
+
+	@Test
+	public void testService() throws IOException {
+		// Resources that refer to a bug, through the containers a client would use.
+		final TDBGraphStore store = new TDBGraphStore();
+		final JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+		final String bugs = root.post(new ByteArrayInputStream(("<> a <" + LDP.BasicContainer.getURI() + "> .").getBytes(StandardCharsets.UTF_8)),
+				LDPConstants.CT_TEXT_TURTLE, null, "bugs", false);
+		final JenaLDPResourceManager resources = new JenaLDPResourceManager(store);
+		final JenaLDPContainer container = (JenaLDPContainer) resources.get(bugs);
+		final String target = container.post(new ByteArrayInputStream("<> <http://purl.org/dc/terms/title> \"Target\" .".getBytes(StandardCharsets.UTF_8)),
+				LDPConstants.CT_TEXT_TURTLE, null, "target", false);
+		for (int i = 1; i <= 3; i++) {
+			container.post(new ByteArrayInputStream(("<> <http://example.org/vocab/bugtracker#relatedBug> <" + target + "> .").getBytes(StandardCharsets.UTF_8)),
+					LDPConstants.CT_TEXT_TURTLE, null, "bug" + i, false);
+		}
+		final JenaLDPRDFSource resource = (JenaLDPRDFSource) resources.get(target);
+		final Property related = ModelFactory.createDefaultModel().createProperty("http://example.org/vocab/bugtracker#relatedBug");
+
+		System.setProperty(JenaLDPRDFSource.LDP_INBOUND_PAGE_SIZE, "2");
+		try {
+			// Prefer: return=representation; include="...#PreferInboundReferences"
+			final MultivaluedMap<String, String> preferences = LDPService.parsePreferences(Collections.singletonList(
+					LDPConstants.PREFER_RETURN_REPRESENTATION + "; " + LDPConstants.PREFER_INCLUDE + "=\"" + LDPConstants.PREFER_INBOUND_REFERENCES + "\""));
+			Response response = resource.get(LDPConstants.CT_TEXT_TURTLE, preferences);
+			Model model = read(response, target);
+			final Resource targetResource = model.getResource(target);
+			// The first page: the containment and membership triples of the container, which sort first.
+			assertEquals(2, model.listStatements(null, null, targetResource).toList().size());
+			assertTrue(model.contains(targetResource, null, "Target"));
+			assertEquals(LDPConstants.PREFER_RETURN_REPRESENTATION, response.getHeaderString(LDPConstants.HDR_PREFERENCE_APPLIED));
+			assertTrue(response.getHeaderString(LDPConstants.HDR_LINK).contains("<" + target + "?" + LDPService.PARAM_INBOUND + "&page=2>; rel=\"next\""));
+
+			// ?inbound&page=2 and page=3 have the rest.
+			final MultivaluedMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+			parameters.putSingle(LDPService.PARAM_INBOUND, "");
+			parameters.putSingle("page", "2");
+			response = resource.getInboundReferences(LDPConstants.CT_TEXT_TURTLE, parameters);
+			final Model rest = read(response, target);
+			assertEquals(2, rest.size());
+			assertTrue(response.getHeaderString(LDPConstants.HDR_LINK).contains("page=3"));
+			parameters.putSingle("page", "3");
+			response = resource.getInboundReferences(LDPConstants.CT_TEXT_TURTLE, parameters);
+			rest.add(read(response, target));
+			assertEquals(3, rest.size());
+			assertEquals(3, rest.listStatements(null, related, rest.getResource(target)).toList().size());
+			assertFalse(response.getHeaderString(LDPConstants.HDR_LINK).contains("rel=\"next\""));
+
+			// A container is only referred to by its parent, not by the journal entries of its members.
+			parameters.remove("page");
+			model = read(((JenaLDPRDFSource) resources.get(bugs)).getInboundReferences(LDPConstants.CT_TEXT_TURTLE, parameters), bugs);
+			final Resource rootResource = model.getResource(LDPService.ROOT_CONTAINER_URL);
+			assertEquals(model.size(), model.listStatements(rootResource, null, (RDFNode) null).toList().size());
+			assertTrue(model.contains(rootResource, LDP.contains, model.getResource(bugs)));
+		} finally {
+			System.clearProperty(JenaLDPRDFSource.LDP_INBOUND_PAGE_SIZE);
+		}
+	}
+}
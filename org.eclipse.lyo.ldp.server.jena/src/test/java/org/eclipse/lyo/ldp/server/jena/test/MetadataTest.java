@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationFollower;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationLog;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class MetadataTest {
+	private static final String BUG = "http://example.com/resources/bugs/bug1";
+	private static final String CONFIG = JenaLDPResourceManager.mintConfigURI(BUG);
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("metadata").toFile();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	private static Model titled(String uri, String title) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(uri).addProperty(DCTerms.title, title);
+		return model;
+	}
+
+	private static boolean hasUnionTitle(TDBGraphStore store, String title) {
+		store.readLock();
+		try {
+			Model union = store.getGraph("urn:x-arq:UnionGraph");
+			return union.contains(null, DCTerms.title, title);
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testMigrate() {
+		// Config graphs in the data dataset, as before they had their own.
+		Dataset dataset = TDBFactory.createDataset(dir.getPath());
+		dataset.begin(ReadWrite.WRITE);
+		dataset.addNamedModel(BUG, titled(BUG, "Bug 1"));
+		dataset.addNamedModel(CONFIG, titled(CONFIG, "Bug 1 config"));
+		dataset.commit();
+		dataset.end();
+		TDBFactory.release(dataset);
+
+		TDBGraphStore store = new TDBGraphStore(dir.getPath());
+		assertFalse(hasUnionTitle(store, "Bug 1 config"));
+		assertTrue(hasUnionTitle(store, "Bug 1"));
+		store.readLock();
+		try {
+			assertNotNull(store.getGraph(CONFIG));
+			assertTrue(store.previouslyUsed(BUG));
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testSnapshot() {
+		TDBGraphStore leader = new TDBGraphStore(TDBFactory.createDataset());
+		leader.writeLock();
+		try {
+			leader.putGraph(BUG, titled(BUG, "Bug 1"));
+			leader.createCompanionGraph(BUG, CONFIG);
+			leader.deleteGraph(BUG);
+			leader.commit();
+		} finally {
+			leader.end();
+		}
+		assertFalse(hasUnionTitle(leader, "Bug 1"));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		leader.readLock();
+		try {
+			ReplicationLog.writeSnapshot(leader, out);
+		} finally {
+			leader.end();
+		}
+		TDBGraphStore follower = new TDBGraphStore(TDBFactory.createDataset());
+		new ReplicationFollower(follower, "http://localhost/").loadSnapshot(new ByteArrayInputStream(out.toByteArray()));
+
+		// The config graph came along, so the deleted URI isn't reused.
+		follower.readLock();
+		try {
+			assertTrue(follower.previouslyUsed(BUG));
+			assertEquals(0, follower.getGraph("urn:x-arq:UnionGraph").size());
+		} finally {
+			follower.end();
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.Metrics;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPRDFSource;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.Test;
+
+import org.apache.jena.tdb.TDBFactory;
+
+public class MetricsTest {
+	private static String write(Metrics metrics) throws IOException {
+		final StringWriter out = new StringWriter();
+		metrics.write(out);
+		return out.toString();
+	}
+
+	/**
+	 * @return the value of a sample in the exposition format
+	 */
+	private static double sample(String text, String sample) {
+		final Matcher m = Pattern.compile("^" + Pattern.quote(sample) + " (\\S+)$", Pattern.MULTILINE).matcher(text);
+		assertTrue(sample, m.find());
+		return Double.parseDouble(m.group(1));
+	}
+
+	@Test
+	public void testFormat() throws IOException {
+		final Metrics metrics = new Metrics();
+		metrics.counter("test_total", "A counter.", "kind", "a\"b").add(3);
+		assertSame(metrics.counter("test_total", "A counter.", "kind", "a\"b"), metrics.counter("test_total", "A counter.", "kind", "a\"b"));
+		metrics.register("test_gauge", "A gauge.", Metrics.Type.GAUGE, new Metrics.Value() {
+			@Override
+			public double get() { return 0.5; }
+		});
+		final Metrics.Timer timer = metrics.timer("test_seconds", "A timer.");
+		timer.record(2000000); // 2ms
+		timer.record(20000000000L); // Over the last bucket
+
+		final String text = write(metrics);
+		assertTrue(text.contains("# HELP test_total A counter.\n# TYPE test_total counter\n"));
+		assertEquals(3, sample(text, "test_total{kind=\"a\\\"b\"}"), 0);
+		assertTrue(text.contains("# TYPE test_gauge gauge\n"));
+		assertEquals(0.5, sample(text, "test_gauge"), 0);
+		assertTrue(text.contains("# TYPE test_seconds histogram\n"));
+		assertEquals(0, sample(text, "test_seconds_bucket{le=\"0.001\"}"), 0);
+		assertEquals(1, sample(text, "test_seconds_bucket{le=\"0.0025\"}"), 0);
+		assertEquals(1, sample(text, "test_seconds_bucket{le=\"10\"}"), 0);
+		assertEquals(2, sample(text, "test_seconds_bucket{le=\"+Inf\"}"), 0);
+		assertEquals(2, sample(text, "test_seconds_count"), 0);
+		assertEquals(20.002, sample(text, "test_seconds_sum"), 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		final Metrics metrics = new Metrics();
+		metrics.counter("test", "A counter.");
+		metrics.timer("test", "A timer.");
+	}
+
+	@Test
+	public void testStore() throws IOException {
+		final TDBGraphStore store = new TDBGraphStore(TDBFactory.createDataset());
+		store.registerMetrics("test");
+		final JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+
+		final String before = write(Metrics.getInstance());
+		final String body = "<> <http://purl.org/dc/terms/title> \"Metrics\" .";
+		root.post(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), LDPConstants.CT_TEXT_TURTLE, null, "metrics", false);
+		store.parseQuery("SELECT * { ?s ?p ?o }");
+		store.parseQuery("SELECT * { ?s ?p ?o }");
+		final String after = write(Metrics.getInstance());
+
+		assertEquals(body.length(), sample(after, JenaLDPRDFSource.PARSED_BYTES + "{lang=\"Turtle\"}")
+				- sample(before, JenaLDPRDFSource.PARSED_BYTES + "{lang=\"Turtle\"}"), 0);
+		assertEquals(1, sample(after, "ldp_tdb_commit_seconds_count") - sample(before, "ldp_tdb_commit_seconds_count"), 0);
+		assertEquals(1, sample(after, "ldp_tdb_transaction_wait_seconds_count{mode=\"write\"}")
+				- sample(before, "ldp_tdb_transaction_wait_seconds_count{mode=\"write\"}"), 0);
+		assertEquals(1, sample(after, "ldp_tdb_transaction_hold_seconds_count{mode=\"write\"}")
+				- sample(before, "ldp_tdb_transaction_hold_seconds_count{mode=\"write\"}"), 0);
+		assertEquals(1, sample(after, "ldp_query_parse_cache_misses_total{store=\"test\"}"), 0);
+		assertEquals(1, sample(after, "ldp_query_parse_cache_hits_total{store=\"test\"}"), 0);
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.eclipse.lyo.ldp.server.jena.query.OSLCQuery;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class OSLCQueryTest {
+	private static final String BASE = "http://example.com/resources/";
+	private static final String CONTAINER = BASE + "bugs";
+	private static final String BT = "http://example.org/vocab/bugtracker#";
+	private static final String FOAF_NAME = "http://xmlns.com/foaf/0.1/name";
+
+	private TDBGraphStore store = new TDBGraphStore();
+
+	@Before
+	public void load() {
+		Model container = ModelFactory.createDefaultModel();
+		store.writeLock();
+		try {
+			for (int i = 1; i <= 5; i++) {
+				String uri = CONTAINER + "/bug" + i;
+				container.getResource(CONTAINER).addProperty(LDP.contains, container.getResource(uri));
+				Model model = ModelFactory.createDefaultModel();
+				Resource bug = model.getResource(uri);
+				bug.addProperty(DCTerms.title, "Bug " + i);
+				bug.addLiteral(model.createProperty(BT, "priority"), (long) (i % 3));
+				bug.addProperty(DCTerms.creator, model.getResource(BASE + "people/" + (i % 2 == 0 ? "ann" : "bob")));
+				store.putGraph(uri, model);
+			}
+			for (String name : new String[] { "ann", "bob" }) {
+				Model person = ModelFactory.createDefaultModel();
+				person.getResource(BASE + "people/" + name).addProperty(person.createProperty(FOAF_NAME), name);
+				store.putGraph(BASE + "people/" + name, person);
+			}
+			store.putGraph(CONTAINER, container);
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	private OSLCQuery parse(String... nameAndValues) {
+		MultivaluedMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+		parameters.add(OSLCQuery.PARAM_PREFIX, "bt=<" + BT + ">");
+		for (int i = 0; i < nameAndValues.length; i += 2) {
+			parameters.add(nameAndValues[i], nameAndValues[i + 1]);
+		}
+
+		return OSLCQuery.parse(parameters);
+	}
+
+	private List<String> members(OSLCQuery query) {
+		return store.selectURIs(query.getMemberQuery(CONTAINER), "m");
+	}
+
+	@Test
+	public void testWhere() {
+		assertEquals(Arrays.asList(CONTAINER + "/bug1", CONTAINER + "/bug4"),
+				members(parse(OSLCQuery.PARAM_WHERE, "bt:priority=1")));
+		assertEquals(Arrays.asList(CONTAINER + "/bug3", CONTAINER + "/bug4"),
+				members(parse(OSLCQuery.PARAM_WHERE, "bt:priority in [0,1] and dcterms:title>=\"Bug 3\"")));
+		assertEquals(Arrays.asList(CONTAINER + "/bug2", CONTAINER + "/bug4"),
+				members(parse(OSLCQuery.PARAM_WHERE, "dcterms:creator{foaf:name=\"ann\"}")));
+		assertEquals(Arrays.asList(CONTAINER + "/bug2", CONTAINER + "/bug4"),
+				members(parse(OSLCQuery.PARAM_WHERE, "dcterms:creator=<" + BASE + "people/ann>")));
+		assertEquals(Arrays.asList(CONTAINER + "/bug1", CONTAINER + "/bug5"),
+				members(parse(OSLCQuery.PARAM_WHERE, "dcterms:title in [\"Bug 1\",\"Bug 5\"]")));
+	}
+
+	@Test
+	public void testOrderByAndPaging() {
+		List<String> page = members(parse(OSLCQuery.PARAM_ORDER_BY, "-bt:priority,+dcterms:title",
+				OSLCQuery.PARAM_PAGE_SIZE, "2", OSLCQuery.PARAM_PAGE, "2"));
+		// priority 2: bug2, bug5; 1: bug1, bug4; 0: bug3. One extra for the next page.
+		assertEquals(Arrays.asList(CONTAINER + "/bug1", CONTAINER + "/bug4", CONTAINER + "/bug3"), page);
+	}
+
+	@Test
+	public void testSelect() {
+		OSLCQuery query = parse(OSLCQuery.PARAM_WHERE, "bt:priority=0",
+				OSLCQuery.PARAM_SELECT, "dcterms:title,dcterms:creator{foaf:name}");
+		Model model = store.construct(query.getConstructQuery(CONTAINER, null));
+		Resource bug = model.getResource(CONTAINER + "/bug3");
+		assertTrue(model.contains(model.getResource(CONTAINER), LDP.contains, bug));
+		assertTrue(model.contains(bug, DCTerms.title, "Bug 3"));
+		assertFalse(model.contains(bug, model.createProperty(BT, "priority")));
+		assertTrue(model.contains(model.getResource(BASE + "people/bob"), model.createProperty(FOAF_NAME), "bob"));
+		assertFalse(model.contains(null, DCTerms.title, "Bug 1"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUndefinedPrefix() {
+		parse(OSLCQuery.PARAM_WHERE, "foo:bar=1");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPrefix() {
+		MultivaluedMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+		parameters.add(OSLCQuery.PARAM_PREFIX, "1x=<http://a/>");
+		OSLCQuery.parse(parameters);
+	}
+}
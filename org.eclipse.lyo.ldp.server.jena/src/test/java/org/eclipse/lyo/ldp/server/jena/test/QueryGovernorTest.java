@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.store.QueryGovernor;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.Test;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryFactory;
+
+public class QueryGovernorTest {
+
+	@Test
+	public void testRejectWhenSaturated() {
+		QueryGovernor governor = new QueryGovernor(1000, 1, 0, 10);
+		governor.acquire();
+		try {
+			governor.acquire();
+			fail("Expected the second query to be rejected");
+		} catch (QueryGovernor.SaturatedException e) {
+			assertEquals(1, governor.getRejected());
+		} finally {
+			governor.release();
+		}
+
+		// A slot is free again.
+		governor.acquire();
+		assertEquals(1, governor.getRunning());
+		governor.release();
+	}
+
+	@Test
+	public void testQueuedQueryTimesOut() {
+		QueryGovernor governor = new QueryGovernor(1000, 1, 1, 10);
+		governor.acquire();
+		try {
+			governor.acquire();
+			fail("Expected the queued query to give up waiting");
+		} catch (QueryGovernor.SaturatedException e) {
+			assertEquals(0, governor.getQueued());
+		} finally {
+			governor.release();
+		}
+	}
+
+	@Test
+	public void testAdmission() throws InterruptedException {
+		QueryGovernor governor = new QueryGovernor(1000, 1, 0, 10);
+		QueryGovernor.Admission admission = governor.admit();
+		try {
+			governor.admit();
+			fail("Expected the second query to be rejected");
+		} catch (QueryGovernor.SaturatedException e) {
+			assertEquals(1, governor.getRejected());
+		}
+
+		// The query takes the admission's slot.
+		governor.acquire(admission);
+		assertEquals(1, governor.getRunning());
+		governor.release();
+		assertEquals(0, governor.getRunning());
+
+		governor.discard(governor.admit());
+		assertEquals(0, governor.getRunning());
+
+		// An unused admission gives its slot back after the queue timeout.
+		governor.admit();
+		Thread.sleep(20);
+		governor.acquire();
+		assertEquals(1, governor.getRunning());
+		governor.release();
+	}
+
+	@Test
+	public void testContainerQuerySaturated() {
+		System.setProperty(QueryGovernor.LDP_QUERY_MAX_CONCURRENT, "1");
+		System.setProperty(QueryGovernor.LDP_QUERY_MAX_QUEUED, "0");
+		try {
+			TDBGraphStore store = new TDBGraphStore();
+			JenaLDPContainer root = JenaLDPContainer.create(LDPService.ROOT_CONTAINER_URL, store);
+			QueryGovernor.Admission admission = store.admitQuery();
+			try {
+				root.query("ASK {}", new MultivaluedHashMap<String, String>(), Collections.<MediaType>emptyList());
+				fail("Expected the query to be rejected before the response is built");
+			} catch (WebApplicationException e) {
+				assertEquals(Status.SERVICE_UNAVAILABLE.getStatusCode(), e.getResponse().getStatus());
+			}
+
+			store.getQueryGovernor().discard(admission);
+			assertEquals(Status.OK.getStatusCode(), root.query("ASK {}", new MultivaluedHashMap<String, String>(), Collections.<MediaType>emptyList()).getStatus());
+		} finally {
+			System.clearProperty(QueryGovernor.LDP_QUERY_MAX_CONCURRENT);
+			System.clearProperty(QueryGovernor.LDP_QUERY_MAX_QUEUED);
+		}
+	}
+
+	@Test
+	public void testOutcome() {
+		assertEquals(QueryGovernor.Outcome.TIMED_OUT, QueryGovernor.getOutcome(new QueryCancelledException()));
+		assertEquals(QueryGovernor.Outcome.CANCELLED, QueryGovernor.getOutcome(new RuntimeIOException(new IOException("Broken pipe"))));
+		assertEquals(QueryGovernor.Outcome.FAILED, QueryGovernor.getOutcome(new IllegalStateException()));
+	}
+
+	@Test
+	public void testRecord() {
+		QueryGovernor governor = new QueryGovernor(1000, 1, 0, 10);
+		governor.record(QueryFactory.create("ASK {}"), QueryGovernor.Outcome.COMPLETED, 10);
+		governor.record(QueryFactory.create("ASK {}"), QueryGovernor.Outcome.TIMED_OUT, 30);
+		assertEquals(1, governor.getCompleted());
+		assertEquals(1, governor.getTimedOut());
+		assertEquals(30, governor.getMaxTime());
+		assertEquals(20.0, governor.getMeanTime(), 0.001);
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.QueryResultCache;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.junit.Test;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class QueryResultCacheTest {
+
+	@Test
+	public void testEvictLeastRecentlyUsed() {
+		QueryResultCache cache = new QueryResultCache(10, 10);
+		cache.put("a", 0, new byte[4]);
+		cache.put("b", 0, new byte[4]);
+		assertNotNull(cache.get("a"));
+		cache.put("c", 0, new byte[4]);
+
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("a"));
+		assertNotNull(cache.get("c"));
+		assertEquals(8, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void testNewerVersionDropsOlder() {
+		QueryResultCache cache = new QueryResultCache(100, 100);
+		cache.put("a", 1, new byte[4]);
+		cache.put("b", 2, new byte[4]);
+		assertNull(cache.get("a"));
+
+		// Late results from an older version are not kept.
+		cache.put("c", 1, new byte[4]);
+		assertNull(cache.get("c"));
+		assertEquals(1, cache.getEntries());
+	}
+
+	@Test
+	public void testNondeterministic() {
+		QueryResultCache cache = new QueryResultCache(100, 100);
+		assertTrue(cache.isCacheable(QueryFactory.create("SELECT * WHERE { ?s ?p ?o }")));
+		assertFalse(cache.isCacheable(QueryFactory.create("SELECT (NOW() AS ?now) WHERE {}")));
+		assertFalse(new QueryResultCache(0, 100).isCacheable(QueryFactory.create("ASK {}")));
+	}
+
+	@Test
+	public void testCommitInvalidates() {
+		TDBGraphStore store = new TDBGraphStore();
+		Query query = QueryFactory.create("SELECT ?title WHERE { ?s <" + DCTerms.title.getURI() + "> ?title }");
+		put(store, "Bug 1");
+		assertTrue(query(store, query).contains("Bug 1"));
+		assertTrue(query(store, query).contains("Bug 1"));
+		assertEquals(1, store.getQueryResultCache().getHits());
+		assertEquals(1, store.getQueryGovernor().getCompleted());
+
+		put(store, "Bug 2");
+		assertTrue(query(store, query).contains("Bug 2"));
+		assertEquals(2, store.getQueryGovernor().getCompleted());
+	}
+
+	private void put(TDBGraphStore store, String title) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource("http://example.com/resources/bug").addProperty(DCTerms.title, title);
+		store.writeLock();
+		try {
+			store.putGraph("http://example.com/resources/bug", model);
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	private String query(TDBGraphStore store, Query query) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.query(out, query, LDPConstants.CT_TEXT_CSV);
+		return new String(out.toByteArray());
+	}
+}
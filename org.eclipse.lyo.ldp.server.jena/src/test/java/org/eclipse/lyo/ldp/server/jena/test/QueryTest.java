@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.ws.rs.core.MediaType;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.QueryCache;
+import org.eclipse.lyo.ldp.server.jena.store.QueryResultsFormat;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class QueryTest {
+	private static final String CONTAINER = "http://example.com/resources/bugs";
+	private static final String GRAPH = "http://example.com/resources/bugs/bug1";
+	private static final String OTHER_GRAPH = "http://example.com/resources/bug2";
+	private static final String SELECT = "SELECT ?title WHERE { ?s <" + DCTerms.title.getURI() + "> ?title }";
+	private static final String ASK = "ASK { ?s <" + DCTerms.title.getURI() + "> \"Bug 1\" }";
+	private static final String CONSTRUCT = "CONSTRUCT { ?s <" + DCTerms.title.getURI() + "> ?o } WHERE { ?s <" + DCTerms.title.getURI() + "> ?o FILTER (?o = \"Bug 1\") }";
+
+	private TDBGraphStore store = new TDBGraphStore();
+
+	@Before
+	public void load() {
+		Model container = ModelFactory.createDefaultModel();
+		container.getResource(CONTAINER).addProperty(LDP.contains, container.getResource(GRAPH));
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(GRAPH).addProperty(DCTerms.title, "Bug 1");
+		Model other = ModelFactory.createDefaultModel();
+		other.getResource(OTHER_GRAPH).addProperty(DCTerms.title, "Bug 2");
+		Model config = ModelFactory.createDefaultModel();
+		config.getResource(GRAPH).addProperty(DCTerms.title, "Bug 1 config");
+		store.writeLock();
+		try {
+			store.putGraph(CONTAINER, container);
+			store.putGraph(GRAPH, model);
+			store.putGraph(OTHER_GRAPH, other);
+			store.putGraph(JenaLDPResourceManager.mintConfigURI(GRAPH), config);
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testNegotiateDefaults() {
+		assertEquals(LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON,
+				QueryResultsFormat.negotiate(QueryFactory.create(SELECT), Collections.<MediaType>emptyList()));
+		assertEquals(LDPConstants.CT_TEXT_TURTLE,
+				QueryResultsFormat.negotiate(QueryFactory.create(CONSTRUCT), Arrays.asList(MediaType.WILDCARD_TYPE)));
+	}
+
+	@Test
+	public void testNegotiateAccept() {
+		Query select = QueryFactory.create(SELECT);
+		assertEquals(LDPConstants.CT_TEXT_CSV,
+				QueryResultsFormat.negotiate(select, Arrays.asList(MediaType.valueOf(LDPConstants.CT_TEXT_CSV))));
+		assertNull(QueryResultsFormat.negotiate(select, Arrays.asList(MediaType.valueOf(LDPConstants.CT_TEXT_TURTLE))));
+
+		// No Thrift encoding of ASK results
+		assertNull(QueryResultsFormat.negotiate(QueryFactory.create(ASK),
+				Arrays.asList(MediaType.valueOf(LDPConstants.CT_APPLICATION_SPARQLRESULTSTHRIFT))));
+	}
+
+	@Test
+	public void testSelectCSV() {
+		String csv = query(SELECT, LDPConstants.CT_TEXT_CSV);
+		assertTrue(csv.startsWith("title"));
+		assertTrue(csv.contains("Bug 1"));
+		assertTrue(csv.contains("Bug 2"));
+	}
+
+	@Test
+	public void testAsk() {
+		assertTrue(query(ASK, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON).contains("true"));
+	}
+
+	@Test
+	public void testConstructNTriples() {
+		String nt = query(CONSTRUCT, LDPConstants.CT_APPLICATION_NTRIPLES);
+		assertEquals("<" + GRAPH + "> <" + DCTerms.title.getURI() + "> \"Bug 1\" .", nt.trim());
+	}
+
+	@Test
+	public void testConstructDistinct() {
+		// The template triple is produced once for each title.
+		String construct = "CONSTRUCT { <" + CONTAINER + "> <" + DCTerms.title.getURI() + "> \"Bugs\" } WHERE { ?s <" + DCTerms.title.getURI() + "> ?o }";
+		assertEquals(2, query(construct, LDPConstants.CT_APPLICATION_NTRIPLES).trim().split("\n").length);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.queryDistinct(out, QueryFactory.create(construct), LDPConstants.CT_APPLICATION_NTRIPLES, null);
+		assertEquals(1, new String(out.toByteArray()).trim().split("\n").length);
+	}
+
+	@Test
+	public void testContainerQuery() {
+		String csv = query(SELECT, LDPConstants.CT_TEXT_CSV, false);
+		assertTrue(csv.contains("Bug 1"));
+		assertFalse(csv.contains("Bug 2"));
+		assertFalse(csv.contains("config"));
+
+		assertTrue(query(SELECT, LDPConstants.CT_TEXT_CSV, true).contains("Bug 1 config"));
+	}
+
+	@Test
+	public void testContainerQueryBoundObject() {
+		// Answered from the quad indexes, which include graphs outside the subtree.
+		assertTrue(query(ASK, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON, false).contains("true"));
+		String ask = "ASK { ?s <" + DCTerms.title.getURI() + "> \"Bug 2\" }";
+		assertTrue(query(ask, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON, false).contains("false"));
+	}
+
+	@Test
+	public void testContainerQueryCommonTerm() {
+		// More matches outside the two graphs of the subtree than it has
+		// graphs, so the pattern is answered graph by graph.
+		store.writeLock();
+		try {
+			for (int i = 0; i < 20; i++) {
+				Model model = ModelFactory.createDefaultModel();
+				model.getResource(OTHER_GRAPH + "/" + i).addProperty(DCTerms.title, "Bug 1").addProperty(DCTerms.description, "Bug 2");
+				store.putGraph(OTHER_GRAPH + "/" + i, model);
+			}
+			store.commit();
+		} finally {
+			store.end();
+		}
+
+		assertTrue(query(ASK, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON, false).contains("true"));
+		String select = "SELECT ?s WHERE { ?s <" + DCTerms.title.getURI() + "> \"Bug 1\" }";
+		String csv = query(select, LDPConstants.CT_TEXT_CSV, false);
+		assertEquals(2, csv.trim().split("\\r?\\n").length);
+		assertTrue(csv.contains(GRAPH));
+		String ask = "ASK { ?s <" + DCTerms.description.getURI() + "> \"Bug 2\" }";
+		assertTrue(query(ask, LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON, false).contains("false"));
+	}
+
+	@Test
+	public void testContainerQueryFrom() {
+		// FROM can only narrow the subtree.
+		String select = "SELECT ?title FROM <" + OTHER_GRAPH + "> WHERE { ?s <" + DCTerms.title.getURI() + "> ?title }";
+		assertFalse(query(select, LDPConstants.CT_TEXT_CSV, false).contains("Bug 2"));
+	}
+
+	@Test
+	public void testParseCache() {
+		Query first = store.parseQuery(SELECT);
+		first.addGraphURI(OTHER_GRAPH);
+		Query second = store.parseQuery(SELECT);
+		assertFalse(second.hasDatasetDescription());
+		assertEquals(1, store.getQueryCache().getHits());
+	}
+
+	@Test
+	public void testBind() {
+		String select = "SELECT ?s ?title WHERE { ?s <" + DCTerms.title.getURI() + "> ?title }";
+		Query query = QueryCache.bind(store.parseQuery(select),
+				Collections.singletonMap("s", NodeFactory.createURI(OTHER_GRAPH)));
+		String csv = query(query.toString(), LDPConstants.CT_TEXT_CSV);
+		assertTrue(csv.contains(OTHER_GRAPH + ",Bug 2"));
+		assertFalse(csv.contains("Bug 1"));
+	}
+
+	private String query(String queryString, String contentType, boolean includeCompanions) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.query(out, QueryFactory.create(queryString), contentType, CONTAINER, includeCompanions);
+		return new String(out.toByteArray());
+	}
+
+	private String query(String queryString, String contentType) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.query(out, QueryFactory.create(queryString), contentType);
+		return new String(out.toByteArray());
+	}
+}
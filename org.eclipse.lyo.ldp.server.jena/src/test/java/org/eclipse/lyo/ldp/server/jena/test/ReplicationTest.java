@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.lyo.ldp.server.jena.store.ChangeBus;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationFollower;
+import org.eclipse.lyo.ldp.server.jena.store.ReplicationLog;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class ReplicationTest {
+	private static final String BUG = "http://example.com/resources/bugs/bug";
+
+	private File dir;
+	private TDBGraphStore leader;
+	private TDBGraphStore follower;
+	private ReplicationLog log;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("replication").toFile();
+		leader = new TDBGraphStore(TDBFactory.createDataset());
+		log = leader.startReplicationLog(dir);
+		follower = new TDBGraphStore(TDBFactory.createDataset());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		log.close();
+		new File(dir, ReplicationLog.FILE_NAME).delete();
+		dir.delete();
+	}
+
+	private void put(String uri, String title) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(uri).addProperty(DCTerms.title, title);
+		leader.writeLock();
+		try {
+			leader.putGraph(uri, model);
+			leader.recordChange(ChangeBus.Type.UPDATE, uri, null);
+			leader.commit();
+		} finally {
+			leader.end();
+		}
+	}
+
+	private List<ReplicationLog.Record> read(long after) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		log.read(after, Long.MAX_VALUE, out);
+		return ReplicationLog.parse(new BufferedReader(new StringReader(out.toString("UTF-8"))));
+	}
+
+	private void assertReplicated() {
+		leader.readLock();
+		follower.readLock();
+		try {
+			assertEquals(leader.getReplicationPosition(), follower.getReplicationPosition());
+			for (int i = 1; i <= 3; i++) {
+				Model expected = leader.getGraph(BUG + i);
+				Model actual = follower.getGraph(BUG + i);
+				if (expected == null) {
+					assertNull(actual);
+				} else {
+					assertTrue(expected.isIsomorphicWith(actual));
+				}
+			}
+		} finally {
+			follower.end();
+			leader.end();
+		}
+	}
+
+	@Test
+	public void testApply() throws IOException, InterruptedException {
+		put(BUG + 1, "Bug 1");
+		put(BUG + 2, "Bug 2");
+		assertEquals(2, log.getLast());
+
+		ReplicationFollower replica = new ReplicationFollower(follower, "http://localhost/");
+		replica.apply(read(0));
+		assertEquals(2, replica.getPosition());
+		assertReplicated();
+
+		// Updates, deletes, and a transaction with nothing to log.
+		put(BUG + 1, "Bug 1, again");
+		leader.writeLock();
+		try {
+			leader.deleteGraph(BUG + 2);
+			leader.commit();
+		} finally {
+			leader.end();
+		}
+		leader.writeLock();
+		leader.commit();
+		leader.end();
+		assertEquals(4, log.getLast());
+
+		replica.apply(read(2));
+		assertReplicated();
+		assertTrue(replica.awaitPosition(4, 0));
+
+		// The journal came along, compacted to the latest change of each resource.
+		ChangeBus.Page page = follower.getChanges(0, null, 100, 0);
+		assertEquals(2, page.changes.size());
+		assertEquals(BUG + 1, page.changes.get(1).uri);
+		assertEquals(3, page.last);
+	}
+
+	@Test
+	public void testEndAfterCommit() throws Exception {
+		// Writer A commits, and writer B begins before A ends.
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(BUG + 1).addProperty(DCTerms.title, "Bug 1");
+		leader.writeLock();
+		leader.putGraph(BUG + 1, model);
+		leader.commit();
+
+		final CountDownLatch begun = new CountDownLatch(1);
+		final CountDownLatch ended = new CountDownLatch(1);
+		final Exception[] error = new Exception[1];
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Model model = ModelFactory.createDefaultModel();
+					model.getResource(BUG + 2).addProperty(DCTerms.title, "Bug 2");
+					leader.writeLock();
+					try {
+						begun.countDown();
+						ended.await();
+						leader.putGraph(BUG + 2, model);
+						leader.commit();
+					} finally {
+						leader.end();
+					}
+				} catch (Exception e) {
+					error[0] = e;
+				}
+			}
+		});
+		writer.start();
+		begun.await();
+		leader.end();
+		ended.countDown();
+		writer.join();
+		assertNull(error[0]);
+
+		// B's changes were logged and replicate.
+		assertEquals(2, log.getLast());
+		ReplicationFollower replica = new ReplicationFollower(follower, "http://localhost/");
+		replica.apply(read(0));
+		assertReplicated();
+		follower.readLock();
+		try {
+			assertTrue(follower.getGraph(BUG + 2) != null);
+		} finally {
+			follower.end();
+		}
+	}
+
+	@Test
+	public void testSnapshot() throws IOException {
+		put(BUG + 1, "Bug 1");
+		put(BUG + 3, "Bug 3");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		leader.readLock();
+		try {
+			ReplicationLog.writeSnapshot(leader, out);
+		} finally {
+			leader.end();
+		}
+		ReplicationFollower replica = new ReplicationFollower(follower, "http://localhost/");
+		replica.loadSnapshot(new ByteArrayInputStream(out.toByteArray()));
+		assertReplicated();
+
+		// Carries on from the snapshot's position.
+		put(BUG + 3, "Bug 3, again");
+		replica.apply(read(replica.getPosition()));
+		assertReplicated();
+	}
+
+	@Test
+	public void testRecover() throws IOException, InterruptedException {
+		put(BUG + 1, "Bug 1");
+		put(BUG + 2, "Bug 2");
+		log.close();
+
+		// The log is trimmed back to the position the store committed.
+		log = new ReplicationLog(dir, 1);
+		assertEquals(1, log.getLast());
+		assertFalse(log.await(2, 0));
+		assertEquals(1, read(0).size());
+	}
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.store.ShardRouter;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.tdb.TDBFactory;
+
+public class ShardTest {
+	private static final String ROOT = LDPService.ROOT_CONTAINER_URL;
+
+	private TDBGraphStore root;
+	private ShardRouter shards;
+	private JenaLDPContainer container;
+
+	@Before
+	public void setUp() {
+		root = new TDBGraphStore(TDBFactory.createDataset());
+		shards = new ShardRouter(root, ROOT, Arrays.asList(
+				new TDBGraphStore(TDBFactory.createDataset()), new TDBGraphStore(TDBFactory.createDataset())));
+		container = JenaLDPContainer.create(ROOT, root);
+	}
+
+	private String post(JenaLDPContainer parent, String slug) throws UnsupportedEncodingException {
+		return post(parent, slug, "<> <http://purl.org/dc/terms/title> \"" + slug + "\" .");
+	}
+
+	private String post(JenaLDPContainer parent, String slug, String body) throws UnsupportedEncodingException {
+		return parent.post(new ByteArrayInputStream(body.getBytes("UTF-8")), LDPConstants.CT_TEXT_TURTLE, null, slug, false);
+	}
+
+	private boolean contains(TDBGraphStore store, String containerURI, String uri) {
+		store.readLock();
+		try {
+			final Model model = store.getGraph(containerURI);
+			return model.contains(model.getResource(containerURI), LDP.contains, model.getResource(uri));
+		} finally {
+			store.end();
+		}
+	}
+
+	private Model getGraph(TDBGraphStore store, String uri) {
+		store.readLock();
+		try {
+			return store.getGraph(uri);
+		} finally {
+			store.end();
+		}
+	}
+
+	@Test
+	public void testTopLevel() {
+		assertEquals(ROOT + "a", shards.getTopLevelURI(ROOT + "a/b?_config"));
+		assertEquals(ROOT + "a", shards.getTopLevelURI(ROOT + "a?_config"));
+		assertNull(shards.getTopLevelURI(ROOT));
+		assertNull(shards.getTopLevelURI("http://example.com/a"));
+		assertTrue(shards.isTopLevel(ROOT + "a"));
+		assertFalse(shards.isTopLevel(ROOT + "a/b"));
+	}
+
+	@Test
+	public void testPostAndDelete() throws UnsupportedEncodingException {
+		final List<String> uris = new ArrayList<String>();
+		for (int i = 0; i < 6; i++) {
+			uris.add(post(container, "c" + i));
+		}
+
+		final HashSet<TDBGraphStore> used = new HashSet<TDBGraphStore>();
+		for (String uri : uris) {
+			final TDBGraphStore store = shards.getStore(uri);
+			assertNotSame(root, store);
+			used.add(store);
+			// The resource is in its shard, and its containment triple in the root store.
+			assertNotNull(getGraph(store, uri));
+			assertNotNull(getGraph(store, JenaLDPResourceManager.mintConfigURI(uri)));
+			assertNull(getGraph(root, uri));
+			assertTrue(contains(root, ROOT, uri));
+		}
+		assertEquals(2, used.size());
+
+		// Queries on the root store see every shard.
+		final List<String> titled = root.selectURIs(root.parseQuery(
+				"SELECT ?s WHERE { GRAPH ?g { ?s <http://purl.org/dc/terms/title> ?t } }"), "s");
+		assertEquals(new HashSet<String>(uris), new HashSet<String>(titled));
+
+		final String uri = uris.get(0);
+		final TDBGraphStore store = shards.getStore(uri);
+		new JenaLDPResourceManager(root).get(uri).delete();
+		assertFalse(contains(root, ROOT, uri));
+		assertNull(getGraph(store, uri));
+
+		// Deleted URIs aren't reused.
+		assertFalse(uri.equals(post(container, "c0")));
+	}
+
+	@Test
+	public void testSubtree() throws UnsupportedEncodingException {
+		final String top = post(container, "top", "<> a <" + LDP.BasicContainer.getURI() + "> .");
+		final TDBGraphStore store = shards.getStore(top);
+		final JenaLDPContainer child = (JenaLDPContainer) new JenaLDPResourceManager(root).get(top);
+		assertNotNull(child);
+
+		// Resources below a top-level resource stay in its shard.
+		final String member = post(child, "member");
+		assertSame(store, shards.getStore(member));
+		assertNotNull(getGraph(store, member));
+		assertTrue(contains(store, top, member));
+	}
+
+	@Test
+	public void testWriteLocksShardOnly() throws Exception {
+		final String top = post(container, "top", "<> a <" + LDP.BasicContainer.getURI() + "> .");
+		final String put = top + "/put";
+		final byte[] body = "<> <http://purl.org/dc/terms/title> \"put\" .".getBytes("UTF-8");
+		final CountDownLatch locked = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			// Another writer holds the root store.
+			executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException {
+					root.writeLock();
+					try {
+						locked.countDown();
+						done.await();
+					} finally {
+						root.end();
+					}
+					return null;
+				}
+			});
+			assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+			// Creating with PUT and patching below a top-level resource with a shard don't wait for it.
+			final Future<Boolean> created = executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					final boolean result = container.putCreate(put, new ByteArrayInputStream(body), LDPConstants.CT_TEXT_TURTLE, null, null);
+					container.patch(top, new ByteArrayInputStream(body), LDPConstants.CT_TEXT_TURTLE, null);
+					return result;
+				}
+			});
+			assertTrue(created.get(10, TimeUnit.SECONDS));
+		} finally {
+			done.countDown();
+			executor.shutdown();
+		}
+
+		assertNotNull(getGraph(shards.getStore(put), put));
+		assertNull(getGraph(root, put));
+	}
+}
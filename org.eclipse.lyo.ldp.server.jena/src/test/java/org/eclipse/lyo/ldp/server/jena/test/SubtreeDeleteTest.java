@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPContainer;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPResourceManager;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPSubtreeDelete;
+import org.eclipse.lyo.ldp.server.jena.store.BackgroundJob;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.Lyo;
+import org.eclipse.lyo.ldp.server.service.LDPService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.tdb.TDBFactory;
+
+public class SubtreeDeleteTest {
+	private static final String ROOT = LDPService.ROOT_CONTAINER_URL;
+
+	private TDBGraphStore store;
+	private JenaLDPContainer root;
+	private JenaLDPResourceManager resources;
+
+	@Before
+	public void setUp() {
+		System.setProperty(JenaLDPSubtreeDelete.LDP_DELETE_BATCH_SIZE, "2");
+		System.setProperty(BackgroundJob.LDP_JOBS_PAUSE, "0");
+		store = new TDBGraphStore(TDBFactory.createDataset());
+		root = JenaLDPContainer.create(ROOT, store);
+		resources = new JenaLDPResourceManager(store);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(JenaLDPSubtreeDelete.LDP_DELETE_BATCH_SIZE);
+		System.clearProperty(BackgroundJob.LDP_JOBS_PAUSE);
+	}
+
+	private String post(JenaLDPContainer parent, String slug, String body) throws UnsupportedEncodingException {
+		return parent.post(new ByteArrayInputStream(body.getBytes("UTF-8")), LDPConstants.CT_TEXT_TURTLE, null, slug, false);
+	}
+
+	private String postContainer(JenaLDPContainer parent, String slug) throws UnsupportedEncodingException {
+		return post(parent, slug, "<> a <" + LDP.BasicContainer.getURI() + "> .");
+	}
+
+	private Model getGraph(String uri) {
+		store.readLock();
+		try {
+			return store.getGraph(uri);
+		} finally {
+			store.end();
+		}
+	}
+
+	/**
+	 * A container with three members and a nested container with two.
+	 *
+	 * @return the URIs below the container
+	 */
+	private List<String> createTree(String top) throws UnsupportedEncodingException {
+		final List<String> uris = new ArrayList<String>();
+		final JenaLDPContainer container = (JenaLDPContainer) resources.get(top);
+		for (int i = 0; i < 3; i++) {
+			uris.add(post(container, "m" + i, "<> <http://purl.org/dc/terms/title> \"m" + i + "\" ."));
+		}
+		final String nested = postContainer(container, "nested");
+		uris.add(nested);
+		final JenaLDPContainer nestedContainer = (JenaLDPContainer) resources.get(nested);
+		for (int i = 0; i < 2; i++) {
+			uris.add(post(nestedContainer, "n" + i, "<> <http://purl.org/dc/terms/title> \"n" + i + "\" ."));
+		}
+
+		return uris;
+	}
+
+	@Test
+	public void testDeleteSubtree() throws UnsupportedEncodingException {
+		final String top = postContainer(root, "top");
+		final List<String> uris = createTree(top);
+
+		final JenaLDPSubtreeDelete job = ((JenaLDPContainer) resources.get(top)).deleteSubtree();
+		assertNotNull(job);
+		// The container is gone before the job runs.
+		assertNull(getGraph(top));
+		assertNull(resources.get(top));
+		assertEquals(4, job.getRemaining());
+
+		job.run();
+		assertEquals(BackgroundJob.State.COMPLETED, job.getState());
+		assertEquals(uris.size(), job.getProcessed());
+		assertEquals(0, job.getRemaining());
+		for (String uri : uris) {
+			assertNull(getGraph(uri));
+			final Model config = getGraph(JenaLDPResourceManager.mintConfigURI(uri));
+			assertTrue(config.contains(config.getResource(uri), Lyo.deleted));
+		}
+	}
+
+	@Test
+	public void testCancel() throws UnsupportedEncodingException {
+		final String top = postContainer(root, "top");
+		final List<String> uris = createTree(top);
+
+		final JenaLDPSubtreeDelete job = ((JenaLDPContainer) resources.get(top)).deleteSubtree();
+		job.cancel();
+		job.run();
+		assertEquals(BackgroundJob.State.CANCELLED, job.getState());
+		assertEquals(0, job.getProcessed());
+		// Orphaned: no longer contained, but still there until garbage collected.
+		assertNotNull(getGraph(uris.get(0)));
+		assertNull(getGraph(top));
+	}
+
+	@Test
+	public void testEmptyContainer() throws UnsupportedEncodingException {
+		final String top = postContainer(root, "empty");
+		assertNull(((JenaLDPContainer) resources.get(top)).deleteSubtree());
+		assertNull(getGraph(top));
+		final Model rootModel = getGraph(ROOT);
+		assertFalse(rootModel.contains(rootModel.getResource(ROOT), LDP.contains, rootModel.getResource(top)));
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.TDBStatistics;
+import org.junit.Test;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.tdb.solver.stats.StatsResults;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class TDBStatisticsTest {
+	private static final String BASE = "http://example.com/resources/";
+
+	@Test
+	public void testGenerate() {
+		TDBGraphStore store = new TDBGraphStore();
+		store.writeLock();
+		try {
+			for (int i = 0; i < 50; i++) {
+				Model model = ModelFactory.createDefaultModel();
+				Resource r = model.getResource(BASE + "bug" + i);
+				r.addProperty(DCTerms.title, "Bug " + i);
+				if (i == 0) {
+					r.addProperty(DCTerms.subject, "rare");
+				}
+				store.putGraph(r.getURI(), model);
+			}
+			store.commit();
+		} finally {
+			store.end();
+		}
+
+		TDBStatistics statistics = store.getStatistics();
+		StatsResults results = statistics.generate();
+		assertEquals(51, results.getCount());
+		assertEquals(50, results.getPredicates().get(DCTerms.title.asNode()).intValue());
+		assertEquals(1, statistics.getGeneration());
+
+		// The rare predicate is now matched first.
+		Node s = Var.alloc("s");
+		BasicPattern pattern = new BasicPattern();
+		pattern.add(Triple.create(s, DCTerms.title.asNode(), Var.alloc("title")));
+		pattern.add(Triple.create(s, DCTerms.subject.asNode(), NodeFactory.createLiteral("rare")));
+		BasicPattern reordered = statistics.getReorderTransformation().reorder(pattern);
+		assertEquals(DCTerms.subject.asNode(), reordered.get(0).getPredicate());
+
+		// Queries still run, and are counted against the new statistics.
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.query(out, QueryFactory.create("SELECT * WHERE { ?s <" + DCTerms.title.getURI() + "> ?t ; <"
+				+ DCTerms.subject.getURI() + "> \"rare\" }"), LDPConstants.CT_TEXT_CSV);
+		assertEquals(2, new String(out.toByteArray()).trim().split("\r?\n").length);
+		assertEquals(1, statistics.getQueriesAfter());
+	}
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lyo.ldp.server.LDPConstants;
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.TextIndex;
+import org.eclipse.lyo.ldp.server.jena.vocabulary.LDP;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.DCTerms;
+
+public class TextSearchTest {
+	private static final String CONTAINER = "http://example.com/resources/bugs";
+	private static final String BUG1 = CONTAINER + "/bug1";
+	private static final String BUG2 = CONTAINER + "/bug2";
+	private static final String OTHER = "http://example.com/resources/bug3";
+
+	private TDBGraphStore store = new TDBGraphStore();
+
+	@Before
+	public void load() {
+		Model container = ModelFactory.createDefaultModel();
+		container.getResource(CONTAINER).addProperty(LDP.contains, container.getResource(BUG1))
+				.addProperty(LDP.contains, container.getResource(BUG2));
+		store.writeLock();
+		try {
+			store.putGraph(CONTAINER, container);
+			put(BUG1, "Crash on startup", "The server crashes with a null pointer");
+			put(BUG2, "Slow startup", "Startup takes a minute");
+			put(OTHER, "Crash on shutdown", "Outside the container");
+			store.commit();
+		} finally {
+			store.end();
+		}
+	}
+
+	private void put(String uri, String title, String description) {
+		Model model = ModelFactory.createDefaultModel();
+		model.getResource(uri).addProperty(DCTerms.title, title).addProperty(DCTerms.description, description);
+		store.putGraph(uri, model);
+	}
+
+	private List<String> search(String query, String containerURI) {
+		List<String> uris = new ArrayList<String>();
+		for (TextIndex.Hit hit : store.search(query, containerURI, 0, 10)) {
+			uris.add(hit.uri);
+		}
+		return uris;
+	}
+
+	@Test
+	public void testSearch() {
+		assertEquals(3, search("startup OR crash", null).size());
+		// bug1 matches both words
+		assertEquals(BUG1, search("startup OR crash", null).get(0));
+		List<String> scoped = search("crash", CONTAINER);
+		assertEquals(1, scoped.size());
+		assertEquals(BUG1, scoped.get(0));
+	}
+
+	@Test
+	public void testDelete() {
+		store.writeLock();
+		try {
+			store.deleteGraph(BUG1);
+			store.commit();
+		} finally {
+			store.end();
+		}
+		assertTrue(search("crash", CONTAINER).isEmpty());
+	}
+
+	@Test
+	public void testAbort() {
+		store.writeLock();
+		try {
+			put(BUG2, "Crash", "Not committed");
+			store.abort();
+		} finally {
+			store.end();
+		}
+		assertFalse(search("crash", null).contains(BUG2));
+	}
+
+	@Test
+	public void testPropertyFunction() {
+		String select = "SELECT ?s WHERE { ?s <http://eclipse.org/lyo/ns#textSearch> \"crash\" }";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		store.query(out, store.parseQuery(select), LDPConstants.CT_TEXT_CSV, CONTAINER, false);
+		String csv = out.toString();
+		assertTrue(csv.contains(BUG1));
+		assertFalse(csv.contains(OTHER));
+	}
+
+	@Test
+	public void testRebuild() {
+		assertEquals(4, store.rebuildTextIndex());
+		assertEquals(BUG1, search("crash", CONTAINER).get(0));
+	}
+}
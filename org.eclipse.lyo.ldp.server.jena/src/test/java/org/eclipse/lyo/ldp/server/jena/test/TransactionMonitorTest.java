@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.TransactionMonitor;
+import org.junit.Test;
+
+import org.apache.jena.tdb.TDBFactory;
+
+public class TransactionMonitorTest {
+	@Test
+	public void testWriterAndQueue() throws InterruptedException {
+		final TDBGraphStore store = new TDBGraphStore(TDBFactory.createDataset());
+		final TransactionMonitor monitor = store.getTransactionMonitor();
+		assertNull(monitor.getWriter());
+
+		store.writeLock();
+		final TransactionMonitor.Transaction writer = monitor.getWriter();
+		assertTrue(writer.isWrite());
+		assertSame(Thread.currentThread(), writer.getThread());
+		assertNull(writer.getOperation());
+
+		// Another writer queues behind this one.
+		final CountDownLatch begun = new CountDownLatch(1);
+		final Thread other = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				store.writeLock();
+				begun.countDown();
+				store.end();
+			}
+		});
+		other.start();
+		while (monitor.getWaiting().isEmpty()) {
+			Thread.sleep(1);
+		}
+		assertSame(other, monitor.getWaiting().get(0).getThread());
+		assertEquals(0, monitor.getWaiting().get(0).getHeldMillis());
+
+		// Readers don't wait for the writer.
+		final int[] readers = new int[1];
+		final Thread reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				store.readLock();
+				readers[0] = monitor.getReaders();
+				store.end();
+			}
+		});
+		reader.start();
+		reader.join();
+		assertEquals(1, readers[0]);
+		assertEquals(0, monitor.getReaders());
+
+		store.commit();
+		store.end();
+		begun.await();
+		other.join();
+		assertNull(monitor.getWriter());
+		assertTrue(monitor.getWaiting().isEmpty());
+	}
+}
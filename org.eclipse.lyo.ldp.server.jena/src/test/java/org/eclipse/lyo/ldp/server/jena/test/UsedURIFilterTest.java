@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.jena.test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.lyo.ldp.server.jena.store.TDBGraphStore;
+import org.eclipse.lyo.ldp.server.jena.store.UsedURIFilter;
+import org.junit.Test;
+
+import org.apache.jena.rdf.model.ModelFactory;
+
+public class UsedURIFilterTest {
+	private static final String BUG = "http://example.com/resources/bugs/bug";
+
+	@Test
+	public void testNoFalseNegatives() {
+		UsedURIFilter filter = new UsedURIFilter(10000, null);
+		for (int i = 0; i < 10000; i++) {
+			filter.add(BUG + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(filter.mightContain(BUG + i));
+			if (filter.mightContain(BUG + "x" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue("False positive rate too high: " + falsePositives, falsePositives < 300);
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		File file = File.createTempFile("ldp-uris", ".bloom");
+		UsedURIFilter filter = new UsedURIFilter(100, file);
+		filter.add(BUG + 1);
+		filter.save();
+
+		UsedURIFilter loaded = UsedURIFilter.load(file);
+		assertNotNull(loaded);
+		assertTrue(loaded.mightContain(BUG + 1));
+		// Loading takes the file, so a crash means a rebuild rather than a stale filter.
+		assertFalse(file.exists());
+
+		loaded.save();
+		assertTrue(file.exists());
+		loaded.add(BUG + 2);
+		assertFalse(file.exists());
+		assertNull(UsedURIFilter.load(file));
+	}
+
+	@Test
+	public void testStore() {
+		TDBGraphStore store = new TDBGraphStore();
+		store.writeLock();
+		try {
+			store.putGraph(BUG + 1, ModelFactory.createDefaultModel());
+			store.createCompanionGraph(BUG + 2, BUG + 2 + "?_config");
+			store.commit();
+		} finally {
+			store.end();
+		}
+
+		assertTrue(store.mightHaveBeenUsed(BUG + 1));
+		assertTrue(store.mightHaveBeenUsed(BUG + 2));
+		store.readLock();
+		try {
+			assertTrue(store.previouslyUsed(BUG + 2));
+			assertFalse(store.previouslyUsed(BUG + 3));
+		} finally {
+			store.end();
+		}
+	}
+}
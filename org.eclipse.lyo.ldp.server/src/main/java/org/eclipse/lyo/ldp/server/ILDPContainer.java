@@ -19,8 +19,11 @@ package org.eclipse.lyo.ldp.server;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 
@@ -38,6 +41,66 @@ public interface ILDPContainer extends ILDPRDFSource {
 	public abstract void query(OutputStream outStream, String queryString,
 			String resultsFormat);
 
+	/**
+	 * Execute the specified SPARQL query (SELECT, ASK, CONSTRUCT or DESCRIBE)
+	 * as a SPARQL 1.1 Protocol request. The response format is chosen from
+	 * <code>acceptableTypes</code> and the results are written to the response
+	 * as they are produced rather than buffered. The dataset is the container
+	 * and the resources it contains, directly or through nested containers,
+	 * except for the root container, which queries everything.
+	 * @param queryString the SPARQL query to execute.
+	 * @param parameters the SPARQL protocol parameters of the request, such as
+	 * <code>default-graph-uri</code> and <code>named-graph-uri</code>, and
+	 * optionally <code>companions=true</code> to include companion graphs
+	 * @param acceptableTypes the media types from the Accept header, most preferred first
+	 * @return the HTTP response
+	 */
+	public abstract Response query(String queryString, MultivaluedMap<String, String> parameters,
+			List<MediaType> acceptableTypes);
+
+	/**
+	 * Query the members of the container with the OSLC query parameters
+	 * <code>oslc.where</code>, <code>oslc.select</code>,
+	 * <code>oslc.orderBy</code>, <code>oslc.pageSize</code> and
+	 * <code>oslc.prefix</code>. The response has the containment triples of
+	 * the matching members and the selected properties of each. If the
+	 * results are paged, a <code>Link</code> header with relation
+	 * <code>next</code> points to the next page.
+	 * @param contentType the RDF content type of the response, or null for Turtle
+	 * @param parameters the query parameters of the request
+	 * @return the HTTP response
+	 */
+	public abstract Response queryMembers(String contentType, MultivaluedMap<String, String> parameters);
+
+	/**
+	 * Full-text search of the container and the resources below it, best
+	 * matches first. The response has the score of each matching resource.
+	 * If the results are paged, a <code>Link</code> header with relation
+	 * <code>next</code> points to the next page.
+	 * @param contentType the RDF content type of the response, or null for Turtle
+	 * @param parameters the query parameters of the request, including
+	 * <code>search</code> and <code>page</code>
+	 * @return the HTTP response
+	 */
+	public abstract Response search(String contentType, MultivaluedMap<String, String> parameters);
+
+	/**
+	 * Follow the changes committed to the container and the resources below
+	 * it. For <code>text/event-stream</code>, the response is a stream of
+	 * Server-Sent Events, one per change, each with an ID a client can
+	 * resume after using the <code>Last-Event-ID</code> header. For JSON,
+	 * the request waits until there is at least one change (long polling).
+	 * Change IDs survive a restart, so a client that was away can catch up
+	 * from the last ID it saw, getting the latest change to each resource.
+	 * @param contentType <code>text/event-stream</code> or <code>application/json</code>
+	 * @param parameters the query parameters of the request, optionally
+	 * <code>since</code> with the ID of the last change seen and, for JSON,
+	 * <code>wait</code> with the most seconds to wait
+	 * @param lastEventID the <code>Last-Event-ID</code> request header, or null
+	 * @return the HTTP response
+	 */
+	public abstract Response getChanges(String contentType, MultivaluedMap<String, String> parameters, String lastEventID);
+
 	/**
 	 * Post a new member to the container.
 	 * <p>The Content-Type of the input stream is specified by the
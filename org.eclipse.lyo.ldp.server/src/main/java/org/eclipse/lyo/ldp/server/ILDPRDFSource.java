@@ -15,6 +15,19 @@
  *******************************************************************************/
 package org.eclipse.lyo.ldp.server;
 
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
 public interface ILDPRDFSource extends ILDPResource {
 
+	/**
+	 * Lists the triples in other resources that refer to this resource, that
+	 * is, the triples with this resource as object. The results are paged.
+	 * If there are more, a <code>Link</code> header with relation
+	 * <code>next</code> points to the next page.
+	 * @param contentType the RDF content type of the response, or null for Turtle
+	 * @param parameters the query parameters of the request, including <code>page</code>
+	 * @return the HTTP response
+	 */
+	public abstract Response getInboundReferences(String contentType, MultivaluedMap<String, String> parameters);
 }
\ No newline at end of file
@@ -47,9 +47,19 @@ public class LDPConstants
 	public static final String CT_APPLICATION_SPARQLQUERY = "application/sparql-query";
 	public static final String CT_APPLICATION_SPARQLRESULTSXML = "application/sparql-results+xml";
 	public static final String CT_APPLICATION_SPARQLRESULTSJSON = "application/sparql-results+json";
+	public static final String CT_APPLICATION_SPARQLRESULTSTHRIFT = "application/sparql-results+thrift";
+	public static final String CT_APPLICATION_NTRIPLES = "application/n-triples";
+	public static final String CT_APPLICATION_RDFTHRIFT = "application/rdf+thrift";
+	public static final String CT_APPLICATION_TRIG = "application/trig";
+	public static final String CT_APPLICATION_NQUADS = "application/n-quads";
+	public static final String CT_APPLICATION_FORM_URLENCODED = MediaType.APPLICATION_FORM_URLENCODED;
+	public static final String CT_TEXT_CSV = "text/csv";
+	public static final String CT_TEXT_TSV = "text/tab-separated-values";
 	public static final String CT_TEXT_HTML = MediaType.TEXT_HTML;
 	public static final String CT_TEXT_TURTLE = "text/turtle";
 	public static final String CT_TEXT_TRIG = "text/trig";
+	public static final String CT_TEXT_URI_LIST = "text/uri-list";
+	public static final String CT_TEXT_EVENT_STREAM = "text/event-stream";
 
 	// HTTP Headers
 	public static final String HDR_ALLOW = "Allow";
@@ -60,6 +70,8 @@ public class LDPConstants
 	public static final String HDR_SLUG = "Slug";
 	public static final String HDR_PREFER = "Prefer";
 	public static final String HDR_PREFERENCE_APPLIED = "Preference-Applied";
+	public static final String HDR_LAST_EVENT_ID = "Last-Event-ID";
+	public static final String HDR_REPLICATION_POSITION = "Lyo-Replication-Position";
 
 	// Link relations
 	public static final String LINK_PARAM_ANCHOR = "anchor";
@@ -114,6 +126,18 @@ public class LDPConstants
 	public static final String PREFER_MEMBERSHIP = nsName("PreferMembership");
 	public static final String PREFER_MINIMAL_CONTAINER = nsName("PreferMinimalContainer");
 
+	/**
+	 * Include the representation of each contained resource in a container
+	 * response. From the LDP Paging drafts; not part of LDP 1.0.
+	 */
+	public static final String PREFER_CONTAINED_DESCRIPTIONS = nsName("PreferContainedDescriptions");
+
+	/**
+	 * Include the triples in other resources that refer to this resource
+	 * (its inbound references). Not part of LDP.
+	 */
+	public static final String PREFER_INBOUND_REFERENCES = "http://eclipse.org/lyo/ns#PreferInboundReferences";
+
 	/**
 	 * Deprecated in LDP, but still supported by this reference implementation. The
 	 * equivalent term that should be used instead is
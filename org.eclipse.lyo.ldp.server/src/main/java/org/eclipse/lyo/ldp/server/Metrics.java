@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and timers for the server, written in the Prometheus text
+ * exposition format.
+ * <p>
+ * A metric is identified by its name and labels, given as pairs of label
+ * name and value. Asking for the same name and labels again returns the same
+ * metric, so callers can look metrics up where they are used or keep them in
+ * fields. Values that are already counted elsewhere, such as cache hits, are
+ * registered as {@link Value}s and read when the metrics are written.
+ */
+public class Metrics {
+	/**
+	 * The type of a metric family, as written in its <code># TYPE</code> line.
+	 */
+	public enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+	/**
+	 * Upper bounds in seconds of the timer buckets, the Prometheus client defaults.
+	 */
+	private static final double[] BUCKETS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+	private static final Metrics instance = new Metrics();
+
+	private final ConcurrentMap<String, Family> fFamilies = new ConcurrentHashMap<String, Family>();
+
+	public static Metrics getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param name the metric name, ending in <code>_total</code> by convention
+	 * @param help a description of the metric
+	 * @param labels label names and values, alternating
+	 */
+	public Counter counter(String name, String help, String... labels) {
+		final Family family = getFamily(name, help, Type.COUNTER);
+		final String key = formatLabels(labels);
+		Object metric = family.fMetrics.get(key);
+		if (metric == null) {
+			final Object previous = family.fMetrics.putIfAbsent(key, metric = new Counter());
+			if (previous != null) {
+				metric = previous;
+			}
+		}
+
+		return (Counter) metric;
+	}
+
+	/**
+	 * @param name the metric name, ending in <code>_seconds</code> by convention
+	 * @param help a description of the metric
+	 * @param labels label names and values, alternating
+	 */
+	public Timer timer(String name, String help, String... labels) {
+		final Family family = getFamily(name, help, Type.HISTOGRAM);
+		final String key = formatLabels(labels);
+		Object metric = family.fMetrics.get(key);
+		if (metric == null) {
+			final Object previous = family.fMetrics.putIfAbsent(key, metric = new Timer());
+			if (previous != null) {
+				metric = previous;
+			}
+		}
+
+		return (Timer) metric;
+	}
+
+	/**
+	 * Registers a value that is read when the metrics are written, replacing
+	 * the one registered before with the same name and labels.
+	 *
+	 * @param name the metric name
+	 * @param help a description of the metric
+	 * @param type {@link Type#COUNTER} if the value only ever increases, otherwise {@link Type#GAUGE}
+	 * @param value the value
+	 * @param labels label names and values, alternating
+	 */
+	public void register(String name, String help, Type type, Value value, String... labels) {
+		if (type == Type.HISTOGRAM) {
+			throw new IllegalArgumentException("Histograms are recorded with a Timer");
+		}
+		getFamily(name, help, type).fMetrics.put(formatLabels(labels), value);
+	}
+
+	private Family getFamily(String name, String help, Type type) {
+		Family family = fFamilies.get(name);
+		if (family == null) {
+			final Family previous = fFamilies.putIfAbsent(name, family = new Family(help, type));
+			if (previous != null) {
+				family = previous;
+			}
+		}
+		if (family.fType != type) {
+			throw new IllegalArgumentException(name + " is a " + family.fType.name().toLowerCase());
+		}
+
+		return family;
+	}
+
+	/**
+	 * Writes every metric in the Prometheus text format, version 0.0.4.
+	 */
+	public void write(Writer out) throws IOException {
+		for (Map.Entry<String, Family> entry : new TreeMap<String, Family>(fFamilies).entrySet()) {
+			final String name = entry.getKey();
+			final Family family = entry.getValue();
+			out.write("# HELP " + name + " " + family.fHelp.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+			out.write("# TYPE " + name + " " + family.fType.name().toLowerCase() + "\n");
+			for (Map.Entry<String, Object> metric : new TreeMap<String, Object>(family.fMetrics).entrySet()) {
+				final String labels = metric.getKey();
+				final Object value = metric.getValue();
+				if (value instanceof Counter) {
+					writeSample(out, name, labels, null, ((Counter) value).get());
+				} else if (value instanceof Value) {
+					writeSample(out, name, labels, null, ((Value) value).get());
+				} else {
+					((Timer) value).write(out, name, labels);
+				}
+			}
+		}
+	}
+
+	private static void writeSample(Writer out, String name, String labels, String extraLabel, double value) throws IOException {
+		out.write(name);
+		if (!labels.isEmpty() || extraLabel != null) {
+			out.write('{');
+			out.write(labels);
+			if (extraLabel != null) {
+				out.write(labels.isEmpty() ? extraLabel : "," + extraLabel);
+			}
+			out.write('}');
+		}
+		out.write(' ');
+		out.write(formatValue(value));
+		out.write('\n');
+	}
+
+	private static String formatValue(double value) {
+		if (value == Double.POSITIVE_INFINITY) {
+			return "+Inf";
+		}
+		if (value == (long) value) {
+			return Long.toString((long) value);
+		}
+
+		return Double.toString(value);
+	}
+
+	private static String formatLabels(String... labels) {
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be name and value pairs");
+		}
+		final StringBuilder b = new StringBuilder();
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) {
+				b.append(',');
+			}
+			b.append(labels[i]).append("=\"")
+				.append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+				.append('"');
+		}
+
+		return b.toString();
+	}
+
+	private static class Family {
+		final String fHelp;
+		final Type fType;
+		final ConcurrentMap<String, Object> fMetrics = new ConcurrentHashMap<String, Object>(); // Keyed by formatted labels
+
+		Family(String help, Type type) {
+			fHelp = help;
+			fType = type;
+		}
+	}
+
+	/**
+	 * A value that is read when the metrics are written.
+	 */
+	public interface Value {
+		double get();
+	}
+
+	public static class Counter {
+		private final AtomicLong fCount = new AtomicLong();
+
+		public void increment() {
+			fCount.incrementAndGet();
+		}
+
+		public void add(long n) {
+			fCount.addAndGet(n);
+		}
+
+		public long get() {
+			return fCount.get();
+		}
+	}
+
+	/**
+	 * Counts durations in buckets, written as a Prometheus histogram in seconds.
+	 */
+	public static class Timer {
+		private final AtomicLongArray fBuckets = new AtomicLongArray(BUCKETS.length + 1); // The last is +Inf
+		private final AtomicLong fCount = new AtomicLong();
+		private final AtomicLong fSum = new AtomicLong(); // Nanoseconds
+
+		/**
+		 * @param nanos the duration, as a difference of {@link System#nanoTime()}s
+		 */
+		public void record(long nanos) {
+			final double seconds = nanos / 1e9;
+			int i = 0;
+			while (i < BUCKETS.length && seconds > BUCKETS[i]) {
+				i++;
+			}
+			fBuckets.incrementAndGet(i);
+			fSum.addAndGet(nanos);
+			fCount.incrementAndGet();
+		}
+
+		/**
+		 * Records the time since <code>start</code>.
+		 *
+		 * @param start a {@link System#nanoTime()}
+		 */
+		public void recordSince(long start) {
+			record(System.nanoTime() - start);
+		}
+
+		public long getCount() {
+			return fCount.get();
+		}
+
+		/**
+		 * @return the total of the recorded durations in nanoseconds
+		 */
+		public long getSum() {
+			return fSum.get();
+		}
+
+		void write(Writer out, String name, String labels) throws IOException {
+			long cumulative = 0;
+			for (int i = 0; i <= BUCKETS.length; i++) {
+				cumulative += fBuckets.get(i);
+				final double bound = (i < BUCKETS.length) ? BUCKETS[i] : Double.POSITIVE_INFINITY;
+				writeSample(out, name + "_bucket", labels, "le=\"" + formatValue(bound) + "\"", cumulative);
+			}
+			writeSample(out, name + "_sum", labels, null, fSum.get() / 1e9);
+			// The bucket total rather than fCount, so they agree if a duration is recorded in between.
+			writeSample(out, name + "_count", labels, null, cumulative);
+		}
+	}
+}
@@ -27,11 +27,11 @@
  *******************************************************************************/
 package org.eclipse.lyo.ldp.server.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URLDecoder;
 import java.security.Principal;
 import java.util.List;
 
@@ -50,15 +50,16 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
-import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.lyo.ldp.server.ILDPContainer;
+import org.eclipse.lyo.ldp.server.ILDPRDFSource;
 import org.eclipse.lyo.ldp.server.ILDPResource;
 import org.eclipse.lyo.ldp.server.LDPConstants;
 import org.eclipse.lyo.ldp.server.LDPNonRDFSource;
@@ -72,6 +73,72 @@ public abstract class LDPService {
 	public static final  String LDP_CONTENT_SEGMENT = "ldp.contseg";
 	public static final  String LDP_ROOTURI = "ldp.rooturi";
 
+	/**
+	 * Path segment, relative to the root container, of the SPARQL endpoint.
+	 */
+	public static final String SPARQL_ENDPOINT = "sparql";
+
+	// SPARQL 1.1 Protocol parameters
+	public static final String PARAM_QUERY = "query";
+	public static final String PARAM_DEFAULT_GRAPH_URI = "default-graph-uri";
+	public static final String PARAM_NAMED_GRAPH_URI = "named-graph-uri";
+
+	/**
+	 * Query parameter that makes a container a SPARQL endpoint over its
+	 * subtree, for example <code>/resources/bugs?sparql&amp;query=...</code>
+	 */
+	public static final String PARAM_SPARQL = "sparql";
+
+	/**
+	 * Set to <code>true</code> to include companion graphs (such as
+	 * <code>?_config</code>) in a container query.
+	 */
+	public static final String PARAM_COMPANIONS = "companions";
+
+	/**
+	 * Prefix of query parameters that bind a query variable, for example
+	 * <code>$bug=&lt;http://example.com/resources/bug1&gt;</code>. The value
+	 * is an RDF term in SPARQL syntax.
+	 */
+	public static final String PARAM_BINDING_PREFIX = "$";
+
+	/**
+	 * Prefix of the OSLC query parameters, such as <code>oslc.where</code>,
+	 * that query the members of a container.
+	 */
+	public static final String PARAM_OSLC_PREFIX = "oslc.";
+
+	/**
+	 * Query parameter that lists the inbound references of a resource, for
+	 * example <code>/resources/bugs/bug1?inbound&amp;page=2</code>
+	 */
+	public static final String PARAM_INBOUND = "inbound";
+
+	/**
+	 * Query parameter for a full-text search of a container, for example
+	 * <code>/resources/bugs?search=crash</code>
+	 */
+	public static final String PARAM_SEARCH = "search";
+
+	/**
+	 * Query parameter to follow the changes to a container subtree, for
+	 * example <code>/resources/bugs?changes</code>
+	 */
+	public static final String PARAM_CHANGES = "changes";
+
+	/**
+	 * Query parameter with the ID of the last change a client saw, for
+	 * clients that can't send the <code>Last-Event-ID</code> header
+	 */
+	public static final String PARAM_SINCE = "since";
+
+	/**
+	 * Query parameter with the most seconds to wait for a change when long
+	 * polling, for example <code>?changes&amp;since=42&amp;wait=0</code> to
+	 * catch up without waiting
+	 */
+	public static final String PARAM_WAIT = "wait";
+
 	/**
 	 * Regular expression that matches Link headers with URI
 	 * {@link LDPConstants#CLASS_RESOURCE} and linknrelation {@code "type"}. These all match:
@@ -149,6 +216,19 @@ public abstract class LDPService {
 		return getResource(LDPConstants.CT_APPLICATION_RDFXML);
 	}
 
+	@GET
+	@Produces({ LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON, LDPConstants.CT_APPLICATION_SPARQLRESULTSXML,
+		LDPConstants.CT_APPLICATION_SPARQLRESULTSTHRIFT, LDPConstants.CT_TEXT_CSV, LDPConstants.CT_TEXT_TSV })
+	public Response getQueryResults() {
+		return getResource(null);
+	}
+
+	@GET
+	@Produces(LDPConstants.CT_TEXT_EVENT_STREAM)
+	public Response getEventStream() {
+		return getResource(LDPConstants.CT_TEXT_EVENT_STREAM);
+	}
+
 	@GET
 	@Produces("*/*")
 	public Response getNonRdfSource() {
@@ -265,23 +345,153 @@ public abstract class LDPService {
 	@POST
 	@Path("{id:.*}")
 	@Consumes(LDPConstants.CT_APPLICATION_SPARQLQUERY)
-	@Produces(LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON)
-	public StreamingOutput postQuery(final InputStream content, @PathParam("id") String id) {
-		//TODO Implement complete SPARQL protocol. This impl only supports SELECT queries via POST directly.
-		if ("sparql".equals(id))
-			return new StreamingOutput() {
-				public void write(OutputStream output) throws IOException, WebApplicationException {
-					try {
-						ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-						IOUtils.copy(content, byteStream);
-						getRootContainer().query(output, byteStream.toString(), LDPConstants.CT_APPLICATION_SPARQLRESULTSJSON);
-					} catch (Exception e) { 
-						throw new WebApplicationException(Response.status(Status.BAD_REQUEST).build()); 
-					}
-				}
-			};
-		else 
-			return null;
+	public Response postQuery(final InputStream content, @PathParam("id") String id) throws IOException {
+		if (!isQueryEndpoint()) {
+			return Response.status(Status.UNSUPPORTED_MEDIA_TYPE).build();
+		}
+
+		return query(IOUtils.toString(content, "UTF-8"), fRequestUrl.getQueryParameters());
+	}
+
+	/*
+	 * POST a SPARQL query using the application/x-www-form-urlencoded
+	 * encoding. Anything else posted as a form is treated as a non-RDF source.
+	 */
+	@POST
+	@Consumes(LDPConstants.CT_APPLICATION_FORM_URLENCODED)
+	public Response postForm(@HeaderParam(LDPConstants.HDR_SLUG) String slug, InputStream content) throws IOException {
+		if (!isQueryEndpoint()) {
+			return postNonRDFSource(slug, content);
+		}
+
+		final MultivaluedMap<String, String> form = parseForm(IOUtils.toString(content, "UTF-8"));
+		return query(form.getFirst(PARAM_QUERY), form);
+	}
+
+	/**
+	 * Runs a SPARQL protocol request against the root container, or against
+	 * the request container for a container query.
+	 *
+	 * @param queryString the query, or null if missing from the request
+	 * @param parameters the protocol parameters of the request
+	 * @return the response
+	 */
+	protected Response query(String queryString, MultivaluedMap<String, String> parameters) {
+		if (queryString == null || queryString.trim().isEmpty()) {
+			return Response.status(Status.BAD_REQUEST).entity("Missing SPARQL query").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		final ILDPContainer ldpC;
+		if (SPARQL_ENDPOINT.equals(fPath)) {
+			ldpC = getRootContainer();
+		} else {
+			// A container query, <container>?sparql
+			ILDPResource ldpR = getResourceManger().get(getConanicalURL(fRequestUrl.getAbsolutePath()));
+			if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
+			if (!(ldpR instanceof ILDPContainer)) {
+				return Response.status(Status.BAD_REQUEST).entity("Not a container").type(MediaType.TEXT_PLAIN).build();
+			}
+			ldpC = (ILDPContainer) ldpR;
+		}
+
+		return ldpC.query(queryString, parameters, fRequestHeaders.getAcceptableMediaTypes());
+	}
+
+	/**
+	 * @return true iff the request is for the SPARQL endpoint or a container query
+	 */
+	protected boolean isQueryEndpoint() {
+		return SPARQL_ENDPOINT.equals(fPath) || fRequestUrl.getQueryParameters().containsKey(PARAM_SPARQL);
+	}
+
+	/**
+	 * @return true iff the request has OSLC query parameters
+	 */
+	protected boolean isMemberQuery() {
+		for (String name : fRequestUrl.getQueryParameters().keySet()) {
+			if (name.startsWith(PARAM_OSLC_PREFIX)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Queries the members of the request container.
+	 *
+	 * @param type the content type of the response, or null for the default
+	 * @return the response
+	 */
+	protected Response queryMembers(String type) {
+		ILDPResource ldpR = getResourceManger().get(getConanicalURL(fRequestUrl.getAbsolutePath()));
+		if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
+		if (!(ldpR instanceof ILDPContainer)) {
+			return Response.status(Status.BAD_REQUEST).entity("Not a container").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		return ((ILDPContainer) ldpR).queryMembers(type, fRequestUrl.getQueryParameters());
+	}
+
+	/**
+	 * Follows the changes to the request container.
+	 *
+	 * @param type the content type of the response, or null for the default
+	 * @return the response
+	 */
+	protected Response getChanges(String type) {
+		ILDPResource ldpR = getResourceManger().get(getConanicalURL(fRequestUrl.getAbsolutePath()));
+		if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
+		if (!(ldpR instanceof ILDPContainer)) {
+			return Response.status(Status.BAD_REQUEST).entity("Not a container").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		return ((ILDPContainer) ldpR).getChanges(type, fRequestUrl.getQueryParameters(),
+				fRequestHeaders.getHeaderString(LDPConstants.HDR_LAST_EVENT_ID));
+	}
+
+	/**
+	 * Full-text search of the request container.
+	 *
+	 * @param type the content type of the response, or null for the default
+	 * @return the response
+	 */
+	protected Response search(String type) {
+		ILDPResource ldpR = getResourceManger().get(getConanicalURL(fRequestUrl.getAbsolutePath()));
+		if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
+		if (!(ldpR instanceof ILDPContainer)) {
+			return Response.status(Status.BAD_REQUEST).entity("Not a container").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		return ((ILDPContainer) ldpR).search(type, fRequestUrl.getQueryParameters());
+	}
+
+	/**
+	 * Lists the inbound references of the request resource.
+	 *
+	 * @param type the content type of the response, or null for the default
+	 * @return the response
+	 */
+	protected Response getInboundReferences(String type) {
+		ILDPResource ldpR = getResourceManger().get(getConanicalURL(fRequestUrl.getAbsolutePath()));
+		if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
+		if (!(ldpR instanceof ILDPRDFSource)) {
+			return Response.status(Status.BAD_REQUEST).entity("Not an RDF source").type(MediaType.TEXT_PLAIN).build();
+		}
+
+		return ((ILDPRDFSource) ldpR).getInboundReferences(type, fRequestUrl.getQueryParameters());
+	}
+
+	static MultivaluedMap<String, String> parseForm(String body) throws UnsupportedEncodingException {
+		MultivaluedHashMap<String, String> form = new MultivaluedHashMap<String, String>();
+		for (String pair : body.split("&")) {
+			if (pair.isEmpty()) continue;
+			String[] nameAndValue = pair.split("=", 2);
+			String value = (nameAndValue.length == 2) ? URLDecoder.decode(nameAndValue[1], "UTF-8") : "";
+			form.add(URLDecoder.decode(nameAndValue[0], "UTF-8"), value);
+		}
+
+		return form;
 	}
 
 	/*
@@ -299,6 +509,17 @@ public abstract class LDPService {
 		ILDPResource ldpR = getResourceManger().get(uri);
 		if (ldpR == null) return Response.status(Status.NOT_FOUND).build();
 		// FIXME: Check if this is the root container before allowing delete.
+		return delete(ldpR);
+	}
+
+	/**
+	 * Deletes a resource. The response is 204 No Content unless the
+	 * implementation finishes the delete in the background.
+	 *
+	 * @param ldpR the resource
+	 * @return the response
+	 */
+	protected Response delete(ILDPResource ldpR) {
 		ldpR.delete();
 		return Response.status(Status.NO_CONTENT).build();
 	}
@@ -313,6 +534,21 @@ public abstract class LDPService {
 	}
 	
 	private Response getResource(final String type) {	
+		if (isQueryEndpoint()) {
+			return query(fRequestUrl.getQueryParameters().getFirst(PARAM_QUERY), fRequestUrl.getQueryParameters());
+		}
+		if (isMemberQuery()) {
+			return queryMembers(type);
+		}
+		if (fRequestUrl.getQueryParameters().containsKey(PARAM_CHANGES)) {
+			return getChanges(type);
+		}
+		if (fRequestUrl.getQueryParameters().containsKey(PARAM_SEARCH)) {
+			return search(type);
+		}
+		if (fRequestUrl.getQueryParameters().containsKey(PARAM_INBOUND)) {
+			return getInboundReferences(type);
+		}
 		String resourceURI = getConanicalURL(fRequestUrl.getRequestUri());
 		ILDPResource ldpR = getResourceManger().get(resourceURI);
 		log.info("Resource {}={}", resourceURI, ldpR);
@@ -330,8 +566,19 @@ public abstract class LDPService {
 	 * @see <a href="http://tools.ietf.org/html/draft-snell-http-prefer-12">Prefer Header for HTTP</a>
 	 */
 	protected MultivaluedMap<String, String> getPreferencesFromRequest() {
+		return parsePreferences(fRequestHeaders.getRequestHeaders().get(LDPConstants.HDR_PREFER));
+	}
+
+	/**
+	 * Parses the values of the HTTP <code>Prefer</code> header.
+	 *
+	 * @param preferences the header values, or null if there are none
+	 * @return the preferences by name
+	 *
+	 * @see #getPreferencesFromRequest()
+	 */
+	public static MultivaluedMap<String, String> parsePreferences(List<String> preferences) {
 		MultivaluedHashMap<String, String> preferencesMap = new MultivaluedHashMap<String, String>();
-		List<String> preferences = fRequestHeaders.getRequestHeaders().get(LDPConstants.HDR_PREFER);
 		if (preferences != null) {
 			for (String preference : preferences) {
 				// for example...
@@ -368,8 +615,14 @@ public abstract class LDPService {
 	}
 	
 	String getConanicalURL(URI url) {
-		// TODO: Map request URL to the URL prefix that is stored in repo
-		return url.toString();
+		// Map the request URL to the URL prefix that is stored in the repo, in
+		// case the request came in at another address, such as a replica's.
+		final String base = fRequestUrl.getBaseUri().toString();
+		final String result = url.toString();
+		if (!base.equals(ROOT_CONTAINER_URL) && result.startsWith(base)) {
+			return ROOT_CONTAINER_URL + result.substring(base.length());
+		}
+		return result;
 	}
 	
 	public static String encodeAccept(String[] contentTypes) {
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Contributors to the Eclipse Foundation.
+ *
+ *	All rights reserved. This program and the accompanying materials
+ *	are made available under the terms of the Eclipse Public License v1.0
+ *	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+ *
+ *	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+ *	and the Eclipse Distribution License is available at
+ *	http://www.eclipse.org/org/documents/edl-v10.php.
+ *******************************************************************************/
+package org.eclipse.lyo.ldp.server.service;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.eclipse.lyo.ldp.server.Metrics;
+
+/**
+ * Times every JAX-RS operation, such as {@link LDPService#getTextTurtle()},
+ * from when it is matched until its response entity is written. The timers
+ * are labelled with the resource class, the Java method, and the response
+ * status.
+ * <p>
+ * While a request is handled, {@link #getOperation()} and
+ * {@link #getRequestURI()} tell the store who its transactions are for.
+ */
+@Provider
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+	public static final String REQUEST_SECONDS = "ldp_request_seconds";
+
+	private static final String START = MetricsFilter.class.getName() + ".start";
+
+	/**
+	 * The timer and start of a response being written. CXF doesn't share the
+	 * request properties with writer interceptors, but writes the response on
+	 * the thread that filtered it.
+	 */
+	private static final ThreadLocal<Object[]> writing = new ThreadLocal<Object[]>();
+
+	/**
+	 * The operation and request URI of the request the thread is handling.
+	 */
+	private static final ThreadLocal<String[]> operation = new ThreadLocal<String[]>();
+
+	@Context ResourceInfo fResourceInfo;
+
+	@Override
+	public void filter(ContainerRequestContext requestContext) throws IOException {
+		requestContext.setProperty(START, System.nanoTime());
+		final Method method = (fResourceInfo == null) ? null : fResourceInfo.getResourceMethod();
+		operation.set(new String[] {
+				requestContext.getMethod() + ((method == null) ? "" : " " + fResourceInfo.getResourceClass().getSimpleName() + "." + method.getName()),
+				requestContext.getUriInfo().getRequestUri().toString() });
+	}
+
+	/**
+	 * @return the HTTP method and JAX-RS operation of the request the current
+	 *         thread is handling, for example
+	 *         <code>POST JenaLDPService.post</code>, or null if it isn't handling one
+	 */
+	public static String getOperation() {
+		final String[] current = operation.get();
+		return (current == null) ? null : current[0];
+	}
+
+	/**
+	 * @return the URI of the request the current thread is handling, or null
+	 */
+	public static String getRequestURI() {
+		final String[] current = operation.get();
+		return (current == null) ? null : current[1];
+	}
+
+	@Override
+	public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+		writing.remove();
+		final Long start = (Long) requestContext.getProperty(START);
+		final Method method = (fResourceInfo == null) ? null : fResourceInfo.getResourceMethod();
+		if (start == null || method == null) {
+			// Not matched, or aborted before matching.
+			return;
+		}
+
+		final Metrics.Timer timer = Metrics.getInstance().timer(REQUEST_SECONDS, "JAX-RS operations, until the response is written.",
+				"resource", fResourceInfo.getResourceClass().getSimpleName(),
+				"op", method.getName(),
+				"status", Integer.toString(responseContext.getStatus()));
+		if (responseContext.hasEntity()) {
+			// Streamed responses do most of their work as they're written.
+			writing.set(new Object[] { timer, start });
+		} else {
+			timer.recordSince(start);
+			operation.remove();
+		}
+	}
+
+	@Override
+	public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+		try {
+			context.proceed();
+		} finally {
+			operation.remove();
+			final Object[] timing = writing.get();
+			if (timing != null) {
+				writing.remove();
+				((Metrics.Timer) timing[0]).recordSince((Long) timing[1]);
+			}
+		}
+	}
+}
@@ -23,8 +23,12 @@ import java.util.Set;
 
 import javax.ws.rs.core.Application;
 
+import org.eclipse.lyo.ldp.server.jena.JenaLDPAdminService;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPBatchService;
+import org.eclipse.lyo.ldp.server.jena.JenaLDPReplicationFilter;
 import org.eclipse.lyo.ldp.server.jena.JenaLDPService;
 import org.eclipse.lyo.ldp.server.service.HttpHeaderResponseFilter;
+import org.eclipse.lyo.ldp.server.service.MetricsFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,7 +41,11 @@ public class LDPApplication extends Application {
 	    log.info("Returning application classes");
 		Set<Class<?>> classes = new HashSet<Class<?>>();
 		classes.add(JenaLDPService.class);
+		classes.add(JenaLDPAdminService.class);
+		classes.add(JenaLDPBatchService.class);
 		classes.add(HttpHeaderResponseFilter.class);
+		classes.add(JenaLDPReplicationFilter.class);
+		classes.add(MetricsFilter.class);
 		return classes;
 	}
 
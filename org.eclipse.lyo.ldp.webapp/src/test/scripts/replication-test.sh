@@ -0,0 +1,96 @@
+#!/bin/sh
+###############################################################################
+# Copyright (c) 2026 Contributors to the Eclipse Foundation.
+#
+#	All rights reserved. This program and the accompanying materials
+#	are made available under the terms of the Eclipse Public License v1.0
+#	and Eclipse Distribution License v. 1.0 which accompanies this distribution.
+#
+#	The Eclipse Public License is available at http://www.eclipse.org/legal/epl-v10.html
+#	and the Eclipse Distribution License is available at
+#	http://www.eclipse.org/org/documents/edl-v10.php.
+###############################################################################
+#
+# Starts a replication leader and a follower in separate JVMs with
+# jetty:run, creates a resource on the leader and reads it back from the
+# follower. Not part of the Maven build. Install the other modules first
+# (mvn install in org.eclipse.lyo.ldp.build), then run from
+# org.eclipse.lyo.ldp.webapp:
+#
+#   sh src/test/scripts/replication-test.sh
+#
+# LEADER_PORT and FOLLOWER_PORT default to 8080 and 8081. Extra arguments
+# are passed to mvn, for example -o.
+
+LEADER_PORT=${LEADER_PORT:-8080}
+FOLLOWER_PORT=${FOLLOWER_PORT:-8081}
+ROOT_URI=http://localhost:$LEADER_PORT/ldp
+LEADER=$ROOT_URI/resources/
+FOLLOWER=http://localhost:$FOLLOWER_PORT/ldp/resources/
+
+WORK=$(mktemp -d)
+LEADER_PID=
+FOLLOWER_PID=
+
+cleanup() {
+	[ -n "$FOLLOWER_PID" ] && kill "$FOLLOWER_PID" 2>/dev/null
+	[ -n "$LEADER_PID" ] && kill "$LEADER_PID" 2>/dev/null
+	wait 2>/dev/null
+	rm -rf "$WORK"
+}
+trap cleanup EXIT INT TERM
+
+fail() {
+	echo "FAIL: $1"
+	echo "Server logs are in $WORK"
+	tail -n 20 "$WORK"/*.log
+	trap - EXIT
+	[ -n "$FOLLOWER_PID" ] && kill "$FOLLOWER_PID" 2>/dev/null
+	[ -n "$LEADER_PID" ] && kill "$LEADER_PID" 2>/dev/null
+	exit 1
+}
+
+# Waits up to 120 seconds for a URL to answer 200 OK.
+await() {
+	i=0
+	while [ "$(curl -s -o /dev/null -w '%{http_code}' "$1")" != "200" ]; do
+		i=$((i + 1))
+		[ $i -gt 120 ] && fail "$1 did not start"
+		sleep 1
+	done
+}
+
+echo "Starting leader on port $LEADER_PORT"
+mvn -B "$@" jetty:run -Djetty.http.port="$LEADER_PORT" -Dldp.rooturi="$ROOT_URI" \
+	-Dldp.replication=leader -Dldp.dataset.dir="$WORK/leader" > "$WORK/leader.log" 2>&1 &
+LEADER_PID=$!
+await "$LEADER"
+
+# A follower has the leader's root URI, since resource URIs are the leader's.
+echo "Starting follower on port $FOLLOWER_PORT"
+mvn -B "$@" jetty:run -Djetty.http.port="$FOLLOWER_PORT" -Dldp.rooturi="$ROOT_URI" \
+	-Dldp.replication=follower -Dldp.replication.leader="$LEADER" \
+	-Dldp.dataset.dir="$WORK/follower" > "$WORK/follower.log" 2>&1 &
+FOLLOWER_PID=$!
+await "$FOLLOWER"
+
+echo "Creating a resource on the leader"
+curl -s -o /dev/null -D "$WORK/post.txt" -X POST -H "Content-Type: text/turtle" -H "Slug: replicated" \
+	--data-binary '<> <http://purl.org/dc/terms/title> "Replicated" .' "$LEADER"
+LOCATION=$(grep -i '^Location:' "$WORK/post.txt" | cut -d' ' -f2 | tr -d '\r')
+POSITION=$(grep -i '^Lyo-Replication-Position:' "$WORK/post.txt" | cut -d' ' -f2 | tr -d '\r')
+[ -n "$LOCATION" ] || fail "POST to the leader did not create a resource"
+[ -n "$POSITION" ] || fail "POST to the leader did not return a replication position"
+
+# Read your own write: the follower waits until it has the position.
+echo "Reading $LOCATION from the follower at position $POSITION"
+PATH_INFO=${LOCATION#$LEADER}
+BODY=$(curl -s -H "Accept: text/turtle" -H "Lyo-Replication-Position: $POSITION" -w '\n%{http_code}' "$FOLLOWER$PATH_INFO")
+[ "$(echo "$BODY" | tail -n 1)" = "200" ] || fail "follower answered $(echo "$BODY" | tail -n 1)"
+echo "$BODY" | grep -q '"Replicated"' || fail "follower does not have the resource"
+
+echo "Checking that the follower redirects writes"
+STATUS=$(curl -s -o /dev/null -w '%{http_code}' -X DELETE "$FOLLOWER$PATH_INFO")
+[ "$STATUS" = "307" ] || fail "DELETE on the follower answered $STATUS"
+
+echo "PASS"